@@ -0,0 +1,249 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.buffer.FloatNativeBuffer;
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.INativeBufferProvider;
+import io.github.dsheirer.preference.source.ChannelizerType;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the polyphase channelizer against the fast convolution channelizer across tuner sample rates and channel
+ * counts.
+ *
+ * Each benchmark operation delivers one tuner sample buffer and the score is tuner buffers per second.  Multiply the
+ * score by the buffer size and divide by the sample rate for the real-time factor.  Channel output processing occurs
+ * on the channelizer and channel dispatcher threads, so each invocation waits until the channel outputs are within a
+ * fixed number of samples of the expected output.  This bounds the processing backlog so that the score reflects the
+ * sustained end-to-end throughput of each channelizer, including the channel outputs.
+ *
+ * Note: JMH uses the parameter field names as the parameter keys in the results, so parameter fields don't use the
+ * member variable naming prefix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview"})
+public class ChannelizerBenchmark
+{
+    private static final long RANDOM_SEED = 1234567890L;
+    private static final long TUNER_FREQUENCY = 460_000_000L;
+    private static final int BUFFER_SIZE = 131072;
+    private static final int BUFFERS_PER_INVOCATION = 4;
+    private static final int CHANNEL_BANDWIDTH = 12500;
+    private static final ChannelSpecification CHANNEL_SPECIFICATION =
+        new ChannelSpecification(25000.0, CHANNEL_BANDWIDTH, 6000.0, 7000.0);
+
+    //Fraction of the tuner bandwidth that channels are distributed across
+    private static final double CHANNEL_SPAN = 0.8;
+
+    //Samples per channel that can be held in channelizer and channel output buffers at the end of an invocation
+    private static final long SLACK_SAMPLES_PER_CHANNEL = 4096;
+    private static final long OUTPUT_TIMEOUT_MS = 30000;
+
+    @Param({"2400000", "6000000", "8000000", "10000000"})
+    public int sampleRate;
+
+    @Param({"1", "10", "25", "50", "100"})
+    public int channelCount;
+
+    @Param({"POLYPHASE", "FAST_CONVOLUTION"})
+    public ChannelizerType channelizer;
+
+    private final AtomicLong mOutputSampleCount = new AtomicLong();
+    private final List<TunerChannelSource> mChannelSources = new ArrayList<>();
+    private final BufferProvider mBufferProvider = new BufferProvider();
+    private FastConvolutionChannelizer mFastConvolutionChannelizer;
+    private INativeBuffer mBuffer;
+    private double mOutputSamplesPerBuffer;
+    private double mExpectedOutputSampleCount;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+        float[] samples = new float[BUFFER_SIZE * 2];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        mBuffer = new FloatNativeBuffer(samples, System.currentTimeMillis(), sampleRate / 1000.0f);
+
+        PolyphaseChannelManager polyphaseChannelManager = null;
+
+        if(channelizer == ChannelizerType.POLYPHASE)
+        {
+            polyphaseChannelManager = new PolyphaseChannelManager(mBufferProvider, TUNER_FREQUENCY, sampleRate);
+        }
+        else if(channelizer == ChannelizerType.FAST_CONVOLUTION)
+        {
+            mFastConvolutionChannelizer = new FastConvolutionChannelizer(sampleRate, TUNER_FREQUENCY,
+                "benchmark fast convolution channelizer", null);
+            mBufferProvider.addBufferListener(mFastConvolutionChannelizer);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported channelizer type: " + channelizer);
+        }
+
+        double spacing = sampleRate * CHANNEL_SPAN / channelCount;
+        double outputSampleRate = 0.0;
+
+        for(int x = 0; x < channelCount; x++)
+        {
+            long frequency = TUNER_FREQUENCY + (long)(-sampleRate * CHANNEL_SPAN / 2.0 + spacing * (x + 0.5));
+            TunerChannel tunerChannel = new TunerChannel(frequency, CHANNEL_BANDWIDTH);
+            String threadName = "benchmark channel " + x;
+            TunerChannelSource channelSource;
+
+            if(polyphaseChannelManager != null)
+            {
+                channelSource = polyphaseChannelManager.getChannel(tunerChannel, threadName);
+            }
+            else
+            {
+                FastConvolutionChannelSource fastConvolutionChannelSource = new FastConvolutionChannelSource(
+                    event -> {}, tunerChannel, sampleRate, CHANNEL_SPECIFICATION, threadName);
+                mFastConvolutionChannelizer.add(fastConvolutionChannelSource);
+                channelSource = fastConvolutionChannelSource;
+            }
+
+            if(channelSource == null)
+            {
+                throw new IllegalStateException("Unable to create channel at frequency " + frequency);
+            }
+
+            channelSource.setListener(complexSamples -> mOutputSampleCount.addAndGet(complexSamples.i().length));
+            channelSource.start();
+            mChannelSources.add(channelSource);
+            outputSampleRate += channelSource.getSampleRate();
+        }
+
+        if(mFastConvolutionChannelizer != null)
+        {
+            mFastConvolutionChannelizer.start();
+        }
+
+        mOutputSamplesPerBuffer = BUFFER_SIZE * outputSampleRate / sampleRate;
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        for(TunerChannelSource channelSource: mChannelSources)
+        {
+            channelSource.stop();
+        }
+
+        mChannelSources.clear();
+
+        if(mFastConvolutionChannelizer != null)
+        {
+            mFastConvolutionChannelizer.stop();
+            mFastConvolutionChannelizer = null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUFFERS_PER_INVOCATION)
+    public void channelize() throws InterruptedException
+    {
+        Listener<INativeBuffer> listener = mBufferProvider.getListener();
+
+        for(int x = 0; x < BUFFERS_PER_INVOCATION; x++)
+        {
+            listener.receive(mBuffer);
+        }
+
+        mExpectedOutputSampleCount += mOutputSamplesPerBuffer * BUFFERS_PER_INVOCATION;
+        long threshold = (long)mExpectedOutputSampleCount - (SLACK_SAMPLES_PER_CHANNEL * channelCount);
+        long timeout = System.currentTimeMillis() + OUTPUT_TIMEOUT_MS;
+
+        while(mOutputSampleCount.get() < threshold)
+        {
+            if(System.currentTimeMillis() > timeout)
+            {
+                throw new IllegalStateException("Channel output stalled at [" + mOutputSampleCount.get() +
+                    "] samples - expected at least [" + threshold + "] samples");
+            }
+
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    /**
+     * Stand-in for a tuner that holds the buffer listener registered by the channelizer.
+     */
+    private static class BufferProvider implements INativeBufferProvider
+    {
+        private Listener<INativeBuffer> mListener;
+
+        @Override
+        public void addBufferListener(Listener<INativeBuffer> listener)
+        {
+            mListener = listener;
+        }
+
+        @Override
+        public void removeBufferListener(Listener<INativeBuffer> listener)
+        {
+            if(mListener == listener)
+            {
+                mListener = null;
+            }
+        }
+
+        @Override
+        public boolean hasBufferListeners()
+        {
+            return mListener != null;
+        }
+
+        public Listener<INativeBuffer> getListener()
+        {
+            return mListener;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base JMH benchmark for the scalar and vector implementations of a DSP kernel that is selected at runtime by the
+ * calibration manager.  Subclasses declare an implementation parameter that lists each implementation option for the
+ * kernel's calibration type, so that each benchmark run covers every implementation across each buffer size.
+ *
+ * Note: JMH uses the parameter field names as the parameter keys in the results, so parameter fields don't use the
+ * member variable naming prefix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview"})
+public abstract class AbstractKernelBenchmark
+{
+    private static final long RANDOM_SEED = 1234567890L;
+    private final Random mRandom = new Random(RANDOM_SEED);
+
+    @Param({"256", "2048", "8192"})
+    public int bufferSize;
+
+    /**
+     * Creates an array of pseudo-random samples in the range -1.0 to 1.0.  A fixed seed is used so that each run
+     * benchmarks the same sample data.
+     * @param size of the array
+     * @return samples
+     */
+    protected float[] getFloatSamples(int size)
+    {
+        float[] samples = new float[size];
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = mRandom.nextFloat() * 2.0f - 1.0f;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Creates an array of pseudo-random byte samples across the full byte range, using the same fixed seed.
+     * @param size of the array
+     * @return samples
+     */
+    protected byte[] getByteSamples(int size)
+    {
+        byte[] samples = new byte[size];
+        mRandom.nextBytes(samples);
+        return samples;
+    }
+}
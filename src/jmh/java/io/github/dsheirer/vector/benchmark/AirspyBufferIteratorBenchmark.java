@@ -0,0 +1,93 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.buffer.airspy.AirspyBufferIterator;
+import io.github.dsheirer.buffer.airspy.AirspyNativeBuffer;
+import io.github.dsheirer.buffer.airspy.ScalarUnpackedSampleConverter;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks each implementation of the airspy un-packed buffer iterators (AIRSPY_UNPACKED_ITERATOR and
+ * AIRSPY_UNPACKED_INTERLEAVED_ITERATOR calibration types), which convert the real samples from the airspy into
+ * complex samples with a half-band filter and a quarter sample rate translation.
+ *
+ * The iterators process whole 2048 sample fragments, so the native buffer holds 16 real samples per buffer size unit,
+ * which sizes the largest buffer to a full 131072 sample airspy transfer.
+ */
+public class AirspyBufferIteratorBenchmark extends AbstractKernelBenchmark
+{
+    private static final int SAMPLES_PER_BUFFER_SIZE_UNIT = 16;
+    private static final float SAMPLES_PER_MILLISECOND = 10_000.0f;
+
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256", "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    private short[] mSamples;
+    private short[] mResidualI;
+    private short[] mResidualQ;
+
+    @Setup
+    public void setup()
+    {
+        ScalarUnpackedSampleConverter converter = new ScalarUnpackedSampleConverter();
+        mSamples = converter.convert(ByteBuffer.wrap(getByteSamples(bufferSize * SAMPLES_PER_BUFFER_SIZE_UNIT * 2)));
+        mResidualI = converter.convert(ByteBuffer.wrap(getByteSamples(AirspyBufferIterator.I_OVERLAP * 2)));
+        mResidualQ = converter.convert(ByteBuffer.wrap(getByteSamples(AirspyBufferIterator.Q_OVERLAP * 2)));
+    }
+
+    /**
+     * Creates a native buffer that uses the benchmark implementation for both iterator types.
+     */
+    private AirspyNativeBuffer getBuffer()
+    {
+        return new AirspyNativeBuffer(mSamples, mResidualI, mResidualQ, 0.0f, 0L, implementation, implementation,
+            SAMPLES_PER_MILLISECOND);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole)
+    {
+        Iterator<ComplexSamples> iterator = getBuffer().iterator();
+
+        while(iterator.hasNext())
+        {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void iterateInterleaved(Blackhole blackhole)
+    {
+        Iterator<InterleavedComplexSamples> iterator = getBuffer().iteratorInterleaved();
+
+        while(iterator.hasNext())
+        {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.buffer.airspy.IAirspySampleConverter;
+import io.github.dsheirer.buffer.airspy.ScalarUnpackedSampleConverter;
+import io.github.dsheirer.buffer.airspy.VectorUnpackedSampleConverter;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import java.nio.ByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the airspy un-packed sample converter (AIRSPY_SAMPLE_CONVERTER calibration type).
+ * The buffer size is the number of 12-bit samples converted.
+ */
+public class AirspySampleConverterBenchmark extends AbstractKernelBenchmark
+{
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private IAirspySampleConverter mConverter;
+    private ByteBuffer mSamples;
+
+    @Setup
+    public void setup()
+    {
+        mConverter = implementation == Implementation.VECTOR_SIMD_PREFERRED ? new VectorUnpackedSampleConverter() :
+            new ScalarUnpackedSampleConverter();
+        mSamples = ByteBuffer.wrap(getByteSamples(bufferSize * 2));
+    }
+
+    @Benchmark
+    public short[] convert()
+    {
+        return mConverter.convert(mSamples);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.buffer.IByteSampleConverter;
+import io.github.dsheirer.buffer.ScalarByteSampleConverter;
+import io.github.dsheirer.buffer.VectorByteSampleConverter;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import java.lang.foreign.MemorySegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the 8-bit sample converter (BYTE_SAMPLE_CONVERTER calibration type) for the
+ * unsigned (RTL-2832) and signed (HackRF) sample formats.  The buffer size is the number of complex samples converted.
+ */
+public class ByteSampleConverterBenchmark extends AbstractKernelBenchmark
+{
+    private static final float I_DC = 0.01f;
+    private static final float Q_DC = -0.01f;
+
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    @Param({"false", "true"})
+    public boolean signed;
+
+    private IByteSampleConverter mConverter;
+    private MemorySegment mSamples;
+    private float[] mConverted;
+
+    @Setup
+    public void setup()
+    {
+        mConverter = implementation == Implementation.VECTOR_SIMD_PREFERRED ? new VectorByteSampleConverter(signed) :
+            new ScalarByteSampleConverter(signed);
+        mSamples = MemorySegment.ofArray(getByteSamples(bufferSize * 2));
+        mConverted = new float[bufferSize * 2];
+    }
+
+    @Benchmark
+    public float[] convert()
+    {
+        mConverter.convert(mSamples, 0, mConverted, I_DC, Q_DC);
+        return mConverted;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.gain.complex.ComplexGainFactory;
+import io.github.dsheirer.dsp.gain.complex.IComplexGainControl;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the complex gain control (GAIN_CONTROL_COMPLEX calibration type).
+ */
+public class ComplexGainControlBenchmark extends AbstractKernelBenchmark
+{
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private IComplexGainControl mGainControl;
+    private float[] mI;
+    private float[] mQ;
+
+    @Setup
+    public void setup()
+    {
+        mGainControl = ComplexGainFactory.getComplexGainControl(implementation);
+        mI = getFloatSamples(bufferSize);
+        mQ = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public ComplexSamples process()
+    {
+        return mGainControl.process(mI, mQ, 0L);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the complex mixer (MIXER_COMPLEX calibration type).
+ */
+public class ComplexMixerBenchmark extends AbstractKernelBenchmark
+{
+    private static final double FREQUENCY = 2.0;
+    private static final double SAMPLE_RATE = 10.0;
+
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private ComplexMixer mMixer;
+    private float[] mI;
+    private float[] mQ;
+
+    @Setup
+    public void setup()
+    {
+        mMixer = ComplexMixerFactory.getMixer(FREQUENCY, SAMPLE_RATE, implementation);
+        mI = getFloatSamples(bufferSize);
+        mQ = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public ComplexSamples mix()
+    {
+        return mMixer.mix(mI, mQ, 0L);
+    }
+}
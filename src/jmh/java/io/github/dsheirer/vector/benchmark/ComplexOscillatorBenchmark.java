@@ -0,0 +1,52 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.oscillator.IComplexOscillator;
+import io.github.dsheirer.dsp.oscillator.OscillatorFactory;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the complex oscillator (OSCILLATOR_COMPLEX calibration type).
+ */
+public class ComplexOscillatorBenchmark extends AbstractKernelBenchmark
+{
+    private static final double FREQUENCY = 5.0;
+    private static final double SAMPLE_RATE = 100.0;
+
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private IComplexOscillator mOscillator;
+
+    @Setup
+    public void setup()
+    {
+        mOscillator = OscillatorFactory.getComplexOscillator(FREQUENCY, SAMPLE_RATE, implementation);
+    }
+
+    @Benchmark
+    public float[] generate()
+    {
+        return mOscillator.generate(bufferSize);
+    }
+}
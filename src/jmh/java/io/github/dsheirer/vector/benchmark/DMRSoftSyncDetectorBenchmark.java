@@ -0,0 +1,63 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.module.decode.dmr.sync.DMRSoftSyncDetector;
+import io.github.dsheirer.module.decode.dmr.sync.DMRSoftSyncDetectorFactory;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the DMR soft sync detector (DMR_SOFT_SYNC_DETECTOR calibration type).
+ */
+public class DMRSoftSyncDetectorBenchmark extends AbstractKernelBenchmark
+{
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256", "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    private DMRSoftSyncDetector mDetector;
+    private float[] mSymbols;
+
+    @Setup
+    public void setup()
+    {
+        mDetector = DMRSoftSyncDetectorFactory.getDetector(implementation);
+        mSymbols = getFloatSamples(bufferSize);
+    }
+
+    /**
+     * Processes each symbol in the buffer.  The detector processes one symbol per invocation, so the buffer size
+     * is the number of symbols processed per benchmark operation.
+     * @return accumulated sync scores so that the work can't be eliminated.
+     */
+    @Benchmark
+    public float process()
+    {
+        float accumulator = 0.0f;
+
+        for(float symbol: mSymbols)
+        {
+            accumulator += mDetector.process(symbol);
+        }
+
+        return accumulator;
+    }
+}
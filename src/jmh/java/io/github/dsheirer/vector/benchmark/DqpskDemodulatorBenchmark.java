@@ -0,0 +1,56 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.psk.dqpsk.DQPSKDemodulator;
+import io.github.dsheirer.dsp.psk.dqpsk.DQPSKDemodulatorFactory;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the DQPSK demodulator (DQPSK_DEMODULATOR calibration type).
+ */
+public class DqpskDemodulatorBenchmark extends AbstractKernelBenchmark
+{
+    private static final double SAMPLE_RATE = 50000.0;
+    private static final int SYMBOL_RATE = 4800;
+
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256", "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    private DQPSKDemodulator mDemodulator;
+    private float[] mI;
+    private float[] mQ;
+
+    @Setup
+    public void setup()
+    {
+        mDemodulator = DQPSKDemodulatorFactory.getDemodulator(SAMPLE_RATE, SYMBOL_RATE, implementation);
+        mI = getFloatSamples(bufferSize);
+        mQ = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public float[] demodulate()
+    {
+        return mDemodulator.demodulate(mI, mQ);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.filter.interpolator.Interpolator;
+import io.github.dsheirer.dsp.filter.interpolator.InterpolatorFactory;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the interpolator (INTERPOLATOR calibration type).
+ */
+public class InterpolatorBenchmark extends AbstractKernelBenchmark
+{
+    private static final int INTERPOLATOR_TAP_COUNT = 8;
+
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256"})
+    public Implementation implementation;
+
+    private Interpolator mInterpolator;
+    private float[] mSamples;
+    private float[] mMu;
+
+    @Setup
+    public void setup()
+    {
+        mInterpolator = InterpolatorFactory.getInterpolator(implementation);
+        mSamples = getFloatSamples(bufferSize + INTERPOLATOR_TAP_COUNT);
+        mMu = getFloatSamples(bufferSize);
+
+        for(int x = 0; x < mMu.length; x++)
+        {
+            mMu[x] = Math.abs(mMu[x]);
+        }
+    }
+
+    /**
+     * Interpolates once at each offset in the buffer, so the buffer size is the number of interpolated samples
+     * produced per benchmark operation.
+     * @return accumulated interpolated values so that the work can't be eliminated.
+     */
+    @Benchmark
+    public float interpolate()
+    {
+        float accumulator = 0.0f;
+
+        for(int x = 0; x < bufferSize; x++)
+        {
+            accumulator += mInterpolator.filter(mSamples, x, mMu[x]);
+        }
+
+        return accumulator;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.filter.dc.DcRemovalFilterFactory;
+import io.github.dsheirer.dsp.filter.dc.IDcRemovalFilter;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the real DC removal filter (DC_REMOVAL_REAL calibration type).
+ *
+ * Note: the filter removes the DC offset in place, so the samples converge to zero mean after the first invocations
+ * and remain in range for the rest of the run.
+ */
+public class RealDcRemovalFilterBenchmark extends AbstractKernelBenchmark
+{
+    private static final float GAIN = 0.15f;
+
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private IDcRemovalFilter mFilter;
+    private float[] mSamples;
+
+    @Setup
+    public void setup()
+    {
+        mFilter = DcRemovalFilterFactory.getFilter(GAIN, implementation);
+        mSamples = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public float[] filter()
+    {
+        return mFilter.filter(mSamples);
+    }
+}
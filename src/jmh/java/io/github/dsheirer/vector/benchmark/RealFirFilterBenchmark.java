@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.dsp.filter.fir.real.IRealFilter;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the real FIR filter (FILTER_FIR calibration type).
+ */
+public class RealFirFilterBenchmark extends AbstractKernelBenchmark
+{
+    private static final int TAP_COUNT = 31;
+
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256",
+        "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    private IRealFilter mFilter;
+    private float[] mSamples;
+
+    @Setup
+    public void setup() throws FilterDesignException
+    {
+        float[] coefficients = FilterFactory.getSinc(0.25, TAP_COUNT, WindowType.BLACKMAN);
+        mFilter = FilterFactory.getRealFilter(coefficients, implementation);
+        mSamples = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public float[] filter()
+    {
+        return mFilter.filter(mSamples);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the real half-band decimation filter for each of the filter lengths that has a
+ * dedicated calibration type (FILTER_HALF_BAND_REAL_11_TAP, etc.) and for the default calibration type.
+ */
+public class RealHalfBandDecimationFilterBenchmark extends AbstractKernelBenchmark
+{
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256", "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    /**
+     * Filter lengths with dedicated implementations, plus a length (31) that uses the default implementation.
+     */
+    @Param({"11", "15", "23", "63", "31"})
+    public int filterLength;
+
+    private IRealDecimationFilter mFilter;
+    private float[] mSamples;
+
+    @Setup
+    public void setup()
+    {
+        mFilter = FilterFactory.getRealDecimationFilter(filterLength, WindowType.BLACKMAN, implementation);
+        mSamples = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public float[] decimate()
+    {
+        return mFilter.decimateReal(mSamples);
+    }
+}
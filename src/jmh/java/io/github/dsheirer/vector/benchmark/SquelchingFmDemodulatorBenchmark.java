@@ -0,0 +1,59 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.fm.SquelchingFMDemodulator;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the squelching FM demodulator (SQUELCHING_FM_DEMODULATOR calibration type).  The
+ * implementation parameter selects the FM demodulator and magnitude kernels used by the demodulator, and the
+ * adaptive squelch processes each sample in scalar code for all implementations.
+ */
+public class SquelchingFmDemodulatorBenchmark extends AbstractKernelBenchmark
+{
+    private static final float SQUELCH_ALPHA_DECAY = 0.0004f;
+    private static final float SQUELCH_THRESHOLD = -60.0f;
+    private static final int SAMPLE_RATE = 25000;
+
+    @Param({"SCALAR", "VECTOR_SIMD_64", "VECTOR_SIMD_128", "VECTOR_SIMD_256", "VECTOR_SIMD_512"})
+    public Implementation implementation;
+
+    private SquelchingFMDemodulator mDemodulator;
+    private float[] mI;
+    private float[] mQ;
+
+    @Setup
+    public void setup()
+    {
+        mDemodulator = new SquelchingFMDemodulator(SQUELCH_ALPHA_DECAY, SQUELCH_THRESHOLD, true, implementation);
+        mDemodulator.setSampleRate(SAMPLE_RATE);
+        mI = getFloatSamples(bufferSize);
+        mQ = getFloatSamples(bufferSize);
+    }
+
+    @Benchmark
+    public float[] demodulate()
+    {
+        return mDemodulator.demodulate(mI, mQ);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.benchmark;
+
+import io.github.dsheirer.dsp.window.Window;
+import io.github.dsheirer.dsp.window.WindowFactory;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks each implementation of the window (WINDOW calibration type) using a Blackman window that is the same
+ * length as the buffer.
+ *
+ * Note: the window is applied in place, so each invocation first copies the samples into a work buffer to keep
+ * repeated windowing from decaying the samples toward zero (and subnormal values).  The copy cost is the same for
+ * each implementation.
+ */
+public class WindowBenchmark extends AbstractKernelBenchmark
+{
+    @Param({"SCALAR", "VECTOR_SIMD_PREFERRED"})
+    public Implementation implementation;
+
+    private Window mWindow;
+    private float[] mSamples;
+    private float[] mWorkBuffer;
+
+    @Setup
+    public void setup()
+    {
+        mWindow = WindowFactory.getWindowImplementation(WindowFactory.getBlackman(bufferSize), implementation);
+        mSamples = getFloatSamples(bufferSize);
+        mWorkBuffer = new float[bufferSize];
+    }
+
+    @Benchmark
+    public float[] apply()
+    {
+        System.arraycopy(mSamples, 0, mWorkBuffer, 0, mSamples.length);
+        return mWindow.apply(mWorkBuffer);
+    }
+}
@@ -656,11 +656,41 @@ public class AliasList
         private Map<String,Alias> mFullyQualifiedTalkgroupAliasMap = new HashMap<>();
         private Map<Integer,Alias> mTalkgroupAliasMap = new TreeMap<>();
         private Map<TalkgroupRange, Alias> mTalkgroupRangeAliasMap = new HashMap<>();
+        private volatile RangeAliasIndex mTalkgroupRangeIndex = RangeAliasIndex.EMPTY;
+        private volatile boolean mTalkgroupRangeIndexStale = false;
 
         public TalkgroupAliasList()
         {
         }
 
+        /**
+         * Range index, rebuilt on first access following a change to the talkgroup ranges.
+         */
+        private RangeAliasIndex getTalkgroupRangeIndex()
+        {
+            if(mTalkgroupRangeIndexStale)
+            {
+                synchronized(this)
+                {
+                    if(mTalkgroupRangeIndexStale)
+                    {
+                        RangeAliasIndex.Builder builder = RangeAliasIndex.builder();
+
+                        for(Map.Entry<TalkgroupRange,Alias> entry: mTalkgroupRangeAliasMap.entrySet())
+                        {
+                            builder.add(entry.getKey().getMinTalkgroup(), entry.getKey().getMaxTalkgroup(),
+                                entry.getValue());
+                        }
+
+                        mTalkgroupRangeIndex = builder.build();
+                        mTalkgroupRangeIndexStale = false;
+                    }
+                }
+            }
+
+            return mTalkgroupRangeIndex;
+        }
+
         public Alias getAlias(TalkgroupIdentifier identifier)
         {
             //Attempt to do a fully qualified identifier match only
@@ -679,15 +709,7 @@ public class AliasList
             }
 
             //Alternatively, match the talkgroup to any talkgroup ranges
-            for(Map.Entry<TalkgroupRange, Alias> entry : mTalkgroupRangeAliasMap.entrySet())
-            {
-                if(entry.getKey().contains(value))
-                {
-                    return entry.getValue();
-                }
-            }
-
-            return null;
+            return getTalkgroupRangeIndex().getAlias(value);
         }
 
         public void add(Talkgroup talkgroup, Alias alias)
@@ -756,6 +778,7 @@ public class AliasList
             }
 
             mTalkgroupRangeAliasMap.put(talkgroupRange, alias);
+            mTalkgroupRangeIndexStale = true;
         }
 
         /**
@@ -765,6 +788,7 @@ public class AliasList
         {
             mTalkgroupAliasMap.values().removeAll(Collections.singleton(alias));
             mTalkgroupRangeAliasMap.values().removeAll(Collections.singleton(alias));
+            mTalkgroupRangeIndexStale = true;
         }
     }
 
@@ -776,11 +800,40 @@ public class AliasList
         private Map<String,Alias> mFullyQualifiedRadioAliasMap = new HashMap<>();
         private Map<Integer,Alias> mRadioAliasMap = new TreeMap<>();
         private Map<RadioRange, Alias> mRadioRangeAliasMap = new HashMap<>();
+        private volatile RangeAliasIndex mRadioRangeIndex = RangeAliasIndex.EMPTY;
+        private volatile boolean mRadioRangeIndexStale = false;
 
         public RadioAliasList()
         {
         }
 
+        /**
+         * Range index, rebuilt on first access following a change to the radio ranges.
+         */
+        private RangeAliasIndex getRadioRangeIndex()
+        {
+            if(mRadioRangeIndexStale)
+            {
+                synchronized(this)
+                {
+                    if(mRadioRangeIndexStale)
+                    {
+                        RangeAliasIndex.Builder builder = RangeAliasIndex.builder();
+
+                        for(Map.Entry<RadioRange,Alias> entry: mRadioRangeAliasMap.entrySet())
+                        {
+                            builder.add(entry.getKey().getMinRadio(), entry.getKey().getMaxRadio(), entry.getValue());
+                        }
+
+                        mRadioRangeIndex = builder.build();
+                        mRadioRangeIndexStale = false;
+                    }
+                }
+            }
+
+            return mRadioRangeIndex;
+        }
+
         public Alias getAlias(RadioIdentifier identifier)
         {
             //Match fully qualified identifier only.
@@ -799,15 +852,7 @@ public class AliasList
             }
 
             //Alternatively, attempt to match the radio address against any radio ranges.
-            for(Map.Entry<RadioRange, Alias> entry : mRadioRangeAliasMap.entrySet())
-            {
-                if(entry.getKey().contains(value))
-                {
-                    return entry.getValue();
-                }
-            }
-
-            return null;
+            return getRadioRangeIndex().getAlias(value);
         }
 
         public void add(Radio radio, Alias alias)
@@ -876,6 +921,7 @@ public class AliasList
             }
 
             mRadioRangeAliasMap.put(radioRange, alias);
+            mRadioRangeIndexStale = true;
         }
 
         /**
@@ -885,6 +931,7 @@ public class AliasList
         {
             mRadioAliasMap.values().removeAll(Collections.singleton(alias));
             mRadioRangeAliasMap.values().removeAll(Collections.singleton(alias));
+            mRadioRangeIndexStale = true;
         }
     }
 }
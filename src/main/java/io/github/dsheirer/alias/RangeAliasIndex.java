@@ -0,0 +1,188 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.alias;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable sorted-array interval index for resolving an integer identifier value (talkgroup or radio) to the alias
+ * of the range that contains the value.
+ *
+ * Ranges are sorted by their minimum value and each position also tracks the largest maximum value of all ranges up
+ * to and including that position.  A lookup binary searches for the last range that starts at or below the value and
+ * then walks backward only while an earlier range could still reach the value.  For non-overlapping ranges this is
+ * an O(log n) lookup.
+ *
+ * Each index includes a fixed-size, direct-mapped cache of values that are known to not match any range, so that
+ * repeated lookups of unaliased values resolve in constant time.  The cache is discarded with the index when the
+ * owning alias list changes.
+ */
+public class RangeAliasIndex
+{
+    public static final RangeAliasIndex EMPTY = new RangeAliasIndex(new ArrayList<>());
+    private static final int MISS_CACHE_SIZE = 4096;
+    private static final int MISS_CACHE_MASK = MISS_CACHE_SIZE - 1;
+
+    private final int[] mMinimums;
+    private final int[] mMaximums;
+    private final int[] mRunningMaximums;
+    private final Alias[] mAliases;
+    private final long[] mMissCache;
+
+    /**
+     * Constructs an instance
+     * @param entries to index
+     */
+    private RangeAliasIndex(List<Entry> entries)
+    {
+        entries.sort(Comparator.comparingInt(Entry::minimum));
+
+        int size = entries.size();
+        mMinimums = new int[size];
+        mMaximums = new int[size];
+        mRunningMaximums = new int[size];
+        mAliases = new Alias[size];
+
+        int runningMaximum = Integer.MIN_VALUE;
+
+        for(int x = 0; x < size; x++)
+        {
+            Entry entry = entries.get(x);
+            mMinimums[x] = entry.minimum();
+            mMaximums[x] = entry.maximum();
+            mAliases[x] = entry.alias();
+            runningMaximum = Math.max(runningMaximum, entry.maximum());
+            mRunningMaximums[x] = runningMaximum;
+        }
+
+        mMissCache = size > 0 ? new long[MISS_CACHE_SIZE] : null;
+    }
+
+    /**
+     * Indicates if this index is empty
+     */
+    public boolean isEmpty()
+    {
+        return mAliases.length == 0;
+    }
+
+    /**
+     * Finds the alias for the range that contains the value.  When ranges overlap, the range with the largest minimum
+     * value that contains the value is returned.
+     * @param value to lookup
+     * @return alias or null if no range contains the value
+     */
+    public Alias getAlias(int value)
+    {
+        if(mMissCache == null)
+        {
+            return null;
+        }
+
+        //Cache entries hold the value in the upper word and a non-zero marker in the lower word
+        int cacheIndex = (value ^ (value >>> 16)) & MISS_CACHE_MASK;
+        long cacheEntry = ((long)value << 32) | 1L;
+
+        if(mMissCache[cacheIndex] == cacheEntry)
+        {
+            return null;
+        }
+
+        int index = Arrays.binarySearch(mMinimums, value);
+
+        if(index < 0)
+        {
+            //Insertion point minus one is the last range that starts below the value
+            index = -index - 2;
+        }
+        else
+        {
+            //Advance to the last of any ranges that share the same minimum
+            while(index + 1 < mMinimums.length && mMinimums[index + 1] == value)
+            {
+                index++;
+            }
+        }
+
+        for(int x = index; x >= 0 && mRunningMaximums[x] >= value; x--)
+        {
+            if(mMaximums[x] >= value)
+            {
+                return mAliases[x];
+            }
+        }
+
+        mMissCache[cacheIndex] = cacheEntry;
+        return null;
+    }
+
+    /**
+     * Creates a new builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Indexed range and alias
+     */
+    private record Entry(int minimum, int maximum, Alias alias) {}
+
+    /**
+     * Builder for a range alias index
+     */
+    public static class Builder
+    {
+        private final List<Entry> mEntries = new ArrayList<>();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds the range and alias to the index.
+         * @param minimum value of the range (inclusive)
+         * @param maximum value of the range (inclusive)
+         * @param alias for the range
+         * @return this builder
+         */
+        public Builder add(int minimum, int maximum, Alias alias)
+        {
+            mEntries.add(new Entry(minimum, maximum, alias));
+            return this;
+        }
+
+        /**
+         * Builds the index
+         */
+        public RangeAliasIndex build()
+        {
+            if(mEntries.isEmpty())
+            {
+                return EMPTY;
+            }
+
+            return new RangeAliasIndex(mEntries);
+        }
+    }
+}
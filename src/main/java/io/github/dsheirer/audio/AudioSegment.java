@@ -23,6 +23,7 @@ import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
 import io.github.dsheirer.alias.id.priority.Priority;
+import io.github.dsheirer.audio.convert.EncodedAudioCache;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
@@ -75,7 +76,9 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
     private ObservableSet<BroadcastChannel> mBroadcastChannels = FXCollections.observableSet(new HashSet<>());
     private MutableIdentifierCollection mIdentifierCollection = new MutableIdentifierCollection();
     private Broadcaster<IdentifierUpdateNotification> mIdentifierUpdateNotificationBroadcaster = new Broadcaster<>();
+    private Broadcaster<AudioSegment> mAudioAddedBroadcaster = new Broadcaster<>();
     private List<float[]> mAudioBuffers = new CopyOnWriteArrayList();
+    private List<Long> mAudioBufferTimestamps = new CopyOnWriteArrayList<>();
     private AtomicInteger mConsumerCount = new AtomicInteger();
     private AliasList mAliasList;
     private long mStartTimestamp = System.currentTimeMillis();
@@ -340,6 +343,25 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
         }
     }
 
+    /**
+     * Time that the audio buffer at the specified index was added to this segment.
+     * @param index of the audio buffer
+     * @return timestamp in milliseconds since epoch
+     * @throws IllegalArgumentException if requested index is not valid
+     */
+    public long getAudioBufferTimestamp(int index)
+    {
+        if(0 <= index && index < mAudioBufferTimestamps.size())
+        {
+            return mAudioBufferTimestamps.get(index);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Requested audio buffer timestamp at index [" + index +
+                "] does not exist");
+        }
+    }
+
     /**
      * Indicates if this audio segment has one or more audio buffers
      */
@@ -354,9 +376,12 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
     private void dispose()
     {
         mDisposing = true;
+        EncodedAudioCache.getInstance().evict(this);
         mAudioBuffers.clear();
+        mAudioBufferTimestamps.clear();
         mIdentifierCollection.clear();
         mIdentifierUpdateNotificationBroadcaster.clear();
+        mAudioAddedBroadcaster.clear();
         mLinkedAudioSegment = null;
     }
 
@@ -407,13 +432,36 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
             throw new IllegalStateException("Can't add audio to an audio segment that is being disposed");
         }
 
+        long now = System.currentTimeMillis();
+
         if(mAudioBuffers.isEmpty())
         {
-            mStartTimestamp = System.currentTimeMillis() - 20;
+            mStartTimestamp = now - 20;
         }
 
+        //Add the timestamp first so that it's available to a consumer as soon as the audio buffer is visible
+        mAudioBufferTimestamps.add(now);
         mAudioBuffers.add(audioBuffer);
         mSampleCount += audioBuffer.length;
+        mAudioAddedBroadcaster.broadcast(this);
+    }
+
+    /**
+     * Adds a listener to be notified each time an audio buffer is added to this segment.  This allows a consumer that
+     * processes the audio buffers throughout the life-cycle of the segment (e.g. audio playback) to be signalled
+     * instead of polling for new audio buffers.
+     */
+    public void addAudioAddedListener(Listener<AudioSegment> listener)
+    {
+        mAudioAddedBroadcaster.addListener(listener);
+    }
+
+    /**
+     * Removes the audio added listener.
+     */
+    public void removeAudioAddedListener(Listener<AudioSegment> listener)
+    {
+        mAudioAddedBroadcaster.removeListener(listener);
     }
 
     /**
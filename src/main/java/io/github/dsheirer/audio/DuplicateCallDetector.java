@@ -32,9 +32,13 @@ import io.github.dsheirer.preference.duplicate.ICallManagementProvider;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.util.ThreadPool;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -46,14 +50,25 @@ import org.slf4j.LoggerFactory;
 /**
  * Detects duplicate calls that occur within the same system.  This detector is thread safe for the receive() method.
  *
+ * Each system is monitored by a separate detector so that calls from different systems never contend with each other.
+ * Incoming audio segments are handed off to the system detector through a lock-free queue and a periodic monitoring
+ * task for each system checks the ongoing calls against a hashed index of the talkgroup, patch group and radio
+ * identifiers of the calls that are already playing, so that each duplicate check is a constant time lookup instead
+ * of a comparison against every other ongoing call.
+ *
  * Note: system in this context refers to the system name value that is used in channel configurations.  All decoder
  * channels must share the same system name for call duplication detection.
  */
 public class DuplicateCallDetector implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(DuplicateCallDetector.class);
+    private static final long ROLE_TO = 0L;
+    private static final long ROLE_FROM = 1L << 34;
+    private static final long TYPE_TALKGROUP = 0L;
+    private static final long TYPE_RADIO = 1L << 32;
+    private static final long NO_KEY = -1L;
     private ICallManagementProvider mCallManagementProvider;
-    private Map<String,SystemDuplicateCallDetector> mDetectorMap = new HashMap();
+    private Map<String,SystemDuplicateCallDetector> mDetectorMap = new ConcurrentHashMap<>();
     protected Listener<AudioSegment> mDuplicateCallDetectionListener;
 
     /**
@@ -95,38 +110,59 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
             {
                 String system = ((SystemConfigurationIdentifier)identifier).getValue();
 
-                synchronized(mDetectorMap)
-                {
-                    SystemDuplicateCallDetector detector = mDetectorMap.get(system);
-
-                    if(detector == null)
-                    {
-                        detector = new SystemDuplicateCallDetector(mCallManagementProvider, system);
-                        mDetectorMap.put(system, detector);
-                    }
-
-                    detector.add(audioSegment);
-                }
+                mDetectorMap.computeIfAbsent(system,
+                    key -> new SystemDuplicateCallDetector(mCallManagementProvider, key)).add(audioSegment);
             }
         }
     }
 
+    /**
+     * Creates an index key for the identifier when it is a talkgroup, patch group or radio identifier.  Patch groups
+     * share the talkgroup key space so that a patch group matches a talkgroup with the same value.
+     *
+     * @param identifier to key
+     * @param role key space (ROLE_TO or ROLE_FROM) so that identifiers are only matched within the same role.
+     * @return key or NO_KEY if the identifier is not used for duplicate detection.
+     */
+    private static long getKey(Identifier identifier, long role)
+    {
+        if(identifier instanceof TalkgroupIdentifier tg)
+        {
+            return role | TYPE_TALKGROUP | (tg.getValue() & 0xFFFFFFFFL);
+        }
+        else if(identifier instanceof PatchGroupIdentifier pg)
+        {
+            return role | TYPE_TALKGROUP | (pg.getValue().getPatchGroup().getValue() & 0xFFFFFFFFL);
+        }
+        else if(identifier instanceof RadioIdentifier ra)
+        {
+            return role | TYPE_RADIO | (ra.getValue() & 0xFFFFFFFFL);
+        }
+
+        return NO_KEY;
+    }
+
     /**
      * System level duplicate call detector.  Uses a scheduled executor to run every 25 ms to compare all ongoing call
      * audio segments to detect duplicates.
      *
-     * All audio segments remain in the queue until they are flagged as complete.  While in the queue, each call is
-     * compared against the others to detect duplicates.  Once all calls are either flagged as complete or flagged as
-     * duplicate and removed, the queue is empty and the monitoring is shutdown until a new audio segment arrives and
-     * then the monitoring starts again.
+     * All audio segments remain in the monitoring list, in order of arrival, until they are flagged as complete.  On
+     * each pass the segments are visited in arrival order and each segment is checked against an index of the
+     * identifier keys of the earlier, non-duplicate segments that have audio.  A segment that matches the index is
+     * flagged as duplicate and removed, otherwise its keys are added to the index when it has audio.  The index is
+     * rebuilt on each pass since the identifiers of an ongoing call can change over the life of the call.
+     *
+     * Once all calls are either flagged as complete or flagged as duplicate and removed, the monitoring is shutdown
+     * until a new audio segment arrives and then the monitoring starts again.
      */
     public class SystemDuplicateCallDetector
     {
         private final LinkedTransferQueue<AudioSegment> mAudioSegmentQueue = new LinkedTransferQueue<>();
         private final List<AudioSegment> mAudioSegments = new ArrayList<>();
+        private final Set<Long> mActiveKeys = new HashSet<>();
         private ScheduledFuture<?> mProcessorFuture;
         private Lock mLock = new ReentrantLock();
-        private boolean mMonitoring = false;
+        private volatile boolean mMonitoring = false;
         private final ICallManagementProvider mCallManagementProvider;
         private String mSystem;
 
@@ -141,21 +177,26 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
         }
 
         /**
-         * Adds the audio segment to the monitoring queue.
+         * Adds the audio segment to the monitoring queue.  The lock is only acquired when monitoring has to be
+         * started.
          * @param audioSegment to add
          */
         public void add(AudioSegment audioSegment)
         {
-            mLock.lock();
+            mAudioSegmentQueue.add(audioSegment);
 
-            try
-            {
-                mAudioSegmentQueue.add(audioSegment);
-                startMonitoring();
-            }
-            finally
+            if(!mMonitoring)
             {
-                mLock.unlock();
+                mLock.lock();
+
+                try
+                {
+                    startMonitoring();
+                }
+                finally
+                {
+                    mLock.unlock();
+                }
             }
         }
 
@@ -175,7 +216,7 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
         }
 
         /**
-         * Stops the call monitoring thread if the audio segements queue is empty.
+         * Stops the call monitoring thread if there are no audio segments to monitor.
          *
          * Note: this should only be called from a separate thread and not from within the scheduled monitoring thread
          * because cancelling the scheduled timer from within the process() method would kill the thread without
@@ -187,17 +228,22 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
 
             try
             {
-                //Recheck the audio segments queue to make sure we didn't slip in another audio segment before we can
-                //shut down the scheduled monitoring thread.
                 if(mMonitoring && mAudioSegments.isEmpty())
                 {
+                    mMonitoring = false;
+
                     if(mProcessorFuture != null)
                     {
                         mProcessorFuture.cancel(true);
                         mProcessorFuture = null;
                     }
 
-                    mMonitoring = false;
+                    //Recheck the queue after clearing the monitoring flag in case a new audio segment was added
+                    //while the add() method still observed that monitoring was running.
+                    if(!mAudioSegmentQueue.isEmpty())
+                    {
+                        startMonitoring();
+                    }
                 }
             }
             finally
@@ -207,98 +253,37 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
         }
 
         /**
-         * Checks if either the TO or FROM integer identifiers for the audio segments are the same
-         * @param segment1 to compare
-         * @param segment2 to compare
-         * @return true if integer identifiers are the same
+         * Indicates if any of the identifiers has a key that is in the active keys index.
          */
-        private boolean isDuplicate(AudioSegment segment1, AudioSegment segment2)
+        private boolean isIndexed(List<Identifier> identifiers, long role)
         {
-            if(mCallManagementProvider.isDuplicateCallDetectionByTalkgroupEnabled())
+            for(Identifier identifier: identifiers)
             {
-                //Step 1 check for duplicate TO values
-                List<Identifier> to1 = segment1.getIdentifierCollection().getIdentifiers(Role.TO);
-                List<Identifier> to2 = segment2.getIdentifierCollection().getIdentifiers(Role.TO);
+                long key = getKey(identifier, role);
 
-                if(isDuplicate(to1, to2))
+                if(key != NO_KEY && mActiveKeys.contains(key))
                 {
                     return true;
                 }
             }
 
-            if(mCallManagementProvider.isDuplicateCallDetectionByRadioEnabled())
-            {
-                //Step 2 check for duplicate FROM values
-                List<Identifier> from1 = segment1.getIdentifierCollection().getIdentifiers(Role.FROM);
-                List<Identifier> from2 = segment2.getIdentifierCollection().getIdentifiers(Role.FROM);
-
-                return isDuplicate(from1, from2);
-            }
-
             return false;
         }
 
         /**
-         * Checks both lists of identifiers to determine if there are talkgroups or radio identifiers that are
-         * the same in both lists.  Note: talkgroup check compares both talkgroups and patch groups.
-         *
-         * @param identifiers1
-         * @param identifiers2
-         * @return
+         * Adds the keys for each of the identifiers to the active keys index.
          */
-        public static boolean isDuplicate(List<Identifier> identifiers1, List<Identifier> identifiers2)
+        private void index(List<Identifier> identifiers, long role)
         {
-            for(Identifier identifier1: identifiers1)
+            for(Identifier identifier: identifiers)
             {
-                if(identifier1 instanceof TalkgroupIdentifier tgId1)
-                {
-                    int tg1 = tgId1.getValue();
+                long key = getKey(identifier, role);
 
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof TalkgroupIdentifier tgId2 && tgId2.getValue() == tg1)
-                        {
-                            return true;
-                        }
-                        else if(identifier2 instanceof PatchGroupIdentifier pgId2 &&
-                                pgId2.getValue().getPatchGroup().getValue() == tg1)
-                        {
-                            return true;
-                        }
-                    }
-                }
-                else if(identifier1 instanceof PatchGroupIdentifier pgId1)
+                if(key != NO_KEY)
                 {
-                    int talkgroup1 = pgId1.getValue().getPatchGroup().getValue();
-
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof TalkgroupIdentifier tgId2 && tgId2.getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                        else if(identifier2 instanceof PatchGroupIdentifier pgId2 &&
-                                pgId2.getValue().getPatchGroup().getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                    }
-                }
-                else if(identifier1 instanceof RadioIdentifier raId1)
-                {
-                    int radio1 = raId1.getValue();
-
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof RadioIdentifier raId2 && raId2.getValue() == radio1)
-                        {
-                            return true;
-                        }
-                    }
+                    mActiveKeys.add(key);
                 }
             }
-
-            return false;
         }
 
         /**
@@ -313,76 +298,62 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
                 //Transfer in newly arrived audio segments
                 mAudioSegmentQueue.drainTo(mAudioSegments);
 
-                //Remove any completed audio segments.
+                //Remove any completed or encrypted audio segments.
                 mAudioSegments.removeIf(audioSegment -> {
-                    boolean complete = audioSegment.completeProperty().get();
+                    boolean remove = audioSegment.completeProperty().get() || audioSegment.isEncrypted();
 
-                    if(complete)
+                    if(remove)
                     {
                         audioSegment.decrementConsumerCount();
                     }
 
-                    return complete;
-                });
-
-                //Remove any encrypted audio segments.
-                mAudioSegments.removeIf(audioSegment -> {
-                    boolean encrypted = audioSegment.isEncrypted();
-
-                    if(encrypted)
-                    {
-                        audioSegment.decrementConsumerCount();
-                    }
-
-
-                    return encrypted;
+                    return remove;
                 });
 
                 //Only check for duplicates if there is more than one call
                 if(mAudioSegments.size() > 1)
                 {
-                    List<AudioSegment> duplicates = new ArrayList<>();
+                    boolean byTalkgroup = mCallManagementProvider.isDuplicateCallDetectionByTalkgroupEnabled();
+                    boolean byRadio = mCallManagementProvider.isDuplicateCallDetectionByRadioEnabled();
+                    mActiveKeys.clear();
+
+                    Iterator<AudioSegment> iterator = mAudioSegments.iterator();
 
-                    int currentIndex = 0;
-                    while(currentIndex < mAudioSegments.size() - 1)
+                    while(iterator.hasNext())
                     {
-                        AudioSegment current = mAudioSegments.get(currentIndex);
+                        AudioSegment audioSegment = iterator.next();
+
+                        if(audioSegment.isDuplicate())
+                        {
+                            continue;
+                        }
 
-                        if(current.hasAudio() && !current.isDuplicate())
+                        List<Identifier> to = byTalkgroup ? audioSegment.getIdentifierCollection()
+                            .getIdentifiers(Role.TO) : Collections.emptyList();
+                        List<Identifier> from = byRadio ? audioSegment.getIdentifierCollection()
+                            .getIdentifiers(Role.FROM) : Collections.emptyList();
+
+                        if(isIndexed(to, ROLE_TO) || isIndexed(from, ROLE_FROM))
                         {
-                            int checkIndex = currentIndex + 1;
+                            audioSegment.setDuplicate(true);
+                            audioSegment.decrementConsumerCount();
+                            iterator.remove();
 
-                            while(checkIndex < mAudioSegments.size())
+                            //Notify optional listener that we flagged the call as duplicate.
+                            if(mDuplicateCallDetectionListener != null)
                             {
-                                AudioSegment toCheck = mAudioSegments.get(checkIndex);
-
-                                if(!toCheck.isDuplicate())
-                                {
-                                    if(isDuplicate(current, toCheck))
-                                    {
-                                        toCheck.setDuplicate(true);
-                                        toCheck.decrementConsumerCount();
-                                        duplicates.add(toCheck);
-
-                                        //Notify optional listener that we flagged the call as duplicate.
-                                        if(mDuplicateCallDetectionListener != null)
-                                        {
-                                            mDuplicateCallDetectionListener.receive(toCheck);
-                                        }
-                                    }
-                                }
-
-                                checkIndex++;
+                                mDuplicateCallDetectionListener.receive(audioSegment);
                             }
                         }
-
-                        currentIndex++;
+                        else if(audioSegment.hasAudio())
+                        {
+                            index(to, ROLE_TO);
+                            index(from, ROLE_FROM);
+                        }
                     }
-
-                    mAudioSegments.removeAll(duplicates);
                 }
 
-                //Finally, if the audio segment queue is now empty, shutdown monitoring until a new segment arrives.
+                //Finally, if the audio segment list is now empty, shutdown monitoring until a new segment arrives.
                 //The monitor shutdown method has to be called on a separate thread so that we don't kill our current
                 // thread and fail to release the lock.
                 if(mAudioSegments.isEmpty())
@@ -392,8 +363,8 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
             }
             catch(Throwable t)
             {
-                mLog.error("Unknown error while processing audio segments for duplicate call detection.  Please report " +
-                    "this to the developer.", t);
+                mLog.error("Unknown error while processing audio segments for duplicate call detection [" + mSystem +
+                    "].  Please report this to the developer.", t);
             }
             finally
             {
@@ -23,6 +23,8 @@ import io.github.dsheirer.identifier.IdentifierCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +34,7 @@ public class AudioRecording implements Comparable<AudioRecording>
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecording.class);
 
     private Path mPath;
+    private byte[] mAudio;
     private long mStartTime;
     private long mRecordingLength;
     private AtomicInteger mPendingReplayCount = new AtomicInteger();
@@ -57,7 +60,46 @@ public class AudioRecording implements Comparable<AudioRecording>
     }
 
     /**
-     * Path to the completed audio recording
+     * Audio recording that is held in memory and is ready to be streamed
+     *
+     * @param path nominal path for the recording, used for naming only.  The recording is not written to disk.
+     * @param audio bytes for the recording
+     * @param identifierCollection associated with the recording
+     * @param start time of recording in milliseconds since epoch
+     * @param recordingLength in milliseconds
+     */
+    public AudioRecording(Path path, byte[] audio, Collection<BroadcastChannel> broadcastChannels,
+                          IdentifierCollection identifierCollection, long start, long recordingLength)
+    {
+        this(path, broadcastChannels, identifierCollection, start, recordingLength);
+        mAudio = audio;
+    }
+
+    /**
+     * Indicates if this recording is held in memory, versus stored in a temporary file on disk.
+     */
+    public boolean isInMemory()
+    {
+        return mAudio != null;
+    }
+
+    /**
+     * Audio recording bytes, either from memory or read from the recording file.
+     * @return audio bytes
+     * @throws IOException if there is an error reading the recording file.
+     */
+    public byte[] getAudio() throws IOException
+    {
+        if(mAudio != null)
+        {
+            return mAudio;
+        }
+
+        return Files.readAllBytes(mPath);
+    }
+
+    /**
+     * Path to the completed audio recording.  For in-memory recordings, the path is nominal and does not exist.
      */
     public Path getPath()
     {
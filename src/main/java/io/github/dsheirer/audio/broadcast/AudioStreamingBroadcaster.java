@@ -24,13 +24,11 @@ import io.github.dsheirer.audio.convert.InputAudioFormat;
 import io.github.dsheirer.audio.convert.MP3FrameTools;
 import io.github.dsheirer.audio.convert.MP3Setting;
 import io.github.dsheirer.identifier.IdentifierCollection;
-import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.SignalledProcessor;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +37,14 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioStreamingBroadcaster.class);
 
-    public static final int PROCESSOR_RUN_INTERVAL_MS = 1000;
-    private ScheduledFuture<?> mRecordingQueueProcessorFuture;
+    //Amount of audio streamed ahead of real time while streaming a recording, or silence while idle.  The short idle
+    //lead allows a newly queued recording to start streaming promptly after the silence already sent to the server.
+    public static final int STREAMING_LEAD_MS = 1000;
+    public static final int IDLE_LEAD_MS = 250;
+    public static final int PROCESSOR_MAX_INTERVAL_MS = 100;
 
-    private RecordingQueueProcessor mRecordingQueueProcessor = new RecordingQueueProcessor();
+    private SignalledProcessor mRecordingQueueProcessor = new SignalledProcessor("sdrtrunk audio streaming broadcaster",
+        new RecordingQueueProcessor(), PROCESSOR_MAX_INTERVAL_MS);
     private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
     private ISilenceGenerator mSilenceGenerator;
 
@@ -55,7 +57,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     protected int mInlineInterval;
     protected int mInlineRemaining = -1;
 
-    private int mTimeOverrun = 0;
+    private long mStreamClock = 0;
 
     /**
      * AudioBroadcaster for streaming audio recordings to a remote streaming audio server.  Audio recordings are
@@ -71,8 +73,8 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
      * manner.
      *
      * Use the start() and stop() methods to connect to/disconnect from the remote server.  Audio recordings will be
-     * streamed to the remote server when available.  One second silence frames will be broadcast to the server when
-     * there are no recordings available, in order to maintain a connection with the remote server.  Any audio packet
+     * streamed to the remote server when available.  Silence frames will be broadcast to the server when there are
+     * no recordings available, in order to maintain a connection with the remote server.  Any audio packet
      * streams received while the broadcaster is stopped will be ignored.
      *
      * The last audio packet's metadata is automatically attached to the closed audio recording when it is enqueued for
@@ -129,11 +131,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     {
         if(mStreaming.compareAndSet(false, true))
         {
-            if(mRecordingQueueProcessorFuture == null)
-            {
-                mRecordingQueueProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mRecordingQueueProcessor,
-                    0, PROCESSOR_RUN_INTERVAL_MS, TimeUnit.MILLISECONDS);
-            }
+            mRecordingQueueProcessor.start();
         }
     }
 
@@ -144,11 +142,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     {
         if(mStreaming.compareAndSet(true, false))
         {
-            if(mRecordingQueueProcessorFuture != null)
-            {
-                mRecordingQueueProcessorFuture.cancel(true);
-                mRecordingQueueProcessorFuture = null;
-            }
+            mRecordingQueueProcessor.stop();
 
             disconnect();
         }
@@ -189,6 +183,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
         if(connected())
         {
             mAudioRecordingQueue.offer(recording);
+            mRecordingQueueProcessor.signal();
             broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
         }
         else
@@ -275,56 +270,61 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     /**
      * Audio recording queue processor.  Fetches recordings from the queue and chunks the recording byte content
      * to subclass implementations for broadcast in the appropriate manner.
+     *
+     * The processor runs when a recording is queued and at the processor maximum interval.  Each run streams audio
+     * frames until the stream clock (the real time position of the end of the audio sent to the server) is the
+     * streaming lead ahead of the current time and fills any gap between recordings with silence up to the idle lead.
      */
     public class RecordingQueueProcessor implements Runnable
     {
-        private AtomicBoolean mProcessing = new AtomicBoolean();
         private AudioFrames mInputFrames;
         private IdentifierCollection mInputIdentifierCollection;
 
         @Override
         public void run()
         {
-            if(mProcessing.compareAndSet(false, true))
+            try
             {
-                try
+                long now = System.currentTimeMillis();
+
+                //Resynchronize the stream clock after startup or when we've fallen behind real time
+                if(mStreamClock < now)
                 {
-                    int timeSent = 0;
+                    mStreamClock = now;
+                }
 
+                while(mStreamClock < now + STREAMING_LEAD_MS)
+                {
                     if(mInputFrames == null || !mInputFrames.hasNextFrame())
                     {
                         nextRecording();
-                    }
 
-                    if(mInputFrames != null && mInputFrames.hasNextFrame())
-                    {
-                        while(mInputFrames.hasNextFrame() && timeSent < PROCESSOR_RUN_INTERVAL_MS)
+                        if(mInputFrames == null || !mInputFrames.hasNextFrame())
                         {
-                            mInputFrames.nextFrame();
-                            broadcastAudio(mInputFrames.getCurrentFrame(), mInputIdentifierCollection);
-                            timeSent += mInputFrames.getCurrentFrameDuration();
+                            break;
                         }
                     }
 
-                    if((mInputFrames == null || !mInputFrames.hasNextFrame()) && timeSent < PROCESSOR_RUN_INTERVAL_MS)
-                    {
-                        AudioFrames silenceFrames = mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS - mTimeOverrun - timeSent);
-                        while(silenceFrames.hasNextFrame())
-                        {
-                            silenceFrames.nextFrame();
-                            broadcastAudio(silenceFrames.getCurrentFrame(), null);
-                            timeSent += silenceFrames.getCurrentFrameDuration();
-                        }
-                    }
-
-                    mTimeOverrun += timeSent - PROCESSOR_RUN_INTERVAL_MS;
+                    mInputFrames.nextFrame();
+                    broadcastAudio(mInputFrames.getCurrentFrame(), mInputIdentifierCollection);
+                    mStreamClock += mInputFrames.getCurrentFrameDuration();
                 }
-                catch(Throwable t)
+
+                if((mInputFrames == null || !mInputFrames.hasNextFrame()) && mStreamClock < now + IDLE_LEAD_MS)
                 {
-                    mLog.error("Error while processing audio streaming queue", t);
-                }
+                    AudioFrames silenceFrames = mSilenceGenerator.generate(now + IDLE_LEAD_MS - mStreamClock);
 
-                mProcessing.set(false);
+                    while(silenceFrames.hasNextFrame())
+                    {
+                        silenceFrames.nextFrame();
+                        broadcastAudio(silenceFrames.getCurrentFrame(), null);
+                        mStreamClock += silenceFrames.getCurrentFrameDuration();
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while processing audio streaming queue", t);
             }
         }
 
@@ -368,9 +368,9 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
                 try
                 {
-                    if(Files.exists(nextRecording.getPath()))
+                    if(nextRecording.isInMemory() || Files.exists(nextRecording.getPath()))
                     {
-                        byte[] audio = Files.readAllBytes(nextRecording.getPath());
+                        byte[] audio = nextRecording.getAudio();
 
                         if(audio.length > 0)
                         {
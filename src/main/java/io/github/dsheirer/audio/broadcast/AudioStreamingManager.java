@@ -33,7 +33,7 @@ import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.AudioSegmentRecorder;
 import io.github.dsheirer.record.RecordFormat;
 import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.SignalledProcessor;
 import io.github.dsheirer.util.TimeStamp;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -43,14 +43,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import javafx.beans.value.ChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Audio streaming manager monitors audio segments through completion and creates temporary streaming recordings on
- * disk and enqueues the temporary recording for streaming.
+ * disk, or in memory when preferred by the user, and enqueues the temporary recording for streaming.  MP3 encoding is
+ * shared with the audio recorder via the EncodedAudioCache so that each audio segment is encoded once.
  */
 public class AudioStreamingManager implements Listener<AudioSegment>
 {
@@ -60,7 +60,10 @@ public class AudioStreamingManager implements Listener<AudioSegment>
     private Listener<AudioRecording> mAudioRecordingListener;
     private BroadcastFormat mBroadcastFormat;
     private UserPreferences mUserPreferences;
-    private ScheduledFuture<?> mAudioSegmentProcessorFuture;
+    private SignalledProcessor mAudioSegmentProcessor = new SignalledProcessor("sdrtrunk audio streaming manager",
+        this::processAudioSegments, 0);
+    private ChangeListener<Boolean> mCompletionListener = (observable, oldValue, newValue) ->
+        mAudioSegmentProcessor.signal();
     private int mNextRecordingNumber = 1;
 
     /**
@@ -77,39 +80,35 @@ public class AudioStreamingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Primary receive method
+     * Primary receive method.  Registers for completion notification of the audio segment so that the audio segment
+     * processor runs as soon as the audio segment completes.
      */
     @Override
     public void receive(AudioSegment audioSegment)
     {
+        audioSegment.completeProperty().addListener(mCompletionListener);
         mNewAudioSegments.add(audioSegment);
+        mAudioSegmentProcessor.signal();
     }
 
     /**
-     * Starts the scheduled audio segment processor
+     * Starts the audio segment processor
      */
     public void start()
     {
-        if(mAudioSegmentProcessorFuture == null)
-        {
-            mAudioSegmentProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioSegmentProcessor(),
-                0, 250, TimeUnit.MILLISECONDS);
-        }
+        mAudioSegmentProcessor.start();
     }
 
     /**
-     * Stops the scheduled audio segment processor
+     * Stops the audio segment processor
      */
     public void stop()
     {
-        if(mAudioSegmentProcessorFuture != null)
-        {
-            mAudioSegmentProcessorFuture.cancel(true);
-            mAudioSegmentProcessorFuture = null;
-        }
+        mAudioSegmentProcessor.stop();
 
         for(AudioSegment audioSegment: mNewAudioSegments)
         {
+            audioSegment.completeProperty().removeListener(mCompletionListener);
             audioSegment.decrementConsumerCount();
         }
 
@@ -117,6 +116,7 @@ public class AudioStreamingManager implements Listener<AudioSegment>
 
         for(AudioSegment audioSegment: mAudioSegments)
         {
+            audioSegment.completeProperty().removeListener(mCompletionListener);
             audioSegment.decrementConsumerCount();
         }
 
@@ -124,7 +124,8 @@ public class AudioStreamingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Main processing method to process audio segments
+     * Main processing method to process audio segments.  Invoked by the audio segment processor each time an audio
+     * segment is received or completes.
      */
     private void processAudioSegments()
     {
@@ -139,11 +140,13 @@ public class AudioStreamingManager implements Listener<AudioSegment>
             if(audioSegment.isDuplicate() && mUserPreferences.getCallManagementPreference().isDuplicateStreamingSuppressionEnabled())
             {
                 it.remove();
+                audioSegment.completeProperty().removeListener(mCompletionListener);
                 audioSegment.decrementConsumerCount();
             }
             else if(audioSegment.completeProperty().get())
             {
                 it.remove();
+                audioSegment.completeProperty().removeListener(mCompletionListener);
 
                 if(mAudioRecordingListener != null && audioSegment.hasBroadcastChannels())
                 {
@@ -229,6 +232,19 @@ public class AudioStreamingManager implements Listener<AudioSegment>
 
         length /= 8; //Sample rate is 8000 samples per second, or 8 samples per millisecond.
 
+        if(mUserPreferences.getMP3Preference().isStreamFromMemory())
+        {
+            byte[] audio = AudioSegmentRecorder.getMP3(audioSegment, mUserPreferences, identifierCollection);
+
+            if(audio != null)
+            {
+                mAudioRecordingListener.receive(new AudioRecording(path, audio, broadcastChannels,
+                    identifierCollection, audioSegment.getStartTimestamp(), length));
+            }
+
+            return;
+        }
+
         try
         {
             AudioSegmentRecorder.record(audioSegment, path, RecordFormat.MP3, mUserPreferences, identifierCollection);
@@ -267,23 +283,4 @@ public class AudioStreamingManager implements Listener<AudioSegment>
 
         return temporaryRecordingPath;
     }
-
-    /**
-     * Scheduled runnable to process audio segments.
-     */
-    public class AudioSegmentProcessor implements Runnable
-    {
-        @Override
-        public void run()
-        {
-            try
-            {
-                processAudioSegments();
-            }
-            catch(Throwable t)
-            {
-                mLog.error("Error processing audio segments for streaming", t);
-            }
-        }
-    }
 }
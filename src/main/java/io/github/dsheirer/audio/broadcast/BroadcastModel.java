@@ -671,6 +671,11 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
      */
     private void removeRecording(AudioRecording recording)
     {
+        if(recording.isInMemory())
+        {
+            return;
+        }
+
         try
         {
             Files.delete(recording.getPath());
@@ -38,7 +38,6 @@ import io.github.dsheirer.identifier.patch.PatchGroupIdentifier;
 import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
 import io.github.dsheirer.util.ThreadPool;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -47,6 +46,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Queue;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -68,7 +68,7 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
     private static final String MULTIPART_FORM_DATA = MULTIPART_TYPE + "/" + DEFAULT_SUBTYPE;
     private ScheduledFuture<?> mBroadcastifyTestFuture;
     private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mAudioRecordingProcessorFuture;
+    private Future<?> mAudioRecordingProcessorFuture;
     private HttpClient mHttpClient = HttpClient.newBuilder()
         .version(HttpClient.Version.HTTP_2)
         .followRedirects(HttpClient.Redirect.NORMAL)
@@ -116,8 +116,8 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
 
         if(mAudioRecordingProcessorFuture == null)
         {
-            mAudioRecordingProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioRecordingProcessor(),
-                0, 500, TimeUnit.MILLISECONDS);
+            mAudioRecordingProcessorFuture = ThreadPool.scheduleAtFixedRate("sdrtrunk broadcastify call broadcaster",
+                new AudioRecordingProcessor(), 0, 500, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -295,11 +295,20 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
 
                                     try
                                     {
-                                        filePublisher = HttpRequest.BodyPublishers.ofFile(audioRecording.getPath());
+                                        if(audioRecording.isInMemory())
+                                        {
+                                            filePublisher = HttpRequest.BodyPublishers
+                                                .ofByteArray(audioRecording.getAudio());
+                                        }
+                                        else
+                                        {
+                                            filePublisher = HttpRequest.BodyPublishers.ofFile(audioRecording.getPath());
+                                        }
                                     }
-                                    catch(FileNotFoundException fnfe)
+                                    catch(IOException ioe)
                                     {
-                                        mLog.error("Broadcastify calls API - audio recording file not found - ignoring upload");
+                                        mLog.error("Broadcastify calls API - unable to read audio recording [" +
+                                            audioRecording.getPath() + "] - ignoring upload", ioe);
                                     }
 
                                     if(filePublisher != null)
@@ -46,7 +46,6 @@
  import org.slf4j.LoggerFactory;
 
  import java.io.File;
- import java.nio.file.Files;
  import java.io.FileInputStream;
  import java.io.FileNotFoundException;
  import java.io.IOException;
@@ -65,8 +64,8 @@
  import java.util.List;
  import java.util.Queue;
  import java.util.concurrent.CompletionException;
+ import java.util.concurrent.Future;
  import java.util.concurrent.LinkedTransferQueue;
- import java.util.concurrent.ScheduledFuture;
  import java.util.concurrent.TimeUnit;
 
 
@@ -85,7 +84,7 @@
      private static final String MULTIPART_FORM_DATA = MULTIPART_TYPE + "/" + DEFAULT_SUBTYPE;
      private static final String APPLICATION_FORM_URLENCODED = "application/x-www-form-urlencoded";
      private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
-     private ScheduledFuture<?> mAudioRecordingProcessorFuture;
+     private Future<?> mAudioRecordingProcessorFuture;
      private HttpClient mHttpClient = HttpClient.newBuilder()
          .version(HttpClient.Version.HTTP_2)
          .followRedirects(HttpClient.Redirect.NORMAL)
@@ -134,8 +133,8 @@
 
          if(mAudioRecordingProcessorFuture == null)
          {
-             mAudioRecordingProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioRecordingProcessor(),
-                 0, 500, TimeUnit.MILLISECONDS);
+             mAudioRecordingProcessorFuture = ThreadPool.scheduleAtFixedRate("sdrtrunk openmhz broadcaster",
+                 new AudioRecordingProcessor(), 0, 500, TimeUnit.MILLISECONDS);
          }
      }
 
@@ -261,7 +260,7 @@
 
                      try
                      {
-                         audioBytes = Files.readAllBytes(audioRecording.getPath());
+                         audioBytes = audioRecording.getAudio();
                      }
                      catch(IOException e)
                      {
@@ -45,13 +45,12 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.time.Duration;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,7 +69,7 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
     private static final String DEFAULT_SUBTYPE = "form-data";
     private static final String MULTIPART_FORM_DATA = MULTIPART_TYPE + "/" + DEFAULT_SUBTYPE;
     private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mAudioRecordingProcessorFuture;
+    private Future<?> mAudioRecordingProcessorFuture;
     private HttpClient mHttpClient = HttpClient.newBuilder()
         .version(HttpClient.Version.HTTP_2)
         .followRedirects(HttpClient.Redirect.NORMAL)
@@ -117,8 +116,8 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
 
         if(mAudioRecordingProcessorFuture == null)
         {
-            mAudioRecordingProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioRecordingProcessor(),
-                0, 500, TimeUnit.MILLISECONDS);
+            mAudioRecordingProcessorFuture = ThreadPool.scheduleAtFixedRate("sdrtrunk rdio scanner broadcaster",
+                new AudioRecordingProcessor(), 0, 500, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -242,7 +241,7 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
 
                     try
                     {
-                        audioBytes = Files.readAllBytes(audioRecording.getPath());
+                        audioBytes = audioRecording.getAudio();
                     }
                     catch(IOException e)
                     {
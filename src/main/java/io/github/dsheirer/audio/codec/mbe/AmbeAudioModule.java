@@ -30,7 +30,7 @@ import org.slf4j.LoggerFactory;
 public abstract class AmbeAudioModule extends JmbeAudioModule
 {
     private static final Logger mLog = LoggerFactory.getLogger(AmbeAudioModule.class);
-    private static final String AMBE_CODEC = "AMBE 3600 x 2450";
+    public static final String AMBE_CODEC = "AMBE 3600 x 2450";
     private static boolean sLibraryStatusLogged = false;
 
     public AmbeAudioModule(UserPreferences userPreferences, AliasList aliasList, int timeslot)
@@ -30,7 +30,7 @@ import org.slf4j.LoggerFactory;
 public abstract class ImbeAudioModule extends JmbeAudioModule
 {
     private static final Logger mLog = LoggerFactory.getLogger(ImbeAudioModule.class);
-    private static final String IMBE_CODEC = "IMBE";
+    public static final String IMBE_CODEC = "IMBE";
     private static boolean sLibraryStatusLogged = false;
 
     public ImbeAudioModule(UserPreferences userPreferences, AliasList aliasList)
@@ -124,12 +124,24 @@ public abstract class JmbeAudioModule extends AbstractAudioModule implements Lis
      * Loads JMBE audio converter library class and then instantiates new converter instances from the loaded class.
      */
     protected void loadConverter()
+    {
+        mAudioCodec = createAudioCodec(mUserPreferences, getCodecName());
+    }
+
+    /**
+     * Creates a new audio codec instance from the JMBE library specified in the user preferences.  The JMBE library
+     * is loaded on first use.
+     * @param userPreferences for the JMBE library path
+     * @param codecName of the audio codec (IMBE or AMBE)
+     * @return audio codec or null if the JMBE library or the codec cannot be loaded
+     */
+    public static synchronized IAudioCodec createAudioCodec(UserPreferences userPreferences, String codecName)
     {
         IAudioCodec audioConverter = null;
 
         if(sLoadedJmbeAudioConverterClass == null)
         {
-            Path path = mUserPreferences.getJmbeLibraryPreference().getPathJmbeLibrary();
+            Path path = userPreferences.getJmbeLibraryPreference().getPathJmbeLibrary();
 
             if(path != null)
             {
@@ -141,16 +153,16 @@ public abstract class JmbeAudioModule extends AbstractAudioModule implements Lis
                 try
                 {
                     URLClassLoader childClassLoader = new URLClassLoader(new URL[]{path.toUri().toURL()},
-                            this.getClass().getClassLoader());
+                            JmbeAudioModule.class.getClassLoader());
 
                     sLoadedJmbeAudioConverterClass = Class.forName("jmbe.JMBEAudioLibrary", true, childClassLoader);
                 }
                 catch(IllegalArgumentException iae)
                 {
-                    if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY + getCodecName()))
+                    if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY + codecName))
                     {
                         mLog.error("Couldn't load JMBE audio conversion library - " + iae.getMessage());
-                        mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY + getCodecName());
+                        mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY + codecName);
                     }
                 }
                 catch(MalformedURLException mue)
@@ -183,7 +195,7 @@ public abstract class JmbeAudioModule extends AbstractAudioModule implements Lis
                     if((library.getMajorVersion() == 1 && library.getMinorVersion() >= 0 &&
                             library.getBuildVersion() >= 0) || library.getMajorVersion() >= 1)
                     {
-                        audioConverter = library.getAudioConverter(getCodecName());
+                        audioConverter = library.getAudioConverter(codecName);
 
                         if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
                         {
@@ -251,6 +263,6 @@ public abstract class JmbeAudioModule extends AbstractAudioModule implements Lis
             }
         }
 
-        mAudioCodec = audioConverter;
+        return audioConverter;
     }
 }
@@ -0,0 +1,597 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.dsheirer.audio.AudioFormats;
+import io.github.dsheirer.audio.convert.MP3AudioConverter;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.module.decode.dmr.audio.DMRCallSequenceRecorder;
+import io.github.dsheirer.module.decode.p25.audio.P25P1CallSequenceRecorder;
+import io.github.dsheirer.module.decode.p25.audio.P25P2CallSequenceRecorder;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.mp3.MP3Preference;
+import io.github.dsheirer.record.RecordFormat;
+import io.github.dsheirer.record.wave.AudioMetadata;
+import io.github.dsheirer.record.wave.AudioMetadataUtils;
+import io.github.dsheirer.record.wave.WaveWriter;
+import io.github.dsheirer.sample.ConversionUtils;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import jmbe.iface.IAudioCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command line batch converter for MBE call sequence recordings (*.mbe) to WAVE or MP3 audio files.
+ *
+ * Call sequences are read with a streaming JSON parser directly into compact frame byte arrays, without binding
+ * the JSON to an object tree or hex strings.  Files are distributed across a set of worker threads and each worker
+ * holds its own IMBE and AMBE audio codec instances, so codecs are created once per worker instead of once per file.
+ * Progress and throughput are logged periodically while the batch is running.
+ *
+ * Encrypted call sequences and call sequences without voice frames are skipped.
+ *
+ * Usage: MBECallSequenceBatchConverter [options] file.mbe|directory ...
+ */
+public class MBECallSequenceBatchConverter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MBECallSequenceBatchConverter.class);
+    private static final String MBE_FILE_EXTENSION = ".mbe";
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+    private static final int AUDIO_FRAME_DURATION_MS = 20;
+    private static final String USAGE = """
+        Usage: MBECallSequenceBatchConverter [options] file.mbe|directory ...
+          --format <type>       output audio format: WAVE or MP3 (default: WAVE)
+          --output <directory>  directory for the converted audio files (default: same directory as each input file)
+          --threads <count>     number of worker threads (default: available processors)
+          --overwrite           replace existing output files (default: skip files that are already converted)
+        """;
+
+    private final UserPreferences mUserPreferences = new UserPreferences();
+    private final JsonFactory mJsonFactory = new JsonFactory();
+    private final AtomicLong mConvertedCount = new AtomicLong();
+    private final AtomicLong mSkippedCount = new AtomicLong();
+    private final AtomicLong mFailedCount = new AtomicLong();
+    private final AtomicLong mFrameCount = new AtomicLong();
+    private RecordFormat mRecordFormat = RecordFormat.WAVE;
+    private Path mOutputDirectory;
+    private int mThreadCount = Runtime.getRuntime().availableProcessors();
+    private boolean mOverwrite;
+
+    /**
+     * Constructs an instance
+     */
+    public MBECallSequenceBatchConverter()
+    {
+    }
+
+    /**
+     * Converts each of the call sequence files and blocks until all files are processed.
+     * @param files to convert
+     */
+    public void process(List<Path> files)
+    {
+        Queue<Path> queue = new ConcurrentLinkedQueue<>(files);
+        int threadCount = Math.max(1, Math.min(mThreadCount, files.size()));
+        CountDownLatch complete = new CountDownLatch(threadCount);
+        NamingThreadFactory threadFactory = new NamingThreadFactory("sdrtrunk mbe converter");
+
+        mLog.info("Converting [" + files.size() + "] MBE call sequences to [" + mRecordFormat + "] with [" +
+            threadCount + "] workers");
+
+        long start = System.currentTimeMillis();
+        ScheduledFuture<?> progress = ThreadPool.SCHEDULED.scheduleAtFixedRate(() -> logProgress(start, files.size()),
+            PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        for(int x = 0; x < threadCount; x++)
+        {
+            threadFactory.newThread(new Worker(queue, complete)).start();
+        }
+
+        try
+        {
+            complete.await();
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while waiting for MBE call sequence conversion to complete");
+            queue.clear();
+        }
+
+        progress.cancel(false);
+        logProgress(start, files.size());
+    }
+
+    /**
+     * Logs the current progress and throughput
+     * @param start time of the batch
+     * @param total number of files in the batch
+     */
+    private void logProgress(long start, int total)
+    {
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        long converted = mConvertedCount.get();
+        long processed = converted + mSkippedCount.get() + mFailedCount.get();
+        long audioMs = mFrameCount.get() * AUDIO_FRAME_DURATION_MS;
+
+        mLog.info("Processed [" + processed + "/" + total + "] converted [" + converted + "] skipped [" +
+            mSkippedCount.get() + "] failed [" + mFailedCount.get() + "] - " + (converted * 1000 / elapsed) +
+            " files/second, audio [" + (audioMs / 1000) + " seconds] at " + (audioMs / elapsed) + "x real time");
+    }
+
+    /**
+     * Output file path for the input call sequence file
+     */
+    private Path getOutputPath(Path input)
+    {
+        String name = input.getFileName().toString();
+
+        if(name.endsWith(MBE_FILE_EXTENSION))
+        {
+            name = name.substring(0, name.length() - MBE_FILE_EXTENSION.length());
+        }
+
+        name = name + mRecordFormat.getExtension();
+
+        return mOutputDirectory != null ? mOutputDirectory.resolve(name) : input.resolveSibling(name);
+    }
+
+    /**
+     * Parses the call sequence from the input stream using a streaming parser.
+     * @param inputStream containing a JSON MBE call sequence
+     * @return parsed call sequence
+     * @throws IOException if the content is not a valid call sequence
+     */
+    CallSequenceFrames parse(InputStream inputStream) throws IOException
+    {
+        CallSequenceFrames sequence = new CallSequenceFrames();
+
+        try(JsonParser parser = mJsonFactory.createParser(inputStream))
+        {
+            if(parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                throw new IOException("Expected JSON object");
+            }
+
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                switch(field)
+                {
+                    case "protocol" -> sequence.mProtocol = parser.getValueAsString();
+                    case "from" -> sequence.mFrom = parser.getValueAsString();
+                    case "to" -> sequence.mTo = parser.getValueAsString();
+                    case "system" -> sequence.mSystem = parser.getValueAsString();
+                    case "site" -> sequence.mSite = parser.getValueAsString();
+                    case "encrypted" -> sequence.mEncrypted = parser.getValueAsBoolean();
+                    case "frames" -> parseFrames(parser, value, sequence);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Parses the voice frames array, decoding each hex frame directly from the parser character buffer.
+     */
+    private static void parseFrames(JsonParser parser, JsonToken token, CallSequenceFrames sequence) throws IOException
+    {
+        if(token != JsonToken.START_ARRAY)
+        {
+            parser.skipChildren();
+            return;
+        }
+
+        while(parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                if(field.equals("hex"))
+                {
+                    sequence.mFrames.add(toBytes(parser.getTextCharacters(), parser.getTextOffset(),
+                        parser.getTextLength()));
+                }
+                else if(field.startsWith("encryption"))
+                {
+                    sequence.mEncrypted = true;
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts hexadecimal characters to bytes
+     */
+    private static byte[] toBytes(char[] characters, int offset, int length) throws IOException
+    {
+        byte[] bytes = new byte[length / 2];
+
+        for(int x = 0; x < bytes.length; x++)
+        {
+            int high = Character.digit(characters[offset + x * 2], 16);
+            int low = Character.digit(characters[offset + x * 2 + 1], 16);
+
+            if(high < 0 || low < 0)
+            {
+                throw new IOException("Invalid hexadecimal voice frame");
+            }
+
+            bytes[x] = (byte)((high << 4) | low);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Metadata for the converted audio file.  Synchronized since the metadata utility uses a shared date formatter.
+     */
+    private static synchronized Map<AudioMetadata,String> getMetadata(CallSequenceFrames sequence)
+    {
+        Map<AudioMetadata,String> metadata = AudioMetadataUtils.getMetadataMap(null, null);
+
+        if(sequence.mTo != null)
+        {
+            metadata.put(AudioMetadata.TRACK_TITLE, sequence.mTo);
+        }
+
+        if(sequence.mFrom != null)
+        {
+            metadata.put(AudioMetadata.ARTIST_NAME, sequence.mFrom);
+        }
+
+        if(sequence.mSystem != null)
+        {
+            metadata.put(AudioMetadata.ALBUM_TITLE, sequence.mSystem);
+        }
+
+        if(sequence.mSite != null)
+        {
+            metadata.put(AudioMetadata.GROUPING, sequence.mSite);
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Call sequence header values and voice frames
+     */
+    static class CallSequenceFrames
+    {
+        private String mProtocol;
+        private String mFrom;
+        private String mTo;
+        private String mSystem;
+        private String mSite;
+        private boolean mEncrypted;
+        private final List<byte[]> mFrames = new ArrayList<>();
+
+        public String getProtocol()
+        {
+            return mProtocol;
+        }
+
+        public boolean isEncrypted()
+        {
+            return mEncrypted;
+        }
+
+        public List<byte[]> getFrames()
+        {
+            return mFrames;
+        }
+    }
+
+    /**
+     * Conversion worker with dedicated audio codec instances
+     */
+    private class Worker implements Runnable
+    {
+        private final Queue<Path> mQueue;
+        private final CountDownLatch mComplete;
+        private IAudioCodec mImbeCodec;
+        private IAudioCodec mAmbeCodec;
+
+        public Worker(Queue<Path> queue, CountDownLatch complete)
+        {
+            mQueue = queue;
+            mComplete = complete;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                Path input = mQueue.poll();
+
+                while(input != null)
+                {
+                    try
+                    {
+                        convert(input);
+                    }
+                    catch(Exception e)
+                    {
+                        mFailedCount.incrementAndGet();
+                        mLog.error("Error converting MBE call sequence [" + input + "] - " + e.getMessage());
+                    }
+
+                    input = mQueue.poll();
+                }
+            }
+            finally
+            {
+                mComplete.countDown();
+            }
+        }
+
+        /**
+         * Converts a single call sequence file
+         */
+        private void convert(Path input) throws IOException
+        {
+            Path output = getOutputPath(input);
+
+            if(!mOverwrite && Files.exists(output))
+            {
+                mSkippedCount.incrementAndGet();
+                return;
+            }
+
+            CallSequenceFrames sequence;
+
+            try(InputStream inputStream = Files.newInputStream(input))
+            {
+                sequence = parse(inputStream);
+            }
+
+            if(sequence.isEncrypted() || sequence.getFrames().isEmpty())
+            {
+                mSkippedCount.incrementAndGet();
+                return;
+            }
+
+            IAudioCodec codec = getCodec(sequence.getProtocol());
+
+            if(codec == null)
+            {
+                mSkippedCount.incrementAndGet();
+                mLog.warn("No audio codec available for protocol [" + sequence.getProtocol() + "] in [" + input + "]");
+                return;
+            }
+
+            //Clear leftover frame state from the previous call sequence
+            codec.reset();
+
+            List<float[]> audio = new ArrayList<>(sequence.getFrames().size());
+
+            for(byte[] frame: sequence.getFrames())
+            {
+                audio.add(codec.getAudio(frame));
+            }
+
+            if(mRecordFormat == RecordFormat.MP3)
+            {
+                writeMP3(audio, sequence, output);
+            }
+            else
+            {
+                writeWAVE(audio, sequence, output);
+            }
+
+            mFrameCount.addAndGet(audio.size());
+            mConvertedCount.incrementAndGet();
+        }
+
+        /**
+         * Audio codec for the call sequence protocol, created on first use by this worker.
+         */
+        private IAudioCodec getCodec(String protocol)
+        {
+            if(P25P1CallSequenceRecorder.PROTOCOL.equals(protocol))
+            {
+                if(mImbeCodec == null)
+                {
+                    mImbeCodec = JmbeAudioModule.createAudioCodec(mUserPreferences, ImbeAudioModule.IMBE_CODEC);
+                }
+
+                return mImbeCodec;
+            }
+            else if(P25P2CallSequenceRecorder.PROTOCOL.equals(protocol) ||
+                DMRCallSequenceRecorder.PROTOCOL.equals(protocol))
+            {
+                if(mAmbeCodec == null)
+                {
+                    mAmbeCodec = JmbeAudioModule.createAudioCodec(mUserPreferences, AmbeAudioModule.AMBE_CODEC);
+                }
+
+                return mAmbeCodec;
+            }
+
+            return null;
+        }
+
+        /**
+         * Writes the audio as a WAVE file with metadata
+         */
+        private void writeWAVE(List<float[]> audio, CallSequenceFrames sequence, Path output) throws IOException
+        {
+            Map<AudioMetadata,String> metadata = getMetadata(sequence);
+
+            try(WaveWriter writer = new WaveWriter(AudioFormats.PCM_SIGNED_8000_HZ_16_BIT_MONO, output))
+            {
+                for(float[] buffer: audio)
+                {
+                    writer.writeData(ConversionUtils.convertToSigned16BitSamples(buffer));
+                }
+
+                ByteBuffer id3Chunk = AudioMetadataUtils.getID3Chunk(AudioMetadataUtils.getMP3ID3(metadata));
+                writer.writeMetadata(AudioMetadataUtils.getLISTChunk(metadata), id3Chunk);
+            }
+        }
+
+        /**
+         * Writes the audio as an MP3 file with an ID3 tag, using the MP3 encoder settings from the user preferences.
+         */
+        private void writeMP3(List<float[]> audio, CallSequenceFrames sequence, Path output) throws IOException
+        {
+            MP3Preference preference = mUserPreferences.getMP3Preference();
+            MP3AudioConverter converter = new MP3AudioConverter(preference.getAudioSampleRate(),
+                preference.getMP3Setting(), preference.isNormalizeAudioBeforeEncode());
+
+            try(OutputStream outputStream = Files.newOutputStream(output))
+            {
+                outputStream.write(AudioMetadataUtils.getMP3ID3(getMetadata(sequence)));
+
+                for(byte[] frame: converter.convert(audio))
+                {
+                    outputStream.write(frame);
+                }
+
+                for(byte[] frame: converter.flush())
+                {
+                    outputStream.write(frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Expands the file and directory arguments into a sorted list of call sequence files.  Directories are searched
+     * recursively.
+     */
+    private static List<Path> getCallSequences(List<String> paths)
+    {
+        List<Path> files = new ArrayList<>();
+
+        for(String path: paths)
+        {
+            Path file = Path.of(path);
+
+            if(Files.isDirectory(file))
+            {
+                try(Stream<Path> stream = Files.walk(file))
+                {
+                    stream.filter(p -> p.getFileName().toString().endsWith(MBE_FILE_EXTENSION)).sorted()
+                        .forEach(files::add);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.warn("Error listing call sequences in directory [" + path + "] - " + ioe.getMessage());
+                }
+            }
+            else if(Files.exists(file))
+            {
+                files.add(file);
+            }
+            else
+            {
+                mLog.warn("Ignoring call sequence [" + path + "] - file does not exist");
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Launch the batch converter.
+     */
+    public static void main(String[] args)
+    {
+        //Force the AWT headless mode so that shared components take their non-UI code paths.
+        System.setProperty("java.awt.headless", "true");
+
+        MBECallSequenceBatchConverter converter = new MBECallSequenceBatchConverter();
+        List<String> paths = new ArrayList<>();
+
+        try
+        {
+            for(int x = 0; x < args.length; x++)
+            {
+                switch(args[x])
+                {
+                    case "--format" -> converter.mRecordFormat = RecordFormat.valueOf(args[++x].toUpperCase());
+                    case "--output" -> converter.mOutputDirectory = Path.of(args[++x]);
+                    case "--threads" -> converter.mThreadCount = Integer.parseInt(args[++x]);
+                    case "--overwrite" -> converter.mOverwrite = true;
+                    default -> paths.add(args[x]);
+                }
+            }
+        }
+        catch(RuntimeException e)
+        {
+            System.out.println("Invalid argument - " + e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        List<Path> files = getCallSequences(paths);
+
+        if(files.isEmpty())
+        {
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        if(converter.mOutputDirectory != null)
+        {
+            try
+            {
+                Files.createDirectories(converter.mOutputDirectory);
+            }
+            catch(IOException ioe)
+            {
+                System.out.println("Unable to create output directory - " + ioe.getMessage());
+                System.exit(1);
+            }
+        }
+
+        converter.process(files);
+        System.exit(0);
+    }
+}
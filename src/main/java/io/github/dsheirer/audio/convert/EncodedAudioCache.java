@@ -0,0 +1,228 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.convert;
+
+import io.github.dsheirer.audio.AudioSegment;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of MP3 encoded audio for audio segments so that each completed audio segment is encoded once and the encoded
+ * audio is shared by the audio recorder and each of the streaming broadcasters.
+ *
+ * Entries are keyed by the audio segment and the encoder configuration and contain only the MP3 audio frames.  Each
+ * consumer adds any (ID3) metadata that is specific to the consumer.
+ *
+ * Entries are reference counted.  Consumers acquire() an entry, use the encoded audio and then release() the entry.
+ * An entry is evicted once the audio segment has been disposed (ie all consumers of the audio segment are finished)
+ * and the entry has no remaining references.  The cache is also bounded to protect against audio segments that are
+ * never disposed and, when full, unreferenced entries are evicted.
+ */
+public class EncodedAudioCache
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EncodedAudioCache.class);
+    private static final int MAX_ENTRIES = 256;
+    private static final long WARNING_LOG_INTERVAL_MS = 60000;
+    private static final EncodedAudioCache INSTANCE = new EncodedAudioCache();
+
+    private final Map<Key,EncodedAudio> mCache = new ConcurrentHashMap<>();
+    private final AtomicLong mLastWarningTimestamp = new AtomicLong();
+
+    /**
+     * Singleton constructor.
+     */
+    private EncodedAudioCache()
+    {
+    }
+
+    /**
+     * Shared cache instance
+     */
+    public static EncodedAudioCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Acquires the MP3 encoded audio for the audio segment, encoding the audio on first access.  The caller must
+     * invoke release() on the returned encoded audio once finished with it.
+     *
+     * Note: the audio segment should be complete and the caller must hold a consumer count on the audio segment.
+     *
+     * @param audioSegment to encode
+     * @param setting for the MP3 encoder
+     * @param inputAudioFormat for the MP3 encoder
+     * @param normalizeAudio to normalize the audio before encoding
+     * @return encoded audio
+     */
+    public EncodedAudio acquire(AudioSegment audioSegment, MP3Setting setting, InputAudioFormat inputAudioFormat,
+                                boolean normalizeAudio)
+    {
+        if(mCache.size() >= MAX_ENTRIES)
+        {
+            evictUnreferenced();
+        }
+
+        Key key = new Key(audioSegment, setting, inputAudioFormat, normalizeAudio);
+        EncodedAudio encodedAudio = mCache.computeIfAbsent(key, EncodedAudio::new);
+        encodedAudio.mReferenceCount.incrementAndGet();
+        encodedAudio.encode();
+        return encodedAudio;
+    }
+
+    /**
+     * Signals that the audio segment has been disposed and evicts any entries for the audio segment that are not
+     * currently referenced.  Referenced entries are evicted when the final reference is released.
+     * @param audioSegment that was disposed
+     */
+    public void evict(AudioSegment audioSegment)
+    {
+        if(mCache.isEmpty())
+        {
+            return;
+        }
+
+        for(EncodedAudio encodedAudio: mCache.values())
+        {
+            if(encodedAudio.mKey.audioSegment() == audioSegment)
+            {
+                encodedAudio.mSegmentDisposed = true;
+
+                if(encodedAudio.mReferenceCount.get() <= 0)
+                {
+                    mCache.remove(encodedAudio.mKey, encodedAudio);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts all unreferenced entries when the cache reaches the maximum size.  Logs a (rate limited) warning when
+     * there are no unreferenced entries to evict and the cache continues to grow beyond the maximum size.
+     */
+    private void evictUnreferenced()
+    {
+        boolean evicted = false;
+        Iterator<EncodedAudio> it = mCache.values().iterator();
+
+        while(it.hasNext())
+        {
+            if(it.next().mReferenceCount.get() <= 0)
+            {
+                it.remove();
+                evicted = true;
+            }
+        }
+
+        if(!evicted)
+        {
+            long now = System.currentTimeMillis();
+            long lastWarning = mLastWarningTimestamp.get();
+
+            if(now - lastWarning > WARNING_LOG_INTERVAL_MS && mLastWarningTimestamp.compareAndSet(lastWarning, now))
+            {
+                mLog.warn("Encoded audio cache exceeds maximum size [" + MAX_ENTRIES + "] with [" + mCache.size() +
+                    "] entries that are all referenced.  Encoded audio consumers may not be releasing entries.");
+            }
+        }
+    }
+
+    /**
+     * Number of entries currently in the cache
+     */
+    public int size()
+    {
+        return mCache.size();
+    }
+
+    /**
+     * Cache key.  Audio segments use identity equality.
+     */
+    private record Key(AudioSegment audioSegment, MP3Setting setting, InputAudioFormat inputAudioFormat,
+                       boolean normalizeAudio) {}
+
+    /**
+     * Reference counted MP3 encoded audio for an audio segment.
+     */
+    public class EncodedAudio
+    {
+        private final Key mKey;
+        private final AtomicInteger mReferenceCount = new AtomicInteger();
+        private volatile boolean mSegmentDisposed = false;
+        private byte[] mAudio;
+
+        private EncodedAudio(Key key)
+        {
+            mKey = key;
+        }
+
+        /**
+         * Encodes the audio segment on first invocation.  Concurrent consumers block until the encoding is complete.
+         */
+        private synchronized void encode()
+        {
+            if(mAudio == null)
+            {
+                MP3AudioConverter converter = new MP3AudioConverter(mKey.inputAudioFormat(), mKey.setting(),
+                    mKey.normalizeAudio());
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+                List<byte[]> mp3Frames = converter.convert(mKey.audioSegment().getAudioBuffers());
+
+                for(byte[] mp3Frame: mp3Frames)
+                {
+                    stream.writeBytes(mp3Frame);
+                }
+
+                for(byte[] lastFrame: converter.flush())
+                {
+                    stream.writeBytes(lastFrame);
+                }
+
+                mAudio = stream.toByteArray();
+            }
+        }
+
+        /**
+         * MP3 encoded audio frames.  Note: the returned array is shared and must not be modified.
+         */
+        public synchronized byte[] getAudio()
+        {
+            return mAudio;
+        }
+
+        /**
+         * Releases this reference to the encoded audio.
+         */
+        public void release()
+        {
+            if(mReferenceCount.decrementAndGet() <= 0 && mSegmentDisposed)
+            {
+                mCache.remove(mKey, this);
+            }
+        }
+    }
+}
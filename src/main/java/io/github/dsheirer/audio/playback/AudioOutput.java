@@ -21,23 +21,22 @@ package io.github.dsheirer.audio.playback;
 import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.audio.AudioEvent;
 import io.github.dsheirer.audio.AudioSegment;
-import io.github.dsheirer.controller.NamingThreadFactory;
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.log.LoggingSuppressor;
+import io.github.dsheirer.monitor.metrics.Histogram;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.MetricsRegistry;
 import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.mixer.MixerChannel;
+import io.github.dsheirer.util.SignalledProcessor;
 import java.nio.ByteBuffer;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.beans.value.ChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,22 +78,26 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
     private ByteBuffer mAudioSegmentStartTone;
     private ByteBuffer mAudioSegmentDropTone;
     private boolean mRunning = false;
-    private ScheduledExecutorService mScheduledExecutorService;
-    private ScheduledFuture<?> mProcessorFuture;
+    private SignalledProcessor mAudioSegmentProcessor;
+    private Listener<AudioSegment> mAudioAddedListener = audioSegment -> mAudioSegmentProcessor.signal();
+    private ChangeListener<Boolean> mCompletionListener = (observable, oldValue, newValue) ->
+        mAudioSegmentProcessor.signal();
     private boolean mDropDuplicates;
     private long mOutputLastTimestamp = 0;
     private static final long STALE_PLAYBACK_THRESHOLD_MS = 500;
     private AudioFormat mAudioFormat;
     private Line.Info mLineInfo;
     private int mRequestedBufferSize;
+    private Histogram mOutputLatency;
 
     /**
      * Single audio channel playback with automatic starting and stopping of the
      * underlying sourcedataline specified by the mixer and mixer channel
      * arguments.
      *
-     * Maintains an internal non-blocking audio packet queue and processes this
-     * queue 25 times a second (every 40 ms).
+     * Maintains an internal non-blocking audio segment queue that is processed each time an audio segment is queued
+     * and each time audio is added to, or completes, the current audio segment.  The queue is also processed every
+     * 100 ms to stop the output line once playback has finished.
      *
      * @param mixer to obtain source data line
      * @param mixerChannel either mono or left/right stereo
@@ -107,13 +110,16 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
     {
         mMixer = mixer;
         mMixerChannel = mixerChannel;
-        mScheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(
-                "sdrtrunk audio output " + mixerChannel.name()));
+        mAudioSegmentProcessor = new SignalledProcessor("sdrtrunk audio output " + mixerChannel.name(),
+            new AudioSegmentProcessor(), 100);
         mUserPreferences = userPreferences;
         mDropDuplicates = mUserPreferences.getCallManagementPreference().isDuplicatePlaybackSuppressionEnabled();
         mAudioFormat = audioFormat;
         mLineInfo = lineInfo;
         mRequestedBufferSize = requestedBufferSize;
+        mOutputLatency = MetricsRegistry.getInstance().histogram("audio_output_latency_us",
+            "Time from when an audio buffer is produced until it is played, including audio that is already " +
+                "queued in the output line, in microseconds", MetricScope.AUDIO, mixerChannel.name());
 
         try
         {
@@ -157,9 +163,7 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
                             getChannelName() + "]");
                     }
 
-					//Run the queue processor task every 100 milliseconds or 10 times a second
-                    mProcessorFuture = mScheduledExecutorService.scheduleAtFixedRate(new AudioSegmentProcessor(),
-                        0, 100, TimeUnit.MILLISECONDS);
+                    mAudioSegmentProcessor.start();
                 }
 
                 mAudioStartEvent = new AudioEvent(AudioEvent.Type.AUDIO_STARTED, getChannelName());
@@ -200,6 +204,7 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
         {
             //Audio segment use count has already been incremented by the external caller.
             mAudioSegmentQueue.add(audioSegment);
+            mAudioSegmentProcessor.signal();
         }
     }
 
@@ -419,8 +424,10 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
     {
         if(mCurrentAudioSegment != null)
         {
-            mCurrentAudioSegment.decrementConsumerCount();
             mCurrentAudioSegment.removeIdentifierUpdateNotificationListener(this);
+            mCurrentAudioSegment.removeAudioAddedListener(mAudioAddedListener);
+            mCurrentAudioSegment.completeProperty().removeListener(mCompletionListener);
+            mCurrentAudioSegment.decrementConsumerCount();
             mCurrentAudioSegment = null;
             broadcast(null);
         }
@@ -461,6 +468,8 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
         if(audioSegment != null)
         {
             mCurrentAudioSegment.addIdentifierUpdateNotificationListener(this);
+            mCurrentAudioSegment.addAudioAddedListener(mAudioAddedListener);
+            mCurrentAudioSegment.completeProperty().addListener(mCompletionListener);
             broadcast(mCurrentAudioSegment.getIdentifierCollection());
         }
 
@@ -523,10 +532,12 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
 
                 try
                 {
+                    long produced = mCurrentAudioSegment.getAudioBufferTimestamp(mCurrentBufferIndex);
                     float[] audioBuffer = mCurrentAudioSegment.getAudioBuffers().get(mCurrentBufferIndex++);
 
                     if(audioBuffer != null)
                     {
+                        recordOutputLatency(produced);
                         ByteBuffer audio = convert(audioBuffer);
                         //This call blocks until all audio bytes are dumped into the data line.
                         playAudio(audio);
@@ -550,20 +561,39 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
         checkStop();
     }
 
+    /**
+     * Records the latency from when an audio buffer was produced until it will be heard, which is the elapsed time
+     * plus the duration of the audio already queued in the output line.
+     * @param produced timestamp of the audio buffer
+     */
+    private void recordOutputLatency(long produced)
+    {
+        long latency = (System.currentTimeMillis() - produced) * 1000;
+
+        if(mOutput != null)
+        {
+            int queuedBytes = mOutput.getBufferSize() - mOutput.available();
+            float bytesPerSecond = mAudioFormat.getFrameRate() * mAudioFormat.getFrameSize();
+
+            if(queuedBytes > 0 && bytesPerSecond > 0)
+            {
+                latency += (long)(queuedBytes / bytesPerSecond * 1E6);
+            }
+        }
+
+        mOutputLatency.record(latency);
+    }
+
     /**
      * Prepares this audio output for disposal.
      */
     public void dispose()
     {
+        MetricsRegistry.getInstance().remove(mOutputLatency);
         MyEventBus.getGlobalEventBus().unregister(this);
         mCanProcessAudio = false;
 
-        if(mProcessorFuture != null)
-        {
-            mProcessorFuture.cancel(true);
-        }
-
-        mProcessorFuture = null;
+        mAudioSegmentProcessor.stop();
         disposeCurrentAudioSegment();
         mAudioEventBroadcaster.clear();
         mIdentifierCollectionListener = null;
@@ -772,23 +802,16 @@ public abstract class AudioOutput implements LineListener, Listener<IdentifierUp
      */
     public class AudioSegmentProcessor implements Runnable
     {
-        private AtomicBoolean mProcessing = new AtomicBoolean();
-
         @Override
         public void run()
         {
-            if(mProcessing.compareAndSet(false, true))
+            try
             {
-                try
-                {
-                    processAudio();
-                }
-                catch(Throwable t)
-                {
-                    mLog.error("Error while processing audio buffers", t);
-                }
-
-                mProcessing.set(false);
+                processAudio();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while processing audio buffers", t);
             }
         }
     }
@@ -472,6 +472,11 @@ public class BinaryMessage extends BitSet
      */
     public int getInt(IntField intField)
     {
+        if(intField.end() - intField.start() < 32)
+        {
+            return (int)getContiguousBits(intField.start(), intField.end());
+        }
+
         int value = 0;
 
         for(int index = intField.start(); index <= intField.end(); index++)
@@ -487,6 +492,25 @@ public class BinaryMessage extends BitSet
         return value;
     }
 
+    /**
+     * Returns the value of the contiguous bit range with the start index as the most significant bit, visiting only
+     * the set bits in the range.
+     * @param start index (inclusive)
+     * @param end index (inclusive), no more than 63 bits beyond the start index.
+     * @return value
+     */
+    private long getContiguousBits(int start, int end)
+    {
+        long value = 0;
+
+        for(int index = nextSetBit(start); index >= 0 && index <= end; index = nextSetBit(index + 1))
+        {
+            value |= 1L << (end - index);
+        }
+
+        return value;
+    }
+
     /**
      * Returns the integer value of the message field described by the field argument.
      * @param fragmentedField with an array of message indices
@@ -546,6 +570,11 @@ public class BinaryMessage extends BitSet
      */
     public int getInt(IntField intField, int offset)
     {
+        if(intField.end() - intField.start() < 32)
+        {
+            return (int)getContiguousBits(intField.start() + offset, intField.end() + offset);
+        }
+
         int value = 0;
 
         for(int index = intField.start() + offset; index <= intField.end() + offset; index++)
@@ -622,6 +651,11 @@ public class BinaryMessage extends BitSet
      */
     public long getLong(LongField intField)
     {
+        if(intField.end() - intField.start() < 64)
+        {
+            return getContiguousBits(intField.start(), intField.end());
+        }
+
         long value = 0;
 
         for(int index = intField.start(); index <= intField.end(); index++)
@@ -646,6 +680,11 @@ public class BinaryMessage extends BitSet
      */
     public long getLong(LongField intField, int offset)
     {
+        if(intField.end() - intField.start() < 64)
+        {
+            return getContiguousBits(intField.start() + offset, intField.end() + offset);
+        }
+
         long value = 0;
 
         for(int index = intField.start() + offset; index <= intField.end() + offset; index++)
@@ -1030,7 +1069,11 @@ public class BinaryMessage extends BitSet
 
         int value = 0;
 
-        if(start < end)
+        if(start < end && end - start < 32)
+        {
+            return (int)getContiguousBits(start, end);
+        }
+        else if(start < end)
         {
             for(int x = start; x <= end; x++)
             {
@@ -1105,7 +1148,11 @@ public class BinaryMessage extends BitSet
 
         long value = 0;
 
-        if(start < end)
+        if(start < end && end - start < 64)
+        {
+            return getContiguousBits(start, end);
+        }
+        else if(start < end)
         {
             for(int x = start; x <= end; x++)
             {
@@ -0,0 +1,326 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.bits;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size, reusable bit vector backed by a long array for assembling framed messages one bit at a time and for
+ * extracting message fields with word-level operations.
+ *
+ * Bits use the same word layout as java.util.BitSet (bit N is stored in word N / 64 at bit position N % 64) so that
+ * the assembled bits can be transferred to a binary message one word at a time.  Message framers can retain a single
+ * instance and reset() it for each message, so that bit assembly does not allocate.  Note: the vector contents are
+ * overwritten on reset, so framers should transfer the bits via toCorrectedBinaryMessage() before the message is
+ * dispatched to consumers.
+ */
+public class BitVector
+{
+    private long[] mWords;
+    private int mSize;
+    private int mPointer;
+
+    /**
+     * Constructs an instance
+     * @param size of the vector in bits
+     */
+    public BitVector(int size)
+    {
+        mWords = new long[getWordCount(size)];
+        mSize = size;
+    }
+
+    /**
+     * Number of long words required to hold the bit count.
+     */
+    private static int getWordCount(int bitCount)
+    {
+        return (bitCount + 63) >>> 6;
+    }
+
+    /**
+     * Clears all bits, resets the fill pointer and changes the size of this vector, growing the backing array if
+     * necessary.
+     * @param size of the vector in bits
+     */
+    public void reset(int size)
+    {
+        int wordCount = getWordCount(size);
+
+        if(wordCount > mWords.length)
+        {
+            mWords = new long[wordCount];
+        }
+        else
+        {
+            Arrays.fill(mWords, 0, getWordCount(Math.max(mSize, mPointer)), 0L);
+        }
+
+        mSize = size;
+        mPointer = 0;
+    }
+
+    /**
+     * Clears all bits and resets the fill pointer.
+     */
+    public void reset()
+    {
+        reset(mSize);
+    }
+
+    /**
+     * Size of this vector in bits
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Index of the next bit to be filled by add()
+     */
+    public int pointer()
+    {
+        return mPointer;
+    }
+
+    /**
+     * Indicates if this vector has been filled to its size.
+     */
+    public boolean isFull()
+    {
+        return mPointer >= mSize;
+    }
+
+    /**
+     * Adds the bit at the current fill pointer and increments the pointer.
+     * @param bit to add
+     * @throws BitSetFullException if the vector is already full
+     */
+    public void add(boolean bit) throws BitSetFullException
+    {
+        if(mPointer >= mSize)
+        {
+            throw new BitSetFullException("bit vector is full -- contains [" + mPointer + "/" + mSize + "] bits");
+        }
+
+        if(bit)
+        {
+            mWords[mPointer >>> 6] |= 1L << mPointer;
+        }
+
+        mPointer++;
+    }
+
+    /**
+     * Adds two bits at the current fill pointer.  Note: this method does not check for overflow, consistent with
+     * BinaryMessage.add(boolean, boolean), so the caller is responsible for sizing the vector.
+     * @param bit1 to add
+     * @param bit2 to add
+     */
+    public void add(boolean bit1, boolean bit2)
+    {
+        if(bit1)
+        {
+            mWords[mPointer >>> 6] |= 1L << mPointer;
+        }
+
+        mPointer++;
+
+        if(bit2)
+        {
+            mWords[mPointer >>> 6] |= 1L << mPointer;
+        }
+
+        mPointer++;
+    }
+
+    /**
+     * Adds a run of dibit values (0-3, most significant bit first) at the current fill pointer.  Note: this method
+     * does not check for overflow, so the caller is responsible for ensuring there is room for count * 2 bits.
+     * @param dibits array of dibit values
+     * @param offset to the first dibit to add
+     * @param count of dibits to add
+     */
+    public void addDibits(byte[] dibits, int offset, int count)
+    {
+        int pointer = mPointer;
+
+        for(int x = offset; x < offset + count; x++)
+        {
+            int dibit = dibits[x];
+
+            if((dibit & 0x2) != 0)
+            {
+                mWords[pointer >>> 6] |= 1L << pointer;
+            }
+
+            pointer++;
+
+            if((dibit & 0x1) != 0)
+            {
+                mWords[pointer >>> 6] |= 1L << pointer;
+            }
+
+            pointer++;
+        }
+
+        mPointer = pointer;
+    }
+
+    /**
+     * Value of the bit at the index
+     */
+    public boolean get(int index)
+    {
+        return (mWords[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Extracts the contiguous bit range, with the start index as the most significant bit.  Reads at most two words.
+     * @param start index, inclusive
+     * @param end index, inclusive, no more than 63 bits beyond the start index
+     * @return value
+     */
+    private long getValue(int start, int end)
+    {
+        int width = end - start + 1;
+        int wordIndex = start >>> 6;
+        int shift = start & 63;
+
+        long value = mWords[wordIndex] >>> shift;
+
+        if(shift + width > 64)
+        {
+            value |= mWords[wordIndex + 1] << (64 - shift);
+        }
+
+        //The start bit is now the least significant bit - reverse so the start bit becomes the most significant bit
+        //of the field, which also discards any bits beyond the end of the field.
+        return Long.reverse(value) >>> (64 - width);
+    }
+
+    /**
+     * Value of the field.
+     * @param field with start and end indices (inclusive)
+     * @return field value
+     */
+    public int getInt(IntField field)
+    {
+        return (int)getValue(field.start(), field.end());
+    }
+
+    /**
+     * Value of the field where the field indices are relative to an offset within this vector.
+     * @param field with start and end indices (inclusive)
+     * @param offset to the first bit of the message
+     * @return field value
+     */
+    public int getInt(IntField field, int offset)
+    {
+        return (int)getValue(field.start() + offset, field.end() + offset);
+    }
+
+    /**
+     * Value of the fragmented field.
+     * @param field with an array of field indices, most significant bit first
+     * @return field value
+     */
+    public int getInt(FragmentedIntField field)
+    {
+        return getInt(field, 0);
+    }
+
+    /**
+     * Value of the fragmented field where the field indices are relative to an offset within this vector.
+     * @param field with an array of field indices, most significant bit first
+     * @param offset to the first bit of the message
+     * @return field value
+     */
+    public int getInt(FragmentedIntField field, int offset)
+    {
+        int value = 0;
+
+        for(int index: field.indices())
+        {
+            int position = index + offset;
+            value = (value << 1) | (int)((mWords[position >>> 6] >>> position) & 1L);
+        }
+
+        return value;
+    }
+
+    /**
+     * Value of the field.
+     * @param field with start and end indices (inclusive)
+     * @return field value
+     */
+    public long getLong(LongField field)
+    {
+        return getValue(field.start(), field.end());
+    }
+
+    /**
+     * Value of the field where the field indices are relative to an offset within this vector.
+     * @param field with start and end indices (inclusive)
+     * @param offset to the first bit of the message
+     * @return field value
+     */
+    public long getLong(LongField field, int offset)
+    {
+        return getValue(field.start() + offset, field.end() + offset);
+    }
+
+    /**
+     * Indicates if any of the bits in the field are set.
+     */
+    public boolean hasInt(IntField field)
+    {
+        return getValue(field.start(), field.end()) != 0;
+    }
+
+    /**
+     * Creates a new corrected binary message containing the bits of this vector, copied directly from each word.
+     * The message fill pointer is set to the current fill pointer of this vector.
+     * @return message
+     */
+    public CorrectedBinaryMessage toCorrectedBinaryMessage()
+    {
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage(mSize);
+        int wordCount = getWordCount(mSize);
+
+        for(int x = 0; x < wordCount; x++)
+        {
+            long word = mWords[x];
+            int offset = x << 6;
+
+            //Set each run of contiguous set bits in the word with a single range operation
+            while(word != 0)
+            {
+                int start = Long.numberOfTrailingZeros(word);
+                int end = start + Long.numberOfTrailingZeros(~(word >>> start));
+                message.set(offset + start, offset + end);
+                word = end < 64 ? word & (-1L << end) : 0;
+            }
+        }
+
+        message.setPointer(mPointer);
+        return message;
+    }
+}
@@ -19,12 +19,16 @@
 
 package io.github.dsheirer.buffer;
 
+import java.nio.ByteBuffer;
+
 /**
  * Base class for native buffer factories.
  */
 public abstract class AbstractNativeBufferFactory implements INativeBufferFactory
 {
+    private static final int NATIVE_BUFFER_POOL_SIZE = 32;
     private float mSamplesPerMillisecond = 0.0f;
+    private NativeBufferPool mNativeBufferPool;
 
     @Override
     public void setSamplesPerMillisecond(float samplesPerMillisecond)
@@ -41,4 +45,30 @@ public abstract class AbstractNativeBufferFactory implements INativeBufferFactor
     {
         return mSamplesPerMillisecond;
     }
+
+    /**
+     * Copies the samples into a direct byte buffer from the native buffer pool.  The pool is recreated if the
+     * samples buffer capacity changes.
+     * @param samples to copy.  The position of the samples buffer is not modified.
+     * @return pooled copy of the samples.
+     */
+    protected ByteBuffer copyToPooledBuffer(ByteBuffer samples)
+    {
+        if(mNativeBufferPool == null || mNativeBufferPool.getBufferCapacity() != samples.capacity())
+        {
+            mNativeBufferPool = new NativeBufferPool(NATIVE_BUFFER_POOL_SIZE, samples.capacity());
+        }
+
+        ByteBuffer copy = mNativeBufferPool.getBuffer();
+        copy.put(0, samples, 0, samples.capacity());
+        return copy;
+    }
+
+    /**
+     * Native buffer pool that provided the most recent copyToPooledBuffer() buffer.
+     */
+    protected NativeBufferPool getNativeBufferPool()
+    {
+        return mNativeBufferPool;
+    }
 }
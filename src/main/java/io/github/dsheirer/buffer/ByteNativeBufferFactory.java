@@ -19,44 +19,85 @@
 
 package io.github.dsheirer.buffer;
 
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
 import java.nio.ByteBuffer;
 
 /**
- * Implements a factory for creating ByteNativeBuffer instances
+ * Implements a factory for creating ByteNativeBuffer instances, or pooled buffer instances for unsigned 8-bit samples.
  */
 public class ByteNativeBufferFactory extends AbstractNativeBufferFactory
 {
     private DcCorrectionManager mDcCorrectionManager = new DcCorrectionManager();
+    private IByteSampleConverter mConverter;
+
+    /**
+     * Constructs an instance
+     */
+    public ByteNativeBufferFactory()
+    {
+        Implementation implementation = CalibrationManager.getInstance()
+            .getImplementation(CalibrationType.BYTE_SAMPLE_CONVERTER);
+
+        if(implementation == Implementation.VECTOR_SIMD_PREFERRED)
+        {
+            mConverter = new VectorByteSampleConverter(false);
+        }
+        else
+        {
+            mConverter = new ScalarByteSampleConverter(false);
+        }
+    }
 
     @Override
     public INativeBuffer getBuffer(ByteBuffer samples, long timestamp)
     {
+        if(mDcCorrectionManager.shouldCalculateDc())
+        {
+            calculateDc(samples);
+        }
+
         byte[] copy = new byte[samples.capacity()];
         samples.get(copy);
 
+        return new ByteNativeBuffer(copy, timestamp, mDcCorrectionManager.getAverageDc(), getSamplesPerMillisecond());
+    }
+
+    @Override
+    public INativeBuffer getReusableBuffer(ByteBuffer samples, long timestamp)
+    {
+        if(samples.capacity() % (PooledByteNativeBuffer.FRAGMENT_SIZE * 2) != 0)
+        {
+            return getBuffer(samples, timestamp);
+        }
+
         if(mDcCorrectionManager.shouldCalculateDc())
         {
-            calculateDc(copy);
+            calculateDc(samples);
         }
 
-        return new ByteNativeBuffer(copy, timestamp, mDcCorrectionManager.getAverageDc(), getSamplesPerMillisecond());
+        ByteBuffer copy = copyToPooledBuffer(samples);
+        float averageDc = mDcCorrectionManager.getAverageDc();
+        return new PooledByteNativeBuffer(getNativeBufferPool(), copy, mConverter, timestamp, averageDc, averageDc,
+            getSamplesPerMillisecond());
     }
 
     /**
      * Calculates the average DC in the sample stream so that it can be subtracted from the samples when the
      * native buffer is used.
-     * @param samples containing DC offset
+     * @param samples containing DC offset.  The buffer position is not modified.
      */
-    private void calculateDc(byte[] samples)
+    private void calculateDc(ByteBuffer samples)
     {
         float dcAccumulator = 0;
 
-        for(byte sample: samples)
+        for(int x = 0; x < samples.capacity(); x++)
         {
-            dcAccumulator += (sample & 0xFF);
+            dcAccumulator += (samples.get(x) & 0xFF);
         }
 
-        dcAccumulator /= samples.length;
+        dcAccumulator /= samples.capacity();
         dcAccumulator -= 127.5f;
         dcAccumulator /= 128.0f;
         mDcCorrectionManager.adjust(dcAccumulator);
@@ -0,0 +1,38 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Converts interleaved 8-bit I/Q samples to interleaved float samples scaled to the range -1.0 to 1.0 with the DC
+ * offset removed.
+ */
+public interface IByteSampleConverter
+{
+    /**
+     * Converts destination.length byte samples from the source memory into the destination array.
+     * @param source memory of interleaved 8-bit I/Q samples.
+     * @param offset into the source memory for the first sample to convert
+     * @param destination array for the converted samples.  Length must be an even value.
+     * @param iDc offset to remove from each I sample
+     * @param qDc offset to remove from each Q sample
+     */
+    void convert(MemorySegment source, long offset, float[] destination, float iDc, float qDc);
+}
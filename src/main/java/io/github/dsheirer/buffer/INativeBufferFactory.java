@@ -38,6 +38,22 @@ public interface INativeBufferFactory
      */
     INativeBuffer getBuffer(ByteBuffer samples, long timestamp);
 
+    /**
+     * Creates a native buffer from pooled memory that is returned to the pool once all consumers have released the
+     * buffer.  Factories that don't support pooled buffers return a non-reusable buffer from getBuffer().
+     *
+     * Note: the caller must invoke decrementUserCount() on the returned buffer, if it is an IReusableNativeBuffer,
+     * once it has dispatched the buffer to all listeners.
+     *
+     * @param samples byte array copied from native memory
+     * @param timestamp of the samples
+     * @return instance
+     */
+    default INativeBuffer getReusableBuffer(ByteBuffer samples, long timestamp)
+    {
+        return getBuffer(samples, timestamp);
+    }
+
     /**
      * Sets the samples per millisecond rate based on the current sample rate.
      *
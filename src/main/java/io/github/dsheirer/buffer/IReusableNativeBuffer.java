@@ -0,0 +1,54 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.util.Iterator;
+
+/**
+ * Native buffer that is backed by pooled (reusable) memory.  The buffer is only valid while the user count is greater
+ * than zero.  The producer holds one user count while it broadcasts the buffer.  A consumer that retains the buffer
+ * beyond the receive() call (e.g. by queuing the buffer for processing on another thread) must invoke
+ * incrementUserCount() before the receive() call returns and decrementUserCount() once it has finished with the
+ * buffer.  When the user count returns to zero, the backing memory is returned to the pool for reuse.
+ *
+ * Reusable native buffers are only produced when every registered buffer listener implements
+ * IReusableNativeBufferListener.
+ */
+public interface IReusableNativeBuffer extends INativeBuffer
+{
+    /**
+     * Increments the user count to indicate that a consumer is retaining this buffer.
+     */
+    void incrementUserCount();
+
+    /**
+     * Decrements the user count.  When the user count returns to zero, the buffer is returned to the pool.
+     */
+    void decrementUserCount();
+
+    /**
+     * Provides an iterator that converts the raw samples into the reusable array argument for each interleaved
+     * complex samples fragment.  The consumer must finish with each fragment before requesting the next fragment.
+     * @param reusable array to convert samples into, or null (or an array of incorrect length) to allocate a new
+     * array that can be reused on subsequent calls by accessing samples() from the first fragment.
+     * @return iterator
+     */
+    Iterator<InterleavedComplexSamples> iteratorInterleaved(float[] reusable);
+}
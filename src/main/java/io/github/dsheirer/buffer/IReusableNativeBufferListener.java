@@ -0,0 +1,31 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+/**
+ * Marker interface for a native buffer listener that honors the IReusableNativeBuffer contract: any reusable buffer
+ * that the listener retains beyond the receive() call has its user count incremented during receive() and decremented
+ * once the listener no longer needs the buffer.
+ *
+ * Tuner controllers only produce pooled, reusable native buffers when all registered listeners implement this
+ * interface, otherwise each buffer is copied into a new heap array.
+ */
+public interface IReusableNativeBufferListener
+{
+}
@@ -0,0 +1,87 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of reusable direct (off-heap) byte buffers of a fixed capacity for holding the contents of native
+ * tuner transfer buffers.  Buffers are created on demand when the pool is empty and are retained for reuse when
+ * returned, up to the maximum pool size.  A buffer that is never returned is simply garbage collected.
+ */
+public class NativeBufferPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(NativeBufferPool.class);
+    private final ArrayBlockingQueue<ByteBuffer> mAvailable;
+    private final int mBufferCapacity;
+    private int mCreatedCount;
+
+    /**
+     * Constructs an instance
+     * @param maxPoolSize maximum number of idle buffers to retain for reuse
+     * @param bufferCapacity in bytes for each buffer
+     */
+    public NativeBufferPool(int maxPoolSize, int bufferCapacity)
+    {
+        mAvailable = new ArrayBlockingQueue<>(maxPoolSize);
+        mBufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Capacity in bytes of each buffer from this pool
+     */
+    public int getBufferCapacity()
+    {
+        return mBufferCapacity;
+    }
+
+    /**
+     * Provides an idle buffer from the pool or creates a new buffer when the pool is empty.  Note: this method should
+     * only be invoked by a single producer thread.
+     */
+    public ByteBuffer getBuffer()
+    {
+        ByteBuffer buffer = mAvailable.poll();
+
+        if(buffer == null)
+        {
+            buffer = ByteBuffer.allocateDirect(mBufferCapacity);
+            mCreatedCount++;
+
+            if(mCreatedCount % 100 == 0)
+            {
+                mLog.warn("Native buffer pool has created [" + mCreatedCount + "] buffers - consumers may not be " +
+                    "releasing buffers or processing is falling behind");
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to this pool for reuse.  If the pool is full, the buffer is discarded.
+     */
+    public void recycle(ByteBuffer buffer)
+    {
+        mAvailable.offer(buffer);
+    }
+}
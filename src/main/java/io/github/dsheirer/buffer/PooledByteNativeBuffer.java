@@ -0,0 +1,191 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reusable native buffer of interleaved 8-bit I/Q samples held in a pooled direct byte buffer.  Samples are converted
+ * on demand, one fragment at a time, by the sample converter.  The buffer memory is returned to the pool when the
+ * user count returns to zero.
+ */
+public class PooledByteNativeBuffer extends AbstractNativeBuffer implements IReusableNativeBuffer
+{
+    public static final int FRAGMENT_SIZE = 2048;
+    private final NativeBufferPool mPool;
+    private final ByteBuffer mSamples;
+    private final MemorySegment mSegment;
+    private final IByteSampleConverter mConverter;
+    private final float mIAverageDc;
+    private final float mQAverageDc;
+    private final AtomicInteger mUserCount = new AtomicInteger(1);
+
+    /**
+     * Constructs an instance with a user count of one for the producer.
+     * @param pool that owns the samples buffer
+     * @param samples buffer from the pool, loaded with samples.  Capacity must be an even multiple of the fragment
+     * size times two.
+     * @param converter for converting the samples
+     * @param timestamp of the samples
+     * @param iAverageDc of the sample stream
+     * @param qAverageDc of the sample stream
+     * @param samplesPerMillisecond to calculate sub-buffer timestamps
+     */
+    public PooledByteNativeBuffer(NativeBufferPool pool, ByteBuffer samples, IByteSampleConverter converter,
+                                  long timestamp, float iAverageDc, float qAverageDc, float samplesPerMillisecond)
+    {
+        super(timestamp, samplesPerMillisecond);
+
+        if(samples.capacity() % (FRAGMENT_SIZE * 2) != 0)
+        {
+            throw new IllegalArgumentException("Samples buffer capacity [" + samples.capacity() +
+                "] must be an even multiple of " + (FRAGMENT_SIZE * 2));
+        }
+
+        mPool = pool;
+        mSamples = samples;
+        mSegment = MemorySegment.ofBuffer(samples.clear());
+        mConverter = converter;
+        mIAverageDc = iAverageDc;
+        mQAverageDc = qAverageDc;
+    }
+
+    @Override
+    public void incrementUserCount()
+    {
+        mUserCount.incrementAndGet();
+    }
+
+    @Override
+    public void decrementUserCount()
+    {
+        if(mUserCount.decrementAndGet() == 0)
+        {
+            mPool.recycle(mSamples);
+        }
+    }
+
+    @Override
+    public int sampleCount()
+    {
+        return mSamples.capacity() / 2;
+    }
+
+    @Override
+    public Iterator<ComplexSamples> iterator()
+    {
+        return new ComplexSamplesIterator();
+    }
+
+    @Override
+    public Iterator<InterleavedComplexSamples> iteratorInterleaved()
+    {
+        return new InterleavedComplexSamplesIterator(null, false);
+    }
+
+    @Override
+    public Iterator<InterleavedComplexSamples> iteratorInterleaved(float[] reusable)
+    {
+        return new InterleavedComplexSamplesIterator(reusable, true);
+    }
+
+    /**
+     * Iterator of complex samples over the native byte buffer.
+     */
+    private class ComplexSamplesIterator implements Iterator<ComplexSamples>
+    {
+        private final float[] mInterleaved = new float[FRAGMENT_SIZE * 2];
+        private int mSamplesPointer = 0;
+
+        @Override
+        public boolean hasNext()
+        {
+            return mSamplesPointer < mSamples.capacity();
+        }
+
+        @Override
+        public ComplexSamples next()
+        {
+            long timestamp = getFragmentTimestamp(mSamplesPointer);
+            mConverter.convert(mSegment, mSamplesPointer, mInterleaved, mIAverageDc, mQAverageDc);
+            mSamplesPointer += mInterleaved.length;
+
+            float[] i = new float[FRAGMENT_SIZE];
+            float[] q = new float[FRAGMENT_SIZE];
+
+            for(int x = 0; x < FRAGMENT_SIZE; x++)
+            {
+                i[x] = mInterleaved[2 * x];
+                q[x] = mInterleaved[2 * x + 1];
+            }
+
+            return new ComplexSamples(i, q, timestamp);
+        }
+    }
+
+    /**
+     * Iterator of interleaved complex samples over the native byte buffer that either allocates a new array for each
+     * fragment, or converts each fragment into a single reused array.
+     */
+    private class InterleavedComplexSamplesIterator implements Iterator<InterleavedComplexSamples>
+    {
+        private final boolean mReuse;
+        private float[] mReusable;
+        private int mSamplesPointer = 0;
+
+        public InterleavedComplexSamplesIterator(float[] reusable, boolean reuse)
+        {
+            mReusable = reusable;
+            mReuse = reuse;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return mSamplesPointer < mSamples.capacity();
+        }
+
+        @Override
+        public InterleavedComplexSamples next()
+        {
+            long timestamp = getFragmentTimestamp(mSamplesPointer);
+
+            float[] converted = mReusable;
+
+            if(!mReuse || converted == null || converted.length != FRAGMENT_SIZE * 2)
+            {
+                converted = new float[FRAGMENT_SIZE * 2];
+
+                if(mReuse)
+                {
+                    mReusable = converted;
+                }
+            }
+
+            mConverter.convert(mSegment, mSamplesPointer, converted, mIAverageDc, mQAverageDc);
+            mSamplesPointer += converted.length;
+            return new InterleavedComplexSamples(converted, timestamp);
+        }
+    }
+}
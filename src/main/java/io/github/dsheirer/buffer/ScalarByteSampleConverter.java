@@ -0,0 +1,54 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Scalar implementation of the 8-bit sample converter using a lookup table.
+ */
+public class ScalarByteSampleConverter implements IByteSampleConverter
+{
+    private final float[] mLookupValues = new float[256];
+
+    /**
+     * Constructs an instance
+     * @param signed true for signed (-128 to 127) samples or false for unsigned (0 to 255) samples.
+     */
+    public ScalarByteSampleConverter(boolean signed)
+    {
+        for(int x = 0; x < 256; x++)
+        {
+            mLookupValues[x] = signed ? (float)((byte)x) / 128.0f : ((float)x - 127.5f) / 128.0f;
+        }
+    }
+
+    @Override
+    public void convert(MemorySegment source, long offset, float[] destination, float iDc, float qDc)
+    {
+        long sourcePointer = offset;
+
+        for(int x = 0; x < destination.length; x += 2)
+        {
+            destination[x] = mLookupValues[source.get(ValueLayout.JAVA_BYTE, sourcePointer++) & 0xFF] - iDc;
+            destination[x + 1] = mLookupValues[source.get(ValueLayout.JAVA_BYTE, sourcePointer++) & 0xFF] - qDc;
+        }
+    }
+}
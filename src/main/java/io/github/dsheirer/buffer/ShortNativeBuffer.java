@@ -0,0 +1,134 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.nio.ShortBuffer;
+import java.util.Iterator;
+
+/**
+ * Native buffer that wraps a view of interleaved, signed 16-bit I/Q samples, such as a read-only slice of a
+ * memory-mapped baseband recording.  The samples are not copied when the buffer is created.  Each sample fragment is
+ * converted to float on demand as the buffer is iterated.
+ */
+public class ShortNativeBuffer extends AbstractNativeBuffer
+{
+    private static final int FRAGMENT_SIZE = 2048;
+    private static final float SCALE = 1.0f / 32768.0f;
+    private final ShortBuffer mSamples;
+    private final int mLength;
+
+    /**
+     * Constructs an instance
+     * @param samples interleaved I/Q samples from the current position to the limit of the buffer.  The buffer must
+     * have the correct byte order and should not be modified after it is wrapped.
+     * @param timestamp of the first sample
+     * @param samplesPerMillisecond to calculate sub-buffer timestamps
+     */
+    public ShortNativeBuffer(ShortBuffer samples, long timestamp, float samplesPerMillisecond)
+    {
+        super(timestamp, samplesPerMillisecond);
+        mSamples = samples.slice();
+        mLength = mSamples.remaining() - (mSamples.remaining() % 2);
+    }
+
+    @Override
+    public int sampleCount()
+    {
+        return mLength / 2;
+    }
+
+    @Override
+    public Iterator<ComplexSamples> iterator()
+    {
+        return new ComplexSamplesIterator();
+    }
+
+    @Override
+    public Iterator<InterleavedComplexSamples> iteratorInterleaved()
+    {
+        return new InterleavedComplexSamplesIterator();
+    }
+
+    /**
+     * Iterator of complex samples over the wrapped sample buffer
+     */
+    private class ComplexSamplesIterator implements Iterator<ComplexSamples>
+    {
+        private int mSamplesPointer = 0;
+
+        @Override
+        public boolean hasNext()
+        {
+            return mSamplesPointer < mLength;
+        }
+
+        @Override
+        public ComplexSamples next()
+        {
+            long timestamp = getFragmentTimestamp(mSamplesPointer);
+            int length = Math.min(FRAGMENT_SIZE, (mLength - mSamplesPointer) / 2);
+
+            float[] i = new float[length];
+            float[] q = new float[length];
+            int samplesOffset = mSamplesPointer;
+
+            for(int pointer = 0; pointer < length; pointer++)
+            {
+                i[pointer] = mSamples.get(samplesOffset++) * SCALE;
+                q[pointer] = mSamples.get(samplesOffset++) * SCALE;
+            }
+
+            mSamplesPointer = samplesOffset;
+            return new ComplexSamples(i, q, timestamp);
+        }
+    }
+
+    /**
+     * Iterator of interleaved complex samples over the wrapped sample buffer
+     */
+    private class InterleavedComplexSamplesIterator implements Iterator<InterleavedComplexSamples>
+    {
+        private int mSamplesPointer = 0;
+
+        @Override
+        public boolean hasNext()
+        {
+            return mSamplesPointer < mLength;
+        }
+
+        @Override
+        public InterleavedComplexSamples next()
+        {
+            long timestamp = getFragmentTimestamp(mSamplesPointer);
+            int length = Math.min(FRAGMENT_SIZE * 2, mLength - mSamplesPointer);
+
+            float[] converted = new float[length];
+
+            for(int pointer = 0; pointer < length; pointer++)
+            {
+                converted[pointer] = mSamples.get(mSamplesPointer + pointer) * SCALE;
+            }
+
+            mSamplesPointer += length;
+            return new InterleavedComplexSamples(converted, timestamp);
+        }
+    }
+}
@@ -19,11 +19,15 @@
 
 package io.github.dsheirer.buffer;
 
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
 import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Implements a factory for creating SignedByteNativeBuffer instances
+ * Implements a factory for creating SignedByteNativeBuffer instances, or pooled buffer instances for signed 8-bit
+ * samples.
  */
 public class SignedByteNativeBufferFactory extends AbstractNativeBufferFactory
 {
@@ -67,18 +71,56 @@ public class SignedByteNativeBufferFactory extends AbstractNativeBufferFactory
      */
     private float mQAverageDc = 0.0f;
 
+    private IByteSampleConverter mConverter;
+
+    /**
+     * Constructs an instance
+     */
+    public SignedByteNativeBufferFactory()
+    {
+        Implementation implementation = CalibrationManager.getInstance()
+            .getImplementation(CalibrationType.BYTE_SAMPLE_CONVERTER);
+
+        if(implementation == Implementation.VECTOR_SIMD_PREFERRED)
+        {
+            mConverter = new VectorByteSampleConverter(true);
+        }
+        else
+        {
+            mConverter = new ScalarByteSampleConverter(true);
+        }
+    }
+
     @Override
     public INativeBuffer getBuffer(ByteBuffer samples, long timestamp)
     {
+        if(shouldCalculateDc())
+        {
+            calculateDc(samples);
+        }
+
         byte[] copy = new byte[samples.capacity()];
         samples.get(copy);
 
+        return new SignedByteNativeBuffer(copy, timestamp, mIAverageDc, mQAverageDc, getSamplesPerMillisecond());
+    }
+
+    @Override
+    public INativeBuffer getReusableBuffer(ByteBuffer samples, long timestamp)
+    {
+        if(samples.capacity() % (PooledByteNativeBuffer.FRAGMENT_SIZE * 2) != 0)
+        {
+            return getBuffer(samples, timestamp);
+        }
+
         if(shouldCalculateDc())
         {
-            calculateDc(copy);
+            calculateDc(samples);
         }
 
-        return new SignedByteNativeBuffer(copy, timestamp, mIAverageDc, mQAverageDc, getSamplesPerMillisecond());
+        ByteBuffer copy = copyToPooledBuffer(samples);
+        return new PooledByteNativeBuffer(getNativeBufferPool(), copy, mConverter, timestamp, mIAverageDc, mQAverageDc,
+            getSamplesPerMillisecond());
     }
 
     /**
@@ -106,25 +148,25 @@ public class SignedByteNativeBufferFactory extends AbstractNativeBufferFactory
     /**
      * Calculates the average DC in the sample stream so that it can be subtracted from the samples when the
      * native buffer is used.
-     * @param samples containing DC offset
+     * @param samples containing DC offset.  The buffer position is not modified.
      */
-    private void calculateDc(byte[] samples)
+    private void calculateDc(ByteBuffer samples)
     {
         float iDcAccumulator = 0;
         float qDcAccumulator = 0;
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < samples.capacity(); x += 2)
         {
-            iDcAccumulator += samples[x];
-            qDcAccumulator += samples[x + 1];
+            iDcAccumulator += samples.get(x);
+            qDcAccumulator += samples.get(x + 1);
         }
 
-        iDcAccumulator /= (samples.length / 2);
+        iDcAccumulator /= (samples.capacity() / 2);
         iDcAccumulator /= 128.0f;
         iDcAccumulator -= mIAverageDc;
         mIAverageDc += (iDcAccumulator * DC_FILTER_GAIN);
 
-        qDcAccumulator /= (samples.length / 2);
+        qDcAccumulator /= (samples.capacity() / 2);
         qDcAccumulator /= 128.0f;
         qDcAccumulator -= mQAverageDc;
         mQAverageDc += (qDcAccumulator * DC_FILTER_GAIN);
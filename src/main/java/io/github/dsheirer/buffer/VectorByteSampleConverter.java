@@ -0,0 +1,100 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the 8-bit sample converter.  Loads a preferred-width vector of byte samples directly from
+ * the source memory and widens each part of the byte vector into a preferred-width float vector.
+ *
+ * Unsigned samples are converted to signed by flipping the sign bit, so that both sample formats use the same
+ * signed byte to float conversion: (unsigned - 127.5) / 128 = ((signed) + 0.5) / 128
+ */
+public class VectorByteSampleConverter implements IByteSampleConverter
+{
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int PARTS = BYTE_SPECIES.length() / FLOAT_SPECIES.length();
+    private static final float SCALE = 1.0f / 128.0f;
+    private final boolean mSigned;
+    private final float mBias;
+    private final float[] mOffsets = new float[FLOAT_SPECIES.length()];
+
+    /**
+     * Constructs an instance
+     * @param signed true for signed (-128 to 127) samples or false for unsigned (0 to 255) samples.
+     */
+    public VectorByteSampleConverter(boolean signed)
+    {
+        mSigned = signed;
+        mBias = signed ? 0.0f : 0.5f / 128.0f;
+    }
+
+    @Override
+    public void convert(MemorySegment source, long offset, float[] destination, float iDc, float qDc)
+    {
+        //Lane offsets alternate I/Q since each float vector part starts on an even sample index
+        for(int x = 0; x < mOffsets.length; x += 2)
+        {
+            mOffsets[x] = mBias - iDc;
+            mOffsets[x + 1] = mBias - qDc;
+        }
+
+        FloatVector offsets = FloatVector.fromArray(FLOAT_SPECIES, mOffsets, 0);
+        int pointer = 0;
+
+        for(; pointer < BYTE_SPECIES.loopBound(destination.length); pointer += BYTE_SPECIES.length())
+        {
+            ByteVector bytes = ByteVector.fromMemorySegment(BYTE_SPECIES, source, offset + pointer,
+                ByteOrder.nativeOrder());
+
+            if(!mSigned)
+            {
+                bytes = bytes.lanewise(VectorOperators.XOR, (byte)0x80);
+            }
+
+            for(int part = 0; part < PARTS; part++)
+            {
+                ((FloatVector)bytes.convertShape(VectorOperators.B2F, FLOAT_SPECIES, part))
+                    .mul(SCALE)
+                    .add(offsets)
+                    .intoArray(destination, pointer + (part * FLOAT_SPECIES.length()));
+            }
+        }
+
+        for(; pointer < destination.length; pointer++)
+        {
+            byte sample = source.get(ValueLayout.JAVA_BYTE, offset + pointer);
+
+            if(!mSigned)
+            {
+                sample ^= (byte)0x80;
+            }
+
+            destination[pointer] = (sample * SCALE) + mOffsets[pointer & 1];
+        }
+    }
+}
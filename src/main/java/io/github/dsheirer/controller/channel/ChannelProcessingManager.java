@@ -99,7 +99,8 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
      *
      * @param channelMapModel containing channel maps defined by the user
      * @param eventLogManager for adding event loggers to channels
-     * @param tunerManager for obtaining a tuner channel source for the channel
+     * @param tunerManager for obtaining a tuner channel source for the channel, or null if channels are only
+     * started with a provided source
      * @param aliasModel for aliasing of identifiers produced by the channel
      * @param userPreferences for user defined behavior and settings
      */
@@ -111,11 +112,17 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         mTunerManager = tunerManager;
         mAliasModel = aliasModel;
         mUserPreferences = userPreferences;
-        mChannelMetadataModel = new ChannelMetadataModel();
+
+        //The channel metadata model is a Swing table model that only supports the user interface
+        if(!GraphicsEnvironment.isHeadless())
+        {
+            mChannelMetadataModel = new ChannelMetadataModel();
+        }
     }
 
     /**
      * Channel metadata model containing metadata for each channel or channel time-slice that is currently processing.
+     * @return model or null when running headless.
      */
     public ChannelMetadataModel getChannelMetadataModel()
     {
@@ -243,7 +250,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                 {
                     try
                     {
-                        startProcessing(new ChannelStartProcessingRequest(event.getChannel()));
+                        startProcessing(new ChannelStartProcessingRequest(event.getChannel()), null);
                     }
                     catch(ChannelException ce)
                     {
@@ -315,7 +322,20 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
      */
     public void start(Channel channel) throws ChannelException
     {
-        startProcessing(new ChannelStartProcessingRequest(channel));
+        startProcessing(new ChannelStartProcessingRequest(channel), null);
+    }
+
+    /**
+     * Starts the specified channel using the supplied sample source instead of obtaining a source from the tuner
+     * manager.  This supports offline processing of recordings with the same decoder, event logging and recording
+     * modules as a live channel.
+     * @param channel to start
+     * @param source to provide samples to the channel processing chain
+     * @throws ChannelException if the channel can't be started
+     */
+    public void start(Channel channel, Source source) throws ChannelException
+    {
+        startProcessing(new ChannelStartProcessingRequest(channel), source);
     }
 
     /**
@@ -330,7 +350,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         {
             try
             {
-                startProcessing(request);
+                startProcessing(request, null);
             }
             catch(ChannelException ce)
             {
@@ -378,9 +398,11 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
     /**
      * Starts a channel processing
      * @param request containing channel and other details
+     * @param providedSource to use for the channel, or null to obtain a source from the tuner manager
      * @throws ChannelException if a source is not available for the channel
      */
-    private synchronized void startProcessing(ChannelStartProcessingRequest request) throws ChannelException
+    private synchronized void startProcessing(ChannelStartProcessingRequest request, Source providedSource)
+        throws ChannelException
     {
         Channel channel = request.getChannel();
 
@@ -390,18 +412,22 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         }
 
         //Ensure that we can get a source before we construct a new processing chain
-        Source source = null;
+        Source source = providedSource;
 
-        try
+        //The tuner manager is null when channels are only sourced from recordings (ie batch decoding), so requests
+        //that don't provide a source are rejected below
+        if(source == null && mTunerManager != null)
         {
-            String threadName = "sdrtrunk channel [" + channel.getChannelID() + "/" +
-                    channel.getDecodeConfiguration().getDecoderType().getShortDisplayString() + "]";
-            source = mTunerManager.getSource(channel.getSourceConfiguration(),
-                channel.getDecodeConfiguration().getChannelSpecification(), threadName);
-        }
-        catch(SourceException se)
-        {
-            mLog.debug("Error obtaining source for channel [" + channel.getName() + "]", se);
+            try
+            {
+                String threadName = ProcessingChain.getThreadName(channel);
+                source = mTunerManager.getSource(channel.getSourceConfiguration(),
+                    channel.getDecodeConfiguration().getChannelSpecification(), threadName);
+            }
+            catch(SourceException se)
+            {
+                mLog.debug("Error obtaining source for channel [" + channel.getName() + "]", se);
+            }
         }
 
         if(source == null)
@@ -587,7 +613,12 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             {
                 added = true;
                 mProcessingChainsMap.put(channel, processingChain);
-                getChannelMetadataModel().add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
+
+                if(mChannelMetadataModel != null)
+                {
+                    mChannelMetadataModel.add(new ChannelAndMetadata(channel,
+                        processingChain.getChannelState().getChannelMetadata()));
+                }
             }
         }
         finally
@@ -613,11 +644,11 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         {
             removed = mProcessingChainsMap.remove(channel);
 
-            if(removed != null)
+            if(removed != null && mChannelMetadataModel != null)
             {
                 for(ChannelMetadata channelMetadata: removed.getChannelState().getChannelMetadata())
                 {
-                    getChannelMetadataModel().remove(channelMetadata);
+                    mChannelMetadataModel.remove(channelMetadata);
                 }
             }
         }
@@ -741,14 +772,26 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             processingChain.removeTrafficChannelManager();
 
             //Update processing flag for each configuration.
-            Platform.runLater(() -> {
+            if(GraphicsEnvironment.isHeadless())
+            {
                 request.getCurrentChannel().setProcessing(false);
                 request.getTrafficChannel().setProcessing(true);
-            });
+            }
+            else
+            {
+                Platform.runLater(() -> {
+                    request.getCurrentChannel().setProcessing(false);
+                    request.getTrafficChannel().setProcessing(true);
+                });
+            }
 
             mProcessingChainsMap.put(request.getTrafficChannel(), processingChain);
-            mChannelMetadataModel.updateChannelMetadataToChannelMap(processingChain.getChannelState().getChannelMetadata(),
-                request.getTrafficChannel());
+
+            if(mChannelMetadataModel != null)
+            {
+                mChannelMetadataModel.updateChannelMetadataToChannelMap(
+                    processingChain.getChannelState().getChannelMetadata(), request.getTrafficChannel());
+            }
 
             //Post a change notification so that processing chain modules can reconfigure
             processingChain.channelConfigurationChanged(new ChannelConfigurationChangeNotification(request.getTrafficChannel()));
@@ -40,7 +40,17 @@ public class AmDemodulatorFactory
     public static IAmDemodulator getAmDemodulator(float gain)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.AM_DEMODULATOR);
+        return getAmDemodulator(gain, implementation);
+    }
 
+    /**
+     * Creates the specified AM demodulator implementation.
+     * @param gain to apply to the demodulated output
+     * @param implementation to construct
+     * @return demodulator instance
+     */
+    public static IAmDemodulator getAmDemodulator(float gain, Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_64:
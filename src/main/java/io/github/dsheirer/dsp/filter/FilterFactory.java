@@ -1079,7 +1079,17 @@ public class FilterFactory
     public static IRealFilter getRealFilter(float[] coefficients)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_FIR);
+        return getRealFilter(coefficients, implementation);
+    }
 
+    /**
+     * Creates the specified FIR filter implementation.
+     * @param coefficients for the filter
+     * @param implementation to construct
+     * @return fir filter implementation
+     */
+    public static IRealFilter getRealFilter(float[] coefficients, Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
@@ -1107,13 +1117,45 @@ public class FilterFactory
      * @return filter implementation
      */
     public static IRealDecimationFilter getRealDecimationFilter(int length, WindowType windowType)
+    {
+        CalibrationType calibrationType = getHalfBandCalibrationType(length);
+        Implementation implementation = CalibrationManager.getInstance().getImplementation(calibrationType);
+        return getRealDecimationFilter(length, windowType, implementation);
+    }
+
+    /**
+     * Identifies the calibration type that selects the half-band decimation filter implementation for the length.
+     * @param length of decimation filter
+     * @return calibration type
+     */
+    public static CalibrationType getHalfBandCalibrationType(int length)
+    {
+        return switch(length)
+        {
+            case 11 -> CalibrationType.FILTER_HALF_BAND_REAL_11_TAP;
+            case 15 -> CalibrationType.FILTER_HALF_BAND_REAL_15_TAP;
+            case 23 -> CalibrationType.FILTER_HALF_BAND_REAL_23_TAP;
+            case 63 -> CalibrationType.FILTER_HALF_BAND_REAL_63_TAP;
+            default -> CalibrationType.FILTER_HALF_BAND_REAL_DEFAULT;
+        };
+    }
+
+    /**
+     * Constructs the specified decimation filter implementation for filter length and window type.
+     * @param length of decimation filter
+     * @param windowType for designing the filter
+     * @param implementation to construct
+     * @return filter implementation
+     */
+    public static IRealDecimationFilter getRealDecimationFilter(int length, WindowType windowType,
+                                                                Implementation implementation)
     {
         float[] coefficients = getHalfBand(length, windowType);
 
         switch(length)
         {
             case 11:
-                switch(CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_HALF_BAND_REAL_11_TAP))
+                switch(implementation)
                 {
                     case VECTOR_SIMD_64:
                         return new VectorRealHalfBandDecimationFilter11Tap64Bit(coefficients);
@@ -1129,7 +1171,7 @@ public class FilterFactory
                         return new RealHalfBandDecimationFilter(coefficients);
                 }
             case 15:
-                switch(CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_HALF_BAND_REAL_15_TAP))
+                switch(implementation)
                 {
                     case VECTOR_SIMD_64:
                         return new VectorRealHalfBandDecimationFilter15Tap64Bit(coefficients);
@@ -1145,7 +1187,7 @@ public class FilterFactory
                         return new RealHalfBandDecimationFilter(coefficients);
                 }
             case 23:
-                switch(CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_HALF_BAND_REAL_23_TAP))
+                switch(implementation)
                 {
                     case VECTOR_SIMD_64:
                         return new VectorRealHalfBandDecimationFilter23Tap64Bit(coefficients);
@@ -1161,7 +1203,7 @@ public class FilterFactory
                         return new RealHalfBandDecimationFilter(coefficients);
                 }
             case 63:
-                switch(CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_HALF_BAND_REAL_63_TAP))
+                switch(implementation)
                 {
                     case VECTOR_SIMD_64:
                         return new VectorRealHalfBandDecimationFilter63Tap64Bit(coefficients);
@@ -1177,7 +1219,7 @@ public class FilterFactory
                         return new RealHalfBandDecimationFilter(coefficients);
                 }
             default:
-                switch(CalibrationManager.getInstance().getImplementation(CalibrationType.FILTER_HALF_BAND_REAL_DEFAULT))
+                switch(implementation)
                 {
                     case VECTOR_SIMD_64:
                         return new VectorRealHalfBandDecimationFilter64Bit(coefficients);
@@ -98,15 +98,18 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<In
     }
 
     /**
-     * Dispatches the processed channel samples to any registered polyphase channel outputs.
+     * Dispatches the processed channel samples to any registered polyphase channel outputs.  The consumer count of
+     * the buffer is incremented for each channel and each channel is responsible for releasing the buffer once
+     * processed.  The caller retains its own reference and must release it after this method returns.
      *
-     * @param channelResultsList a list of arrays of I/Q samples per channel
+     * @param channelResultsBuffer a buffer of arrays of I/Q samples per channel
      */
-    protected void dispatch(List<float[]> channelResultsList)
+    protected void dispatch(ChannelResultsBuffer channelResultsBuffer)
     {
         for(PolyphaseChannelSource channel : mChannels)
         {
-            channel.receiveChannelResults(channelResultsList, mCurrentSamplesTimestamp);
+            channelResultsBuffer.incrementConsumerCount();
+            channel.receiveChannelResults(channelResultsBuffer, mCurrentSamplesTimestamp);
         }
     }
 
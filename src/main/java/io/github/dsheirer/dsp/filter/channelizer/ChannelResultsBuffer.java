@@ -0,0 +1,140 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reusable, reference counted batch of polyphase channelizer results arrays.  Each results array contains one
+ * interleaved I/Q sample for each of the polyphase channels.
+ *
+ * The channelizer fills the buffer, performs the IFFT in place and then distributes the same buffer instance to each
+ * of the channel output processors.  Each consumer must invoke decrementConsumerCount() once it has finished
+ * processing the buffer and when the consumer count returns to zero, the buffer is returned to the owning pool for
+ * reuse.  A buffer that is never released (e.g. dropped by a stopped dispatcher) is simply garbage collected and the
+ * pool allocates a replacement on demand.
+ */
+public class ChannelResultsBuffer
+{
+    private final ChannelResultsBufferPool mPool;
+    private final float[][] mResults;
+    private final AtomicInteger mConsumerCount = new AtomicInteger();
+    private int mSize;
+
+    /**
+     * Constructs an instance.
+     * @param pool that owns this buffer and that will receive this buffer once all consumers have released it.
+     * @param capacity for the number of channel results arrays
+     * @param subChannelCount length of each channel results array (ie channel count * 2)
+     */
+    ChannelResultsBuffer(ChannelResultsBufferPool pool, int capacity, int subChannelCount)
+    {
+        mPool = pool;
+        mResults = new float[capacity][subChannelCount];
+    }
+
+    /**
+     * Prepares this buffer for reuse by the producer.  Resets the size and sets the consumer count to one to account
+     * for the producer.
+     */
+    void reset()
+    {
+        mSize = 0;
+        mConsumerCount.set(1);
+    }
+
+    /**
+     * Number of channel results arrays that have been loaded into this buffer.
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Indicates if this buffer is empty
+     */
+    public boolean isEmpty()
+    {
+        return mSize == 0;
+    }
+
+    /**
+     * Indicates if this buffer is full and can accept no more channel results
+     */
+    public boolean isFull()
+    {
+        return mSize >= mResults.length;
+    }
+
+    /**
+     * Maximum number of channel results arrays that this buffer can hold.
+     */
+    public int capacity()
+    {
+        return mResults.length;
+    }
+
+    /**
+     * Access the channel results array at the specified index.
+     * @param index of the channel results array, less than size()
+     * @return channel results array
+     */
+    public float[] get(int index)
+    {
+        return mResults[index];
+    }
+
+    /**
+     * Provides the next available (unused) channel results array to load and increments the size of this buffer.
+     * The array contents are stale from a previous use and the producer must overwrite all array elements.
+     * @return next channel results array
+     * @throws IllegalStateException if the buffer is full
+     */
+    float[] next()
+    {
+        if(isFull())
+        {
+            throw new IllegalStateException("Channel results buffer is full");
+        }
+
+        return mResults[mSize++];
+    }
+
+    /**
+     * Increments the consumer count to indicate that a consumer is currently processing this buffer.  This should
+     * only be invoked by the producer, or by a consumer that distributes the buffer to additional consumers.
+     */
+    public void incrementConsumerCount()
+    {
+        mConsumerCount.incrementAndGet();
+    }
+
+    /**
+     * Decrements the consumer count.  Consumers should invoke this method once they no longer need this buffer.  When
+     * the consumer count returns to zero, the buffer is returned to the pool for reuse.
+     */
+    public void decrementConsumerCount()
+    {
+        if(mConsumerCount.decrementAndGet() == 0)
+        {
+            mPool.recycle(this);
+        }
+    }
+}
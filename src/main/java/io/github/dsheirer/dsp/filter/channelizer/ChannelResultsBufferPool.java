@@ -0,0 +1,93 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of reusable channel results buffers for a polyphase channelizer.  Buffers are created on demand when
+ * the pool is empty and are retained for reuse when returned, up to the maximum pool size.  In steady state, the
+ * channelizer cycles through a small set of buffers and no channel results arrays are allocated per sample block.
+ *
+ * The pool is specific to a channel count and results batch size.  When the channelizer is reconfigured, it creates
+ * a new pool and any buffers still held by consumers are returned to the old pool and are then garbage collected.
+ */
+public class ChannelResultsBufferPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelResultsBufferPool.class);
+    private final ArrayBlockingQueue<ChannelResultsBuffer> mAvailable;
+    private final int mBufferCapacity;
+    private final int mSubChannelCount;
+    private int mCreatedCount;
+
+    /**
+     * Constructs an instance
+     * @param maxPoolSize maximum number of idle buffers to retain for reuse
+     * @param bufferCapacity number of channel results arrays per buffer
+     * @param subChannelCount length of each channel results array (ie channel count * 2)
+     */
+    public ChannelResultsBufferPool(int maxPoolSize, int bufferCapacity, int subChannelCount)
+    {
+        mAvailable = new ArrayBlockingQueue<>(maxPoolSize);
+        mBufferCapacity = bufferCapacity;
+        mSubChannelCount = subChannelCount;
+    }
+
+    /**
+     * Provides a reset buffer with a consumer count of one that is ready for loading by the producer.  The producer
+     * must release the buffer via decrementConsumerCount() once it has dispatched the buffer to all consumers.
+     */
+    public ChannelResultsBuffer getBuffer()
+    {
+        ChannelResultsBuffer buffer = mAvailable.poll();
+
+        if(buffer == null)
+        {
+            buffer = new ChannelResultsBuffer(this, mBufferCapacity, mSubChannelCount);
+            mCreatedCount++;
+
+            if(mCreatedCount % 100 == 0)
+            {
+                mLog.warn("Channel results buffer pool has created [" + mCreatedCount + "] buffers - consumers may " +
+                    "not be releasing buffers or processing is falling behind");
+            }
+        }
+
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to this pool for reuse.  If the pool is full, the buffer is discarded.
+     */
+    void recycle(ChannelResultsBuffer buffer)
+    {
+        mAvailable.offer(buffer);
+    }
+
+    /**
+     * Number of idle buffers currently available for reuse.
+     */
+    public int getAvailableCount()
+    {
+        return mAvailable.size();
+    }
+}
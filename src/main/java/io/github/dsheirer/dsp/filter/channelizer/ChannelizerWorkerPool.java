@@ -0,0 +1,540 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.QueueMetrics;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.heartbeat.HeartbeatManager;
+import io.github.dsheirer.util.IDispatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-wide worker pool for the multi-core polyphase channelizer mode.
+ *
+ * Provides two services:
+ *
+ *   -Compute workers: the channelizer filter and IFFT stages split each batch of work into shards that are executed
+ *    concurrently across the compute workers.  The calling thread blocks until all shards are complete, so the
+ *    results are always produced in sample order.
+ *
+ *   -Output lanes: each channel output processor is pinned to a single lane thread when started.  Each lane services
+ *    the channel output processors assigned to it in the order that the channel results buffers were received, so
+ *    per-channel ordering is preserved while the total thread count is bounded by the worker count rather than the
+ *    number of channels.  Lanes also issue the periodic heartbeat for each assigned channel.
+ */
+public class ChannelizerWorkerPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelizerWorkerPool.class);
+    private static final long HEARTBEAT_INTERVAL_MS = 50;
+    private static int sConfiguredWorkerCount = 0;
+    private static ChannelizerWorkerPool sInstance;
+
+    private final int mWorkerCount;
+    private final ExecutorService mComputeExecutor;
+    private final List<OutputLane> mOutputLanes = new ArrayList<>();
+
+    /**
+     * Constructs an instance
+     * @param workerCount number of compute workers and output lanes
+     */
+    private ChannelizerWorkerPool(int workerCount)
+    {
+        mWorkerCount = workerCount;
+        mComputeExecutor = Executors.newFixedThreadPool(workerCount,
+            new NamingThreadFactory("sdrtrunk polyphase channelizer worker"));
+
+        NamingThreadFactory laneThreadFactory = new NamingThreadFactory("sdrtrunk polyphase channel output lane");
+
+        for(int x = 0; x < workerCount; x++)
+        {
+            OutputLane lane = new OutputLane();
+            mOutputLanes.add(lane);
+            laneThreadFactory.newThread(lane).start();
+        }
+
+        mLog.info("Polyphase channelizer worker pool created with [" + workerCount + "] workers");
+    }
+
+    /**
+     * Sets the number of workers to use when the shared worker pool is created.  This has no effect once the pool has
+     * been created.
+     * @param workerCount number of workers, or zero to use the number of available processors.
+     */
+    public static synchronized void setWorkerCount(int workerCount)
+    {
+        if(sInstance != null && workerCount != sConfiguredWorkerCount)
+        {
+            mLog.warn("Polyphase channelizer worker count change to [" + workerCount + "] will be applied after " +
+                "application restart");
+        }
+
+        sConfiguredWorkerCount = Math.max(workerCount, 0);
+    }
+
+    /**
+     * Shared worker pool instance, created on first access.
+     */
+    public static synchronized ChannelizerWorkerPool getInstance()
+    {
+        if(sInstance == null)
+        {
+            int workerCount = sConfiguredWorkerCount > 0 ? sConfiguredWorkerCount :
+                Runtime.getRuntime().availableProcessors();
+            sInstance = new ChannelizerWorkerPool(Math.max(workerCount, 1));
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Number of compute workers and output lanes in this pool.
+     */
+    public int getWorkerCount()
+    {
+        return mWorkerCount;
+    }
+
+    /**
+     * Creates a reusable group of tasks that are executed concurrently across the compute workers each time the group
+     * is invoked.
+     *
+     * @param tasks to execute, where the first task is executed on the invoking thread
+     * @return task group
+     */
+    public <T extends Runnable> TaskGroup<T> createTaskGroup(T[] tasks)
+    {
+        return new TaskGroup<>(tasks);
+    }
+
+    /**
+     * Creates a dispatcher that is serviced by one of the output lanes of this pool.  The lane is assigned when the
+     * dispatcher is started, choosing the lane that is currently servicing the fewest dispatchers.
+     *
+     * @param heartbeatManager to receive a heartbeat at each heartbeat interval while the dispatcher is running.
+     * @return dispatcher
+     */
+    public <E> IDispatcher<E> getDispatcher(HeartbeatManager heartbeatManager)
+    {
+        return new LaneDispatcher<>(heartbeatManager);
+    }
+
+    /**
+     * Identifies the output lane with the fewest assigned dispatchers.
+     */
+    private synchronized OutputLane getLeastLoadedLane()
+    {
+        OutputLane leastLoaded = mOutputLanes.get(0);
+
+        for(OutputLane lane: mOutputLanes)
+        {
+            if(lane.getDispatcherCount() < leastLoaded.getDispatcherCount())
+            {
+                leastLoaded = lane;
+            }
+        }
+
+        return leastLoaded;
+    }
+
+    /**
+     * Group of tasks that are executed concurrently each time the group is invoked, where the invoking thread executes
+     * the first task and blocks until all tasks are complete.  Errors thrown by a task are logged and do not prevent
+     * completion of the remaining tasks.
+     *
+     * The worker task wrappers and the completion counter are created once and reused for each invocation, so that
+     * invoking the group for each block of samples doesn't allocate.  Completion is tracked per group rather than
+     * with a pool-wide barrier because independent channelizers share this pool.  A group must only be invoked by one
+     * thread at a time.
+     */
+    public class TaskGroup<T extends Runnable>
+    {
+        private final T[] mTasks;
+        private final Runnable[] mWorkerTasks;
+        private final AtomicInteger mPendingCount = new AtomicInteger();
+        private volatile Thread mInvokingThread;
+
+        private TaskGroup(T[] tasks)
+        {
+            mTasks = tasks;
+            mWorkerTasks = new Runnable[Math.max(tasks.length - 1, 0)];
+
+            for(int x = 1; x < tasks.length; x++)
+            {
+                T task = tasks[x];
+
+                mWorkerTasks[x - 1] = () -> {
+                    try
+                    {
+                        task.run();
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error executing polyphase channelizer worker task", t);
+                    }
+                    finally
+                    {
+                        if(mPendingCount.decrementAndGet() == 0)
+                        {
+                            LockSupport.unpark(mInvokingThread);
+                        }
+                    }
+                };
+            }
+        }
+
+        /**
+         * Tasks in this group, so that the invoking thread can update the task state before each invocation.
+         */
+        public T[] getTasks()
+        {
+            return mTasks;
+        }
+
+        /**
+         * Executes each of the tasks concurrently and blocks until all tasks are complete.
+         */
+        public void invoke()
+        {
+            if(mTasks.length == 0)
+            {
+                return;
+            }
+
+            mInvokingThread = Thread.currentThread();
+            mPendingCount.set(mWorkerTasks.length);
+
+            for(Runnable workerTask: mWorkerTasks)
+            {
+                mComputeExecutor.execute(workerTask);
+            }
+
+            try
+            {
+                mTasks[0].run();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error executing polyphase channelizer worker task", t);
+            }
+
+            //Wait for the workers even when interrupted, since the tasks and the counter are reused by the next
+            //invocation, and restore the interrupt status afterward.
+            boolean interrupted = false;
+
+            while(mPendingCount.get() > 0)
+            {
+                LockSupport.park(this);
+
+                if(Thread.interrupted())
+                {
+                    interrupted = true;
+                }
+            }
+
+            if(interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Dispatcher that queues elements and signals the assigned output lane to process the queued elements.
+     */
+    private class LaneDispatcher<E> implements IDispatcher<E>
+    {
+        private final LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<>();
+        private final AtomicBoolean mRunning = new AtomicBoolean();
+        private final AtomicBoolean mScheduled = new AtomicBoolean();
+        private final HeartbeatManager mHeartbeatManager;
+        private Listener<E> mListener;
+        private Listener<E> mDiscardListener;
+        private OutputLane mOutputLane;
+        private MetricScope mMetricScope;
+        private String mMetricScopeName;
+        private volatile QueueMetrics mQueueMetrics;
+
+        public LaneDispatcher(HeartbeatManager heartbeatManager)
+        {
+            mHeartbeatManager = heartbeatManager;
+        }
+
+        @Override
+        public void setListener(Listener<E> listener)
+        {
+            mListener = listener;
+        }
+
+        @Override
+        public void setDiscardListener(Listener<E> listener)
+        {
+            mDiscardListener = listener;
+        }
+
+        @Override
+        public void setMetricScope(MetricScope scope, String scopeName)
+        {
+            mMetricScope = scope;
+            mMetricScopeName = scopeName;
+        }
+
+        @Override
+        public void receive(E e)
+        {
+            if(mRunning.get())
+            {
+                mQueue.add(e);
+
+                //Release the element if this dispatcher was stopped while the element was being queued
+                if(!mRunning.get())
+                {
+                    discardQueued();
+                }
+                else if(mScheduled.compareAndSet(false, true))
+                {
+                    mOutputLane.schedule(this);
+                }
+            }
+            else
+            {
+                discard(e);
+            }
+        }
+
+        @Override
+        public void start()
+        {
+            if(mRunning.compareAndSet(false, true))
+            {
+                discardQueued();
+
+                if(mMetricScope != null)
+                {
+                    mQueueMetrics = new QueueMetrics("lane_dispatcher", mMetricScope, mMetricScopeName, mQueue::size);
+                }
+
+                mOutputLane = getLeastLoadedLane();
+                mOutputLane.add(this);
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            if(mRunning.compareAndSet(true, false))
+            {
+                mOutputLane.remove(this);
+                discardQueued();
+
+                if(mQueueMetrics != null)
+                {
+                    mQueueMetrics.dispose();
+                    mQueueMetrics = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean isRunning()
+        {
+            return mRunning.get();
+        }
+
+        /**
+         * Removes all queued elements and passes each element to the discard listener.
+         */
+        private void discardQueued()
+        {
+            E element = mQueue.poll();
+
+            while(element != null)
+            {
+                discard(element);
+                element = mQueue.poll();
+            }
+        }
+
+        /**
+         * Passes an element that will not be dispatched to the discard listener, if there is one.
+         */
+        private void discard(E element)
+        {
+            Listener<E> discardListener = mDiscardListener;
+
+            if(discardListener != null)
+            {
+                try
+                {
+                    discardListener.receive(element);
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error while discarding element [" + element.getClass() + "]", t);
+                }
+            }
+        }
+
+        /**
+         * Processes queued elements.  Note: this should only be invoked on the assigned output lane thread.  This
+         * method is synchronized to guard against a previously assigned lane still servicing this dispatcher after
+         * a stop/start reassigns the dispatcher to a different lane.
+         */
+        private synchronized void process()
+        {
+            mScheduled.set(false);
+
+            E element = mQueue.poll();
+            QueueMetrics metrics = mQueueMetrics;
+
+            while(element != null)
+            {
+                if(!mRunning.get())
+                {
+                    discard(element);
+                }
+                else if(mListener != null)
+                {
+                    try
+                    {
+                        if(metrics != null)
+                        {
+                            long start = System.nanoTime();
+                            mListener.receive(element);
+                            metrics.processed(start);
+                        }
+                        else
+                        {
+                            mListener.receive(element);
+                        }
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error while dispatching element [" + element.getClass() + "] to listener [" +
+                            mListener.getClass() + "]", t);
+                    }
+                }
+
+                element = mQueue.poll();
+            }
+        }
+
+        /**
+         * Broadcasts a heartbeat.  Note: this should only be invoked on the assigned output lane thread.
+         */
+        private void heartbeat()
+        {
+            if(mHeartbeatManager != null && mRunning.get())
+            {
+                try
+                {
+                    mHeartbeatManager.broadcast();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error broadcasting heartbeat during output lane processing interval", t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Output lane thread that services a set of dispatchers in the order that they are signalled and issues the
+     * periodic heartbeat for each dispatcher.
+     */
+    private class OutputLane implements Runnable
+    {
+        private final LinkedBlockingQueue<LaneDispatcher<?>> mScheduledQueue = new LinkedBlockingQueue<>();
+        private final List<LaneDispatcher<?>> mDispatchers = new CopyOnWriteArrayList<>();
+        private long mLastHeartbeat = System.currentTimeMillis();
+
+        public int getDispatcherCount()
+        {
+            return mDispatchers.size();
+        }
+
+        public void add(LaneDispatcher<?> dispatcher)
+        {
+            mDispatchers.add(dispatcher);
+        }
+
+        public void remove(LaneDispatcher<?> dispatcher)
+        {
+            mDispatchers.remove(dispatcher);
+        }
+
+        /**
+         * Signals this lane that the dispatcher has queued elements to process.
+         */
+        public void schedule(LaneDispatcher<?> dispatcher)
+        {
+            mScheduledQueue.add(dispatcher);
+        }
+
+        @Override
+        public void run()
+        {
+            while(true)
+            {
+                try
+                {
+                    LaneDispatcher<?> dispatcher = mScheduledQueue.poll(HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+                    if(dispatcher != null)
+                    {
+                        dispatcher.process();
+                    }
+
+                    long now = System.currentTimeMillis();
+
+                    if(now - mLastHeartbeat >= HEARTBEAT_INTERVAL_MS)
+                    {
+                        mLastHeartbeat = now;
+
+                        for(LaneDispatcher<?> laneDispatcher: mDispatchers)
+                        {
+                            laneDispatcher.heartbeat();
+                        }
+                    }
+                }
+                catch(InterruptedException ie)
+                {
+                    return;
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error in polyphase channel output lane", t);
+                }
+            }
+        }
+    }
+}
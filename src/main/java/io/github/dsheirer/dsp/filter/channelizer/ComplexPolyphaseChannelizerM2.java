@@ -21,10 +21,9 @@ package io.github.dsheirer.dsp.filter.channelizer;
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
-import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.RingBufferDispatcher;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import org.apache.commons.math3.util.FastMath;
 import org.jtransforms.fft.FloatFFT_1D;
 import org.slf4j.Logger;
@@ -68,8 +67,31 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
      */
     private static final int PROCESSED_CHANNEL_RESULTS_THRESHOLD = 1024;
 
-    //Sized to process 40 times per second
-    private IFFTProcessorDispatcher mIFFTProcessorDispatcher = new IFFTProcessorDispatcher(25);
+    /**
+     * Maximum number of idle channel results buffers to retain for reuse.  Buffers are held by the IFFT dispatcher
+     * and by each of the channel output processor dispatchers until processed, so the pool must be large enough to
+     * cover the buffers in-flight across all consumer queues.
+     */
+    private static final int CHANNEL_RESULTS_BUFFER_POOL_SIZE = 64;
+
+    /**
+     * Minimum number of (I/Q interleaved) sample block indices assigned to each filter shard in multi-core mode.  Below
+     * this size, the coordination overhead exceeds the benefit of the additional workers.
+     */
+    private static final int MINIMUM_SHARD_WIDTH = 32;
+
+    /**
+     * Maximum number of sample blocks to accumulate before dispatching the blocks to the filter shards in multi-core
+     * mode.
+     */
+    private static final int MAXIMUM_PENDING_BLOCKS = 256;
+
+    /**
+     * Maximum number of channel results buffers queued for IFFT processing.  Sized at twice the results buffer pool.
+     */
+    private static final int IFFT_QUEUE_CAPACITY = CHANNEL_RESULTS_BUFFER_POOL_SIZE * 2;
+
+    private IFFTProcessorDispatcher mIFFTProcessorDispatcher = new IFFTProcessorDispatcher(IFFT_QUEUE_CAPACITY);
     private FloatFFT_1D mFFT;
     private float[] mInlineSamples;
     private float[] mInlineFilter;
@@ -79,7 +101,20 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
     private int mSampleBufferPointer;
     private int mSamplesPerBlock;
     private int mTapsPerChannel;
-    private List<float[]> mProcessedChannelResultsList = new ArrayList<>();
+    private float[] mInlineInterimOutput;
+    private float[] mFilterAccumulator;
+    private ChannelResultsBufferPool mChannelResultsBufferPool;
+    private ChannelResultsBuffer mChannelResultsBuffer;
+
+    //Multi-core mode
+    private ChannelizerWorkerPool mWorkerPool;
+    private ChannelizerWorkerPool.TaskGroup<FilterShard> mFilterTaskGroup;
+    private volatile ChannelizerWorkerPool.TaskGroup<IFFTShard> mIFFTTaskGroup;
+    private float[] mBlockStaging;
+    private float[][] mPendingBlocks;
+    private float[][] mPendingResults;
+    private boolean[] mPendingTopBlockIndicators;
+    private int mPendingBlockCount;
 
     /**
      * Creates a NMDPFB channelizer instance.
@@ -125,6 +160,38 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         init(filterTaps);
     }
 
+    /**
+     * Creates a NMDPFB channelizer instance that distributes the polyphase filter and IFFT processing across the
+     * workers of the worker pool.  The filter is sharded by sub-channel so that each worker maintains the sample
+     * history for a disjoint set of sub-channels and the results for each sample block are identical to the single
+     * threaded channelizer.
+     *
+     * @param sampleRate to be channelized.
+     * @param tapsPerChannel to use when designing the filter
+     * @param workerPool to use for multi-core processing.
+     */
+    public ComplexPolyphaseChannelizerM2(double sampleRate, int tapsPerChannel, ChannelizerWorkerPool workerPool)
+        throws FilterDesignException
+    {
+        super(sampleRate, getChannelCount(sampleRate));
+
+        mTapsPerChannel = tapsPerChannel;
+        mWorkerPool = workerPool;
+
+        float[] filterTaps = FilterFactory.getSincM2Channelizer(getChannelSampleRate(), getChannelCount(),
+            mTapsPerChannel, false);
+
+        init(filterTaps);
+    }
+
+    /**
+     * Indicates if this channelizer is distributing processing across multiple workers.
+     */
+    public boolean isMultiCore()
+    {
+        return mFilterTaskGroup != null;
+    }
+
     /**
      * Starts sample processing
      */
@@ -191,6 +258,12 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
     @Override
     public void receive(InterleavedComplexSamples complexSamples)
     {
+        if(isMultiCore())
+        {
+            receiveMultiCore(complexSamples);
+            return;
+        }
+
         mCurrentSamplesTimestamp = complexSamples.timestamp();
 
         float[] samples = complexSamples.samples();
@@ -219,12 +292,13 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
             if(mSampleBufferPointer >= mSamplesPerBlock)
             {
                 //Filter buffered samples and produce a single sample across each of the polyphase channels
-                mProcessedChannelResultsList.add(process());
+                process(mChannelResultsBuffer.next());
 
-                if(mProcessedChannelResultsList.size() >= PROCESSED_CHANNEL_RESULTS_THRESHOLD)
+                if(mChannelResultsBuffer.isFull())
                 {
-                    mIFFTProcessorDispatcher.receive(new ArrayList<>(mProcessedChannelResultsList));
-                    mProcessedChannelResultsList.clear();
+                    //Hand off our reference to the buffer to the IFFT dispatcher
+                    mIFFTProcessorDispatcher.receive(mChannelResultsBuffer);
+                    mChannelResultsBuffer = mChannelResultsBufferPool.getBuffer();
                 }
 
                 //Right-shift the samples in the buffer over to make room for a new block of samples
@@ -234,6 +308,76 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         }
     }
 
+    /**
+     * Multi-core version of receive().  Sample blocks are staged and the results array for each block is reserved
+     * in order.  The staged blocks are then filtered concurrently by the filter shards, each producing the results
+     * for its set of sub-channels.
+     */
+    private void receiveMultiCore(InterleavedComplexSamples complexSamples)
+    {
+        mCurrentSamplesTimestamp = complexSamples.timestamp();
+
+        float[] samples = complexSamples.samples();
+
+        int samplesPointer = 0;
+        int samplesToCopy;
+
+        while(samplesPointer < samples.length)
+        {
+            if(mSampleBufferPointer < mSamplesPerBlock)
+            {
+                samplesToCopy = Math.min(mSamplesPerBlock - mSampleBufferPointer, samples.length - samplesPointer);
+                System.arraycopy(samples, samplesPointer, mBlockStaging, mSampleBufferPointer, samplesToCopy);
+                mSampleBufferPointer += samplesToCopy;
+                samplesPointer += samplesToCopy;
+            }
+
+            if(mSampleBufferPointer >= mSamplesPerBlock)
+            {
+                //Swap the completed staging block into the pending blocks and reserve the block's results array
+                float[] completed = mBlockStaging;
+                mBlockStaging = mPendingBlocks[mPendingBlockCount];
+                mPendingBlocks[mPendingBlockCount] = completed;
+                mPendingResults[mPendingBlockCount] = mChannelResultsBuffer.next();
+                mPendingTopBlockIndicators[mPendingBlockCount] = mTopBlockIndicator;
+                mTopBlockIndicator = !mTopBlockIndicator;
+                mPendingBlockCount++;
+                mSampleBufferPointer = 0;
+
+                if(mChannelResultsBuffer.isFull() || mPendingBlockCount >= mPendingBlocks.length)
+                {
+                    processPendingBlocks();
+                }
+            }
+        }
+
+        processPendingBlocks();
+    }
+
+    /**
+     * Filters the pending sample blocks across the filter shards and dispatches the results buffer when full.
+     */
+    private void processPendingBlocks()
+    {
+        if(mPendingBlockCount > 0)
+        {
+            for(FilterShard shard: mFilterTaskGroup.getTasks())
+            {
+                shard.setBlockCount(mPendingBlockCount);
+            }
+
+            mFilterTaskGroup.invoke();
+            mPendingBlockCount = 0;
+
+            if(mChannelResultsBuffer.isFull())
+            {
+                //Hand off our reference to the buffer to the IFFT dispatcher
+                mIFFTProcessorDispatcher.receive(mChannelResultsBuffer);
+                mChannelResultsBuffer = mChannelResultsBufferPool.getBuffer();
+            }
+        }
+    }
+
     /**
      * Creates a top-block processing accumulator map that maps each interim filter and sample index product
      * to the corresponding final output index for the array that will feed the IFFT.
@@ -331,13 +475,14 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
 
 
     /**
-     * Processes the sample buffer for each new block of sample data that is loaded and distributes the results to any
-     * registered channel listeners.
+     * Processes the sample buffer for each new block of sample data that is loaded and loads the filtered results
+     * into the processed array.
+     *
+     * @param processed array to receive the filtered and reordered sub-channel results.  Every element is overwritten.
      */
-    private float[] process()
+    private void process(float[] processed)
     {
-        int bufferLength = getSubChannelCount() * mTapsPerChannel;
-        float[] inlineInterimOutput = new float[bufferLength];
+        float[] inlineInterimOutput = mInlineInterimOutput;
 
         //Multiply each of the samples by the corresponding filter tap
         for(int x = 0; x < mInlineSamples.length; x++)
@@ -345,7 +490,8 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
             inlineInterimOutput[x] = mInlineSamples[x] * mInlineFilter[x];
         }
 
-        float[] filterAccumulator = new float[getSubChannelCount()];
+        float[] filterAccumulator = mFilterAccumulator;
+        Arrays.fill(filterAccumulator, 0.0f);
 
         int tapOffset = 0;
 
@@ -360,8 +506,6 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
             }
         }
 
-        float[] processed = new float[getSubChannelCount()];
-
         if(mTopBlockIndicator)
         {
             for(int x = 0; x < getSubChannelCount(); x++)
@@ -378,8 +522,6 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         }
 
         mTopBlockIndicator = !mTopBlockIndicator;
-
-        return processed;
     }
 
     /**
@@ -397,45 +539,301 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         mMiddleBlockMap = getMiddleBlockMap(channelCount);
         mInlineFilter = getAlignedFilter(coefficients, channelCount, mTapsPerChannel);
         mInlineSamples = new float[bufferLength];
+        mInlineInterimOutput = new float[bufferLength];
+        mFilterAccumulator = new float[getSubChannelCount()];
+
+        //Buffers from a previous configuration are abandoned with the old pool once their consumers release them
+        mChannelResultsBufferPool = new ChannelResultsBufferPool(CHANNEL_RESULTS_BUFFER_POOL_SIZE,
+            PROCESSED_CHANNEL_RESULTS_THRESHOLD, getSubChannelCount());
+        mChannelResultsBuffer = mChannelResultsBufferPool.getBuffer();
+
+        initShards();
+    }
+
+    /**
+     * Creates the filter and IFFT shards when a worker pool is available and the channel count is large enough to
+     * benefit from multiple workers.
+     */
+    private void initShards()
+    {
+        mFilterTaskGroup = null;
+        mIFFTTaskGroup = null;
+
+        if(mWorkerPool == null)
+        {
+            return;
+        }
+
+        int shardCount = Math.min(mWorkerPool.getWorkerCount(), mSamplesPerBlock / MINIMUM_SHARD_WIDTH);
+
+        if(shardCount < 2)
+        {
+            return;
+        }
+
+        mBlockStaging = new float[mSamplesPerBlock];
+        mPendingBlocks = new float[MAXIMUM_PENDING_BLOCKS][mSamplesPerBlock];
+        mPendingResults = new float[MAXIMUM_PENDING_BLOCKS][];
+        mPendingTopBlockIndicators = new boolean[MAXIMUM_PENDING_BLOCKS];
+        mPendingBlockCount = 0;
+        mSampleBufferPointer = 0;
+
+        FilterShard[] filterShards = new FilterShard[shardCount];
+        IFFTShard[] ifftShards = new IFFTShard[shardCount];
+        int width = mSamplesPerBlock / shardCount;
+
+        for(int x = 0; x < shardCount; x++)
+        {
+            int start = x * width;
+            int end = (x == shardCount - 1) ? mSamplesPerBlock : start + width;
+            filterShards[x] = new FilterShard(start, end);
+            ifftShards[x] = new IFFTShard(getChannelCount());
+        }
+
+        mIFFTTaskGroup = mWorkerPool.createTaskGroup(ifftShards);
+        mFilterTaskGroup = mWorkerPool.createTaskGroup(filterShards);
     }
 
     /**
      * Separate threaded processor to receive and enqueue filtered channel results buffers, perform IFFT on each array
      * as required to align the phase of each polyphase channel, and then dispatch the results to any registered
      * sample consumer channels.
+     *
+     * The IFFT is performed in place and the same pooled buffer is dispatched to each channel.  This processor
+     * releases the producer's reference to the buffer once the buffer is dispatched to all channels.
      */
-    public class IFFTProcessorDispatcher extends Dispatcher<List<float[]>>
+    public class IFFTProcessorDispatcher extends RingBufferDispatcher<ChannelResultsBuffer>
     {
-        public IFFTProcessorDispatcher(long interval)
+        public IFFTProcessorDispatcher(int capacity)
         {
-            super("sdrtrunk polyphase ifft processor", interval);
+            super("sdrtrunk polyphase ifft processor", capacity, WaitStrategy.PARK);
+
+            //Release the producer's reference to any results buffers that are queued when this dispatcher is stopped
+            setDiscardListener(this::overflow);
 
             //We create a listener interface to receive the batched channel results arrays from the scheduled thread pool
             //dispatcher thread that is part of this continuous buffer processor.  We perform an IFFT on each
             //channel results array contained in each results buffer and then dispatch the buffer
             //so that it can be distributed to each channel listener.
-            setListener(list -> {
+            setListener(buffer -> {
                 try
                 {
-                    List<float[]> processedChannelResults = new ArrayList<>();
+                    ChannelizerWorkerPool.TaskGroup<IFFTShard> ifftTaskGroup = mIFFTTaskGroup;
 
-                    for(float[] channelResults: list)
+                    if(ifftTaskGroup != null)
                     {
-                        if(channelResults != null)
+                        IFFTShard[] ifftShards = ifftTaskGroup.getTasks();
+                        int width = buffer.size() / ifftShards.length;
+
+                        for(int x = 0; x < ifftShards.length; x++)
+                        {
+                            int start = x * width;
+                            int end = (x == ifftShards.length - 1) ? buffer.size() : start + width;
+                            ifftShards[x].set(buffer, start, end);
+                        }
+
+                        ifftTaskGroup.invoke();
+                    }
+                    else
+                    {
+                        for(int x = 0; x < buffer.size(); x++)
                         {
                             //Rotate each of the channels to the correct phase using the IFFT
-                            mFFT.complexInverse(channelResults, true);
-                            processedChannelResults.add(channelResults);
+                            mFFT.complexInverse(buffer.get(x), true);
                         }
                     }
 
-                    dispatch(processedChannelResults);
+                    dispatch(buffer);
                 }
                 catch(Throwable t)
                 {
                     mLog.error("Error during IFFT and dispatch of processed channel results", t);
                 }
+                finally
+                {
+                    buffer.decrementConsumerCount();
+                }
             });
         }
+
+        /**
+         * Releases the producer's reference to a results buffer that is discarded due to overflow.
+         */
+        @Override
+        protected void overflow(ChannelResultsBuffer buffer)
+        {
+            buffer.decrementConsumerCount();
+        }
+    }
+
+    /**
+     * Multi-core filter shard that maintains the sample history and filter coefficients for a subset of the
+     * sub-channels.  Each sample block load is followed by a right-shift of one block (the serpentine shift), which
+     * moves each sample between a sub-channel index in the first half of a filter row and its paired index in the
+     * second half of the row, or into the first half of the next row.  A shard that owns indices [start, end) in the
+     * first half of each row and the paired indices [start + block, end + block) in the second half of each row is
+     * therefore self-contained and the shard's local serpentine shift is a uniform shift of the shard width.
+     */
+    private class FilterShard implements Runnable
+    {
+        private final int mStart;
+        private final int mWidth;
+        private final float[] mSamples;
+        private final float[] mFilter;
+        private final float[] mAccumulator;
+        private final int[] mTopOutputIndexes;
+        private final int[] mTopAccumulatorIndexes;
+        private final int[] mMiddleOutputIndexes;
+        private final int[] mMiddleAccumulatorIndexes;
+        private int mBlockCount;
+
+        /**
+         * Constructs an instance
+         * @param start index (inclusive) in the first half of each filter row
+         * @param end index (exclusive) in the first half of each filter row
+         */
+        public FilterShard(int start, int end)
+        {
+            mStart = start;
+            mWidth = end - start;
+            int rowLength = getSubChannelCount();
+            int localRowLength = 2 * mWidth;
+            mSamples = new float[localRowLength * mTapsPerChannel];
+            mFilter = new float[localRowLength * mTapsPerChannel];
+            mAccumulator = new float[localRowLength];
+
+            for(int tap = 0; tap < mTapsPerChannel; tap++)
+            {
+                System.arraycopy(mInlineFilter, tap * rowLength + start, mFilter, tap * localRowLength, mWidth);
+                System.arraycopy(mInlineFilter, tap * rowLength + mSamplesPerBlock + start, mFilter,
+                    tap * localRowLength + mWidth, mWidth);
+            }
+
+            int[][] top = getShardMap(mTopBlockMap);
+            mTopOutputIndexes = top[0];
+            mTopAccumulatorIndexes = top[1];
+            int[][] middle = getShardMap(mMiddleBlockMap);
+            mMiddleOutputIndexes = middle[0];
+            mMiddleAccumulatorIndexes = middle[1];
+        }
+
+        /**
+         * Creates the subset of the output to accumulator mapping for the sub-channels owned by this shard.
+         * @param map of output index to accumulator index across all sub-channels
+         * @return output indexes and the corresponding local accumulator indexes
+         */
+        private int[][] getShardMap(int[] map)
+        {
+            int[] outputIndexes = new int[2 * mWidth];
+            int[] accumulatorIndexes = new int[2 * mWidth];
+            int pointer = 0;
+
+            for(int x = 0; x < map.length; x++)
+            {
+                int index = map[x];
+
+                if(index >= mStart && index < mStart + mWidth)
+                {
+                    outputIndexes[pointer] = x;
+                    accumulatorIndexes[pointer++] = index - mStart;
+                }
+                else if(index >= mSamplesPerBlock + mStart && index < mSamplesPerBlock + mStart + mWidth)
+                {
+                    outputIndexes[pointer] = x;
+                    accumulatorIndexes[pointer++] = mWidth + index - mSamplesPerBlock - mStart;
+                }
+            }
+
+            return new int[][]{outputIndexes, accumulatorIndexes};
+        }
+
+        /**
+         * Sets the number of pending blocks to process on the next run.
+         */
+        public void setBlockCount(int blockCount)
+        {
+            mBlockCount = blockCount;
+        }
+
+        @Override
+        public void run()
+        {
+            int localRowLength = 2 * mWidth;
+
+            for(int block = 0; block < mBlockCount; block++)
+            {
+                System.arraycopy(mPendingBlocks[block], mStart, mSamples, 0, mWidth);
+
+                Arrays.fill(mAccumulator, 0.0f);
+
+                for(int tap = 0; tap < mTapsPerChannel; tap++)
+                {
+                    int tapOffset = tap * localRowLength;
+
+                    for(int x = 0; x < localRowLength; x++)
+                    {
+                        mAccumulator[x] += mSamples[tapOffset + x] * mFilter[tapOffset + x];
+                    }
+                }
+
+                float[] results = mPendingResults[block];
+
+                if(mPendingTopBlockIndicators[block])
+                {
+                    for(int x = 0; x < mTopOutputIndexes.length; x++)
+                    {
+                        results[mTopOutputIndexes[x]] = mAccumulator[mTopAccumulatorIndexes[x]];
+                    }
+                }
+                else
+                {
+                    for(int x = 0; x < mMiddleOutputIndexes.length; x++)
+                    {
+                        results[mMiddleOutputIndexes[x]] = mAccumulator[mMiddleAccumulatorIndexes[x]];
+                    }
+                }
+
+                //Serpentine shift of the local sample history
+                System.arraycopy(mSamples, 0, mSamples, mWidth, mSamples.length - mWidth);
+            }
+        }
+    }
+
+    /**
+     * Multi-core IFFT shard that performs the IFFT for a range of channel results arrays in a results buffer.  Each
+     * shard uses its own FFT instance.
+     */
+    private static class IFFTShard implements Runnable
+    {
+        private final FloatFFT_1D mShardFFT;
+        private ChannelResultsBuffer mBuffer;
+        private int mStart;
+        private int mEnd;
+
+        public IFFTShard(int channelCount)
+        {
+            mShardFFT = new FloatFFT_1D(channelCount);
+        }
+
+        /**
+         * Sets the buffer and range of channel results arrays to process on the next run.
+         */
+        public void set(ChannelResultsBuffer buffer, int start, int end)
+        {
+            mBuffer = buffer;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        public void run()
+        {
+            for(int x = mStart; x < mEnd; x++)
+            {
+                mShardFFT.complexInverse(mBuffer.get(x), true);
+            }
+
+            mBuffer = null;
+        }
     }
 }
@@ -0,0 +1,368 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.dsp.filter.decimate.DecimationFilterFactory;
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.dsp.window.WindowFactory;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.util.RingBufferDispatcher;
+import org.jtransforms.fft.FloatFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Complex sample source that is fed by a fast convolution channelizer.  The channelizer shares the spectrum of each
+ * overlap-save block with all channels.  This channel selects the FFT bins that surround the channel center frequency,
+ * applies the channel filter frequency response and performs an inverse FFT that is sized for the channel output
+ * sample rate, which filters, translates and decimates the channel in a single step.  The overlap samples at the
+ * start of each inverse FFT are discarded and any channel frequency offset that is less than one FFT bin is removed
+ * with a mixer at the channel output sample rate.
+ *
+ * Sample buffer processing occurs on this channel's dispatcher thread.
+ */
+public class FastConvolutionChannelSource extends TunerChannelSource
+{
+    private static final Logger mLog = LoggerFactory.getLogger(FastConvolutionChannelSource.class);
+
+    //Maximum number of spectrum blocks for the dispatcher queue
+    private static final int BUFFER_MAX_CAPACITY = 600;
+
+    //Minimum inverse FFT size so that the channel filter response spans enough FFT bins
+    private static final int MINIMUM_IFFT_SIZE = 16;
+
+    private static final WindowType FILTER_WINDOW_TYPE = WindowType.BLACKMAN;
+
+    private RingBufferDispatcher<SpectrumBlock> mBufferDispatcher;
+    private FloatFFT_1D mIFFT;
+    private ComplexMixer mMixer;
+    private Listener<ComplexSamples> mSamplesListener;
+    private volatile BinSelection mBinSelection;
+    private BinSelection mAppliedBinSelection;
+    private final double mTunerSampleRate;
+    private final int mFFTSize;
+    private final int mIFFTSize;
+    private final int mOverlap;
+    private final int mDecimation;
+    private final double mChannelSampleRate;
+    private final float[] mFilterResponse;
+    private float[] mIFFTBuffer;
+    private long mPhaseIndex;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param producerSourceEventListener to receive sample stream start/stop requests
+     * @param tunerChannel that details the desired channel frequency and bandwidth
+     * @param sampleRate of the tuner sample stream
+     * @param channelSpecification for the requested channel.
+     * @param threadName for the dispatcher
+     */
+    public FastConvolutionChannelSource(Listener<SourceEvent> producerSourceEventListener, TunerChannel tunerChannel,
+                                        double sampleRate, ChannelSpecification channelSpecification,
+                                        String threadName)
+    {
+        super(producerSourceEventListener, tunerChannel, threadName);
+
+        mTunerSampleRate = sampleRate;
+        mFFTSize = FastConvolutionChannelizer.getFFTSize(sampleRate);
+
+        int desiredDecimation = (int)(sampleRate / channelSpecification.getMinimumSampleRate());
+        int decimation = DecimationFilterFactory.getDecimationRate(desiredDecimation);
+        mDecimation = Math.min(Math.max(decimation, 1), mFFTSize / MINIMUM_IFFT_SIZE);
+        mChannelSampleRate = sampleRate / mDecimation;
+        mIFFTSize = mFFTSize / mDecimation;
+        mOverlap = FastConvolutionChannelizer.getOverlap(mFFTSize) / mDecimation;
+        mIFFT = new FloatFFT_1D(mIFFTSize);
+        mIFFTBuffer = new float[mIFFTSize * 2];
+        mFilterResponse = getFilterResponse(tunerChannel.getBandwidth());
+        mMixer = ComplexMixerFactory.getMixer(0, mChannelSampleRate);
+
+        mBufferDispatcher = new RingBufferDispatcher<>(threadName, BUFFER_MAX_CAPACITY,
+            RingBufferDispatcher.WaitStrategy.PARK, getHeartbeatManager());
+        mBufferDispatcher.setListener(new SpectrumBlockProcessor());
+        mBufferDispatcher.setOverflowListener(this::broadcastOverflowState);
+        mBufferDispatcher.setMetricScope(MetricScope.CHANNEL, threadName);
+    }
+
+    /**
+     * Creates the channel filter frequency response for each of the inverse FFT bins, ordered to align with the
+     * inverse FFT bins (ie positive frequency bins followed by the negative frequency bins).
+     *
+     * The channel filter is a windowed sinc low-pass filter with a length of the block overlap plus one so that the
+     * filter spans the overlap and the overlap-save outputs are free of circular convolution effects.  The cutoff
+     * is centered between the channel band edge and the channel output Nyquist frequency.  The response includes the
+     * 1/N scaling of the forward FFT and the linear phase of the causal filter.
+     *
+     * @param bandwidth of the channel
+     * @return interleaved complex frequency response
+     */
+    private float[] getFilterResponse(double bandwidth)
+    {
+        int length = FastConvolutionChannelizer.getOverlap(mFFTSize) + 1;
+        double stopFrequency = mChannelSampleRate / 2.0;
+        double passFrequency = Math.min(bandwidth / 2.0, stopFrequency);
+        double cutoff = (passFrequency + stopFrequency) / 2.0 / mTunerSampleRate;
+
+        float[] window = WindowFactory.getWindow(FILTER_WINDOW_TYPE, length);
+        double[] taps = new double[length];
+        int middle = length / 2;
+        double sum = 0.0;
+
+        for(int x = 0; x < length; x++)
+        {
+            int n = x - middle;
+            double sinc = (n == 0) ? 2.0 * cutoff : Math.sin(2.0 * Math.PI * cutoff * n) / (Math.PI * n);
+            taps[x] = sinc * window[x];
+            sum += taps[x];
+        }
+
+        //Normalize for unity gain at DC and apply the FFT scaling
+        double scale = 1.0 / (sum * mFFTSize);
+
+        float[] response = new float[mIFFTSize * 2];
+
+        for(int bin = 0; bin < mIFFTSize; bin++)
+        {
+            int frequencyBin = (bin < mIFFTSize / 2) ? bin : bin - mIFFTSize;
+
+            //Symmetric filter has a real valued response about the middle tap and a linear phase for the delay
+            double amplitude = taps[middle];
+
+            for(int n = 1; n <= middle; n++)
+            {
+                amplitude += 2.0 * taps[middle + n] * Math.cos(2.0 * Math.PI * frequencyBin * n / mFFTSize);
+            }
+
+            double phase = -2.0 * Math.PI * frequencyBin * middle / mFFTSize;
+            response[2 * bin] = (float)(amplitude * scale * Math.cos(phase));
+            response[2 * bin + 1] = (float)(amplitude * scale * Math.sin(phase));
+        }
+
+        return response;
+    }
+
+    /**
+     * Overall decimation rate from the tuner sample rate to the channel sample rate.
+     */
+    public int getDecimation()
+    {
+        return mDecimation;
+    }
+
+    /**
+     * Center FFT bin for this channel, relative to the tuner center frequency.
+     */
+    public int getCenterBin()
+    {
+        BinSelection binSelection = mBinSelection;
+        return binSelection != null ? binSelection.centerBin() : 0;
+    }
+
+    /**
+     * Frequency of the mixer that removes the residual (less than one FFT bin) channel offset.
+     */
+    public long getMixerFrequency()
+    {
+        BinSelection binSelection = mBinSelection;
+        return binSelection != null ? (long)binSelection.mixerFrequency() : 0;
+    }
+
+    /**
+     * Updates the FFT bin selection for the tuner center frequency.  Invoked by the channelizer.
+     * @param tunerFrequency in hertz
+     */
+    void setTunerFrequency(long tunerFrequency)
+    {
+        double binWidth = mTunerSampleRate / mFFTSize;
+        double channelOffset = getTunerChannel().getFrequency() - tunerFrequency;
+        int centerBin = (int)Math.round(channelOffset / binWidth);
+        mBinSelection = new BinSelection(centerBin, centerBin * binWidth - channelOffset);
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        mBufferDispatcher.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        super.stop();
+        mBufferDispatcher.stop();
+    }
+
+    @Override
+    public void dispose()
+    {
+    }
+
+    /**
+     * Primary method for the channelizer to deliver the spectrum of each overlap-save block.
+     *
+     * @param spectrum of the block as interleaved complex FFT bins.  This array is shared with other channels and
+     * must not be modified.
+     * @param timestamp for the block
+     */
+    public void receive(float[] spectrum, long timestamp)
+    {
+        mBufferDispatcher.receive(new SpectrumBlock(spectrum, timestamp));
+    }
+
+    /**
+     * Not used.  The channelizer updates the FFT bin selection for each channel when the tuner frequency changes.
+     */
+    @Override
+    public void setFrequency(long frequency)
+    {
+    }
+
+    @Override
+    protected void setSampleRate(double sampleRate)
+    {
+        //Not implemented.  Sample rate changes are not permitted once sample stream starts
+    }
+
+    @Override
+    public void setListener(Listener<ComplexSamples> listener)
+    {
+        mSamplesListener = listener;
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mChannelSampleRate;
+    }
+
+    /**
+     * Filters, translates and decimates the channel from the block spectrum.  Note: invoke on the dispatcher thread.
+     * @param spectrum of the block
+     * @param binSelection for the channel
+     * @return channel samples
+     */
+    private ComplexSamples channelize(float[] spectrum, BinSelection binSelection, long timestamp)
+    {
+        float[] buffer = mIFFTBuffer;
+        float[] response = mFilterResponse;
+        int binMask = mFFTSize - 1;
+        int centerBin = binSelection.centerBin();
+
+        for(int bin = 0; bin < mIFFTSize; bin++)
+        {
+            int frequencyBin = (bin < mIFFTSize / 2) ? bin : bin - mIFFTSize;
+            int index = ((centerBin + frequencyBin) & binMask) * 2;
+            float i = spectrum[index];
+            float q = spectrum[index + 1];
+            float responseI = response[2 * bin];
+            float responseQ = response[2 * bin + 1];
+            buffer[2 * bin] = i * responseI - q * responseQ;
+            buffer[2 * bin + 1] = i * responseQ + q * responseI;
+        }
+
+        mIFFT.complexInverse(buffer, false);
+
+        //Shifting the spectrum by the center bin rotates each block by the center bin times the block start sample
+        double angle = -2.0 * Math.PI * mPhaseIndex / mFFTSize;
+        float cos = (float)Math.cos(angle);
+        float sin = (float)Math.sin(angle);
+        mPhaseIndex = (mPhaseIndex + (long)centerBin * (mFFTSize - FastConvolutionChannelizer.getOverlap(mFFTSize)))
+            & binMask;
+
+        //Discard the overlap samples that are corrupted by circular convolution
+        int length = mIFFTSize - mOverlap;
+        float[] i = new float[length];
+        float[] q = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            int index = (mOverlap + x) * 2;
+            i[x] = buffer[index] * cos - buffer[index + 1] * sin;
+            q[x] = buffer[index] * sin + buffer[index + 1] * cos;
+        }
+
+        return new ComplexSamples(i, q, timestamp);
+    }
+
+    /**
+     * FFT center bin and residual mixer frequency for the channel.
+     *
+     * @param centerBin nearest to the channel center frequency, relative to the tuner center frequency
+     * @param mixerFrequency to translate the channel from the center bin frequency to baseband
+     */
+    private record BinSelection(int centerBin, double mixerFrequency) {}
+
+    /**
+     * Spectrum of an overlap-save block.
+     */
+    private record SpectrumBlock(float[] spectrum, long timestamp) {}
+
+    /**
+     * Processes spectrum blocks received from the dispatcher and sends channel samples to the registered listener
+     */
+    private class SpectrumBlockProcessor implements Listener<SpectrumBlock>
+    {
+        @Override
+        public void receive(SpectrumBlock spectrumBlock)
+        {
+            BinSelection binSelection = mBinSelection;
+
+            if(binSelection == null)
+            {
+                return;
+            }
+
+            if(binSelection != mAppliedBinSelection)
+            {
+                mMixer.setFrequency(binSelection.mixerFrequency());
+                mPhaseIndex = 0;
+                mAppliedBinSelection = binSelection;
+            }
+
+            if(mSamplesListener != null)
+            {
+                ComplexSamples samples = channelize(spectrumBlock.spectrum(), binSelection, spectrumBlock.timestamp());
+                ComplexSamples basebanded = mMixer.mix(samples);
+
+                try
+                {
+                    mSamplesListener.receive(basebanded);
+                }
+                catch(Throwable t)
+                {
+                    //The listener can be made null and cause the error - only log if we have a non-null listener
+                    if(mSamplesListener != null)
+                    {
+                        mLog.error("Error dispatching complex samples to listener [" + mSamplesListener + "]");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.source.tuner.manager.ISharedChannelizer;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.util.RingBufferDispatcher;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jtransforms.fft.FloatFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Overlap-save fast convolution (FFT filter bank) channelizer.
+ *
+ * The incoming sample stream is divided into overlapping blocks of FFT size samples, where each block advances by
+ * 3/4 of the FFT size.  A single forward FFT is performed per block and the resulting spectrum is shared with all
+ * channels.  Each channel selects the FFT bins surrounding its center frequency, applies the frequency response of
+ * its channel filter and performs a small inverse FFT that filters, translates and decimates the channel in a single
+ * step.  Channels are not constrained to a fixed channel grid and each channel can specify its own bandwidth and
+ * output sample rate.
+ *
+ * The FFT size is chosen from the tuner sample rate so that the FFT bin width is near 400 Hz, which allows channel
+ * filters with a transition band of a few kHz.  Any channel center frequency offset that is smaller than one FFT bin
+ * is removed by the channel at the channel output sample rate.
+ *
+ * Forward FFT processing occurs on a dedicated dispatcher thread and each channel performs its inverse FFT on its own
+ * dispatcher thread.  The spectrum array for each block is shared by all channels and must not be modified.
+ */
+public class FastConvolutionChannelizer implements ISharedChannelizer<FastConvolutionChannelSource>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FastConvolutionChannelizer.class);
+
+    //Maximum number of native buffers for the dispatcher queue
+    private static final int BUFFER_MAX_CAPACITY = 500;
+
+    //Target FFT bin width in hertz used to size the forward FFT for a sample rate
+    private static final double NOMINAL_BIN_WIDTH = 400.0;
+    private static final int MINIMUM_FFT_SIZE = 1024;
+
+    private final List<FastConvolutionChannelSource> mChannels = new CopyOnWriteArrayList<>();
+    private final RingBufferDispatcher<INativeBuffer> mBufferDispatcher;
+    private final FloatFFT_1D mFFT;
+    private final double mSampleRate;
+    private final int mFFTSize;
+    private final int mOverlap;
+    private final float[] mBlock;
+    private int mBlockPointer;
+    private long mTunerFrequency;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the tuner sample stream
+     * @param tunerFrequency of the tuner sample stream
+     * @param threadName for the channelizer dispatcher
+     * @param metricScopeName for the channelizer dispatcher metrics, or null.
+     */
+    public FastConvolutionChannelizer(double sampleRate, long tunerFrequency, String threadName, String metricScopeName)
+    {
+        mSampleRate = sampleRate;
+        mTunerFrequency = tunerFrequency;
+        mFFTSize = getFFTSize(sampleRate);
+        mOverlap = getOverlap(mFFTSize);
+        mFFT = new FloatFFT_1D(mFFTSize);
+        mBlock = new float[mFFTSize * 2];
+
+        //The first block is preceded by an overlap of zero valued samples
+        mBlockPointer = mOverlap * 2;
+
+        mBufferDispatcher = new RingBufferDispatcher<>(threadName, BUFFER_MAX_CAPACITY,
+            RingBufferDispatcher.WaitStrategy.PARK);
+        mBufferDispatcher.setListener(this::process);
+
+        if(metricScopeName != null)
+        {
+            mBufferDispatcher.setMetricScope(MetricScope.CHANNELIZER, metricScopeName);
+        }
+    }
+
+    /**
+     * FFT size used by the channelizer for the sample rate.
+     * @param sampleRate of the tuner sample stream
+     * @return FFT size as a power of 2
+     */
+    public static int getFFTSize(double sampleRate)
+    {
+        int fftSize = MINIMUM_FFT_SIZE;
+
+        while(sampleRate / fftSize > NOMINAL_BIN_WIDTH)
+        {
+            fftSize *= 2;
+        }
+
+        return fftSize;
+    }
+
+    /**
+     * Number of samples that each block overlaps the previous block, which is also one less than the maximum length
+     * of the channel filters.
+     * @param fftSize of the channelizer
+     * @return overlap sample count
+     */
+    public static int getOverlap(int fftSize)
+    {
+        return fftSize / 4;
+    }
+
+    /**
+     * Tuner sample rate
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Forward FFT size
+     */
+    public int getFFTSize()
+    {
+        return mFFTSize;
+    }
+
+    /**
+     * Starts the channelizer dispatcher thread.
+     */
+    @Override
+    public void start()
+    {
+        mBufferDispatcher.start();
+    }
+
+    /**
+     * Stops the channelizer dispatcher thread.
+     */
+    @Override
+    public void stop()
+    {
+        mBufferDispatcher.stop();
+    }
+
+    /**
+     * Primary method for receiving native buffers from the tuner.
+     */
+    @Override
+    public void receive(INativeBuffer nativeBuffer)
+    {
+        mBufferDispatcher.receive(nativeBuffer);
+    }
+
+    /**
+     * Number of channels receiving channelizer output.
+     */
+    @Override
+    public int getChannelCount()
+    {
+        return mChannels.size();
+    }
+
+    /**
+     * Adds the channel to receive channelizer output.
+     */
+    @Override
+    public synchronized void add(FastConvolutionChannelSource channel)
+    {
+        if(!mChannels.contains(channel))
+        {
+            channel.setTunerFrequency(mTunerFrequency);
+            mChannels.add(channel);
+        }
+    }
+
+    /**
+     * Removes the channel from receiving channelizer output.
+     */
+    @Override
+    public synchronized void remove(FastConvolutionChannelSource channel)
+    {
+        mChannels.remove(channel);
+    }
+
+    /**
+     * Sets the tuner center frequency and updates the FFT bin selection for each channel.
+     * @param tunerFrequency in hertz
+     */
+    @Override
+    public synchronized void setTunerFrequency(long tunerFrequency)
+    {
+        mTunerFrequency = tunerFrequency;
+
+        for(FastConvolutionChannelSource channel: mChannels)
+        {
+            channel.setTunerFrequency(tunerFrequency);
+        }
+    }
+
+    /**
+     * Description of the channelizer configuration
+     */
+    @Override
+    public String getStateDescription()
+    {
+        return "\n\tFast Convolution Channelizer Sample Rate [" + mSampleRate + "] FFT Size [" + mFFTSize +
+            "] Bin Width [" + (mSampleRate / mFFTSize) + "] Channels [" + mChannels.size() + "]";
+    }
+
+    /**
+     * Loads the native buffer samples into the block buffer and transforms each completed block.  Invoked on the
+     * dispatcher thread.
+     */
+    private void process(INativeBuffer nativeBuffer)
+    {
+        Iterator<InterleavedComplexSamples> iterator = nativeBuffer.iteratorInterleaved();
+
+        while(iterator.hasNext())
+        {
+            InterleavedComplexSamples fragment = iterator.next();
+            float[] samples = fragment.samples();
+            int samplesPointer = 0;
+
+            while(samplesPointer < samples.length)
+            {
+                int toCopy = Math.min(mBlock.length - mBlockPointer, samples.length - samplesPointer);
+                System.arraycopy(samples, samplesPointer, mBlock, mBlockPointer, toCopy);
+                mBlockPointer += toCopy;
+                samplesPointer += toCopy;
+
+                if(mBlockPointer >= mBlock.length)
+                {
+                    transform(fragment.timestamp());
+
+                    //Retain the block overlap at the start of the block buffer for the next block
+                    System.arraycopy(mBlock, mBlock.length - (mOverlap * 2), mBlock, 0, mOverlap * 2);
+                    mBlockPointer = mOverlap * 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms the current block and dispatches the spectrum to each channel.
+     * @param timestamp for the block
+     */
+    private void transform(long timestamp)
+    {
+        float[] spectrum = new float[mBlock.length];
+        System.arraycopy(mBlock, 0, spectrum, 0, mBlock.length);
+        mFFT.complexForward(spectrum);
+
+        for(FastConvolutionChannelSource channel: mChannels)
+        {
+            try
+            {
+                channel.receive(spectrum, timestamp);
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error dispatching fast convolution spectrum to channel", t);
+            }
+        }
+    }
+}
@@ -20,10 +20,15 @@ package io.github.dsheirer.dsp.filter.channelizer;
 
 import io.github.dsheirer.buffer.INativeBuffer;
 import io.github.dsheirer.buffer.INativeBufferProvider;
+import io.github.dsheirer.buffer.IReusableNativeBuffer;
+import io.github.dsheirer.buffer.IReusableNativeBufferListener;
 import io.github.dsheirer.controller.channel.event.ChannelStopProcessingRequest;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.log.LoggingSuppressor;
+import io.github.dsheirer.monitor.metrics.Histogram;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.MetricsRegistry;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
@@ -33,7 +38,7 @@ import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerController;
 import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
-import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.RingBufferDispatcher;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -71,6 +76,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     private static final double MINIMUM_CHANNEL_BANDWIDTH = 25000.0;
     private static final double CHANNEL_OVERSAMPLING = 2.0;
     private static final int POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL = 9;
+    private static final int BUFFER_QUEUE_CAPACITY = 512;
 
     private Broadcaster<SourceEvent> mSourceEventBroadcaster = new Broadcaster<>();
     private INativeBufferProvider mNativeBufferProvider;
@@ -80,9 +86,11 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     private ComplexPolyphaseChannelizerM2 mPolyphaseChannelizer;
     private ChannelSourceEventListener mChannelSourceEventListener = new ChannelSourceEventListener();
     private NativeBufferReceiver mNativeBufferReceiver = new NativeBufferReceiver();
-    private Dispatcher mBufferDispatcher;
+    private NativeBufferDispatcher mBufferDispatcher;
     private Map<Integer,float[]> mOutputProcessorFilters = new HashMap<>();
     private boolean mRunning = true;
+    private ChannelizerWorkerPool mWorkerPool;
+    private volatile Histogram mSampleAge;
 
     /**
      * Creates a polyphase channel manager instance.
@@ -110,7 +118,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         }
 
         mChannelCalculator = new ChannelCalculator(sampleRate, channelCount, frequency, CHANNEL_OVERSAMPLING);
-        mBufferDispatcher = new Dispatcher("sdrtrunk polyphase buffer processor", 10);
+        mBufferDispatcher = new NativeBufferDispatcher("sdrtrunk polyphase buffer processor", BUFFER_QUEUE_CAPACITY);
         mBufferDispatcher.setListener(mNativeBufferReceiver);
     }
 
@@ -124,6 +132,19 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         this(tunerController, tunerController.getFrequency(), tunerController.getSampleRate());
     }
 
+    /**
+     * Creates a multi-core polyphase channel manager for the tuner controller.  The channelizer filter and IFFT
+     * processing and the channel output processing are distributed across the workers of the worker pool.
+     *
+     * @param tunerController for a tuner that provides a baseband complex buffer stream.
+     * @param workerPool for multi-core processing
+     */
+    public PolyphaseChannelManager(TunerController tunerController, ChannelizerWorkerPool workerPool)
+    {
+        this(tunerController);
+        mWorkerPool = workerPool;
+    }
+
     /**
      * Provides a description of the state of this manager.
      */
@@ -131,6 +152,12 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     {
         StringBuilder sb = new StringBuilder();
         sb.append("Polyphase Channel Manager Providing [").append(mChannelSources.size()).append("] Channels");
+
+        if(mWorkerPool != null)
+        {
+            sb.append(" Multi-Core Workers [").append(mWorkerPool.getWorkerCount()).append("]");
+        }
+
         sb.append("\n\t").append(mChannelCalculator);
         for(PolyphaseChannelSource pcs: mChannelSources)
         {
@@ -201,7 +228,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             try
             {
                 channelSource = new PolyphaseChannelSource(tunerChannel, mChannelCalculator, mFilterManager,
-                        mChannelSourceEventListener, threadName);
+                        mChannelSourceEventListener, threadName, mWorkerPool);
 
                 mChannelSources.add(channelSource);
             }
@@ -215,6 +242,20 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         return channelSource;
     }
 
+    /**
+     * Name of this channelizer for pipeline metrics, using the tuner name when available.
+     */
+    private String getMetricScopeName()
+    {
+        if(mNativeBufferProvider instanceof TunerController tunerController &&
+            tunerController.getMetricScopeName() != null)
+        {
+            return tunerController.getMetricScopeName();
+        }
+
+        return "polyphase " + FREQUENCY_FORMAT.format(mChannelCalculator.getCenterFrequency() / 1E6d) + " MHz";
+    }
+
     /**
      * Starts/adds the channel source to receive channelized sample buffers, registering with the tuner to receive
      * sample buffers when this is the first channel.
@@ -234,6 +275,11 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             //If this is the first channel, register to start the sample buffers flowing
             if(mPolyphaseChannelizer.getRegisteredChannelCount() == 1)
             {
+                String metricScopeName = getMetricScopeName();
+                mBufferDispatcher.setMetricScope(MetricScope.CHANNELIZER, metricScopeName);
+                mSampleAge = MetricsRegistry.getInstance().histogram("channelizer_sample_age_us",
+                    "Age of each tuner sample buffer when it reaches the channelizer in microseconds",
+                    MetricScope.CHANNELIZER, metricScopeName);
                 mNativeBufferProvider.addBufferListener(mBufferDispatcher);
                 mPolyphaseChannelizer.start();
                 mBufferDispatcher.start();
@@ -266,6 +312,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                 mNativeBufferProvider.removeBufferListener(mBufferDispatcher);
                 mBufferDispatcher.stop();
                 mPolyphaseChannelizer.stop();
+                MetricsRegistry.getInstance().remove(mSampleAge);
+                mSampleAge = null;
             }
         }
 
@@ -337,8 +385,16 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
 
             try
             {
-                mPolyphaseChannelizer = new ComplexPolyphaseChannelizerM2(tunerSampleRate,
-                    POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL);
+                if(mWorkerPool != null)
+                {
+                    mPolyphaseChannelizer = new ComplexPolyphaseChannelizerM2(tunerSampleRate,
+                        POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL, mWorkerPool);
+                }
+                else
+                {
+                    mPolyphaseChannelizer = new ComplexPolyphaseChannelizerM2(tunerSampleRate,
+                        POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL);
+                }
             }
             catch(IllegalArgumentException iae)
             {
@@ -472,6 +528,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     public class NativeBufferReceiver implements Listener<INativeBuffer>
     {
         private boolean mOutputProcessorUpdateRequired = false;
+        private float[] mFragment;
 
         /**
          * Processes tuner center frequency change source events to flag when output processors need updating.
@@ -510,22 +567,86 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                 mOutputProcessorUpdateRequired = false;
             }
 
-            if(mPolyphaseChannelizer != null)
+            Histogram sampleAge = mSampleAge;
+
+            if(sampleAge != null)
             {
-                Iterator<InterleavedComplexSamples> iterator = nativeBuffer.iteratorInterleaved();
+                sampleAge.record((System.currentTimeMillis() - nativeBuffer.getTimestamp()) * 1000);
+            }
 
-                while(iterator.hasNext())
+            try
+            {
+                if(mPolyphaseChannelizer != null)
                 {
-                    try
+                    Iterator<InterleavedComplexSamples> iterator;
+
+                    //The channelizer copies each fragment, so reusable buffers can convert into a reused array
+                    if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
                     {
-                        mPolyphaseChannelizer.receive(iterator.next());
+                        iterator = reusableNativeBuffer.iteratorInterleaved(mFragment);
                     }
-                    catch(Throwable throwable)
+                    else
+                    {
+                        iterator = nativeBuffer.iteratorInterleaved();
+                    }
+
+                    while(iterator.hasNext())
                     {
-                        mLog.error("Error", throwable);
+                        try
+                        {
+                            InterleavedComplexSamples samples = iterator.next();
+                            mFragment = samples.samples();
+                            mPolyphaseChannelizer.receive(samples);
+                        }
+                        catch(Throwable throwable)
+                        {
+                            mLog.error("Error", throwable);
+                        }
                     }
                 }
             }
+            finally
+            {
+                if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+                {
+                    reusableNativeBuffer.decrementUserCount();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues tuner native buffers between the tuner's delivery thread and the polyphase channelizer thread.  Pooled
+     * buffers hold a user count while queued so the tuner can't recycle them before the channelizer reads them.  The
+     * count is dropped by the native buffer receiver after channelizing, or here when the ring is full or stopped.
+     */
+    private static class NativeBufferDispatcher extends RingBufferDispatcher<INativeBuffer>
+        implements IReusableNativeBufferListener
+    {
+        public NativeBufferDispatcher(String threadName, int capacity)
+        {
+            super(threadName, capacity, WaitStrategy.PARK);
+            setDiscardListener(this::overflow);
+        }
+
+        @Override
+        public void receive(INativeBuffer nativeBuffer)
+        {
+            if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.incrementUserCount();
+            }
+
+            super.receive(nativeBuffer);
+        }
+
+        @Override
+        protected void overflow(INativeBuffer nativeBuffer)
+        {
+            if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.decrementUserCount();
+            }
         }
     }
 }
\ No newline at end of file
@@ -48,6 +48,7 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
     private double mTunerSampleRate;
     private double mTunerCenterFrequency;
     private PendingOutputProcessorUpdate mPendingOutputProcessorUpdate;
+    private ChannelizerWorkerPool mWorkerPool;
 
     /**
      * Constructs an instance
@@ -57,13 +58,16 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
      * @param filterManager for access to new or cached synthesis filters
      * @param producerSourceEventListener to receive source event requests (e.g. start/stop sample stream)
      * @param threadName for the channel's dispatcher
+     * @param workerPool (optional) for multi-core channel output processing, or null for a dedicated thread
      * @throws IllegalArgumentException if a channel low pass filter can't be designed to the channel specification
      */
     public PolyphaseChannelSource(TunerChannel tunerChannel, ChannelCalculator channelCalculator, SynthesisFilterManager filterManager,
-                                  Listener<SourceEvent> producerSourceEventListener, String threadName)
+                                  Listener<SourceEvent> producerSourceEventListener, String threadName,
+                                  ChannelizerWorkerPool workerPool)
             throws IllegalArgumentException
     {
         super(producerSourceEventListener, tunerChannel, threadName);
+        mWorkerPool = workerPool;
         mChannelSampleRate = channelCalculator.getChannelSampleRate();
         doUpdateOutputProcessor(channelCalculator, filterManager);
     }
@@ -224,7 +228,8 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
             {
                 case 1:
                     mPolyphaseChannelOutputProcessor = new OneChannelOutputProcessor(channelCalculator.getChannelSampleRate(),
-                            indexes, channelCalculator.getChannelCount(), getHeartbeatManager(), mThreadName);
+                            indexes, channelCalculator.getChannelCount(), getHeartbeatManager(), mThreadName,
+                            mWorkerPool);
                     mPolyphaseChannelOutputProcessor.setListener(this);
                     mPolyphaseChannelOutputProcessor.setFrequencyOffset(getFrequencyOffset());
                     mPolyphaseChannelOutputProcessor.start();
@@ -235,7 +240,8 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
                         float[] filter = filterManager.getFilter(channelCalculator.getChannelSampleRate(),
                                 channelCalculator.getChannelBandwidth(), 2);
                         mPolyphaseChannelOutputProcessor = new TwoChannelOutputProcessor(channelCalculator.getChannelSampleRate(),
-                                indexes, filter, channelCalculator.getChannelCount(), getHeartbeatManager(), mThreadName);
+                                indexes, filter, channelCalculator.getChannelCount(), getHeartbeatManager(),
+                                mThreadName, mWorkerPool);
                         mPolyphaseChannelOutputProcessor.setListener(this);
                         mPolyphaseChannelOutputProcessor.setFrequencyOffset(getFrequencyOffset());
                         mPolyphaseChannelOutputProcessor.start();
@@ -267,10 +273,13 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
      * queued for processing to extract the target channel samples, process them for frequency correction and/or
      * channel aggregation, and dispatch the results to the downstream sample listener/consumer.
      *
-     * @param channelResultsList containing a list of polyphase channelizer output arrays.
+     * Note: the buffer is released by the output processor once processed, or by this method if there is no output
+     * processor.
+     *
+     * @param channelResultsBuffer containing polyphase channelizer output arrays.
      * @param currentSamplesTimestamp for the samples
      */
-    public void receiveChannelResults(List<float[]> channelResultsList, long currentSamplesTimestamp)
+    public void receiveChannelResults(ChannelResultsBuffer channelResultsBuffer, long currentSamplesTimestamp)
     {
         if(mPendingOutputProcessorUpdate != null)
         {
@@ -282,9 +291,15 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
 
         try
         {
-            if(mPolyphaseChannelOutputProcessor != null)
+            IPolyphaseChannelOutputProcessor outputProcessor = mPolyphaseChannelOutputProcessor;
+
+            if(outputProcessor != null)
+            {
+                outputProcessor.receiveChannelResults(channelResultsBuffer, currentSamplesTimestamp);
+            }
+            else
             {
-                mPolyphaseChannelOutputProcessor.receiveChannelResults(channelResultsList, currentSamplesTimestamp);
+                channelResultsBuffer.decrementConsumerCount();
             }
         }
         catch(Exception e)
@@ -18,11 +18,14 @@
  */
 package io.github.dsheirer.dsp.filter.channelizer.output;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelResultsBuffer;
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
+import io.github.dsheirer.monitor.metrics.MetricScope;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.heartbeat.HeartbeatManager;
 import io.github.dsheirer.util.Dispatcher;
-import java.util.List;
+import io.github.dsheirer.util.IDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,7 +33,7 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelOutputProcessor.class);
 
-    private Dispatcher<List<float[]>> mChannelResultsDispatcher;
+    private IDispatcher<ChannelResultsBuffer> mChannelResultsDispatcher;
     private HeartbeatManager mHeartbeatManager;
     protected Listener<ComplexSamples> mComplexSamplesListener;
     private int mInputChannelCount;
@@ -43,22 +46,42 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
      * @param inputChannelCount is the number of input channels for this output processor
      * @param heartbeatManager to receive pings on the dispatcher thread
      * @param threadName for the dispatcher
+     * @param workerPool (optional) to service this processor on a shared output lane instead of a dedicated thread.
      */
-    public ChannelOutputProcessor(int inputChannelCount, HeartbeatManager heartbeatManager, String threadName)
+    public ChannelOutputProcessor(int inputChannelCount, HeartbeatManager heartbeatManager, String threadName,
+                                  ChannelizerWorkerPool workerPool)
     {
         mInputChannelCount = inputChannelCount;
-        //Process 1/10th of the sample rate per second at a rate of 20 times a second (200% of anticipated rate)
         mHeartbeatManager = heartbeatManager;
-        mChannelResultsDispatcher = new Dispatcher(threadName,50, mHeartbeatManager);
-        mChannelResultsDispatcher.setListener(floats -> {
+
+        if(workerPool != null)
+        {
+            mChannelResultsDispatcher = workerPool.getDispatcher(mHeartbeatManager);
+        }
+        else
+        {
+            //Process 1/10th of the sample rate per second at a rate of 20 times a second (200% of anticipated rate)
+            mChannelResultsDispatcher = new Dispatcher(threadName,50, mHeartbeatManager);
+        }
+
+        mChannelResultsDispatcher.setMetricScope(MetricScope.CHANNEL, threadName);
+
+        //Release results buffers that are still queued when this processor is stopped
+        mChannelResultsDispatcher.setDiscardListener(ChannelResultsBuffer::decrementConsumerCount);
+
+        mChannelResultsDispatcher.setListener(buffer -> {
             try
             {
-                process(floats);
+                process(buffer);
             }
             catch(Throwable t)
             {
                 mLog.error("Error processing channel results", t);
             }
+            finally
+            {
+                buffer.decrementConsumerCount();
+            }
         });
     }
 
@@ -103,17 +126,26 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     }
 
     @Override
-    public void receiveChannelResults(List<float[]> channelResultsList, long timestamp)
+    public void receiveChannelResults(ChannelResultsBuffer channelResultsBuffer, long timestamp)
     {
-        mChannelResultsDispatcher.receive(channelResultsList);
+        if(mChannelResultsDispatcher.isRunning())
+        {
+            mChannelResultsDispatcher.receive(channelResultsBuffer);
+        }
+        else
+        {
+            channelResultsBuffer.decrementConsumerCount();
+        }
+
         mCurrentSampleTimestamp = timestamp;
     }
 
     /**
-     * Sub-class implementation to process one polyphase channelizer result array.
+     * Sub-class implementation to process one polyphase channelizer results buffer.  The buffer is released after
+     * this method returns and sub-class implementations must not retain a reference to the buffer or its arrays.
      * @param channelResults to process
      */
-    public abstract void process(List<float[]> channelResults);
+    public abstract void process(ChannelResultsBuffer channelResults);
 
     @Override
     public int getInputChannelCount()
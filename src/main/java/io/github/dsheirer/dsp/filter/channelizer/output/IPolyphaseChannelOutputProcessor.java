@@ -18,6 +18,7 @@
  */
 package io.github.dsheirer.dsp.filter.channelizer.output;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelResultsBuffer;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import java.util.List;
@@ -39,11 +40,12 @@ public interface IPolyphaseChannelOutputProcessor
      */
     void stop();
     /**
-     * Receive and enqueue output results from the polyphase analysis channelizer
+     * Receive and enqueue output results from the polyphase analysis channelizer.  The output processor must invoke
+     * decrementConsumerCount() on the buffer once it is finished with the buffer, or if the buffer is not enqueued.
      * @param channelResults to enqueue
      * @param timestamp for the first channel results buffer
      */
-    void receiveChannelResults(List<float[]> channelResults, long timestamp);
+    void receiveChannelResults(ChannelResultsBuffer channelResults, long timestamp);
 
     /**
      * Listener to receive assembled complex samples buffers
@@ -18,6 +18,8 @@
  */
 package io.github.dsheirer.dsp.filter.channelizer.output;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelResultsBuffer;
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.heartbeat.HeartbeatManager;
 import java.util.List;
@@ -39,11 +41,13 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
      * @param gain value to apply.  This is typically the same as the channelizer's channel count.
      * @param heartbeatManager to receive heartbeats on the dispatch thread
      * @param threadName to use for this processor
+     * @param workerPool (optional) for multi-core processing
      */
     public OneChannelOutputProcessor(double sampleRate, List<Integer> channelIndexes, float gain,
-                                     HeartbeatManager heartbeatManager, String threadName)
+                                     HeartbeatManager heartbeatManager, String threadName,
+                                     ChannelizerWorkerPool workerPool)
     {
-        super(1, heartbeatManager, threadName);
+        super(1, heartbeatManager, threadName, workerPool);
         setPolyphaseChannelIndices(channelIndexes);
         mMixerAssembler = new OneChannelMixerAssembler(gain);
         mMixerAssembler.getMixer().setSampleRate(sampleRate);
@@ -93,13 +97,16 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
      * Extract the channel from the channel results array and pass to the assembler.  The assembler will
      * apply frequency translation and gain and indicate when a buffer is fully assembled.
      *
-     * @param channelResultsList to process containing a list of a list of channel array of I/Q sample pairs (I0,Q0,I1,Q1...In,Qn)
+     * @param channelResultsBuffer to process containing a list of channel arrays of I/Q sample pairs
+     * (I0,Q0,I1,Q1...In,Qn)
      */
     @Override
-    public void process(List<float[]> channelResultsList)
+    public void process(ChannelResultsBuffer channelResultsBuffer)
     {
-        for(float[] channelResults: channelResultsList)
+        for(int x = 0; x < channelResultsBuffer.size(); x++)
         {
+            float[] channelResults = channelResultsBuffer.get(x);
+
             mMixerAssembler.receive(channelResults[mChannelOffset], channelResults[mChannelOffset + 1]);
 
             if(mMixerAssembler.hasBuffer())
@@ -18,6 +18,8 @@
  */
 package io.github.dsheirer.dsp.filter.channelizer.output;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelResultsBuffer;
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.heartbeat.HeartbeatManager;
 import java.util.List;
@@ -41,13 +43,15 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
      * @param gain to apply to output.  Typically this is equal to the channelizer's channel count.
      * @param heartbeatManager to be pinged on the dispatcher thread
      * @param threadName for the dispatcher
+     * @param workerPool (optional) for multi-core processing
      */
     public TwoChannelOutputProcessor(double sampleRate, List<Integer> channelIndexes, float[] filter, float gain,
-                                     HeartbeatManager heartbeatManager, String threadName)
+                                     HeartbeatManager heartbeatManager, String threadName,
+                                     ChannelizerWorkerPool workerPool)
     {
         //Set the frequency correction oscillator to 2 x output sample rate since we'll be correcting the frequency
         //after synthesizing both input channels
-        super(2, heartbeatManager, threadName);
+        super(2, heartbeatManager, threadName, workerPool);
         setPolyphaseChannelIndices(channelIndexes);
         mMixerAssembler = new TwoChannelMixerAssembler(gain);
         mMixerAssembler.getMixer().setSampleRate(sampleRate);
@@ -105,13 +109,16 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
      * Extract the channel from the channel results array, apply frequency translation, and deliver the
      * extracted frequency-corrected channel I/Q sample set to the complex sample listener.
      *
-     * @param channelResultsList to process containing a list of a list of an array of channel I/Q sample pairs (I0,Q0,I1,Q1...In,Qn)
+     * @param channelResultsBuffer to process containing a list of channel arrays of I/Q sample pairs
+     * (I0,Q0,I1,Q1...In,Qn)
      */
     @Override
-    public void process(List<float[]> channelResultsList)
+    public void process(ChannelResultsBuffer channelResultsBuffer)
     {
-        for(float[] channelResults : channelResultsList)
+        for(int x = 0; x < channelResultsBuffer.size(); x++)
         {
+            float[] channelResults = channelResultsBuffer.get(x);
+
             mMixerAssembler.receive(channelResults[mChannelOffset1], channelResults[mChannelOffset1 + 1],
                     channelResults[mChannelOffset2], channelResults[mChannelOffset2 + 1]);
 
@@ -36,7 +36,17 @@ public class DcRemovalFilterFactory
     public static IDcRemovalFilter getFilter(float gain)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.DC_REMOVAL_REAL);
+        return getFilter(gain, implementation);
+    }
 
+    /**
+     * Creates the specified DC removal filter implementation
+     * @param gain to apply to DC removal
+     * @param implementation to construct
+     * @return filter instance
+     */
+    public static IDcRemovalFilter getFilter(float gain, Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
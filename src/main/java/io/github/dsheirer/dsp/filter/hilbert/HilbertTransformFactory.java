@@ -32,7 +32,16 @@ public class HilbertTransformFactory
     public static HilbertTransform getHilbertTransform()
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.HILBERT_TRANSFORM);
+        return getHilbertTransform(implementation);
+    }
 
+    /**
+     * Creates the specified Hilbert Transform implementation.
+     * @param implementation to construct
+     * @return hilbert transform
+     */
+    public static HilbertTransform getHilbertTransform(Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
@@ -40,7 +40,16 @@ public class FmDemodulatorFactory
     public static IDemodulator getFmDemodulator()
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.FM_DEMODULATOR);
+        return getFmDemodulator(implementation);
+    }
 
+    /**
+     * Creates the specified FM demodulator implementation.
+     * @param implementation to construct
+     * @return demodulator instance
+     */
+    public static IDemodulator getFmDemodulator(Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_64:
@@ -24,6 +24,7 @@ import io.github.dsheirer.dsp.magnitude.MagnitudeFactory;
 import io.github.dsheirer.dsp.squelch.AdaptiveSquelch;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.vector.calibrate.Implementation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,8 +39,8 @@ public class SquelchingFMDemodulator implements ISquelchingDemodulator, Listener
     private static final Logger mLog = LoggerFactory.getLogger(SquelchingFMDemodulator.class);
     private static final float ZERO = 0.0f;
     private final AdaptiveSquelch mAdaptiveSquelch;
-    private final IMagnitudeCalculator mMagnitude = MagnitudeFactory.getMagnitudeCalculator();
-    private final IDemodulator mFmDemodulator = FmDemodulatorFactory.getFmDemodulator();
+    private final IMagnitudeCalculator mMagnitude;
+    private final IDemodulator mFmDemodulator;
     private boolean mSquelchChanged = false;
 
     /**
@@ -52,8 +53,36 @@ public class SquelchingFMDemodulator implements ISquelchingDemodulator, Listener
      * @param squelchAutoTrack to enable the squelch noise floor auto-tracking feature.
      */
     public SquelchingFMDemodulator(float alpha, float squelchThreshold, boolean squelchAutoTrack)
+    {
+        this(alpha, squelchThreshold, squelchAutoTrack, FmDemodulatorFactory.getFmDemodulator(),
+            MagnitudeFactory.getMagnitudeCalculator());
+    }
+
+    /**
+     * Creates an FM demodulator instance that uses the specified implementation for the FM demodulator and
+     * magnitude kernels.
+     *
+     * @param alpha decay value of the single pole IIR filter in range: 0.0 - 1.0.
+     * @param squelchThreshold in decibels.
+     * @param squelchAutoTrack to enable the squelch noise floor auto-tracking feature.
+     * @param implementation to use for the FM demodulator and magnitude kernels.
+     */
+    public SquelchingFMDemodulator(float alpha, float squelchThreshold, boolean squelchAutoTrack,
+                                   Implementation implementation)
+    {
+        this(alpha, squelchThreshold, squelchAutoTrack, FmDemodulatorFactory.getFmDemodulator(implementation),
+            MagnitudeFactory.getMagnitudeCalculator(implementation));
+    }
+
+    /**
+     * Constructs an instance
+     */
+    private SquelchingFMDemodulator(float alpha, float squelchThreshold, boolean squelchAutoTrack,
+                                    IDemodulator fmDemodulator, IMagnitudeCalculator magnitude)
     {
         mAdaptiveSquelch = new AdaptiveSquelch(alpha, squelchThreshold, squelchAutoTrack);
+        mFmDemodulator = fmDemodulator;
+        mMagnitude = magnitude;
     }
 
     /**
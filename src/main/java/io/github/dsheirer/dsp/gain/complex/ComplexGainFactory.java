@@ -36,7 +36,15 @@ public class ComplexGainFactory
     public static IComplexGainControl getComplexGainControl()
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.GAIN_CONTROL_COMPLEX);
+        return getComplexGainControl(implementation);
+    }
 
+    /**
+     * Instantiates the specified complex gain control implementation.
+     * @param implementation to construct
+     */
+    public static IComplexGainControl getComplexGainControl(Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
@@ -56,7 +64,16 @@ public class ComplexGainFactory
     public static ComplexGain getComplexGain(float gain)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.GAIN_CONTROL_COMPLEX);
+        return getComplexGain(gain, implementation);
+    }
 
+    /**
+     * Instantiates the specified complex gain implementation.
+     * @param gain to apply
+     * @param implementation to construct
+     */
+    public static ComplexGain getComplexGain(float gain, Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
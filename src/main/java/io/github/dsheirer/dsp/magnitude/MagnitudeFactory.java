@@ -40,7 +40,16 @@ public class MagnitudeFactory
     public static IMagnitudeCalculator getMagnitudeCalculator()
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.MAGNITUDE);
+        return getMagnitudeCalculator(implementation);
+    }
 
+    /**
+     * Creates the specified magnitude implementation.
+     * @param implementation to construct
+     * @return magnitude calculator instance
+     */
+    public static IMagnitudeCalculator getMagnitudeCalculator(Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_64:
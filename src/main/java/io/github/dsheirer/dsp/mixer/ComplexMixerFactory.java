@@ -41,7 +41,18 @@ public class ComplexMixerFactory
     public static ComplexMixer getMixer(double frequency, double sampleRate)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.MIXER_COMPLEX);
+        return getMixer(frequency, sampleRate, implementation);
+    }
 
+    /**
+     * Creates the specified implementation of a complex mixer.
+     * @param frequency of the mixing oscillator
+     * @param sampleRate of the mixing oscillator
+     * @param implementation to construct
+     * @return mixer instance
+     */
+    public static ComplexMixer getMixer(double frequency, double sampleRate, Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
@@ -43,8 +43,19 @@ public class OscillatorFactory
     public static IRealOscillator getRealOscillator(double frequency, double sampleRate)
     {
         Implementation operation = CalibrationManager.getInstance().getImplementation(CalibrationType.OSCILLATOR_REAL);
+        return getRealOscillator(frequency, sampleRate, operation);
+    }
 
-        switch(operation)
+    /**
+     * Constructs the specified implementation of a real sample oscillator.
+     * @param frequency of the oscillator
+     * @param sampleRate of the oscillator
+     * @param implementation to construct
+     * @return constructed oscillator
+     */
+    public static IRealOscillator getRealOscillator(double frequency, double sampleRate, Implementation implementation)
+    {
+        switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
                 return new VectorRealOscillator(frequency, sampleRate);
@@ -63,8 +74,20 @@ public class OscillatorFactory
     public static IComplexOscillator getComplexOscillator(double frequency, double sampleRate)
     {
         Implementation operation = CalibrationManager.getInstance().getImplementation(CalibrationType.OSCILLATOR_COMPLEX);
+        return getComplexOscillator(frequency, sampleRate, operation);
+    }
 
-        switch(operation)
+    /**
+     * Constructs the specified implementation of a complex sample oscillator.
+     * @param frequency of the oscillator
+     * @param sampleRate of the oscillator
+     * @param implementation to construct
+     * @return constructed oscillator
+     */
+    public static IComplexOscillator getComplexOscillator(double frequency, double sampleRate,
+                                                          Implementation implementation)
+    {
+        switch(implementation)
         {
             case VECTOR_SIMD_PREFERRED:
                 return new VectorComplexOscillator(frequency, sampleRate);
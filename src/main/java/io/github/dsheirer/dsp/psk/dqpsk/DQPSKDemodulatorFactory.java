@@ -42,7 +42,18 @@ public class DQPSKDemodulatorFactory
     public static DQPSKDemodulator getDemodulator(double sampleRate, int symbolRate)
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.DQPSK_DEMODULATOR);
+        return getDemodulator(sampleRate, symbolRate, implementation);
+    }
 
+    /**
+     * Creates the specified demodulator implementation.
+     * @param sampleRate in Hertz
+     * @param symbolRate in Hertz
+     * @param implementation to construct
+     * @return demodulator instance
+     */
+    public static DQPSKDemodulator getDemodulator(double sampleRate, int symbolRate, Implementation implementation)
+    {
         return switch(implementation)
         {
             case VECTOR_SIMD_64 -> new DQPSKDemodulatorVector64(sampleRate, symbolRate);
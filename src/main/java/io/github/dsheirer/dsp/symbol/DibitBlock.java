@@ -0,0 +1,143 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.symbol;
+
+/**
+ * Reusable block of demodulated dibit symbols for block-oriented symbol processing.  Each dibit is stored as its
+ * two-bit value (0-3) in a byte array, with bit 1 as the most significant bit, alongside the soft symbol value (phase)
+ * for the dibit.  When only a hard symbol decision is available, the soft symbol value is the ideal phase of the dibit.
+ *
+ * Blocks are reused by the producer, so consumers must process the block contents during the receive() call and must
+ * not retain a reference to the block.
+ */
+public class DibitBlock
+{
+    private static final Dibit[] DIBITS = new Dibit[]{Dibit.D00_PLUS_1, Dibit.D01_PLUS_3, Dibit.D10_MINUS_1,
+        Dibit.D11_MINUS_3};
+
+    private final byte[] mDibits;
+    private final float[] mSoftSymbols;
+    private int mSize;
+
+    /**
+     * Constructs an instance
+     * @param capacity in dibits
+     */
+    public DibitBlock(int capacity)
+    {
+        mDibits = new byte[capacity];
+        mSoftSymbols = new float[capacity];
+    }
+
+    /**
+     * Dibit for the two-bit dibit value.
+     * @param value 0-3
+     * @return dibit
+     */
+    public static Dibit toDibit(int value)
+    {
+        return DIBITS[value & 0x3];
+    }
+
+    /**
+     * Adds the hard symbol decision to this block, using the ideal dibit phase as the soft symbol value.
+     * @param dibit to add
+     */
+    public void add(Dibit dibit)
+    {
+        add(dibit, dibit.getIdealPhase());
+    }
+
+    /**
+     * Adds the dibit and soft symbol value to this block.
+     * @param dibit to add
+     * @param softSymbol value (phase) for the dibit
+     */
+    public void add(Dibit dibit, float softSymbol)
+    {
+        mDibits[mSize] = (byte)dibit.getValue();
+        mSoftSymbols[mSize++] = softSymbol;
+    }
+
+    /**
+     * Dibit values (0-3) array.  Only the first size() elements are valid.
+     */
+    public byte[] getDibits()
+    {
+        return mDibits;
+    }
+
+    /**
+     * Soft symbol values array.  Only the first size() elements are valid.
+     */
+    public float[] getSoftSymbols()
+    {
+        return mSoftSymbols;
+    }
+
+    /**
+     * Dibit at the index.
+     * @param index less than size()
+     * @return dibit
+     */
+    public Dibit getDibit(int index)
+    {
+        return DIBITS[mDibits[index]];
+    }
+
+    /**
+     * Number of dibits in this block.
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Maximum number of dibits that this block can hold.
+     */
+    public int capacity()
+    {
+        return mDibits.length;
+    }
+
+    /**
+     * Indicates if this block is empty.
+     */
+    public boolean isEmpty()
+    {
+        return mSize == 0;
+    }
+
+    /**
+     * Indicates if this block is full.
+     */
+    public boolean isFull()
+    {
+        return mSize >= mDibits.length;
+    }
+
+    /**
+     * Resets this block to empty for reuse.
+     */
+    public void clear()
+    {
+        mSize = 0;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.symbol;
+
+import io.github.dsheirer.sample.Listener;
+import java.util.function.IntSupplier;
+
+/**
+ * Compatibility adapter that assembles a per-symbol dibit stream into reusable dibit blocks for block-oriented
+ * consumers.  A block is dispatched when it is full or when flush() is invoked.  Producers should invoke flush() at the
+ * end of each sample buffer and at any point where a consumer must be up-to-date (e.g. before signalling a sync
+ * detection), so that block processing remains aligned with the symbol stream.
+ *
+ * Consumers that must process some dibits as soon as they are demodulated (e.g. a message framer that applies a PLL
+ * phase inversion correction when it detects sync) can register a block size limit provider.  The assembler queries
+ * the provider after each dispatch and dispatches the next block once it reaches that many dibits.
+ *
+ * The same block instance is reused after each dispatch.
+ */
+public class DibitBlockAssembler implements Listener<Dibit>
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final DibitBlock mBlock;
+    private Listener<DibitBlock> mListener;
+    private IntSupplier mBlockSizeLimitProvider;
+    private int mBlockSizeLimit = Integer.MAX_VALUE;
+
+    /**
+     * Constructs an instance
+     * @param blockSize maximum number of dibits per dispatched block
+     */
+    public DibitBlockAssembler(int blockSize)
+    {
+        mBlock = new DibitBlock(blockSize);
+    }
+
+    /**
+     * Constructs an instance with the default block size.
+     */
+    public DibitBlockAssembler()
+    {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Registers the listener to receive dibit blocks.
+     */
+    public void setListener(Listener<DibitBlock> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Registers a provider of the maximum number of dibits to assemble in the next block.  The provider is queried
+     * after each block dispatch, and values less than 1 cause each dibit to be dispatched as it is received.
+     * @param provider of the block size limit, or null to dispatch blocks only when full or flushed
+     */
+    public void setBlockSizeLimitProvider(IntSupplier provider)
+    {
+        mBlockSizeLimitProvider = provider;
+        updateBlockSizeLimit();
+    }
+
+    /**
+     * Updates the block size limit from the block size limit provider.
+     */
+    private void updateBlockSizeLimit()
+    {
+        mBlockSizeLimit = mBlockSizeLimitProvider != null ? Math.max(mBlockSizeLimitProvider.getAsInt(), 1) :
+            Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds the hard symbol decision to the current block.
+     * @param dibit to add
+     */
+    @Override
+    public void receive(Dibit dibit)
+    {
+        mBlock.add(dibit);
+
+        if(mBlock.isFull() || mBlock.size() >= mBlockSizeLimit)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Adds the dibit and soft symbol value to the current block.
+     * @param dibit to add
+     * @param softSymbol value (phase) of the dibit
+     */
+    public void receive(Dibit dibit, float softSymbol)
+    {
+        mBlock.add(dibit, softSymbol);
+
+        if(mBlock.isFull() || mBlock.size() >= mBlockSizeLimit)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Dispatches any dibits in the current block to the listener, resets the block and updates the block size limit.
+     */
+    public void flush()
+    {
+        if(!mBlock.isEmpty())
+        {
+            if(mListener != null)
+            {
+                mListener.receive(mBlock);
+            }
+
+            mBlock.clear();
+        }
+
+        updateBlockSizeLimit();
+    }
+}
@@ -99,6 +99,34 @@ public class DibitToByteBufferAssembler implements Listener<Dibit>, IByteBufferP
         }
     }
 
+    /**
+     * Processes a block of dibits.
+     * @param block of dibits
+     */
+    public void receive(DibitBlock block)
+    {
+        byte[] dibits = block.getDibits();
+        int size = block.size();
+
+        for(int x = 0; x < size; x++)
+        {
+            mCurrentByte = (byte)((mCurrentByte << 2) | dibits[x]);
+            mDibitCount++;
+
+            if(mDibitCount >= 4)
+            {
+                mCurrentBuffer.put(mCurrentByte);
+                mCurrentByte = 0x00;
+                mDibitCount = 0;
+
+                if(!mCurrentBuffer.hasRemaining())
+                {
+                    getNextBuffer();
+                }
+            }
+        }
+    }
+
     /**
      * Registers the listener to receive fully assembled byte buffers from this assembler.
      */
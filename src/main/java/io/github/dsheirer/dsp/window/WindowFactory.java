@@ -19,6 +19,9 @@
 
 package io.github.dsheirer.dsp.window;
 
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -406,6 +409,38 @@ public class WindowFactory
         return v;
     }
 
+    /**
+     * Creates the optimal window implementation for this hardware, as determined by the Calibration Manager, for
+     * applying the window coefficients to sample arrays.
+     *
+     * @param coefficients of the window
+     * @return window implementation
+     */
+    public static Window getWindowImplementation(float[] coefficients)
+    {
+        Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.WINDOW);
+        return getWindowImplementation(coefficients, implementation);
+    }
+
+    /**
+     * Creates the specified window implementation for applying the window coefficients to sample arrays.
+     *
+     * @param coefficients of the window
+     * @param implementation to construct
+     * @return window implementation
+     */
+    public static Window getWindowImplementation(float[] coefficients, Implementation implementation)
+    {
+        switch(implementation)
+        {
+            case VECTOR_SIMD_PREFERRED:
+                return new VectorWindow(coefficients);
+            case SCALAR:
+            default:
+                return new ScalarWindow(coefficients);
+        }
+    }
+
     /**
      * Apply the window against an array of float-type samples
      */
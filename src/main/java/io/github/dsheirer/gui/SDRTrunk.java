@@ -44,6 +44,7 @@ import io.github.dsheirer.log.ApplicationLog;
 import io.github.dsheirer.map.MapService;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.monitor.DiagnosticMonitor;
+import io.github.dsheirer.monitor.metrics.MetricsExporter;
 import io.github.dsheirer.monitor.ResourceMonitor;
 import io.github.dsheirer.playlist.PlaylistManager;
 import io.github.dsheirer.preference.UserPreferences;
@@ -128,6 +129,7 @@ public class SDRTrunk implements Listener<TunerEvent>
     private BroadcastStatusPanel mBroadcastStatusPanel;
     private ControllerPanel mControllerPanel;
     private DiagnosticMonitor mDiagnosticMonitor;
+    private MetricsExporter mMetricsExporter;
     private IconModel mIconModel = new IconModel();
     private PlaylistManager mPlaylistManager;
     private SettingsManager mSettingsManager;
@@ -178,6 +180,7 @@ public class SDRTrunk implements Listener<TunerEvent>
             }
         }
 
+        ThreadPool.setVirtualThreads(mUserPreferences.getApplicationPreference().isVirtualThreads());
         ThreadPool.logSettings();
 
         //Load properties file
@@ -203,6 +206,8 @@ public class SDRTrunk implements Listener<TunerEvent>
         mDiagnosticMonitor = new DiagnosticMonitor(mUserPreferences, mPlaylistManager.getChannelProcessingManager(),
                 mTunerManager, headless);
         mDiagnosticMonitor.start();
+        mMetricsExporter = new MetricsExporter(mUserPreferences);
+        mMetricsExporter.start();
 
         if(!headless)
         {
@@ -636,6 +641,7 @@ public class SDRTrunk implements Listener<TunerEvent>
     {
         mLog.info("Application shutdown started ...");
         mDiagnosticMonitor.stop();
+        mMetricsExporter.stop();
         mUserPreferences.getSwingPreference().setLocation(WINDOW_FRAME_IDENTIFIER, mMainGui.getLocation());
         mUserPreferences.getSwingPreference().setDimension(WINDOW_FRAME_IDENTIFIER, mMainGui.getSize());
         mUserPreferences.getSwingPreference().setMaximized(WINDOW_FRAME_IDENTIFIER,
@@ -645,6 +651,8 @@ public class SDRTrunk implements Listener<TunerEvent>
         mJavaFxWindowManager.shutdown();
         mLog.info("Stopping channels ...");
         mPlaylistManager.getChannelProcessingManager().shutdown();
+        mLog.info("Saving playlist ...");
+        mPlaylistManager.shutdown();
         mAudioRecordingManager.stop();
         mResourceMonitor.stop();
 
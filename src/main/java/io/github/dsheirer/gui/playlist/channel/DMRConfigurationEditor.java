@@ -267,6 +267,8 @@ public class DMRConfigurationEditor extends ChannelConfigurationEditor
             types.add(EventLogType.DECODED_MESSAGE);
             types.add(EventLogType.TRAFFIC_CALL_EVENT);
             types.add(EventLogType.TRAFFIC_DECODED_MESSAGE);
+            types.add(EventLogType.MESSAGE_ARCHIVE);
+            types.add(EventLogType.TRAFFIC_MESSAGE_ARCHIVE);
 
             mEventLogConfigurationEditor = new EventLogConfigurationEditor(types);
             mEventLogConfigurationEditor.setPadding(new Insets(5,5,5,5));
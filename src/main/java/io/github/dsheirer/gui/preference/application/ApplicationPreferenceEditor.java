@@ -45,6 +45,10 @@ public class ApplicationPreferenceEditor extends HBox
     private Label mAutoStartTimeoutLabel;
     private Spinner<Integer> mTimeoutSpinner;
     private ToggleSwitch mAutomaticDiagnosticMonitoringToggle;
+    private ToggleSwitch mAllocationProfilingToggle;
+    private ToggleSwitch mVirtualThreadsToggle;
+    private Spinner<Integer> mMetricsFileExportIntervalSpinner;
+    private Spinner<Integer> mMetricsHttpPortSpinner;
 
     /**
      * Constructs an instance
@@ -79,6 +83,13 @@ public class ApplicationPreferenceEditor extends HBox
             GridPane.setHalignment(getAutomaticDiagnosticMonitoringToggle(), HPos.RIGHT);
             mEditorPane.add(getAutomaticDiagnosticMonitoringToggle(), 0, ++row);
             mEditorPane.add(new Label("Enable Diagnostic Monitoring"), 1, row, 2, 1);
+            GridPane.setHalignment(getAllocationProfilingToggle(), HPos.RIGHT);
+            mEditorPane.add(getAllocationProfilingToggle(), 0, ++row);
+            mEditorPane.add(new Label("Enable Allocation Profiling (applied after restart)"), 1, row, 2, 1);
+            GridPane.setHalignment(getVirtualThreadsToggle(), HPos.RIGHT);
+            mEditorPane.add(getVirtualThreadsToggle(), 0, ++row);
+            mEditorPane.add(new Label("Use Virtual Threads for Channel Processing (applied after restart)"), 1, row,
+                2, 1);
 
             Separator separator = new Separator(Orientation.HORIZONTAL);
             GridPane.setHgrow(separator, Priority.ALWAYS);
@@ -89,6 +100,18 @@ public class ApplicationPreferenceEditor extends HBox
             mEditorPane.add(getTimeoutSpinner(), 0, ++row);
             mEditorPane.add(new Label("seconds"), 1, row);
 
+            Separator metricsSeparator = new Separator(Orientation.HORIZONTAL);
+            GridPane.setHgrow(metricsSeparator, Priority.ALWAYS);
+            mEditorPane.add(metricsSeparator, 0, ++row, 3, 1);
+
+            mEditorPane.add(new Label("Pipeline Metrics (0 to disable, applied after restart)"), 0, ++row, 2, 1);
+            GridPane.setHalignment(getMetricsFileExportIntervalSpinner(), HPos.RIGHT);
+            mEditorPane.add(getMetricsFileExportIntervalSpinner(), 0, ++row);
+            mEditorPane.add(new Label("File export interval seconds (application log directory)"), 1, row);
+            GridPane.setHalignment(getMetricsHttpPortSpinner(), HPos.RIGHT);
+            mEditorPane.add(getMetricsHttpPortSpinner(), 0, ++row);
+            mEditorPane.add(new Label("HTTP pull endpoint port (http://localhost:port/metrics)"), 1, row);
+
             ColumnConstraints c1 = new ColumnConstraints();
             c1.setPercentWidth(30);
             ColumnConstraints c2 = new ColumnConstraints();
@@ -124,6 +147,39 @@ public class ApplicationPreferenceEditor extends HBox
         return mTimeoutSpinner;
     }
 
+    /**
+     * Spinner to select the pipeline metrics file export interval in range 0-3600 seconds.
+     */
+    private Spinner<Integer> getMetricsFileExportIntervalSpinner()
+    {
+        if(mMetricsFileExportIntervalSpinner == null)
+        {
+            mMetricsFileExportIntervalSpinner = new Spinner<>(0, 3600,
+                mApplicationPreference.getMetricsFileExportInterval(), 5);
+            mMetricsFileExportIntervalSpinner.setEditable(true);
+            mMetricsFileExportIntervalSpinner.valueProperty().addListener((observable, oldValue, newValue) ->
+                mApplicationPreference.setMetricsFileExportInterval(newValue));
+        }
+
+        return mMetricsFileExportIntervalSpinner;
+    }
+
+    /**
+     * Spinner to select the pipeline metrics HTTP endpoint port.
+     */
+    private Spinner<Integer> getMetricsHttpPortSpinner()
+    {
+        if(mMetricsHttpPortSpinner == null)
+        {
+            mMetricsHttpPortSpinner = new Spinner<>(0, 65535, mApplicationPreference.getMetricsHttpPort(), 1);
+            mMetricsHttpPortSpinner.setEditable(true);
+            mMetricsHttpPortSpinner.valueProperty().addListener((observable, oldValue, newValue) ->
+                mApplicationPreference.setMetricsHttpPort(newValue));
+        }
+
+        return mMetricsHttpPortSpinner;
+    }
+
     /**
      * Toggle switch to enable/disable automatic diagnostic monitoring.
      */
@@ -139,4 +195,36 @@ public class ApplicationPreferenceEditor extends HBox
 
         return mAutomaticDiagnosticMonitoringToggle;
     }
+
+    /**
+     * Toggle switch to enable/disable the diagnostic allocation profiling mode.
+     */
+    private ToggleSwitch getAllocationProfilingToggle()
+    {
+        if(mAllocationProfilingToggle == null)
+        {
+            mAllocationProfilingToggle = new ToggleSwitch();
+            mAllocationProfilingToggle.setSelected(mApplicationPreference.isAllocationProfiling());
+            mAllocationProfilingToggle.selectedProperty().addListener((observable, oldValue, enabled) ->
+                    mApplicationPreference.setAllocationProfiling(enabled));
+        }
+
+        return mAllocationProfilingToggle;
+    }
+
+    /**
+     * Toggle switch to enable/disable the virtual thread execution mode.
+     */
+    private ToggleSwitch getVirtualThreadsToggle()
+    {
+        if(mVirtualThreadsToggle == null)
+        {
+            mVirtualThreadsToggle = new ToggleSwitch();
+            mVirtualThreadsToggle.setSelected(mApplicationPreference.isVirtualThreads());
+            mVirtualThreadsToggle.selectedProperty().addListener((observable, oldValue, enabled) ->
+                    mApplicationPreference.setVirtualThreads(enabled));
+        }
+
+        return mVirtualThreadsToggle;
+    }
 }
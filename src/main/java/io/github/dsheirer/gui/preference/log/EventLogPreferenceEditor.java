@@ -0,0 +1,126 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.gui.preference.log;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.event.EventLogPreference;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+
+/**
+ * Preference settings for channel event log files
+ */
+public class EventLogPreferenceEditor extends HBox
+{
+    private EventLogPreference mEventLogPreference;
+    private GridPane mEditorPane;
+    private Spinner<Integer> mRotationSizeSpinner;
+    private Spinner<Integer> mRotationIntervalSpinner;
+    private CheckBox mCompressRotatedCheckBox;
+
+    /**
+     * Constructs an instance
+     * @param userPreferences
+     */
+    public EventLogPreferenceEditor(UserPreferences userPreferences)
+    {
+        mEventLogPreference = userPreferences.getEventLogPreference();
+        HBox.setHgrow(getEditorPane(), Priority.ALWAYS);
+        getChildren().add(getEditorPane());
+    }
+
+    private GridPane getEditorPane()
+    {
+        if(mEditorPane == null)
+        {
+            mEditorPane = new GridPane();
+            mEditorPane.setPadding(new Insets(10, 10, 10, 10));
+            mEditorPane.setHgap(10);
+            mEditorPane.setVgap(10);
+
+            int row = 0;
+            Label topLabel = new Label("Channel Event Log File Preferences");
+            mEditorPane.add(topLabel, 0, row++, 2, 1);
+
+            Label sizeLabel = new Label("Rotate Log File At Size (MB):");
+            GridPane.setHalignment(sizeLabel, HPos.RIGHT);
+            mEditorPane.add(sizeLabel, 0, row);
+            mEditorPane.add(getRotationSizeSpinner(), 1, row++);
+
+            Label intervalLabel = new Label("Rotate Log File After (Hours):");
+            GridPane.setHalignment(intervalLabel, HPos.RIGHT);
+            mEditorPane.add(intervalLabel, 0, row);
+            mEditorPane.add(getRotationIntervalSpinner(), 1, row++);
+
+            mEditorPane.add(getCompressRotatedCheckBox(), 1, row++);
+
+            Label notice = new Label("Note: a value of 0 disables rotation.  Changes are applied when channels are " +
+                "restarted.");
+            mEditorPane.add(notice, 0, row++, 2, 1);
+        }
+
+        return mEditorPane;
+    }
+
+    private Spinner<Integer> getRotationSizeSpinner()
+    {
+        if(mRotationSizeSpinner == null)
+        {
+            mRotationSizeSpinner = new Spinner<>(0, 10000, mEventLogPreference.getRotationSizeMB(), 10);
+            mRotationSizeSpinner.setEditable(true);
+            mRotationSizeSpinner.valueProperty().addListener((observable, oldValue, newValue) ->
+                mEventLogPreference.setRotationSizeMB(newValue));
+        }
+
+        return mRotationSizeSpinner;
+    }
+
+    private Spinner<Integer> getRotationIntervalSpinner()
+    {
+        if(mRotationIntervalSpinner == null)
+        {
+            mRotationIntervalSpinner = new Spinner<>(0, 720, mEventLogPreference.getRotationIntervalHours(), 1);
+            mRotationIntervalSpinner.setEditable(true);
+            mRotationIntervalSpinner.valueProperty().addListener((observable, oldValue, newValue) ->
+                mEventLogPreference.setRotationIntervalHours(newValue));
+        }
+
+        return mRotationIntervalSpinner;
+    }
+
+    private CheckBox getCompressRotatedCheckBox()
+    {
+        if(mCompressRotatedCheckBox == null)
+        {
+            mCompressRotatedCheckBox = new CheckBox("Compress Closed Log Files (gzip)");
+            mCompressRotatedCheckBox.setSelected(mEventLogPreference.isCompressRotated());
+            mCompressRotatedCheckBox.onActionProperty().set(event ->
+                mEventLogPreference.setCompressRotated(getCompressRotatedCheckBox().isSelected()));
+        }
+
+        return mCompressRotatedCheckBox;
+    }
+}
@@ -47,6 +47,7 @@ public class MP3PreferenceEditor extends HBox
     private ComboBox<MP3Setting> mMP3SettingComboBox;
     private ComboBox<InputAudioFormat> mAudioSampleRateComboBox;
     private CheckBox mNormalizeAudioCheckBox;
+    private CheckBox mStreamFromMemoryCheckBox;
 
     /**
      * Constructs an instance
@@ -74,6 +75,7 @@ public class MP3PreferenceEditor extends HBox
 
 
             mEditorPane.add(getNormalizeAudioCheckBox(), 1, row++);
+            mEditorPane.add(getStreamFromMemoryCheckBox(), 1, row++);
 
             Label label = new Label("(LAME) Encoder Setting:");
             GridPane.setHalignment(label, HPos.RIGHT);
@@ -172,4 +174,17 @@ public class MP3PreferenceEditor extends HBox
 
         return mNormalizeAudioCheckBox;
     }
+
+    private CheckBox getStreamFromMemoryCheckBox()
+    {
+        if(mStreamFromMemoryCheckBox == null)
+        {
+            mStreamFromMemoryCheckBox = new CheckBox("Stream Audio From Memory (No Temporary Files)");
+            mStreamFromMemoryCheckBox.setSelected(mMP3Preference.isStreamFromMemory());
+            mStreamFromMemoryCheckBox.onActionProperty().set(event ->
+                    mMP3Preference.setStreamFromMemory(getStreamFromMemoryCheckBox().isSelected()));
+        }
+
+        return mStreamFromMemoryCheckBox;
+    }
 }
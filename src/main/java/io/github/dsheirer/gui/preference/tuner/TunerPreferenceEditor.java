@@ -30,6 +30,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
+import javafx.scene.control.Spinner;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 
@@ -41,8 +42,18 @@ public class TunerPreferenceEditor extends HBox
 {
     private static final String HELP_TEXT_POLYPHASE = "Processes all channels from tuner.  This " +
         "channelizer is more efficient when decoding 3 or more channels.";
+    private static final String HELP_TEXT_POLYPHASE_MULTI_CORE = "Polyphase channelizer that distributes channelizer " +
+        "and channel processing across a pool of worker threads.  Use with wideband tuners and many channels on " +
+        "computers with several processor cores.  Set workers to 0 to use one worker per processor core.";
     private static final String HELP_TEXT_HETERODYNE = "Processes each channel on-demand.  This " +
         "channelizer may work better for computers with constrained resources when processing a small number of channels.";
+    private static final String HELP_TEXT_HETERODYNE_DECIMATION_TREE = "Heterodyne channelizer where nearby " +
+        "channels share the early, full sample rate translation and decimation stages.  The cost of each channel " +
+        "depends on the channel bandwidth rather than the tuner bandwidth, so this channelizer suits wideband tuners " +
+        "with a moderate number of channels.";
+    private static final String HELP_TEXT_FAST_CONVOLUTION = "Processes all channels from a single FFT of the tuner " +
+        "samples.  Channels are not limited to a fixed channel spacing, so this channelizer suits channels with " +
+        "irregular spacing or bandwidth.";
 
     private TunerPreference mTunerPreference;
     private GridPane mEditorPane;
@@ -50,8 +61,16 @@ public class TunerPreferenceEditor extends HBox
     private Label mChannelizerLabel;
     private Label mPolyphaseLabel;
     private Label mHelpTextPolyphaseLabel;
+    private Label mPolyphaseMultiCoreLabel;
+    private Label mHelpTextPolyphaseMultiCoreLabel;
+    private Label mPolyphaseWorkerCountLabel;
+    private Spinner<Integer> mPolyphaseWorkerCountSpinner;
     private Label mHeterodyneLabel;
     private Label mHelpTextHeterodyneLabel;
+    private Label mHeterodyneDecimationTreeLabel;
+    private Label mHelpTextHeterodyneDecimationTreeLabel;
+    private Label mFastConvolutionLabel;
+    private Label mHelpTextFastConvolutionLabel;
     private ChoiceBox<RspDuoSelectionMode> mRspDuoTunerModeChoiceBox;
     private Label mRspDuoModeLabel;
 
@@ -77,9 +96,24 @@ public class TunerPreferenceEditor extends HBox
             mEditorPane.add(getHelpTextPolyphaseLabel(), 0, ++row, 2, 3);
             row += 3;
             mEditorPane.add(new Label(" "), 0, row);
+            mEditorPane.add(getPolyphaseMultiCoreLabel(), 0, ++row, 2, 1);
+            mEditorPane.add(getHelpTextPolyphaseMultiCoreLabel(), 0, ++row, 2, 3);
+            row += 3;
+            GridPane.setHalignment(getPolyphaseWorkerCountLabel(), HPos.RIGHT);
+            mEditorPane.add(getPolyphaseWorkerCountLabel(), 0, row);
+            mEditorPane.add(getPolyphaseWorkerCountSpinner(), 1, row);
+            mEditorPane.add(new Label(" "), 0, ++row);
             mEditorPane.add(getHeterodyneLabel(), 0, ++row, 2, 1);
             mEditorPane.add(getHelpTextHeterodyneLabel(), 0, ++row, 2, 3);
             row += 3;
+            mEditorPane.add(new Label(" "), 0, row);
+            mEditorPane.add(getHeterodyneDecimationTreeLabel(), 0, ++row, 2, 1);
+            mEditorPane.add(getHelpTextHeterodyneDecimationTreeLabel(), 0, ++row, 2, 3);
+            row += 3;
+            mEditorPane.add(new Label(" "), 0, row);
+            mEditorPane.add(getFastConvolutionLabel(), 0, ++row, 2, 1);
+            mEditorPane.add(getHelpTextFastConvolutionLabel(), 0, ++row, 2, 3);
+            row += 3;
             mEditorPane.add(new Separator(Orientation.HORIZONTAL), 0, row, 2, 1);
             mEditorPane.add(getRspDuoModeLabel(), 0, ++row);
             mEditorPane.add(getRspDuoTunerModeChoiceBox(), 1, row);
@@ -145,6 +179,49 @@ public class TunerPreferenceEditor extends HBox
         return mHelpTextPolyphaseLabel;
     }
 
+    private Label getPolyphaseMultiCoreLabel()
+    {
+        if(mPolyphaseMultiCoreLabel == null)
+        {
+            mPolyphaseMultiCoreLabel = new Label("Polyphase Multi-Core");
+        }
+
+        return mPolyphaseMultiCoreLabel;
+    }
+
+    private Label getHelpTextPolyphaseMultiCoreLabel()
+    {
+        if(mHelpTextPolyphaseMultiCoreLabel == null)
+        {
+            mHelpTextPolyphaseMultiCoreLabel = new Label(HELP_TEXT_POLYPHASE_MULTI_CORE);
+            mHelpTextPolyphaseMultiCoreLabel.setWrapText(true);
+        }
+
+        return mHelpTextPolyphaseMultiCoreLabel;
+    }
+
+    private Label getPolyphaseWorkerCountLabel()
+    {
+        if(mPolyphaseWorkerCountLabel == null)
+        {
+            mPolyphaseWorkerCountLabel = new Label("Multi-Core Workers");
+        }
+
+        return mPolyphaseWorkerCountLabel;
+    }
+
+    private Spinner<Integer> getPolyphaseWorkerCountSpinner()
+    {
+        if(mPolyphaseWorkerCountSpinner == null)
+        {
+            mPolyphaseWorkerCountSpinner = new Spinner<>(0, 64, mTunerPreference.getPolyphaseWorkerCount(), 1);
+            mPolyphaseWorkerCountSpinner.valueProperty().addListener((observable, oldValue, newValue) ->
+                mTunerPreference.setPolyphaseWorkerCount(newValue));
+        }
+
+        return mPolyphaseWorkerCountSpinner;
+    }
+
     private Label getHeterodyneLabel()
     {
         if(mHeterodyneLabel == null)
@@ -166,6 +243,48 @@ public class TunerPreferenceEditor extends HBox
         return mHelpTextHeterodyneLabel;
     }
 
+    private Label getHeterodyneDecimationTreeLabel()
+    {
+        if(mHeterodyneDecimationTreeLabel == null)
+        {
+            mHeterodyneDecimationTreeLabel = new Label("Heterodyne Decimation Tree");
+        }
+
+        return mHeterodyneDecimationTreeLabel;
+    }
+
+    private Label getHelpTextHeterodyneDecimationTreeLabel()
+    {
+        if(mHelpTextHeterodyneDecimationTreeLabel == null)
+        {
+            mHelpTextHeterodyneDecimationTreeLabel = new Label(HELP_TEXT_HETERODYNE_DECIMATION_TREE);
+            mHelpTextHeterodyneDecimationTreeLabel.setWrapText(true);
+        }
+
+        return mHelpTextHeterodyneDecimationTreeLabel;
+    }
+
+    private Label getFastConvolutionLabel()
+    {
+        if(mFastConvolutionLabel == null)
+        {
+            mFastConvolutionLabel = new Label("Fast Convolution");
+        }
+
+        return mFastConvolutionLabel;
+    }
+
+    private Label getHelpTextFastConvolutionLabel()
+    {
+        if(mHelpTextFastConvolutionLabel == null)
+        {
+            mHelpTextFastConvolutionLabel = new Label(HELP_TEXT_FAST_CONVOLUTION);
+            mHelpTextFastConvolutionLabel.setWrapText(true);
+        }
+
+        return mHelpTextFastConvolutionLabel;
+    }
+
     private ChoiceBox<RspDuoSelectionMode> getRspDuoTunerModeChoiceBox()
     {
         if(mRspDuoTunerModeChoiceBox == null)
@@ -0,0 +1,405 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.headless;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelException;
+import io.github.dsheirer.controller.channel.ChannelProcessingManager;
+import io.github.dsheirer.icon.IconModel;
+import io.github.dsheirer.module.decode.DecoderFactory;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.mpt1327.DecodeConfigMPT1327;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25;
+import io.github.dsheirer.module.log.EventLogManager;
+import io.github.dsheirer.module.log.EventLogType;
+import io.github.dsheirer.module.log.config.EventLogConfiguration;
+import io.github.dsheirer.playlist.PlaylistManager;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.AudioRecordingManager;
+import io.github.dsheirer.record.RecorderType;
+import io.github.dsheirer.record.config.RecordConfiguration;
+import io.github.dsheirer.source.wave.RecordingChannelSource;
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import java.io.File;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command line batch decoder that re-decodes baseband I/Q recordings (e.g. from the baseband or traffic baseband
+ * recorders) as fast as the CPU allows.
+ *
+ * Each recording is replayed into a standard channel processing chain with the decoder, event logging and recording
+ * modules of a playlist channel, or of a default channel for the specified decoder type.  Decoded events and MBE call
+ * sequences are written to the configured event log and recording directories and call audio is written by the audio
+ * recording manager.  Recordings are processed concurrently, one recording per worker thread, and the throughput of
+ * each recording and of the overall batch is logged as a multiple of real time.
+ *
+ * Usage: BatchDecoder [options] recording.wav|directory ...
+ */
+public class BatchDecoder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BatchDecoder.class);
+    private static final DecimalFormat SPEED_FORMAT = new DecimalFormat("0.0");
+    private static final String USAGE = """
+        Usage: BatchDecoder [options] recording.wav|directory ...
+          --channel <name>      playlist channel to use for the decoder, alias list, event log and recorder settings
+          --decoder <type>      decoder type when a channel is not specified (default: P25_PHASE1).  One of:
+                                AM, DMR, LTR, LTR_NET, MPT1327, NBFM, PASSPORT, P25_PHASE1, P25_PHASE2
+          --alias-list <name>   alias list to use when a channel is not specified
+          --frequency <hz>      center frequency of the recorded channel
+          --threads <count>     number of recordings to process concurrently (default: available processors)
+          --events              log decoded messages and call events
+          --mbe                 record MBE call sequences
+          --audio               record all call audio, regardless of alias recording settings
+        """;
+
+    private final UserPreferences mUserPreferences = new UserPreferences();
+    private final AtomicLong mRecordingDuration = new AtomicLong();
+    private Channel mChannel;
+    private String mChannelName;
+    private DecoderType mDecoderType = DecoderType.P25_PHASE1;
+    private String mAliasListName;
+    private long mFrequency;
+    private int mThreadCount = Runtime.getRuntime().availableProcessors();
+    private boolean mLogEvents;
+    private boolean mRecordMbe;
+    private boolean mRecordAllAudio;
+    private PlaylistManager mPlaylistManager;
+    private AudioRecordingManager mAudioRecordingManager;
+
+    /**
+     * Constructs an instance
+     */
+    public BatchDecoder()
+    {
+    }
+
+    /**
+     * Loads the playlist and creates the template channel that is copied for each recording.
+     * @throws IllegalArgumentException if the requested playlist channel doesn't exist
+     */
+    private void init()
+    {
+        AliasModel aliasModel = new AliasModel();
+        EventLogManager eventLogManager = new EventLogManager(aliasModel, mUserPreferences);
+
+        //Tuners are not used - each channel is sourced from a recording
+        mPlaylistManager = new PlaylistManager(mUserPreferences, null, aliasModel, eventLogManager, new IconModel());
+        mPlaylistManager.init();
+
+        if(!CalibrationManager.getInstance(mUserPreferences).isCalibrated())
+        {
+            mLog.warn("Vector calibrations have not been run - using scalar DSP implementations");
+        }
+
+        if(mChannelName != null)
+        {
+            Channel configured = mPlaylistManager.getChannelModel().getChannels().stream()
+                .filter(channel -> mChannelName.equals(channel.getName())).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Playlist channel [" + mChannelName + "] not found"));
+            mChannel = configured.copyOf();
+        }
+        else
+        {
+            mChannel = new Channel("Batch");
+            mChannel.setDecodeConfiguration(DecoderFactory.getDecodeConfiguration(mDecoderType));
+            mChannel.setAliasListName(mAliasListName);
+            mChannel.setEventLogConfiguration(new EventLogConfiguration());
+            mChannel.setRecordConfiguration(new RecordConfiguration());
+        }
+
+        if(mLogEvents)
+        {
+            addLogger(EventLogType.DECODED_MESSAGE);
+            addLogger(EventLogType.CALL_EVENT);
+        }
+
+        if(mRecordMbe && !mChannel.getRecordConfiguration().contains(RecorderType.MBE_CALL_SEQUENCE))
+        {
+            mChannel.getRecordConfiguration().addRecorder(RecorderType.MBE_CALL_SEQUENCE);
+        }
+
+        //Baseband recording of the replayed recording would simply duplicate the input
+        mChannel.getRecordConfiguration().getRecorders().remove(RecorderType.BASEBAND);
+
+        //Traffic channels can't be followed without a tuner, so disable traffic channel allocation
+        if(mChannel.getDecodeConfiguration() instanceof DecodeConfigP25 p25)
+        {
+            p25.setTrafficChannelPoolSize(0);
+        }
+        else if(mChannel.getDecodeConfiguration() instanceof DecodeConfigDMR dmr)
+        {
+            dmr.setTrafficChannelPoolSize(0);
+        }
+        else if(mChannel.getDecodeConfiguration() instanceof DecodeConfigMPT1327 mpt1327)
+        {
+            mpt1327.setTrafficChannelPoolSize(0);
+        }
+
+        ChannelProcessingManager channelProcessingManager = mPlaylistManager.getChannelProcessingManager();
+
+        if(mRecordAllAudio)
+        {
+            channelProcessingManager.addAudioSegmentListener(audioSegment ->
+                audioSegment.recordAudioProperty().set(true));
+        }
+
+        mAudioRecordingManager = new AudioRecordingManager(mUserPreferences);
+        mAudioRecordingManager.start();
+        channelProcessingManager.addAudioSegmentListener(mAudioRecordingManager);
+    }
+
+    /**
+     * Adds the event logger type to the template channel, if it is not already configured.
+     */
+    private void addLogger(EventLogType eventLogType)
+    {
+        if(!mChannel.getEventLogConfiguration().getLoggers().contains(eventLogType))
+        {
+            mChannel.getEventLogConfiguration().addLogger(eventLogType);
+        }
+    }
+
+    /**
+     * Decodes each of the recordings and blocks until all recordings are complete.
+     * @param recordings to decode
+     */
+    public void process(List<File> recordings)
+    {
+        init();
+
+        int threadCount = Math.max(1, Math.min(mThreadCount, recordings.size()));
+        mLog.info("Batch decoding [" + recordings.size() + "] recordings with [" + threadCount + "] workers using " +
+            "decoder [" + mChannel.getDecodeConfiguration().getDecoderType() + "]");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+            new NamingThreadFactory("sdrtrunk batch decoder"));
+
+        long start = System.currentTimeMillis();
+
+        //Channel copies are created on this thread since channel ID assignment is not thread safe
+        for(File recording: recordings)
+        {
+            Channel channel = mChannel.copyOf();
+            channel.setName(getChannelName(recording));
+            executor.execute(() -> process(channel, recording));
+        }
+
+        executor.shutdown();
+
+        try
+        {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while waiting for batch decode to complete");
+            executor.shutdownNow();
+        }
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+
+        mLog.info("Batch decode complete - [" + recordings.size() + "] recordings with duration [" +
+            (mRecordingDuration.get() / 1000) + " seconds] decoded in [" + (elapsed / 1000.0) + " seconds] - " +
+            SPEED_FORMAT.format((double)mRecordingDuration.get() / elapsed) + "x real time");
+    }
+
+    /**
+     * Decodes a single recording.  Invoked on a batch worker thread.
+     */
+    private void process(Channel channel, File recording)
+    {
+        RecordingChannelSource source;
+
+        try
+        {
+            source = new RecordingChannelSource(recording, mFrequency);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Unable to open recording [" + recording + "] - " + ioe.getMessage());
+            return;
+        }
+
+        CountDownLatch complete = new CountDownLatch(1);
+        source.setEndOfRecordingListener(complete::countDown);
+        ChannelProcessingManager channelProcessingManager = mPlaylistManager.getChannelProcessingManager();
+        long start = System.currentTimeMillis();
+
+        try
+        {
+            channelProcessingManager.start(channel, source);
+            complete.await();
+        }
+        catch(ChannelException ce)
+        {
+            mLog.error("Unable to start decoding recording [" + recording + "]", ce);
+            return;
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while decoding recording [" + recording + "]");
+        }
+        finally
+        {
+            try
+            {
+                channelProcessingManager.stop(channel);
+            }
+            catch(ChannelException ce)
+            {
+                mLog.error("Error stopping channel for recording [" + recording + "]", ce);
+            }
+        }
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        mRecordingDuration.addAndGet(source.getDuration());
+        mLog.info("Decoded [" + recording.getName() + "] duration [" + (source.getDuration() / 1000.0) +
+            " seconds] in [" + (elapsed / 1000.0) + " seconds] - " +
+            SPEED_FORMAT.format((double)source.getDuration() / elapsed) + "x real time");
+    }
+
+    /**
+     * Stops the audio recording manager, which writes any remaining completed calls.
+     */
+    public void shutdown()
+    {
+        if(mAudioRecordingManager != null)
+        {
+            mAudioRecordingManager.stop();
+        }
+    }
+
+    /**
+     * Creates a channel name from the recording file name, used as the prefix for event logs and recordings.
+     */
+    private static String getChannelName(File recording)
+    {
+        String name = recording.getName();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * Expands the file and directory arguments into a sorted list of recording files.
+     */
+    private static List<File> getRecordings(List<String> paths)
+    {
+        List<File> recordings = new ArrayList<>();
+
+        for(String path: paths)
+        {
+            File file = new File(path);
+
+            if(file.isDirectory())
+            {
+                File[] files = file.listFiles((dir, name) -> name.toLowerCase().endsWith(".wav"));
+
+                if(files != null)
+                {
+                    Arrays.sort(files);
+                    recordings.addAll(Arrays.asList(files));
+                }
+            }
+            else if(file.exists())
+            {
+                recordings.add(file);
+            }
+            else
+            {
+                mLog.warn("Ignoring recording [" + path + "] - file does not exist");
+            }
+        }
+
+        return recordings;
+    }
+
+    /**
+     * Launch the batch decoder.
+     */
+    public static void main(String[] args)
+    {
+        //Force the AWT headless mode so that shared components take their non-UI code paths.
+        System.setProperty("java.awt.headless", "true");
+
+        BatchDecoder batchDecoder = new BatchDecoder();
+        List<String> paths = new ArrayList<>();
+
+        try
+        {
+            for(int x = 0; x < args.length; x++)
+            {
+                switch(args[x])
+                {
+                    case "--channel" -> batchDecoder.mChannelName = args[++x];
+                    case "--decoder" -> batchDecoder.mDecoderType = DecoderType.valueOf(args[++x].toUpperCase());
+                    case "--alias-list" -> batchDecoder.mAliasListName = args[++x];
+                    case "--frequency" -> batchDecoder.mFrequency = Long.parseLong(args[++x]);
+                    case "--threads" -> batchDecoder.mThreadCount = Integer.parseInt(args[++x]);
+                    case "--events" -> batchDecoder.mLogEvents = true;
+                    case "--mbe" -> batchDecoder.mRecordMbe = true;
+                    case "--audio" -> batchDecoder.mRecordAllAudio = true;
+                    default -> paths.add(args[x]);
+                }
+            }
+        }
+        catch(RuntimeException e)
+        {
+            System.out.println("Invalid argument - " + e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        List<File> recordings = getRecordings(paths);
+
+        if(recordings.isEmpty())
+        {
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        try
+        {
+            batchDecoder.process(recordings);
+        }
+        catch(IllegalArgumentException iae)
+        {
+            mLog.error(iae.getMessage());
+        }
+        finally
+        {
+            batchDecoder.shutdown();
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.headless;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.DuplicateCallDetector;
+import io.github.dsheirer.audio.broadcast.AudioStreamingManager;
+import io.github.dsheirer.audio.broadcast.BroadcastFormat;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelException;
+import io.github.dsheirer.icon.IconModel;
+import io.github.dsheirer.log.ApplicationLog;
+import io.github.dsheirer.module.log.EventLogManager;
+import io.github.dsheirer.monitor.DiagnosticMonitor;
+import io.github.dsheirer.monitor.metrics.MetricsExporter;
+import io.github.dsheirer.playlist.PlaylistManager;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.properties.SystemProperties;
+import io.github.dsheirer.record.AudioRecordingManager;
+import io.github.dsheirer.source.tuner.manager.TunerManager;
+import io.github.dsheirer.source.tuner.sdrplay.api.SDRPlayLibraryHelper;
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless sdrtrunk application for server deployments.
+ *
+ * Loads the playlist and auto-starts the playlist channels for decoding, event logging, audio recording and audio
+ * streaming without constructing any of the Swing or JavaFX user interface components: main window, spectral
+ * display, now playing tables, channel metadata table model, map service or local audio playback.  The application
+ * runs until the JVM is terminated (e.g. SIGTERM or ctrl-c) and a shutdown hook stops channel processing and tuners.
+ *
+ * Use the GUI application to create and edit the playlist and to run the vector calibrations.  Without calibration,
+ * the DSP components use the scalar implementations.
+ */
+public class SDRTrunkHeadless
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SDRTrunkHeadless.class);
+
+    private final CountDownLatch mShutdownLatch = new CountDownLatch(1);
+    private UserPreferences mUserPreferences = new UserPreferences();
+    private ApplicationLog mApplicationLog;
+    private AudioRecordingManager mAudioRecordingManager;
+    private AudioStreamingManager mAudioStreamingManager;
+    private DiagnosticMonitor mDiagnosticMonitor;
+    private MetricsExporter mMetricsExporter;
+    private PlaylistManager mPlaylistManager;
+    private TunerManager mTunerManager;
+
+    /**
+     * Constructs an instance
+     */
+    public SDRTrunkHeadless()
+    {
+    }
+
+    /**
+     * Starts the application: tuners, playlist, audio recording and streaming, and auto-start channels.
+     */
+    public void start()
+    {
+        mApplicationLog = new ApplicationLog(mUserPreferences);
+        mApplicationLog.start();
+
+        //Note: invoke this early in the application lifecycle, before the TunerManager causes the sdrplay classes
+        //to be loaded since the jextract auto-generated code attempts to load the library by name.
+        if(SDRPlayLibraryHelper.LOADED)
+        {
+            mLog.info("SDRPlay API native library preemptively loaded");
+        }
+
+        ThreadPool.setVirtualThreads(mUserPreferences.getApplicationPreference().isVirtualThreads());
+        ThreadPool.logSettings();
+        loadProperties();
+        SystemProperties.getInstance().logCurrentSettings();
+
+        mTunerManager = new TunerManager(mUserPreferences);
+        mTunerManager.start();
+
+        AliasModel aliasModel = new AliasModel();
+        EventLogManager eventLogManager = new EventLogManager(aliasModel, mUserPreferences);
+        mPlaylistManager = new PlaylistManager(mUserPreferences, mTunerManager, aliasModel, eventLogManager,
+            new IconModel());
+
+        mDiagnosticMonitor = new DiagnosticMonitor(mUserPreferences, mPlaylistManager.getChannelProcessingManager(),
+            mTunerManager, true);
+        mDiagnosticMonitor.start();
+        mMetricsExporter = new MetricsExporter(mUserPreferences);
+        mMetricsExporter.start();
+
+        if(!CalibrationManager.getInstance(mUserPreferences).isCalibrated())
+        {
+            mLog.warn("Vector calibrations have not been run - using scalar DSP implementations.  Run the " +
+                "calibrations from the sdrtrunk user preferences editor to use the optimal implementations.");
+        }
+
+        mAudioRecordingManager = new AudioRecordingManager(mUserPreferences);
+        mAudioRecordingManager.start();
+
+        mAudioStreamingManager = new AudioStreamingManager(mPlaylistManager.getBroadcastModel(), BroadcastFormat.MP3,
+            mUserPreferences);
+        mAudioStreamingManager.start();
+
+        DuplicateCallDetector duplicateCallDetector = new DuplicateCallDetector(mUserPreferences);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(duplicateCallDetector);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(mAudioRecordingManager);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(mAudioStreamingManager);
+
+        mPlaylistManager.init();
+
+        mLog.info("starting main application headless");
+
+        autoStartChannels();
+    }
+
+    /**
+     * Starts each of the channels that are designated for auto-start, in auto-start order.
+     */
+    private void autoStartChannels()
+    {
+        List<Channel> channels = mPlaylistManager.getChannelModel().getAutoStartChannels();
+
+        if(channels.isEmpty())
+        {
+            mLog.warn("No channels are designated for auto-start in the playlist - nothing to process");
+        }
+
+        for(Channel channel: channels)
+        {
+            try
+            {
+                mLog.info("Auto-starting channel " + channel.getName());
+                mPlaylistManager.getChannelProcessingManager().start(channel);
+            }
+            catch(ChannelException ce)
+            {
+                mLog.error("Channel: " + channel.getName() + " auto-start failed: " + ce.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops channel processing, audio recording and streaming, and the tuners.
+     */
+    public void shutdown()
+    {
+        mLog.info("Application shutdown started ...");
+
+        //Components are null-checked since a startup error can leave the application partially constructed
+        if(mDiagnosticMonitor != null)
+        {
+            mDiagnosticMonitor.stop();
+        }
+
+        if(mMetricsExporter != null)
+        {
+            mMetricsExporter.stop();
+        }
+
+        if(mPlaylistManager != null)
+        {
+            mLog.info("Stopping channels ...");
+            mPlaylistManager.getChannelProcessingManager().shutdown();
+            mLog.info("Saving playlist ...");
+            mPlaylistManager.shutdown();
+        }
+
+        if(mAudioRecordingManager != null)
+        {
+            mAudioRecordingManager.stop();
+        }
+
+        if(mAudioStreamingManager != null)
+        {
+            mAudioStreamingManager.stop();
+        }
+
+        if(mTunerManager != null)
+        {
+            mLog.info("Stopping tuners ...");
+            mTunerManager.stop();
+        }
+
+        mLog.info("Shutdown complete.");
+
+        if(mApplicationLog != null)
+        {
+            mApplicationLog.stop();
+        }
+
+        mShutdownLatch.countDown();
+    }
+
+    /**
+     * Blocks the calling thread until the application is shutdown.
+     */
+    public void awaitShutdown() throws InterruptedException
+    {
+        mShutdownLatch.await();
+    }
+
+    /**
+     * Loads the application properties file, creating the file if it doesn't exist.
+     */
+    private void loadProperties()
+    {
+        Path propertiesPath = mUserPreferences.getDirectoryPreference().getDirectoryApplicationRoot()
+            .resolve("SDRTrunk.properties");
+
+        if(!Files.exists(propertiesPath))
+        {
+            try
+            {
+                mLog.info("SDRTrunk - creating application properties file [" + propertiesPath.toAbsolutePath() + "]");
+                Files.createFile(propertiesPath);
+            }
+            catch(IOException e)
+            {
+                mLog.error("SDRTrunk - couldn't create application properties file [" +
+                    propertiesPath.toAbsolutePath(), e);
+            }
+        }
+
+        if(Files.exists(propertiesPath))
+        {
+            SystemProperties.getInstance().load(propertiesPath);
+        }
+        else
+        {
+            mLog.error("SDRTrunk - couldn't find or recreate the SDRTrunk application properties file");
+        }
+    }
+
+    /**
+     * Launch the headless application.
+     */
+    public static void main(String[] args)
+    {
+        //Force the AWT headless mode so that shared components take their non-UI code paths.
+        System.setProperty("java.awt.headless", "true");
+
+        SDRTrunkHeadless sdrtrunk = new SDRTrunkHeadless();
+        Runtime.getRuntime().addShutdownHook(new Thread(sdrtrunk::shutdown, "sdrtrunk shutdown"));
+        sdrtrunk.start();
+
+        try
+        {
+            sdrtrunk.awaitShutdown();
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.info("Interrupted while waiting for application shutdown");
+        }
+    }
+}
@@ -22,21 +22,21 @@ package io.github.dsheirer.identifier;
 import io.github.dsheirer.identifier.configuration.AliasListConfigurationIdentifier;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * (Immutable) Collection of identifiers with convenient accessor methods
  *
+ * Identifiers are held in an immutable snapshot that is replaced whenever the collection changes.  Lookups by role,
+ * identifier class and form are served from lookup tables that are built once per snapshot, so lookups don't
+ * allocate or filter the identifiers.  Lists returned by the accessor methods are unmodifiable and reflect the
+ * collection at the time of the call.
+ *
  * @see MutableIdentifierCollection for the mutable version of this class
  */
 public class IdentifierCollection
 {
-    private final static Logger mLog = LoggerFactory.getLogger(IdentifierCollection.class);
-    protected List<Identifier> mIdentifiers = new CopyOnWriteArrayList<>();
+    private volatile IdentifierSnapshot mSnapshot = IdentifierSnapshot.EMPTY;
     protected AliasListConfigurationIdentifier mAliasListConfigurationIdentifier;
     private int mTimeslot = 0;
 
@@ -64,6 +64,8 @@ public class IdentifierCollection
 
     public IdentifierCollection(Collection<Identifier> identifiers, int timeslot)
     {
+        List<Identifier> toAdd = new ArrayList<>(identifiers.size());
+
         for(Identifier identifier: identifiers)
         {
             if(identifier == null)
@@ -71,13 +73,52 @@ public class IdentifierCollection
                 throw new IllegalArgumentException("Identifier cannot be null");
             }
 
-            mIdentifiers.add(identifier);
+            toAdd.add(identifier);
 
             if(identifier instanceof AliasListConfigurationIdentifier)
             {
                 mAliasListConfigurationIdentifier = (AliasListConfigurationIdentifier)identifier;
             }
         }
+
+        mSnapshot = IdentifierSnapshot.of(toAdd);
+    }
+
+    /**
+     * Adds the identifier to this collection if an equal identifier is not already contained in this collection.
+     * @param identifier to add
+     * @return true if the identifier was added
+     */
+    protected synchronized boolean addIdentifier(Identifier identifier)
+    {
+        IdentifierSnapshot snapshot = mSnapshot;
+
+        if(snapshot.contains(identifier))
+        {
+            return false;
+        }
+
+        mSnapshot = snapshot.add(identifier);
+        return true;
+    }
+
+    /**
+     * Removes the identifier from this collection.
+     * @param identifier to remove
+     * @return true if the identifier was removed
+     */
+    protected synchronized boolean removeIdentifier(Identifier identifier)
+    {
+        IdentifierSnapshot snapshot = mSnapshot;
+        IdentifierSnapshot updated = snapshot.remove(identifier);
+
+        if(updated == snapshot)
+        {
+            return false;
+        }
+
+        mSnapshot = updated;
+        return true;
     }
 
     public int getTimeslot()
@@ -112,7 +153,7 @@ public class IdentifierCollection
      */
     public List<Identifier> getIdentifiers()
     {
-        return Collections.unmodifiableList(mIdentifiers);
+        return mSnapshot.getIdentifiers();
     }
 
     /**
@@ -120,89 +161,40 @@ public class IdentifierCollection
      */
     public boolean isEmpty()
     {
-        return mIdentifiers.isEmpty();
+        return mSnapshot.isEmpty();
     }
 
     /**
      * Get a list of identifiers by identifier class from this collection.
      *
      * @param identifierClass to match
-     * @return list of zero or more identifiers
+     * @return unmodifiable list of zero or more identifiers
      */
     public List<Identifier> getIdentifiers(IdentifierClass identifierClass)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return mSnapshot.getIdentifiers(identifierClass);
     }
 
     /**
      * Get a list of identifiers by form from this collection.
      *
      * @param form to match
-     * @return list of zero or more identifiers
+     * @return unmodifiable list of zero or more identifiers
      */
     public List<Identifier> getIdentifiers(Form form)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getForm() == form)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return mSnapshot.getIdentifiers(form);
     }
 
     /**
      * Get a list of identifiers by role from this collection.
      *
      * @param role to match
-     * @return list of zero or more identifiers
+     * @return unmodifiable list of zero or more identifiers
      */
     public List<Identifier> getIdentifiers(Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            try
-            {
-                if(identifier.getRole() == role)
-                {
-                    identifiers.add(identifier);
-                }
-            }
-            catch(NullPointerException npe)
-            {
-                StringBuilder sb = new StringBuilder();
-                for(Identifier i : mIdentifiers)
-                {
-                    if(i == null)
-                    {
-                        sb.append("Identifier: (null)").append("\n");
-                    }
-                    else
-                    {
-                        sb.append("Identifier: ").append(i).append(" Class:").append(i.getClass()).append("\n");
-                    }
-                }
-                mLog.warn("An identifier in a collection is somehow null ...\n" + sb);
-            }
-        }
-
-        return identifiers;
+        return mSnapshot.getIdentifiers(role);
     }
 
     /**
@@ -210,21 +202,11 @@ public class IdentifierCollection
      *
      * @param identifierClass to match
      * @param role to match
-     * @return list of zero or more identifiers
+     * @return unmodifiable list of zero or more identifiers
      */
     public List<Identifier> getIdentifiers(IdentifierClass identifierClass, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass && identifier.getRole() == role)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return mSnapshot.getIdentifiers(identifierClass, role);
     }
 
     /**
@@ -232,21 +214,11 @@ public class IdentifierCollection
      *
      * @param identifierClass to match
      * @param form to match
-     * @return list of zero or more identifiers
+     * @return unmodifiable list of zero or more identifiers
      */
     public List<Identifier> getIdentifiers(IdentifierClass identifierClass, Form form)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass && identifier.getForm() == form)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return mSnapshot.getIdentifiers(identifierClass, form);
     }
 
     /**
@@ -259,17 +231,7 @@ public class IdentifierCollection
      */
     public Identifier getIdentifier(IdentifierClass identifierClass, Form form, Role role)
     {
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass &&
-                identifier.getForm() == form &&
-                identifier.getRole() == role)
-            {
-                return identifier;
-            }
-        }
-
-        return null;
+        return mSnapshot.getIdentifier(identifierClass, form, role);
     }
 
     /**
@@ -284,15 +246,7 @@ public class IdentifierCollection
             return false;
         }
 
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.equals(toCheck))
-            {
-                return true;
-            }
-        }
-
-        return false;
+        return mSnapshot.contains(toCheck);
     }
 
     /**
@@ -352,11 +306,11 @@ public class IdentifierCollection
 
         List<Identifier> toIdentifiers = getIdentifiers(Role.TO);
 
-        for(Identifier identifier: toIdentifiers)
+        for(int x = 0; x < toIdentifiers.size(); x++)
         {
-            if(identifier.getForm() != Form.ENCRYPTION_KEY)
+            if(toIdentifiers.get(x).getForm() != Form.ENCRYPTION_KEY)
             {
-                return identifier;
+                return toIdentifiers.get(x);
             }
         }
 
@@ -0,0 +1,303 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.identifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the identifiers in an identifier collection.
+ *
+ * Adding or removing an identifier creates a new snapshot, which only copies the (small) identifier array.  Lookup
+ * tables by role, identifier class, form and identifier class plus role are built once per snapshot, on the first
+ * lookup, so that repeated lookups against an unchanged snapshot are allocation-free.  Lists returned from this
+ * snapshot are unmodifiable and never change, so they can be safely iterated while the owning collection is updated.
+ */
+final class IdentifierSnapshot
+{
+    static final IdentifierSnapshot EMPTY = new IdentifierSnapshot(new Identifier[0]);
+    private static final int ROLE_COUNT = Role.values().length;
+    private static final int CLASS_COUNT = IdentifierClass.values().length;
+    private static final int FORM_COUNT = Form.values().length;
+
+    private final Identifier[] mIdentifiers;
+    private final List<Identifier> mIdentifierList;
+    private volatile Index mIndex;
+
+    /**
+     * Constructs an instance.
+     * @param identifiers for this snapshot.  Note: the array is not copied and must not be modified.
+     */
+    private IdentifierSnapshot(Identifier[] identifiers)
+    {
+        mIdentifiers = identifiers;
+        mIdentifierList = Collections.unmodifiableList(Arrays.asList(identifiers));
+    }
+
+    /**
+     * Creates a snapshot from the identifiers.
+     * @param identifiers for the snapshot
+     * @return snapshot
+     */
+    static IdentifierSnapshot of(List<Identifier> identifiers)
+    {
+        if(identifiers.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        return new IdentifierSnapshot(identifiers.toArray(new Identifier[0]));
+    }
+
+    /**
+     * Unmodifiable list of all identifiers in this snapshot
+     */
+    List<Identifier> getIdentifiers()
+    {
+        return mIdentifierList;
+    }
+
+    /**
+     * Indicates if this snapshot contains no identifiers.
+     */
+    boolean isEmpty()
+    {
+        return mIdentifiers.length == 0;
+    }
+
+    /**
+     * Indicates if this snapshot contains an identifier that is equal to the identifier argument.
+     */
+    boolean contains(Identifier identifier)
+    {
+        for(Identifier existing: mIdentifiers)
+        {
+            if(existing.equals(identifier))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates a new snapshot with the identifier appended to the identifiers of this snapshot.
+     * @param identifier to add
+     * @return new snapshot
+     */
+    IdentifierSnapshot add(Identifier identifier)
+    {
+        Identifier[] identifiers = Arrays.copyOf(mIdentifiers, mIdentifiers.length + 1);
+        identifiers[mIdentifiers.length] = identifier;
+        return new IdentifierSnapshot(identifiers);
+    }
+
+    /**
+     * Creates a new snapshot without the first identifier that is equal to the identifier argument.
+     * @param identifier to remove
+     * @return new snapshot, or this snapshot if it doesn't contain the identifier
+     */
+    IdentifierSnapshot remove(Identifier identifier)
+    {
+        for(int x = 0; x < mIdentifiers.length; x++)
+        {
+            if(mIdentifiers[x].equals(identifier))
+            {
+                if(mIdentifiers.length == 1)
+                {
+                    return EMPTY;
+                }
+
+                Identifier[] identifiers = new Identifier[mIdentifiers.length - 1];
+                System.arraycopy(mIdentifiers, 0, identifiers, 0, x);
+                System.arraycopy(mIdentifiers, x + 1, identifiers, x, identifiers.length - x);
+                return new IdentifierSnapshot(identifiers);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * First identifier that matches the identifier class, form and role.
+     * @return matching identifier or null
+     */
+    Identifier getIdentifier(IdentifierClass identifierClass, Form form, Role role)
+    {
+        for(Identifier identifier: mIdentifiers)
+        {
+            if(identifier.getIdentifierClass() == identifierClass &&
+                identifier.getForm() == form &&
+                identifier.getRole() == role)
+            {
+                return identifier;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Unmodifiable list of identifiers that match the role
+     */
+    List<Identifier> getIdentifiers(Role role)
+    {
+        return getIndex().mByRole[role.ordinal()];
+    }
+
+    /**
+     * Unmodifiable list of identifiers that match the identifier class
+     */
+    List<Identifier> getIdentifiers(IdentifierClass identifierClass)
+    {
+        return getIndex().mByClass[identifierClass.ordinal()];
+    }
+
+    /**
+     * Unmodifiable list of identifiers that match the form
+     */
+    List<Identifier> getIdentifiers(Form form)
+    {
+        return getIndex().mByForm[form.ordinal()];
+    }
+
+    /**
+     * Unmodifiable list of identifiers that match the identifier class and role
+     */
+    List<Identifier> getIdentifiers(IdentifierClass identifierClass, Role role)
+    {
+        return getIndex().mByClassAndRole[identifierClass.ordinal() * ROLE_COUNT + role.ordinal()];
+    }
+
+    /**
+     * Unmodifiable list of identifiers that match the identifier class and form.  Each form is normally only used
+     * with a single identifier class, so the form list is returned without copying when all of its identifiers match
+     * the identifier class.
+     */
+    List<Identifier> getIdentifiers(IdentifierClass identifierClass, Form form)
+    {
+        List<Identifier> formIdentifiers = getIdentifiers(form);
+
+        for(Identifier identifier: formIdentifiers)
+        {
+            if(identifier.getIdentifierClass() != identifierClass)
+            {
+                List<Identifier> identifiers = new ArrayList<>();
+
+                for(Identifier candidate: formIdentifiers)
+                {
+                    if(candidate.getIdentifierClass() == identifierClass)
+                    {
+                        identifiers.add(candidate);
+                    }
+                }
+
+                return Collections.unmodifiableList(identifiers);
+            }
+        }
+
+        return formIdentifiers;
+    }
+
+    /**
+     * Lookup tables for this snapshot, built on first access.  Concurrent first access may build the tables more
+     * than once, which is harmless since the tables are equivalent.
+     */
+    private Index getIndex()
+    {
+        Index index = mIndex;
+
+        if(index == null)
+        {
+            index = new Index(mIdentifiers);
+            mIndex = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * Identifier lookup tables, indexed by enumeration ordinal.  Keys without identifiers share an empty list.
+     */
+    private static final class Index
+    {
+        private final List<Identifier>[] mByRole;
+        private final List<Identifier>[] mByClass;
+        private final List<Identifier>[] mByForm;
+        private final List<Identifier>[] mByClassAndRole;
+
+        private Index(Identifier[] identifiers)
+        {
+            mByRole = createTable(ROLE_COUNT);
+            mByClass = createTable(CLASS_COUNT);
+            mByForm = createTable(FORM_COUNT);
+            mByClassAndRole = createTable(CLASS_COUNT * ROLE_COUNT);
+
+            for(Identifier identifier: identifiers)
+            {
+                int role = identifier.getRole().ordinal();
+                int identifierClass = identifier.getIdentifierClass().ordinal();
+                add(mByRole, role, identifier);
+                add(mByClass, identifierClass, identifier);
+                add(mByForm, identifier.getForm().ordinal(), identifier);
+                add(mByClassAndRole, identifierClass * ROLE_COUNT + role, identifier);
+            }
+
+            seal(mByRole);
+            seal(mByClass);
+            seal(mByForm);
+            seal(mByClassAndRole);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Identifier>[] createTable(int size)
+        {
+            List<Identifier>[] table = new List[size];
+            Arrays.fill(table, Collections.emptyList());
+            return table;
+        }
+
+        private static void add(List<Identifier>[] table, int index, Identifier identifier)
+        {
+            if(table[index].isEmpty())
+            {
+                table[index] = new ArrayList<>(2);
+            }
+
+            table[index].add(identifier);
+        }
+
+        /**
+         * Wraps each populated list so that it can't be modified.
+         */
+        private static void seal(List<Identifier>[] table)
+        {
+            for(int x = 0; x < table.length; x++)
+            {
+                if(!table[x].isEmpty())
+                {
+                    table[x] = Collections.unmodifiableList(table[x]);
+                }
+            }
+        }
+    }
+}
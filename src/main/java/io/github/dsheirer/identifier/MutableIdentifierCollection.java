@@ -122,9 +122,8 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     private void add(Identifier identifier)
     {
-        if(identifier.isValid() && !mIdentifiers.contains(identifier))
+        if(identifier.isValid() && addIdentifier(identifier))
         {
-            mIdentifiers.add(identifier);
             notifyAdd(identifier);
         }
 
@@ -143,9 +142,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     private void silentAdd(Identifier identifier)
     {
-        if(identifier.isValid() && !mIdentifiers.contains(identifier))
+        if(identifier.isValid())
         {
-            mIdentifiers.add(identifier);
+            addIdentifier(identifier);
         }
 
         //Retain a reference to the alias list identifier separately so that it can be accessed quickly.
@@ -160,7 +159,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Identifier identifier)
     {
-        if(mIdentifiers.remove(identifier))
+        if(removeIdentifier(identifier))
         {
             notifyRemove(identifier);
         }
@@ -177,7 +176,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void silentRemove(Identifier identifier)
     {
-        mIdentifiers.remove(identifier);
+        removeIdentifier(identifier);
 
         //Remove the reference to the alias list identifier.
         if(identifier instanceof AliasListConfigurationIdentifier)
@@ -281,14 +280,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers(identifierClass))
         {
-            if(identifier.getIdentifierClass() == identifierClass)
-            {
-                remove(identifier);
-            }
+            remove(identifier);
         }
     }
 
@@ -297,14 +291,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Form form)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers(form))
         {
-            if(identifier.getForm() == form)
-            {
-                remove(identifier);
-            }
+            remove(identifier);
         }
     }
 
@@ -313,14 +302,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers(role))
         {
-            if(identifier.getRole() == role)
-            {
-                remove(identifier);
-            }
+            remove(identifier);
         }
     }
 
@@ -329,13 +313,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass, Form form, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers(identifierClass, role))
         {
-            if(identifier.getIdentifierClass() == identifierClass &&
-                identifier.getForm() == form &&
-                identifier.getRole() == role)
+            if(identifier.getForm() == form)
             {
                 remove(identifier);
             }
@@ -347,14 +327,9 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers(identifierClass, role))
         {
-            if(identifier.getIdentifierClass() == identifierClass && identifier.getRole() == role)
-            {
-                remove(identifier);
-            }
+            remove(identifier);
         }
     }
 
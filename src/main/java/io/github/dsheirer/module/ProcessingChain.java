@@ -53,6 +53,10 @@ import io.github.dsheirer.module.decode.event.IDecodeEventListener;
 import io.github.dsheirer.module.decode.event.IDecodeEventProvider;
 import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
 import io.github.dsheirer.module.log.EventLogger;
+import io.github.dsheirer.monitor.AllocationMonitor;
+import io.github.dsheirer.monitor.metrics.Histogram;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.MetricsRegistry;
 import io.github.dsheirer.record.binary.BinaryRecorder;
 import io.github.dsheirer.record.wave.ComplexSamplesWaveRecorder;
 import io.github.dsheirer.sample.Broadcaster;
@@ -77,6 +81,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
@@ -125,6 +130,9 @@ public class ProcessingChain implements Listener<ChannelEvent>
     //Lock to protect access to the modules list.
     private ReentrantLock mModuleLock = new ReentrantLock();
     private List<Module> mModules = new ArrayList<>();
+    private final String mMetricScopeName;
+    private final List<ModuleTimingListener<?>> mModuleTimingListeners = new CopyOnWriteArrayList<>();
+    private volatile Histogram mSampleAge;
 
 
     /**
@@ -136,6 +144,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
     public ProcessingChain(Channel channel, AliasModel aliasModel)
     {
         mEventBus = new EventBus("Processing Chain Event Bus - Channel: " + channel.getName());
+        mMetricScopeName = getThreadName(channel);
 
         if(channel.getDecodeConfiguration().getTimeslotCount() == 1)
         {
@@ -151,6 +160,17 @@ public class ProcessingChain implements Listener<ChannelEvent>
         addModule(mMessageHistory);
     }
 
+    /**
+     * Name for the processing thread(s) of the channel, also used to identify the channel in pipeline metrics.
+     * @param channel to name
+     * @return thread name
+     */
+    public static String getThreadName(Channel channel)
+    {
+        return "sdrtrunk channel [" + channel.getChannelID() + "/" +
+            channel.getDecodeConfiguration().getDecoderType().getShortDisplayString() + "]";
+    }
+
     /**
      * Event bus used for inter-module communication.
      * @return event bus
@@ -248,6 +268,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
         mDemodulatedBitstreamBufferBroadcaster.dispose();
         mMessageBroadcaster.dispose();
         mSquelchStateEventBroadcaster.dispose();
+        AllocationMonitor.release(mMetricScopeName);
     }
 
     /**
@@ -449,17 +470,20 @@ public class ProcessingChain implements Listener<ChannelEvent>
 
         if(module instanceof IRealBufferListener)
         {
-            mDemodulatedAudioBufferBroadcaster.addListener(((IRealBufferListener)module).getBufferListener());
+            mDemodulatedAudioBufferBroadcaster.addListener(track(((IRealBufferListener)module).getBufferListener(),
+                module));
         }
 
         if(module instanceof IByteBufferListener)
         {
-            mDemodulatedBitstreamBufferBroadcaster.addListener(((IByteBufferListener)module).getByteBufferListener());
+            mDemodulatedBitstreamBufferBroadcaster.addListener(track(((IByteBufferListener)module)
+                .getByteBufferListener(), module));
         }
 
         if(module instanceof IComplexSamplesListener)
         {
-            mBasebandComplexSamplesBroadcaster.addListener(((IComplexSamplesListener)module).getComplexSamplesListener());
+            mBasebandComplexSamplesBroadcaster.addListener(track(((IComplexSamplesListener)module)
+                .getComplexSamplesListener(), module));
         }
 
         if(module instanceof ISourceEventListener)
@@ -516,17 +540,20 @@ public class ProcessingChain implements Listener<ChannelEvent>
 
         if(module instanceof IRealBufferListener)
         {
-            mDemodulatedAudioBufferBroadcaster.removeListener(((IRealBufferListener)module).getBufferListener());
+            removeTrackedListener(mDemodulatedAudioBufferBroadcaster,
+                ((IRealBufferListener)module).getBufferListener());
         }
 
         if(module instanceof IByteBufferListener)
         {
-            mDemodulatedBitstreamBufferBroadcaster.removeListener(((IByteBufferListener)module).getByteBufferListener());
+            removeTrackedListener(mDemodulatedBitstreamBufferBroadcaster,
+                ((IByteBufferListener)module).getByteBufferListener());
         }
 
         if(module instanceof IComplexSamplesListener)
         {
-            mBasebandComplexSamplesBroadcaster.removeListener(((IComplexSamplesListener)module).getComplexSamplesListener());
+            removeTrackedListener(mBasebandComplexSamplesBroadcaster,
+                ((IComplexSamplesListener)module).getComplexSamplesListener());
         }
 
         if(module instanceof ISourceEventListener)
@@ -701,13 +728,27 @@ public class ProcessingChain implements Listener<ChannelEvent>
                 /* Register with the source to receive sample data.  Setup a
                  * timer task to process the buffer queues 50 times a second
                  * (every 20 ms) */
+                MetricsRegistry registry = MetricsRegistry.getInstance();
+
+                if(registry.isEnabled())
+                {
+                    mSampleAge = registry.histogram("channel_sample_age_us",
+                        "Age of each sample buffer when it reaches the channel decoder in microseconds",
+                        MetricScope.CHANNEL, mMetricScopeName);
+
+                    for(ModuleTimingListener<?> moduleTimingListener: mModuleTimingListeners)
+                    {
+                        moduleTimingListener.start();
+                    }
+                }
+
                 switch(mSource.getSampleType())
                 {
                     case COMPLEX:
-                        ((ComplexSource)mSource).setListener(mBasebandComplexSamplesBroadcaster);
+                        ((ComplexSource)mSource).setListener(this::receiveComplexSamples);
                         break;
                     case REAL:
-                        ((RealSource)mSource).setListener(mDemodulatedAudioBufferBroadcaster);
+                        ((RealSource)mSource).setListener(this::receiveRealSamples);
                         break;
                     default:
                         throw new IllegalArgumentException("Unrecognized source "
@@ -774,6 +815,14 @@ public class ProcessingChain implements Listener<ChannelEvent>
                 mSource = null;
             }
 
+            MetricsRegistry.getInstance().remove(mSampleAge);
+            mSampleAge = null;
+
+            for(ModuleTimingListener<?> moduleTimingListener: mModuleTimingListeners)
+            {
+                moduleTimingListener.stop();
+            }
+
             /* Stop each of the remaining modules */
             mModuleLock.lock();
 
@@ -801,6 +850,77 @@ public class ProcessingChain implements Listener<ChannelEvent>
         }
     }
 
+    /**
+     * Wraps the module's sample buffer listener for allocation tracking, when an allocation monitor is active, and for
+     * per-module processing time metrics, when metrics export is enabled.
+     * @param listener of the module
+     * @param module that owns the listener
+     * @return wrapped listener, or the original listener when neither allocation tracking nor metrics are enabled.
+     */
+    private <T> Listener<T> track(Listener<T> listener, Module module)
+    {
+        Listener<T> tracked = AllocationMonitor.track(listener, mMetricScopeName, module);
+
+        if(listener == null || !MetricsRegistry.getInstance().isEnabled())
+        {
+            return tracked;
+        }
+
+        ModuleTimingListener<T> moduleTimingListener = new ModuleTimingListener<>(listener, tracked,
+            mMetricScopeName + " " + module.getClass().getSimpleName());
+        mModuleTimingListeners.add(moduleTimingListener);
+
+        if(mRunning.get())
+        {
+            moduleTimingListener.start();
+        }
+
+        return moduleTimingListener;
+    }
+
+    /**
+     * Removes a module listener that may have been wrapped for allocation tracking and/or processing time metrics
+     * when it was registered.
+     */
+    private <T> void removeTrackedListener(Broadcaster<T> broadcaster, Listener<T> listener)
+    {
+        broadcaster.removeListener(listener);
+        broadcaster.removeListener(AllocationMonitor.getTrackingKey(listener));
+
+        for(ModuleTimingListener<?> moduleTimingListener: mModuleTimingListeners)
+        {
+            if(moduleTimingListener.mListener == listener)
+            {
+                broadcaster.removeListener(ModuleTimingListener.getKey(listener));
+                mModuleTimingListeners.remove(moduleTimingListener);
+                moduleTimingListener.stop();
+            }
+        }
+    }
+
+    /**
+     * Distributes complex sample buffers from the source to the modules and records the sample age metric.
+     */
+    private void receiveComplexSamples(ComplexSamples samples)
+    {
+        Histogram sampleAge = mSampleAge;
+
+        if(sampleAge != null)
+        {
+            sampleAge.record((System.currentTimeMillis() - samples.timestamp()) * 1000);
+        }
+
+        mBasebandComplexSamplesBroadcaster.broadcast(samples);
+    }
+
+    /**
+     * Distributes real sample buffers from the source to the modules.
+     */
+    private void receiveRealSamples(float[] samples)
+    {
+        mDemodulatedAudioBufferBroadcaster.broadcast(samples);
+    }
+
     /**
      * Removes any logging modules that are currently registered with this processing chain
      */
@@ -1009,4 +1129,85 @@ public class ProcessingChain implements Listener<ChannelEvent>
     {
         mIdentifierUpdateNotificationBroadcaster.broadcast(updateNotification);
     }
+
+    /**
+     * Module listener wrapper that records the time for the module to process each buffer while the processing chain
+     * is running.  Wrappers are equal to other wrappers of the same module listener, so that a key created for
+     * deregistration will remove the wrapper that was registered.
+     */
+    private static class ModuleTimingListener<T> implements Listener<T>
+    {
+        private final Listener<T> mListener;
+        private final Listener<T> mDelegate;
+        private final String mScopeName;
+        private volatile Histogram mProcessingTime;
+
+        /**
+         * Constructs an instance
+         * @param listener of the module
+         * @param delegate to invoke, either the module listener or an allocation tracking wrapper of the listener.
+         * @param scopeName for the processing time metric.
+         */
+        public ModuleTimingListener(Listener<T> listener, Listener<T> delegate, String scopeName)
+        {
+            mListener = listener;
+            mDelegate = delegate;
+            mScopeName = scopeName;
+        }
+
+        /**
+         * Creates a key that is equal to any timing wrapper of the listener.
+         */
+        public static <T> Listener<T> getKey(Listener<T> listener)
+        {
+            return new ModuleTimingListener<>(listener, null, null);
+        }
+
+        /**
+         * Registers the processing time metric and starts recording.
+         */
+        public void start()
+        {
+            mProcessingTime = MetricsRegistry.getInstance().histogram("channel_module_processing_time_us",
+                "Time for each channel module to process a buffer in microseconds", MetricScope.CHANNEL, mScopeName);
+        }
+
+        /**
+         * Stops recording and removes the processing time metric.
+         */
+        public void stop()
+        {
+            MetricsRegistry.getInstance().remove(mProcessingTime);
+            mProcessingTime = null;
+        }
+
+        @Override
+        public void receive(T t)
+        {
+            Histogram processingTime = mProcessingTime;
+
+            if(processingTime != null)
+            {
+                long start = System.nanoTime();
+                mDelegate.receive(t);
+                processingTime.recordElapsedMicros(start);
+            }
+            else
+            {
+                mDelegate.receive(t);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof ModuleTimingListener<?> other && other.mListener == mListener;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(mListener);
+        }
+    }
 }
@@ -19,8 +19,10 @@
 
 package io.github.dsheirer.module.decode.dmr;
 
+import io.github.dsheirer.bits.BitVector;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
 import io.github.dsheirer.module.decode.dmr.message.CACH;
@@ -58,6 +60,7 @@ public class DMRMessageFramer implements Listener<Dibit>
     private int mDibitSinceTimestampCounter = 0;
     private long mReferenceTimestamp = 0;
     private boolean mRunning = false;
+    private final BitVector mBitVector = new BitVector(2 * (DIBIT_BURST_END - DIBIT_CACH_START));
 
     /**
      * Constructs an instance
@@ -110,6 +113,63 @@ public class DMRMessageFramer implements Listener<Dibit>
         }
     }
 
+    /**
+     * Block-oriented input method for receiving demodulated dibit symbols.  While a burst is being assembled, runs of
+     * dibits are copied directly into the active burst buffer.
+     * @param block of dibits to process.
+     */
+    public void receive(DibitBlock block)
+    {
+        byte[] dibits = block.getDibits();
+        int size = block.size();
+        int x = 0;
+
+        while(x < size)
+        {
+            if(mAssemblingBurst)
+            {
+                Dibit[] buffer = mBufferAActive ? mBufferA : mBufferB;
+                int pointer = mBufferAActive ? mBufferAPointer : mBufferBPointer;
+                int count = Math.min(buffer.length - pointer, size - x);
+
+                if(count > 0)
+                {
+                    for(int y = 0; y < count; y++)
+                    {
+                        buffer[pointer + y] = DibitBlock.toDibit(dibits[x + y]);
+                    }
+
+                    x += count;
+                    mDibitCounter += count;
+                    mDibitSinceTimestampCounter += count;
+
+                    if(mBufferAActive)
+                    {
+                        mBufferAPointer += count;
+
+                        if(mBufferAPointer >= mBufferA.length)
+                        {
+                            dispatchBufferA();
+                        }
+                    }
+                    else
+                    {
+                        mBufferBPointer += count;
+
+                        if(mBufferBPointer >= mBufferB.length)
+                        {
+                            dispatchBufferB();
+                        }
+                    }
+
+                    continue;
+                }
+            }
+
+            receive(DibitBlock.toDibit(dibits[x++]));
+        }
+    }
+
     private void dispatchBufferA()
     {
         mDibitCounter -= 144;
@@ -293,16 +353,16 @@ public class DMRMessageFramer implements Listener<Dibit>
      */
     private CorrectedBinaryMessage getMessage(Dibit[] buffer, int start, int end)
     {
-        CorrectedBinaryMessage message = new CorrectedBinaryMessage(2 * (end - start));
+        mBitVector.reset(2 * (end - start));
 
         Dibit dibit = null;
         for(int i = start; i < end; i++)
         {
             dibit = buffer[i];
-            message.add(dibit.getBit1(), dibit.getBit2());
+            mBitVector.add(dibit.getBit1(), dibit.getBit2());
         }
 
-        return message;
+        return mBitVector.toCorrectedBinaryMessage();
     }
 
     /**
@@ -21,6 +21,8 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.dsp.filter.interpolator.PhaseAwareLinearInterpolator;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
+import io.github.dsheirer.dsp.symbol.DibitBlockAssembler;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
 import io.github.dsheirer.module.decode.dmr.sync.DMRSoftSyncDetector;
 import io.github.dsheirer.module.decode.dmr.sync.DMRSoftSyncDetectorFactory;
@@ -66,6 +68,7 @@ public class DMRSoftSymbolProcessor
     private DMRSoftSyncDetector mSyncDetectorLag1 = DMRSoftSyncDetectorFactory.getDetector();
     private DMRSoftSyncDetector mSyncDetectorLag2 = DMRSoftSyncDetectorFactory.getDetector();
     private DibitToByteBufferAssembler mDibitAssembler = new DibitToByteBufferAssembler(300);
+    private DibitBlockAssembler mDibitBlockAssembler = new DibitBlockAssembler();
     //Dibit delay line sizing: CACH(12) + MESSAGE_PREFIX(54) + SYNC(24)
     private DibitDelayLine mDibitDelayLine = new DibitDelayLine(90);
     private DMRMessageFramer mMessageFramer;
@@ -96,6 +99,7 @@ public class DMRSoftSymbolProcessor
         }
 
         mMessageFramer = messageFramer;
+        mDibitBlockAssembler.setListener(this::processDibitBlock);
         mSyncModeMonitor.add(mSyncDetector);
         mSyncModeMonitor.add(mSyncDetectorLag1);
         mSyncModeMonitor.add(mSyncDetectorLag2);
@@ -181,11 +185,10 @@ public class DMRSoftSymbolProcessor
 
                     Dibit symbol = toSymbol(softSymbol);
 
-                    //Store the symbol in the delay line and broadcast the delayed ejected symbol to the message framer
-                    //and the bitstream assembler.
+                    //Store the symbol in the delay line and queue the delayed ejected symbol for block delivery to the
+                    //message framer and the bitstream assembler.
                     Dibit ejected = mDibitDelayLine.insert(symbol);
-                    mMessageFramer.receive(ejected);
-                    mDibitAssembler.receive(ejected);
+                    mDibitBlockAssembler.receive(ejected);
 
                     float scorePrimary = mSyncDetector.process(softSymbol);
 
@@ -194,7 +197,7 @@ public class DMRSoftSymbolProcessor
                     {
                         mSymbolsSinceLastSync = 0;
                         mSyncModeMonitor.detected(mSyncDetector.getDetectedPattern());
-                        mMessageFramer.syncDetected(mSyncDetector.getDetectedPattern());
+                        syncDetected(mSyncDetector.getDetectedPattern());
                     }
                     else
                     {
@@ -215,7 +218,7 @@ public class DMRSoftSymbolProcessor
                         {
                             mSymbolsSinceLastSync = 0;
                             mSyncModeMonitor.detected(mSyncDetectorLag1.getDetectedPattern());
-                            mMessageFramer.syncDetected(mSyncDetectorLag1.getDetectedPattern());
+                            syncDetected(mSyncDetectorLag1.getDetectedPattern());
                         }
                         else if(mSymbolsSinceLastSync > 1 && scoreLag2 > scorePrimary &&
                                 scoreLag2 > SYNC_DETECTION_THRESHOLD &&
@@ -223,7 +226,7 @@ public class DMRSoftSymbolProcessor
                         {
                             mSymbolsSinceLastSync = 0;
                             mSyncModeMonitor.detected(mSyncDetectorLag2.getDetectedPattern());
-                            mMessageFramer.syncDetected(mSyncDetectorLag2.getDetectedPattern());
+                            syncDetected(mSyncDetectorLag2.getDetectedPattern());
                         }
                         else if(scorePrimary > SYNC_DETECTION_THRESHOLD &&
                                 optimize(mSyncDetector.getDetectedPattern(), 0.0f))
@@ -231,7 +234,7 @@ public class DMRSoftSymbolProcessor
                             mSymbolsSinceLastSync = 0;
                             mSyncLock = true;
                             mSyncModeMonitor.detected(mSyncDetector.getDetectedPattern());
-                            mMessageFramer.syncDetected(mSyncDetector.getDetectedPattern());
+                            syncDetected(mSyncDetector.getDetectedPattern());
                         }
                     }
 
@@ -240,6 +243,28 @@ public class DMRSoftSymbolProcessor
                 }
             }
         }
+
+        mDibitBlockAssembler.flush();
+    }
+
+    /**
+     * Delivers the queued dibits to the message framer and then signals the sync detection, so that the framer
+     * receives the sync detection aligned with the symbol stream.
+     * @param pattern that was detected
+     */
+    private void syncDetected(DMRSyncPattern pattern)
+    {
+        mDibitBlockAssembler.flush();
+        mMessageFramer.syncDetected(pattern);
+    }
+
+    /**
+     * Distributes a block of dibits to the message framer and the bitstream assembler.
+     */
+    private void processDibitBlock(DibitBlock block)
+    {
+        mMessageFramer.receive(block);
+        mDibitAssembler.receive(block);
     }
 
     /**
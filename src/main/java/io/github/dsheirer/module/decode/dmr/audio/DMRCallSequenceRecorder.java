@@ -49,7 +49,7 @@ import org.slf4j.LoggerFactory;
 public class DMRCallSequenceRecorder extends MBECallSequenceRecorder
 {
     private final static Logger mLog = LoggerFactory.getLogger(DMRCallSequenceRecorder.class);
-    private static final String PROTOCOL = "DMR";
+    public static final String PROTOCOL = "DMR";
     private TimeslotProcessor mTimeslotProcessor1 = new TimeslotProcessor();
     private TimeslotProcessor mTimeslotProcessor2 = new TimeslotProcessor();
 
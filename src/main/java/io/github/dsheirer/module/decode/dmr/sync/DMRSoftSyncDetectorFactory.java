@@ -40,7 +40,16 @@ public class DMRSoftSyncDetectorFactory
     public static DMRSoftSyncDetector getDetector()
     {
         Implementation implementation = CalibrationManager.getInstance().getImplementation(CalibrationType.DMR_SOFT_SYNC_DETECTOR);
+        return getDetector(implementation);
+    }
 
+    /**
+     * Creates the specified detector implementation.
+     * @param implementation to construct
+     * @return detector instance
+     */
+    public static DMRSoftSyncDetector getDetector(Implementation implementation)
+    {
         switch(implementation)
         {
             case VECTOR_SIMD_64:
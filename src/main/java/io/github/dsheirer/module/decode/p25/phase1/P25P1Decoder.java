@@ -21,6 +21,8 @@ package io.github.dsheirer.module.decode.p25.phase1;
 import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
+import io.github.dsheirer.dsp.symbol.DibitBlockAssembler;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.Role;
@@ -37,6 +39,7 @@ import io.github.dsheirer.source.ISourceEventListener;
 import io.github.dsheirer.source.ISourceEventProvider;
 import io.github.dsheirer.source.SourceEvent;
 import java.nio.ByteBuffer;
+import java.util.function.IntSupplier;
 
 public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEventListener, ISourceEventProvider,
         IComplexSamplesListener, Listener<ComplexSamples>, IByteBufferProvider
@@ -44,6 +47,8 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
     private double mSampleRate;
     private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
+    private DibitBlockAssembler mDibitBlockAssembler = new DibitBlockAssembler();
+    private Listener<DibitBlock> mDibitBlockListener;
     private P25P1MessageProcessor mMessageProcessor;
     private Listener<SourceEvent> mSourceEventListener;
     private double mSymbolRate;
@@ -55,6 +60,7 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
         mMessageProcessor = new P25P1MessageProcessor();
         mMessageProcessor.setMessageListener(getMessageListener());
         getDibitBroadcaster().addListener(mByteBufferAssembler);
+        mDibitBlockAssembler.setListener(this::processDibitBlock);
     }
 
     /**
@@ -91,6 +97,43 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
         return mDibitBroadcaster;
     }
 
+    /**
+     * Assembler for packaging the demodulated dibit stream into dibit blocks for block-oriented processing by the
+     * message framer and the byte buffer assembler.  Decoders that use the block assembler as the demodulator symbol
+     * listener should flush() the assembler after processing each sample buffer.
+     *
+     * Note: the dibit broadcaster remains available for per-dibit processing.
+     */
+    protected DibitBlockAssembler getDibitBlockAssembler()
+    {
+        return mDibitBlockAssembler;
+    }
+
+    /**
+     * Registers the listener (e.g. message framer) to receive dibit blocks from the dibit block assembler.
+     * @param listener to receive dibit blocks
+     * @param blockSizeLimitProvider of the maximum size of the next dibit block, so that the listener receives each
+     * dibit as soon as it is demodulated when it needs to (e.g. while searching for sync).
+     */
+    protected void setDibitBlockListener(Listener<DibitBlock> listener, IntSupplier blockSizeLimitProvider)
+    {
+        mDibitBlockListener = listener;
+        mDibitBlockAssembler.setBlockSizeLimitProvider(blockSizeLimitProvider);
+    }
+
+    /**
+     * Distributes a dibit block to the message framer and the byte buffer assembler.
+     */
+    private void processDibitBlock(DibitBlock block)
+    {
+        if(mDibitBlockListener != null)
+        {
+            mDibitBlockListener.receive(block);
+        }
+
+        mByteBufferAssembler.receive(block);
+    }
+
     /**
      * Implements the IByteBufferProvider interface - delegates to the byte buffer assembler
      */
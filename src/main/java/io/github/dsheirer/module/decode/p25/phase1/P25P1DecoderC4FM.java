@@ -89,11 +89,6 @@ public class P25P1DecoderC4FM extends P25P1Decoder
 
         mQPSKDemodulator = new DQPSKDecisionDirectedDemodulator(mCostasLoop, mInterpolatingSampleBuffer);
 
-        if(mMessageFramer != null)
-        {
-            getDibitBroadcaster().removeListener(mMessageFramer);
-        }
-
         //The Costas Loop receives symbol-inversion correction requests when detected.
         //The PLL gain monitor receives sync detect/loss signals from the message framer
         mMessageFramer = new P25P1MessageFramer(mCostasLoop, DecoderType.P25_PHASE1.getProtocol().getBitRate());
@@ -101,8 +96,8 @@ public class P25P1DecoderC4FM extends P25P1Decoder
         mMessageFramer.setListener(getMessageProcessor());
         mMessageFramer.setSampleRate(sampleRate);
 
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setSymbolListener(getDibitBlockAssembler());
+        setDibitBlockListener(mMessageFramer::receive, mMessageFramer::getDibitBlockSizeLimit);
     }
 
     /**
@@ -122,6 +117,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
 
         ComplexSamples amplified = mAGC.process(i, q, samples.timestamp());
         mQPSKDemodulator.receive(amplified);
+        getDibitBlockAssembler().flush();
     }
 
     /**
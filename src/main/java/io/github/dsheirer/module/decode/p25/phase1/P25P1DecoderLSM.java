@@ -98,17 +98,12 @@ public class P25P1DecoderLSM extends P25P1Decoder
 
         //The Costas Loop receives symbol-inversion correction requests when detected.
         //The PLL gain monitor receives sync detect/loss signals from the message framer
-        if(mMessageFramer != null)
-        {
-            getDibitBroadcaster().removeListener(mMessageFramer);
-        }
-
         mMessageFramer = new P25P1MessageFramer(mCostasLoop, DecoderType.P25_PHASE1.getProtocol().getBitRate());
         mMessageFramer.setSyncDetectListener(mFrequencyCorrectionSyncMonitor);
         mMessageFramer.setListener(getMessageProcessor());
         mMessageFramer.setSampleRate(sampleRate);
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setSymbolListener(getDibitBlockAssembler());
+        setDibitBlockListener(mMessageFramer::receive, mMessageFramer::getDibitBlockSizeLimit);
     }
 
     /**
@@ -128,6 +123,7 @@ public class P25P1DecoderLSM extends P25P1Decoder
 
         ComplexSamples amplified = mAGC.process(i, q, samples.timestamp());
         mQPSKDemodulator.receive(amplified);
+        getDibitBlockAssembler().flush();
     }
 
     /**
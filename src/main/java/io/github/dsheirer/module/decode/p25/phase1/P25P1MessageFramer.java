@@ -24,10 +24,12 @@ import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.alias.id.record.Record;
 import io.github.dsheirer.alias.id.talkgroup.TalkgroupRange;
 import io.github.dsheirer.bits.BitSetFullException;
+import io.github.dsheirer.bits.BitVector;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.MessageProviderModule;
@@ -75,6 +77,8 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
     private Listener<IMessage> mMessageListener;
     private boolean mAssemblingMessage = false;
     private CorrectedBinaryMessage mBinaryMessage;
+    private final BitVector mBitVector = new BitVector(P25P1DataUnitID.PACKET_DATA_UNIT.getMessageLength());
+    private int mBitErrors;
     private P25P1DataUnitID mDataUnitID;
     private PDUSequence mPDUSequence;
     private int[] mCorrectedNID;
@@ -189,18 +193,12 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
 
             try
             {
-                mBinaryMessage.add(dibit.getBit1());
-                mBinaryMessage.add(dibit.getBit2());
-                
-                if(mBinaryMessage.isFull())
-                {
-                    //TDU's have a trailing status symbol that has to be removed -- set flag to true to suppress it.
-                    if(mDataUnitID.hasTrailingStatusDibit())
-                    {
-                        mTrailingDibitsToSuppress = 1;
-                    }
+                mBitVector.add(dibit.getBit1());
+                mBitVector.add(dibit.getBit2());
 
-                    dispatchMessage();
+                if(mBitVector.isFull())
+                {
+                    messageComplete();
                 }
             }
             catch(BitSetFullException bsfe)
@@ -225,6 +223,102 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
         }
     }
 
+    /**
+     * Primary method for block-oriented streaming of decoded symbol dibits for message framing.  While a message is
+     * being assembled, runs of message dibits between status symbols are transferred directly into the message bit
+     * vector.  Status symbols, trailing dibit suppression and sync/data unit detection use the per-dibit path.
+     *
+     * @param block of dibits to process
+     */
+    public void receive(DibitBlock block)
+    {
+        byte[] dibits = block.getDibits();
+        int size = block.size();
+        int x = 0;
+
+        while(x < size)
+        {
+            if(mAssemblingMessage && mStatusSymbolDibitCounter < 35)
+            {
+                int run = Math.min(35 - mStatusSymbolDibitCounter, size - x);
+                run = Math.min(run, (mBitVector.size() - mBitVector.pointer()) / 2);
+
+                if(run > 0)
+                {
+                    mBitVector.addDibits(dibits, x, run);
+                    mStatusSymbolDibitCounter += run;
+                    x += run;
+
+                    if(mBitVector.isFull())
+                    {
+                        messageComplete();
+                    }
+
+                    continue;
+                }
+            }
+
+            receive(DibitBlock.toDibit(dibits[x++]));
+        }
+    }
+
+    /**
+     * Number of dibits that can be delivered to this framer in the next dibit block.  Sync detection can apply a phase
+     * inversion correction to the phase locked loop, so dibits must be delivered one at a time while searching for
+     * sync.  While a message is being assembled, the message dibits and status symbols up to the end of the message
+     * can be delivered in a single block.
+     *
+     * @return block size limit, minimum of 1
+     */
+    public int getDibitBlockSizeLimit()
+    {
+        if(!mAssemblingMessage)
+        {
+            return 1;
+        }
+
+        int messageDibits = (mBitVector.size() - mBitVector.pointer() + 1) / 2;
+        int statusSymbolDibitCounter = mStatusSymbolDibitCounter;
+        int limit = 0;
+
+        while(messageDibits > 0)
+        {
+            if(statusSymbolDibitCounter == 35)
+            {
+                statusSymbolDibitCounter = 0;
+                limit++;
+            }
+            else
+            {
+                int run = Math.min(35 - statusSymbolDibitCounter, messageDibits);
+                statusSymbolDibitCounter += run;
+                messageDibits -= run;
+                limit += run;
+            }
+        }
+
+        return Math.max(limit, 1);
+    }
+
+    /**
+     * Transfers the fully assembled message bits to a message and dispatches the message.
+     */
+    private void messageComplete()
+    {
+        //Transfer the assembled bits to a new message that is owned by the message consumer(s)
+        mBinaryMessage = mBitVector.toCorrectedBinaryMessage();
+        mBinaryMessage.incrementCorrectedBitCount(mBitErrors);
+        mBitErrors = 0;
+
+        //TDU's have a trailing status symbol that has to be removed -- set flag to true to suppress it.
+        if(mDataUnitID.hasTrailingStatusDibit())
+        {
+            mTrailingDibitsToSuppress = 1;
+        }
+
+        dispatchMessage();
+    }
+
     private void dispatchMessage()
     {
         if(mMessageListener != null)
@@ -241,7 +335,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                         {
                             //Setup to catch the sequence of data blocks that follow the header
                             mDataUnitID = P25P1DataUnitID.PACKET_DATA_UNIT;
-                            mBinaryMessage = new CorrectedBinaryMessage(P25P1DataUnitID.PACKET_DATA_UNIT.getMessageLength());
+                            mBitVector.reset(P25P1DataUnitID.PACKET_DATA_UNIT.getMessageLength());
                             mAssemblingMessage = true;
                         }
                         else
@@ -305,7 +399,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                         {
                             //Setup to catch the next data block
                             mDataUnitID = P25P1DataUnitID.PACKET_DATA_UNIT;
-                            mBinaryMessage = new CorrectedBinaryMessage(P25P1DataUnitID.PACKET_DATA_UNIT.getMessageLength());
+                            mBitVector.reset(P25P1DataUnitID.PACKET_DATA_UNIT.getMessageLength());
                             mAssemblingMessage = true;
                         }
                     }
@@ -333,7 +427,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                     else
                     {
                         updateBitsProcessed(messageLength);
-                        mBinaryMessage = new CorrectedBinaryMessage(messageLength);
+                        mBitVector.reset(messageLength);
                         if(mDataUnitID == P25P1DataUnitID.TRUNKING_SIGNALING_BLOCK_1)
                         {
                             mDataUnitID = P25P1DataUnitID.TRUNKING_SIGNALING_BLOCK_2;
@@ -407,8 +501,8 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
         mDataUnitID = dataUnitID;
         mNAC = nac;
         mCorrectedNID = correctedNid;
-        mBinaryMessage = new CorrectedBinaryMessage(dataUnitID.getMessageLength());
-        mBinaryMessage.incrementCorrectedBitCount(bitErrors);
+        mBitVector.reset(dataUnitID.getMessageLength());
+        mBitErrors = bitErrors;
 
         mAssemblingMessage = true;
         mStatusSymbolDibitCounter = 21;
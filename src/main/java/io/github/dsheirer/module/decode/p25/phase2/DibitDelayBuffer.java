@@ -22,7 +22,7 @@
 
 package io.github.dsheirer.module.decode.p25.phase2;
 
-import io.github.dsheirer.bits.BitSetFullException;
+import io.github.dsheirer.bits.BitVector;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.symbol.Dibit;
 import org.slf4j.Logger;
@@ -37,6 +37,7 @@ public class DibitDelayBuffer
 
     protected Dibit[] mBuffer;
     protected int mPointer;
+    private BitVector mBitVector;
 
     /**
      * Constructs a dibit delay buffer of the specified length
@@ -104,33 +105,31 @@ public class DibitDelayBuffer
      */
     public CorrectedBinaryMessage getMessage(int start, int dibitLength)
     {
-        CorrectedBinaryMessage message = new CorrectedBinaryMessage(dibitLength * 2);
+        if(mBitVector == null)
+        {
+            mBitVector = new BitVector(dibitLength * 2);
+        }
+        else
+        {
+            mBitVector.reset(dibitLength * 2);
+        }
 
         int dibitCount = 0;
         int bufferPointer = (mPointer + start) % mBuffer.length;
 
-        try
+        while(dibitCount < dibitLength)
         {
-            while(dibitCount < dibitLength)
+            Dibit dibit = mBuffer[bufferPointer++];
+            mBitVector.add(dibit.getBit1(), dibit.getBit2());
+            dibitCount++;
+
+            if(bufferPointer >= mBuffer.length)
             {
-                Dibit dibit = mBuffer[bufferPointer++];
-                message.add(dibit.getBit1());
-                message.add(dibit.getBit2());
-                dibitCount++;
-
-                if(bufferPointer >= mBuffer.length)
-                {
-                    bufferPointer = 0;
-                }
+                bufferPointer = 0;
             }
         }
-        catch(BitSetFullException e)
-        {
-            //This shouldn't happen
-            mLog.error("Bit set full ??", e);
-        }
 
-        return message;
+        return mBitVector.toCorrectedBinaryMessage();
     }
 
     public int[] getBufferAsArray()
@@ -23,6 +23,7 @@ import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.identifier.patch.PatchGroupManager;
 import io.github.dsheirer.log.ApplicationLog;
@@ -118,6 +119,32 @@ public class P25P2MessageFramer implements Listener<Dibit>
         mSuperFrameDetector.receive(dibit);
     }
 
+    /**
+     * Primary method for block-oriented streaming of decoded symbol dibits for message framing.
+     *
+     * @param block of dibits to process
+     */
+    public void receive(DibitBlock block)
+    {
+        byte[] dibits = block.getDibits();
+        int size = block.size();
+
+        for(int x = 0; x < size; x++)
+        {
+            mSuperFrameDetector.receive(DibitBlock.toDibit(dibits[x]));
+        }
+    }
+
+    /**
+     * Number of dibits that can be delivered to this framer in the next dibit block.
+     *
+     * @return block size limit, minimum of 1
+     */
+    public int getDibitBlockSizeLimit()
+    {
+        return mSuperFrameDetector.getDibitBlockSizeLimit();
+    }
+
     /**
      * Primary method for streaming decoded symbol byte arrays.
      *
@@ -185,6 +185,24 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
         return System.currentTimeMillis();
     }
 
+    /**
+     * Number of dibits that can be delivered to this detector in the next dibit block.  While not synchronized, the
+     * sync detector can apply a phase inversion correction to the phase locked loop, so dibits must be delivered one
+     * at a time.  While synchronized, the dibits up to the end of the current super frame fragment can be delivered in
+     * a single block.
+     *
+     * @return block size limit, minimum of 1
+     */
+    public int getDibitBlockSizeLimit()
+    {
+        if(mSynchronized)
+        {
+            return Math.max(FRAGMENT_DIBIT_LENGTH - mDibitsProcessed, 1);
+        }
+
+        return 1;
+    }
+
     @Override
     public void receive(Dibit dibit)
     {
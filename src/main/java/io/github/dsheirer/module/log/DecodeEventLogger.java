@@ -18,6 +18,7 @@
  */
 package io.github.dsheirer.module.log;
 
+import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.channel.IChannelDescriptor;
@@ -27,36 +28,35 @@ import io.github.dsheirer.identifier.IdentifierClass;
 import io.github.dsheirer.identifier.Role;
 import io.github.dsheirer.identifier.configuration.AliasListConfigurationIdentifier;
 import io.github.dsheirer.identifier.configuration.FrequencyConfigurationIdentifier;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.IDecodeEventListener;
 import io.github.dsheirer.preference.TimestampFormat;
+import io.github.dsheirer.protocol.Protocol;
 import io.github.dsheirer.sample.Listener;
 import java.nio.file.Path;
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.QuoteMode;
 
+/**
+ * Logs decode events to a CSV event log file.  The values for each CSV row are captured from the decode event on the
+ * calling thread, since decode events are updated as a call progresses, and the row is formatted on the event log
+ * writer thread.
+ *
+ * CSV rows use the standard CSV format (RFC 4180) and *always* quote cells since that's what SDR Trunk has done
+ * previously when hand-crafting CSV rows.  Rows are formatted directly into the writer's line builder to avoid
+ * per-event cell list and formatter allocations.
+ */
 public class DecodeEventLogger extends EventLogger implements IDecodeEventListener, Listener<IDecodeEvent>
 {
-    private SimpleDateFormat mTimestampFormat = TimestampFormat.TIMESTAMP_COLONS.getFormatter();
-    private DecimalFormat mFrequencyFormat = new DecimalFormat("0.000000");
-    private AliasList mAliasList;
+    private final DateTimeFormatter mTimestampFormatter = DateTimeFormatter
+        .ofPattern(TimestampFormat.TIMESTAMP_COLONS.getFormatter().toPattern()).withZone(ZoneId.systemDefault());
+    private long mTimestampSecond = Long.MIN_VALUE;
+    private String mTimestamp;
     private AliasModel mAliasModel;
 
-    /**
-     * The CSV format that SDR Trunk will use to write decode event logs
-     * <p>
-     * It uses the standard, default CSV format (RFC 4180 and permitting empty lines) but *always* quoting cells since
-     * that's what SDR Trunk has done previously when hand-crafting CSV rows.
-     */
-    private final CSVFormat mCsvFormat = CSVFormat.Builder.create(CSVFormat.DEFAULT)
-            .setQuoteMode(QuoteMode.ALL)
-            .build();
-
     public DecodeEventLogger(AliasModel aliasModel, Path logDirectory, String fileNameSuffix, long frequency)
     {
         super(logDirectory, fileNameSuffix, frequency);
@@ -66,7 +66,10 @@ public class DecodeEventLogger extends EventLogger implements IDecodeEventListen
     @Override
     public void receive(IDecodeEvent decodeEvent)
     {
-        write(toCSV(decodeEvent));
+        if(decodeEvent != null)
+        {
+            write(capture(decodeEvent));
+        }
     }
 
     @Override
@@ -91,87 +94,207 @@ public class DecodeEventLogger extends EventLogger implements IDecodeEventListen
         return "TIMESTAMP,DURATION_MS,PROTOCOL,EVENT,FROM,TO,CHANNEL_NUMBER,FREQUENCY,TIMESLOT,DETAILS,EVENT_ID";
     }
 
-    private String toCSV(IDecodeEvent event)
+    @Override
+    protected void format(Object eventLogEntry, StringBuilder line)
     {
-        List<Object> cells = new ArrayList<>();
-
-        cells.add(mTimestampFormat.format(new Date(event.getTimeStart())));
-        cells.add(event.getDuration() > 0 ? event.getDuration() : "");
-        cells.add(event.getProtocol());
-        cells.add(event.getEventType());
-
-        Identifier fromIdentifier = event.getIdentifierCollection().getFromIdentifier();
-        if(fromIdentifier != null)
+        if(eventLogEntry instanceof Row row)
         {
-            cells.add(fromIdentifier);
+            toCSV(row, line);
         }
         else
         {
-            cells.add("");
+            super.format(eventLogEntry, line);
         }
+    }
 
+    /**
+     * Captures the CSV row values from the decode event.
+     * @param event to capture
+     * @return row values
+     */
+    private Row capture(IDecodeEvent event)
+    {
+        Identifier fromIdentifier = event.getIdentifierCollection().getFromIdentifier();
         Identifier toIdentifier = event.getIdentifierCollection().getToIdentifier();
+        List<Alias> toAliases = null;
 
         if(toIdentifier != null)
         {
             Identifier identifier = event.getIdentifierCollection()
                 .getIdentifier(IdentifierClass.CONFIGURATION,Form.ALIAS_LIST,Role.ANY);
-            mAliasList = mAliasModel.getAliasList((AliasListConfigurationIdentifier)identifier);
+            AliasList aliasList = mAliasModel.getAliasList((AliasListConfigurationIdentifier)identifier);
 
-            if(mAliasList != null)
+            if(aliasList != null)
             {
-                String mystring = (!mAliasList.getAliases(toIdentifier).isEmpty()) ?
-                    mAliasList.getAliases(toIdentifier).toString() : "";
-                cells.add(mystring + " (" + toIdentifier + ")");
+                toAliases = List.copyOf(aliasList.getAliases(toIdentifier));
             }
             else
             {
-                cells.add("");
+                toIdentifier = null;
             }
         }
-        else
-        {
-            cells.add("");
-        }
 
         IChannelDescriptor descriptor = event.getChannelDescriptor();
-        cells.add(descriptor != null ? descriptor : "");
+        long frequency = 0;
+        boolean hasFrequency = false;
 
         if(descriptor != null)
         {
-            cells.add(mFrequencyFormat.format(descriptor.getDownlinkFrequency() / 1e6d));
+            frequency = descriptor.getDownlinkFrequency();
+            hasFrequency = true;
         }
         else
         {
-            Identifier frequency = event.getIdentifierCollection()
+            Identifier frequencyIdentifier = event.getIdentifierCollection()
                     .getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL_FREQUENCY, Role.ANY);
 
-            if(frequency instanceof FrequencyConfigurationIdentifier)
+            if(frequencyIdentifier instanceof FrequencyConfigurationIdentifier)
             {
-                cells.add(mFrequencyFormat
-                        .format(((FrequencyConfigurationIdentifier)frequency).getValue() / 1e6d));
-
+                frequency = ((FrequencyConfigurationIdentifier)frequencyIdentifier).getValue();
+                hasFrequency = true;
             }
-            else
+        }
+
+        String channel = descriptor != null ? descriptor.toString() : null;
+
+        return new Row(event.getTimeStart(), event.getDuration(), event.getProtocol(), event.getEventType(),
+            fromIdentifier, toIdentifier, toAliases, channel, frequency, hasFrequency, event.hasTimeslot(),
+            event.getTimeslot(), event.getDetails(), event.hashCode());
+    }
+
+    /**
+     * Formats the captured decode event values as a CSV row
+     * @param row to format
+     * @param sb to receive the CSV row
+     */
+    private void toCSV(Row row, StringBuilder sb)
+    {
+        appendCell(sb, getTimestamp(row.timestamp()), false);
+
+        sb.append(",\"");
+        if(row.duration() > 0)
+        {
+            sb.append(row.duration());
+        }
+        sb.append('"');
+
+        appendCell(sb, row.protocol(), true);
+        appendCell(sb, row.eventType(), true);
+        appendCell(sb, row.from(), true);
+
+        if(row.to() != null)
+        {
+            String aliases = !row.toAliases().isEmpty() ? row.toAliases().toString() : "";
+            appendCell(sb, aliases + " (" + row.to() + ")", true);
+        }
+        else
+        {
+            appendCell(sb, null, true);
+        }
+
+        appendCell(sb, row.channel(), true);
+
+        sb.append(",\"");
+        if(row.hasFrequency())
+        {
+            appendFrequency(sb, row.frequency());
+        }
+        sb.append('"');
+
+        sb.append(",\"");
+        if(row.hasTimeslot())
+        {
+            sb.append("TS:").append(row.timeslot());
+        }
+        sb.append('"');
+
+        appendCell(sb, row.details(), true);
+
+        sb.append(",\"").append(row.eventId()).append('"');
+    }
+
+    /**
+     * Appends the value as a quoted CSV cell, escaping any embedded quote characters.  Null values are appended as an
+     * empty quoted cell.
+     * @param sb to append to
+     * @param value to append
+     * @param delimit true to prefix the cell with a comma delimiter
+     */
+    private static void appendCell(StringBuilder sb, Object value, boolean delimit)
+    {
+        if(delimit)
+        {
+            sb.append(',');
+        }
+
+        sb.append('"');
+
+        if(value != null)
+        {
+            String text = value.toString();
+
+            for(int x = 0; x < text.length(); x++)
             {
-                cells.add("");
+                char c = text.charAt(x);
+
+                if(c == '"')
+                {
+                    sb.append('"');
+                }
+
+                sb.append(c);
             }
         }
 
-        if(event.hasTimeslot())
+        sb.append('"');
+    }
+
+    /**
+     * Appends the frequency in MHz with six decimal places.
+     * @param sb to append to
+     * @param frequency in Hertz
+     */
+    private static void appendFrequency(StringBuilder sb, long frequency)
+    {
+        if(frequency < 0)
         {
-            cells.add("TS:" + event.getTimeslot());
+            sb.append('-');
+            frequency = -frequency;
         }
-        else
+
+        sb.append(frequency / 1_000_000).append('.');
+
+        long hertz = frequency % 1_000_000;
+
+        for(long place = 100_000; place > 1 && hertz < place; place /= 10)
         {
-            cells.add("");
+            sb.append('0');
         }
 
-        String details = event.getDetails();
-        cells.add(details != null ? details : "");
+        sb.append(hertz);
+    }
+
+    /**
+     * Formatted timestamp, reusing the previously formatted value when the timestamp falls within the same second.
+     */
+    private String getTimestamp(long timestamp)
+    {
+        long second = Math.floorDiv(timestamp, 1000);
 
-        cells.add(event.hashCode());
+        if(second != mTimestampSecond)
+        {
+            mTimestampSecond = second;
+            mTimestamp = mTimestampFormatter.format(Instant.ofEpochMilli(timestamp));
+        }
 
-        return mCsvFormat.format(cells.toArray());
+        return mTimestamp;
     }
+
+    /**
+     * Immutable CSV row values captured from a decode event.  The channel descriptor is captured as text since the
+     * frequency band of a channel descriptor can be updated after the event is logged.
+     */
+    private record Row(long timestamp, long duration, Protocol protocol, DecodeEventType eventType, Identifier from,
+                       Identifier to, List<Alias> toAliases, String channel, long frequency,
+                       boolean hasFrequency, boolean hasTimeslot, int timeslot, String details, int eventId) {}
 }
@@ -0,0 +1,310 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log;
+
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.TimeStamp;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rolling event log file.  Lines are encoded into a pre-sized buffer and written to the file channel when the buffer
+ * fills or when the file is flushed.  The log is rotated to a new file once the current file exceeds the maximum size
+ * or the maximum age, and rotated files can optionally be gzip compressed.
+ *
+ * Note: this class is not thread safe and is intended to be accessed only by the event log writer thread.
+ */
+public class EventLogFile
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EventLogFile.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_LINE_CAPACITY = 1024;
+
+    private final Path mLogDirectory;
+    private final String mFileNameSuffix;
+    private final long mFrequency;
+    private final String mHeader;
+    private final long mMaxSizeBytes;
+    private final long mMaxAgeMs;
+    private final boolean mCompressRotated;
+    private final ByteBuffer mByteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder mEncoder = StandardCharsets.UTF_8.newEncoder();
+    private char[] mChars = new char[DEFAULT_LINE_CAPACITY];
+    private CharBuffer mCharBuffer = CharBuffer.wrap(mChars);
+    private FileChannel mFileChannel;
+    private Path mPath;
+    private long mFileSize;
+    private long mFileOpenedTimestamp;
+
+    /**
+     * Constructs an instance
+     * @param logDirectory for the log files
+     * @param fileNameSuffix to append to each log file name
+     * @param frequency of the channel to include in each log file name
+     * @param header to write at the start of each log file, or null
+     * @param maxSizeBytes maximum file size before rotating, or zero to disable size rotation
+     * @param maxAgeMs maximum file age before rotating, or zero to disable time rotation
+     * @param compressRotated true to gzip compress each file once it is rotated
+     */
+    public EventLogFile(Path logDirectory, String fileNameSuffix, long frequency, String header, long maxSizeBytes,
+                        long maxAgeMs, boolean compressRotated)
+    {
+        mLogDirectory = logDirectory;
+        mFileNameSuffix = fileNameSuffix;
+        mFrequency = frequency;
+        mHeader = header;
+        mMaxSizeBytes = maxSizeBytes;
+        mMaxAgeMs = maxAgeMs;
+        mCompressRotated = compressRotated;
+    }
+
+    /**
+     * Path of the current log file, or null if the log is not open.
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Opens a new log file and writes the header.
+     * @throws IOException if the file cannot be created
+     */
+    public void open() throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TimeStamp.getLongTimeStamp("_"));
+            sb.append("_");
+            sb.append(mFrequency);
+            sb.append("_Hz_");
+            sb.append(mFileNameSuffix);
+
+            Path path = mLogDirectory.resolve(sb.toString());
+
+            //Avoid overwriting a just-rotated log file that was created within the same second
+            int count = 1;
+            while(Files.exists(path))
+            {
+                path = mLogDirectory.resolve(sb.toString() + "." + count++);
+            }
+
+            mPath = path;
+            mFileChannel = FileChannel.open(mPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            mFileSize = 0;
+            mFileOpenedTimestamp = System.currentTimeMillis();
+
+            if(mHeader != null)
+            {
+                writeLine(mHeader);
+            }
+        }
+    }
+
+    /**
+     * Writes the line to the log, followed by a line feed.  Rotates the log file before writing when the current file
+     * has reached the maximum size or age.
+     * @param line to write
+     * @throws IOException if there is an error writing to the file
+     */
+    public void write(CharSequence line) throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            return;
+        }
+
+        if(isRotationRequired())
+        {
+            rotate();
+        }
+
+        writeLine(line);
+    }
+
+    /**
+     * Indicates if the current file has exceeded the maximum size or age.
+     */
+    private boolean isRotationRequired()
+    {
+        return (mMaxSizeBytes > 0 && mFileSize + mByteBuffer.position() >= mMaxSizeBytes) ||
+               (mMaxAgeMs > 0 && System.currentTimeMillis() - mFileOpenedTimestamp >= mMaxAgeMs);
+    }
+
+    /**
+     * Closes the current log file and opens a new log file.
+     */
+    private void rotate() throws IOException
+    {
+        close();
+        open();
+    }
+
+    /**
+     * Encodes the line and line feed into the byte buffer, draining the buffer to the file channel as needed.
+     */
+    private void writeLine(CharSequence line) throws IOException
+    {
+        int length = line.length() + 1;
+
+        if(mChars.length < length)
+        {
+            mChars = new char[Math.max(length, mChars.length * 2)];
+            mCharBuffer = CharBuffer.wrap(mChars);
+        }
+
+        if(line instanceof StringBuilder sb)
+        {
+            sb.getChars(0, line.length(), mChars, 0);
+        }
+        else
+        {
+            line.toString().getChars(0, line.length(), mChars, 0);
+        }
+
+        mChars[length - 1] = '\n';
+        mCharBuffer.clear().limit(length);
+        mEncoder.reset();
+
+        CoderResult result = mEncoder.encode(mCharBuffer, mByteBuffer, true);
+
+        while(result.isOverflow())
+        {
+            drain();
+            result = mEncoder.encode(mCharBuffer, mByteBuffer, true);
+        }
+    }
+
+    /**
+     * Writes the contents of the byte buffer to the file channel.
+     */
+    private void drain() throws IOException
+    {
+        mByteBuffer.flip();
+
+        while(mByteBuffer.hasRemaining())
+        {
+            mFileSize += mFileChannel.write(mByteBuffer);
+        }
+
+        mByteBuffer.clear();
+    }
+
+    /**
+     * Writes any buffered content to the file.
+     * @throws IOException if there is an error writing to the file
+     */
+    public void flush() throws IOException
+    {
+        if(mFileChannel != null && mByteBuffer.position() > 0)
+        {
+            drain();
+        }
+    }
+
+    /**
+     * Flushes and closes the current log file.  When rotation compression is enabled, the closed file is compressed
+     * on a background thread.
+     */
+    public void close()
+    {
+        if(mFileChannel != null)
+        {
+            try
+            {
+                flush();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error flushing event log file [" + mPath + "]", ioe);
+            }
+
+            try
+            {
+                mFileChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing event log file [" + mPath + "]", ioe);
+            }
+
+            mFileChannel = null;
+            mByteBuffer.clear();
+
+            if(mCompressRotated)
+            {
+                Path path = mPath;
+                ThreadPool.CACHED.execute(() -> compress(path));
+            }
+        }
+    }
+
+    /**
+     * Compresses the log file to a gzip file and deletes the original file.
+     * @param path of the file to compress
+     */
+    private static void compress(Path path)
+    {
+        Path compressed = path.resolveSibling(path.getFileName().toString() + ".gz");
+
+        try(InputStream in = Files.newInputStream(path);
+            OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE))
+        {
+            in.transferTo(out);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error compressing event log file [" + path + "]", ioe);
+
+            try
+            {
+                Files.deleteIfExists(compressed);
+            }
+            catch(IOException ioe2)
+            {
+                //Do nothing
+            }
+
+            return;
+        }
+
+        try
+        {
+            Files.delete(path);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error deleting event log file [" + path + "] after compression", ioe);
+        }
+    }
+}
@@ -22,8 +22,10 @@ package io.github.dsheirer.module.log;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.log.archive.MessageArchiveRecorder;
 import io.github.dsheirer.module.log.config.EventLogConfiguration;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.event.EventLogPreference;
 import io.github.dsheirer.source.config.SourceConfigTuner;
 import io.github.dsheirer.util.StringUtils;
 import org.slf4j.Logger;
@@ -32,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class EventLogManager
 {
@@ -77,6 +80,18 @@ public class EventLogManager
                         loggers.add(getLogger(type, prefix, frequency));
                     }
                     break;
+                case MESSAGE_ARCHIVE:
+                    if(channel.getChannelType() == Channel.ChannelType.STANDARD)
+                    {
+                        loggers.add(getMessageArchiveRecorder(type, prefix, frequency));
+                    }
+                    break;
+                case TRAFFIC_MESSAGE_ARCHIVE:
+                    if(channel.getChannelType() == Channel.ChannelType.TRAFFIC)
+                    {
+                        loggers.add(getMessageArchiveRecorder(type, prefix, frequency));
+                    }
+                    break;
             }
         }
 
@@ -93,18 +108,45 @@ public class EventLogManager
 
         Path eventLogDirectory = mUserPreferences.getDirectoryPreference().getDirectoryEventLog();
 
+        EventLogger logger;
+
         switch(eventLogType)
         {
             case CALL_EVENT:
-                return new DecodeEventLogger(mAliasModel, eventLogDirectory, sb.toString(), frequency);
+                logger = new DecodeEventLogger(mAliasModel, eventLogDirectory, sb.toString(), frequency);
+                break;
             case DECODED_MESSAGE:
-                return new MessageEventLogger(eventLogDirectory, sb.toString(), MessageEventLogger.Type.DECODED, frequency);
+                logger = new MessageEventLogger(eventLogDirectory, sb.toString(), MessageEventLogger.Type.DECODED,
+                    frequency);
+                break;
             case TRAFFIC_CALL_EVENT:
-                return new DecodeEventLogger(mAliasModel, eventLogDirectory, sb.toString(), frequency);
+                logger = new DecodeEventLogger(mAliasModel, eventLogDirectory, sb.toString(), frequency);
+                break;
             case TRAFFIC_DECODED_MESSAGE:
-                return new MessageEventLogger(eventLogDirectory, sb.toString(), MessageEventLogger.Type.DECODED, frequency);
+                logger = new MessageEventLogger(eventLogDirectory, sb.toString(), MessageEventLogger.Type.DECODED,
+                    frequency);
+                break;
             default:
                 return null;
         }
+
+        EventLogPreference preference = mUserPreferences.getEventLogPreference();
+        logger.setRotation(preference.getRotationSizeMB() * 1024L * 1024L,
+            TimeUnit.HOURS.toMillis(preference.getRotationIntervalHours()), preference.isCompressRotated());
+
+        return logger;
+    }
+
+    /**
+     * Creates a binary message archive recorder
+     * @param eventLogType for the archive
+     * @param prefix for the archive file name
+     * @param frequency of the channel
+     * @return recorder
+     */
+    public MessageArchiveRecorder getMessageArchiveRecorder(EventLogType eventLogType, String prefix, long frequency)
+    {
+        Path eventLogDirectory = mUserPreferences.getDirectoryPreference().getDirectoryEventLog();
+        return new MessageArchiveRecorder(eventLogDirectory, prefix + eventLogType.getFileSuffix(), frequency);
     }
 }
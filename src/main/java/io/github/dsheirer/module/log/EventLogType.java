@@ -29,7 +29,9 @@ public enum EventLogType
     DECODED_MESSAGE( "Decoded Messages", "_decoded_messages" ),
     TRAFFIC_DECODED_MESSAGE( "Traffic Channel Decoded Messages", "_decoded_messages" ),
     CALL_EVENT( "Call Events", "_call_events" ),
-    TRAFFIC_CALL_EVENT( "Traffic Channel Call Events", "_call_events" );
+    TRAFFIC_CALL_EVENT( "Traffic Channel Call Events", "_call_events" ),
+    MESSAGE_ARCHIVE( "Binary Message Archive", "_message_archive" ),
+    TRAFFIC_MESSAGE_ARCHIVE( "Traffic Channel Binary Message Archive", "_message_archive" );
 
     private String mDisplayString;
     private String mFileSuffix;
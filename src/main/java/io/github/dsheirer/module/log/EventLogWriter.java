@@ -0,0 +1,205 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-wide asynchronous event log writer.  Event loggers enqueue unformatted, immutable log entries that are
+ * captured on the calling thread and a single, dedicated writer thread drains the queue in batches, formats each
+ * entry, writes it to the target log file and flushes each log file that was updated once per batch.  This keeps
+ * formatting and file I/O off of the decoder threads.
+ *
+ * The queue is bounded.  When the writer falls behind and the queue is full, new log entries are discarded and a
+ * warning is logged, rather than blocking the decoder thread.
+ */
+public class EventLogWriter implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EventLogWriter.class);
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final int BATCH_SIZE = 512;
+    private static final long POLL_TIMEOUT_MS = 1000;
+    private static final Object CLOSE = new Object();
+    private static EventLogWriter sInstance;
+
+    private final BlockingQueue<Entry> mQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Entry> mBatch = new ArrayList<>(BATCH_SIZE);
+    private final List<EventLogFile> mUpdatedFiles = new ArrayList<>();
+    private final StringBuilder mLineBuilder = new StringBuilder(1024);
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    /**
+     * Constructs an instance and starts the writer thread.
+     */
+    private EventLogWriter()
+    {
+        Thread thread = new NamingThreadFactory("sdrtrunk event log writer").newThread(this);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shared writer instance, created on first access.
+     */
+    public static synchronized EventLogWriter getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new EventLogWriter();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Enqueues the entry to be formatted by the logger and written to the log file on the writer thread.
+     * @param logFile to receive the formatted entry
+     * @param logger to format the entry
+     * @param entry to format and write.  The entry must be immutable, since it is formatted on the writer thread.
+     */
+    public void write(EventLogFile logFile, EventLogger logger, Object entry)
+    {
+        if(!mQueue.offer(new Entry(logFile, logger, entry)))
+        {
+            long dropped = mDroppedCount.incrementAndGet();
+
+            if(dropped == 1 || dropped % 1000 == 0)
+            {
+                mLog.warn("Event log writer queue is full - discarded [" + dropped + "] log entries");
+            }
+        }
+    }
+
+    /**
+     * Enqueues a request to close the log file once all previously enqueued entries for the file have been written.
+     * This method blocks if the queue is full so that the close request is never discarded.
+     * @param logFile to close
+     */
+    public void close(EventLogFile logFile)
+    {
+        try
+        {
+            mQueue.put(new Entry(logFile, null, CLOSE));
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            mLog.warn("Interrupted while closing event log file [" + logFile.getPath() + "]");
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        while(true)
+        {
+            try
+            {
+                Entry first = mQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+                if(first != null)
+                {
+                    mBatch.add(first);
+                    mQueue.drainTo(mBatch, BATCH_SIZE - 1);
+
+                    for(Entry entry: mBatch)
+                    {
+                        process(entry);
+                    }
+
+                    mBatch.clear();
+
+                    for(EventLogFile logFile: mUpdatedFiles)
+                    {
+                        try
+                        {
+                            logFile.flush();
+                        }
+                        catch(IOException ioe)
+                        {
+                            mLog.error("Error flushing event log file [" + logFile.getPath() + "]", ioe);
+                        }
+                    }
+
+                    mUpdatedFiles.clear();
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                return;
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error in event log writer", t);
+                mBatch.clear();
+                mUpdatedFiles.clear();
+            }
+        }
+    }
+
+    /**
+     * Formats and writes the entry, or closes the log file for a close request.
+     */
+    private void process(Entry entry)
+    {
+        EventLogFile logFile = entry.logFile();
+
+        if(entry.item() == CLOSE)
+        {
+            mUpdatedFiles.remove(logFile);
+            logFile.close();
+            return;
+        }
+
+        mLineBuilder.setLength(0);
+
+        try
+        {
+            entry.logger().format(entry.item(), mLineBuilder);
+            logFile.write(mLineBuilder);
+
+            if(!mUpdatedFiles.contains(logFile))
+            {
+                mUpdatedFiles.add(logFile);
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing entry to event log file [" + logFile.getPath() + "]", ioe);
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error formatting entry for event log file [" + logFile.getPath() + "]", e);
+        }
+    }
+
+    /**
+     * Queued log entry or close request
+     */
+    private record Entry(EventLogFile logFile, EventLogger logger, Object item) {}
+}
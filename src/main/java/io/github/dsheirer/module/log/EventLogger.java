@@ -19,25 +19,26 @@
 package io.github.dsheirer.module.log;
 
 import io.github.dsheirer.module.Module;
-import io.github.dsheirer.util.TimeStamp;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.IOException;
 import java.nio.file.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Base event logger.  Log entries are enqueued with the shared event log writer and are formatted and written to a
+ * rolling event log file on the writer thread.
+ */
 public abstract class EventLogger extends Module
 {
     private final static Logger mLog = LoggerFactory.getLogger(EventLogger.class);
 
     private Path mLogDirectory;
     private String mFileNameSuffix;
-    private String mLogFileName;
     private long mFrequency;
-    protected Writer mLogFile;
+    private long mMaxSizeBytes;
+    private long mMaxAgeMs;
+    private boolean mCompressRotated;
+    private EventLogFile mLogFile;
 
     public EventLogger(Path logDirectory, String fileNameSuffix, long frequency)
     {
@@ -48,9 +49,11 @@ public abstract class EventLogger extends Module
 
     public String toString()
     {
-        if(mLogFileName != null)
+        EventLogFile logFile = mLogFile;
+
+        if(logFile != null && logFile.getPath() != null)
         {
-            return mLogFileName;
+            return logFile.getPath().toString();
         }
         else
         {
@@ -60,28 +63,33 @@ public abstract class EventLogger extends Module
 
     public abstract String getHeader();
 
+    /**
+     * Sets the log file rotation settings.  Changes are applied the next time that this logger is started.
+     * @param maxSizeBytes maximum log file size before rotating, or zero to disable size rotation
+     * @param maxAgeMs maximum log file age before rotating, or zero to disable time rotation
+     * @param compressRotated true to gzip compress each log file once it is rotated or closed
+     */
+    public void setRotation(long maxSizeBytes, long maxAgeMs, boolean compressRotated)
+    {
+        mMaxSizeBytes = maxSizeBytes;
+        mMaxAgeMs = maxAgeMs;
+        mCompressRotated = compressRotated;
+    }
+
     @Override
     public void start()
     {
         if(mLogFile == null)
         {
+            EventLogFile logFile = new EventLogFile(mLogDirectory, mFileNameSuffix, mFrequency, getHeader(),
+                mMaxSizeBytes, mMaxAgeMs, mCompressRotated);
+
             try
             {
-                StringBuilder sb = new StringBuilder();
-                sb.append(mLogDirectory);
-                sb.append(File.separator);
-                sb.append(TimeStamp.getLongTimeStamp("_"));
-                sb.append("_");
-                sb.append(mFrequency);
-                sb.append("_Hz_");
-                sb.append(mFileNameSuffix);
-
-                mLogFileName = sb.toString();
-                mLogFile = new OutputStreamWriter(new FileOutputStream(mLogFileName));
-
-                write(getHeader());
+                logFile.open();
+                mLogFile = logFile;
             }
-            catch(FileNotFoundException e)
+            catch(IOException e)
             {
                 mLog.error("Couldn't create log file in directory:" + mLogDirectory);
             }
@@ -92,32 +100,33 @@ public abstract class EventLogger extends Module
     {
         if(mLogFile != null)
         {
-            try
-            {
-                mLogFile.flush();
-                mLogFile.close();
-                mLogFile = null;
-            }
-            catch(Exception e)
-            {
-                mLog.error("Couldn't close log file:" + mFileNameSuffix);
-            }
+            EventLogWriter.getInstance().close(mLogFile);
+            mLogFile = null;
         }
     }
 
-    protected void write(String eventLogEntry)
+    /**
+     * Enqueues the log entry to be formatted and written to the log file on the event log writer thread.
+     * @param eventLogEntry to log.  The entry must be immutable, since it is formatted on the writer thread.
+     */
+    protected void write(Object eventLogEntry)
     {
-        try
-        {
-            if(mLogFile != null)
-            {
-                mLogFile.write((eventLogEntry != null ? eventLogEntry : "") + "\n");
-                mLogFile.flush();
-            }
-        }
-        catch(Exception e)
+        EventLogFile logFile = mLogFile;
+
+        if(logFile != null && eventLogEntry != null)
         {
-            mLog.error("Error writing entry to event log file", e);
+            EventLogWriter.getInstance().write(logFile, this, eventLogEntry);
         }
     }
+
+    /**
+     * Formats the log entry into the line builder.  This method is invoked on the event log writer thread.  Subclasses
+     * that enqueue unformatted entries should override this method.
+     * @param eventLogEntry to format
+     * @param line builder to receive the formatted entry, without a trailing line feed
+     */
+    protected void format(Object eventLogEntry, StringBuilder line)
+    {
+        line.append(eventLogEntry);
+    }
 }
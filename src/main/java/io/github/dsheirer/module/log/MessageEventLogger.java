@@ -20,10 +20,15 @@ package io.github.dsheirer.module.log;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.util.TimeStamp;
-
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
+/**
+ * Logs messages to an event log file.  The message timestamp, validity and text are captured on the calling thread and
+ * the log entry is formatted on the event log writer thread.
+ */
 public class MessageEventLogger extends EventLogger implements IMessageListener, Listener<IMessage>
 {
     public enum Type
@@ -31,6 +36,10 @@ public class MessageEventLogger extends EventLogger implements IMessageListener,
         BINARY, DECODED
     }
 
+    private final DateTimeFormatter mTimestampFormatter = DateTimeFormatter.ofPattern("yyyyMMdd HHmmss")
+        .withZone(ZoneId.systemDefault());
+    private long mTimestampSecond = Long.MIN_VALUE;
+    private String mTimestamp;
     private Type mType;
 
     public MessageEventLogger(Path logDirectory, String fileNameSuffix, Type type, long frequency)
@@ -53,14 +62,43 @@ public class MessageEventLogger extends EventLogger implements IMessageListener,
     @Override
     public void receive(IMessage message)
     {
-        StringBuilder sb = new StringBuilder();
-        sb.append(TimeStamp.getTimeStamp(message.getTimestamp(), " "));
-        sb.append(",");
-        sb.append((message.isValid() ? "PASSED" : "FAILED"));
-        sb.append(",");
-        sb.append(message.toString());
+        if(message != null)
+        {
+            write(new Entry(message.getTimestamp(), message.isValid(), message.toString()));
+        }
+    }
+
+    @Override
+    protected void format(Object eventLogEntry, StringBuilder line)
+    {
+        if(eventLogEntry instanceof Entry entry)
+        {
+            line.append(getTimestamp(entry.timestamp()));
+            line.append(",");
+            line.append((entry.valid() ? "PASSED" : "FAILED"));
+            line.append(",");
+            line.append(entry.message());
+        }
+        else
+        {
+            super.format(eventLogEntry, line);
+        }
+    }
+
+    /**
+     * Formatted timestamp, reusing the previously formatted value when the timestamp falls within the same second.
+     */
+    private String getTimestamp(long timestamp)
+    {
+        long second = Math.floorDiv(timestamp, 1000);
 
-        write(sb.toString());
+        if(second != mTimestampSecond)
+        {
+            mTimestampSecond = second;
+            mTimestamp = mTimestampFormatter.format(Instant.ofEpochMilli(timestamp));
+        }
+
+        return mTimestamp;
     }
 
     @Override
@@ -68,4 +106,9 @@ public class MessageEventLogger extends EventLogger implements IMessageListener,
     {
         return mType.toString() + " Message Logger\n";
     }
+
+    /**
+     * Immutable message values captured for a log entry.
+     */
+    private record Entry(long timestamp, boolean valid, String message) {}
 }
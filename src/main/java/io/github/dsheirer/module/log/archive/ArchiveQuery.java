@@ -0,0 +1,225 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.protocol.Protocol;
+
+/**
+ * Message archive query criteria.  Create a query using the builder.
+ */
+public class ArchiveQuery
+{
+    private long mStart = Long.MIN_VALUE;
+    private long mEnd = Long.MAX_VALUE;
+    private int mTalkgroup = MessageArchiveWriter.NO_VALUE;
+    private int mRadio = MessageArchiveWriter.NO_VALUE;
+    private Protocol mProtocol;
+    private boolean mIncludeMessages = true;
+    private boolean mIncludeDecodeEvents = true;
+    private int mLimit = Integer.MAX_VALUE;
+
+    private ArchiveQuery()
+    {
+    }
+
+    /**
+     * Start of the query time range in milliseconds since epoch (inclusive)
+     */
+    public long getStart()
+    {
+        return mStart;
+    }
+
+    /**
+     * End of the query time range in milliseconds since epoch (inclusive)
+     */
+    public long getEnd()
+    {
+        return mEnd;
+    }
+
+    /**
+     * Talkgroup to match, or MessageArchiveWriter.NO_VALUE to match any talkgroup
+     */
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Indicates if this query matches on talkgroup
+     */
+    public boolean hasTalkgroup()
+    {
+        return mTalkgroup != MessageArchiveWriter.NO_VALUE;
+    }
+
+    /**
+     * Radio to match as either the FROM or the TO radio, or MessageArchiveWriter.NO_VALUE to match any radio
+     */
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Indicates if this query matches on radio
+     */
+    public boolean hasRadio()
+    {
+        return mRadio != MessageArchiveWriter.NO_VALUE;
+    }
+
+    /**
+     * Protocol to match, or null to match any protocol
+     */
+    public Protocol getProtocol()
+    {
+        return mProtocol;
+    }
+
+    /**
+     * Indicates if messages should be included in the results
+     */
+    public boolean isIncludeMessages()
+    {
+        return mIncludeMessages;
+    }
+
+    /**
+     * Indicates if decode events should be included in the results
+     */
+    public boolean isIncludeDecodeEvents()
+    {
+        return mIncludeDecodeEvents;
+    }
+
+    /**
+     * Maximum number of results
+     */
+    public int getLimit()
+    {
+        return mLimit;
+    }
+
+    /**
+     * Indicates if the time range overlaps the range of minimum to maximum.
+     */
+    public boolean overlaps(long minimum, long maximum)
+    {
+        return minimum <= mEnd && maximum >= mStart;
+    }
+
+    /**
+     * Creates a new builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Builder for a message archive query
+     */
+    public static class Builder
+    {
+        private final ArchiveQuery mQuery = new ArchiveQuery();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Restricts results to the time range
+         * @param start in milliseconds since epoch (inclusive)
+         * @param end in milliseconds since epoch (inclusive)
+         * @return this builder
+         */
+        public Builder timeRange(long start, long end)
+        {
+            mQuery.mStart = start;
+            mQuery.mEnd = end;
+            return this;
+        }
+
+        /**
+         * Restricts results to entries with the talkgroup
+         */
+        public Builder talkgroup(int talkgroup)
+        {
+            mQuery.mTalkgroup = talkgroup;
+            return this;
+        }
+
+        /**
+         * Restricts results to entries with the radio as either the FROM or the TO radio
+         */
+        public Builder radio(int radio)
+        {
+            mQuery.mRadio = radio;
+            return this;
+        }
+
+        /**
+         * Restricts results to entries with the protocol
+         */
+        public Builder protocol(Protocol protocol)
+        {
+            mQuery.mProtocol = protocol;
+            return this;
+        }
+
+        /**
+         * Restricts results to messages only
+         */
+        public Builder messagesOnly()
+        {
+            mQuery.mIncludeMessages = true;
+            mQuery.mIncludeDecodeEvents = false;
+            return this;
+        }
+
+        /**
+         * Restricts results to decode events only
+         */
+        public Builder decodeEventsOnly()
+        {
+            mQuery.mIncludeMessages = false;
+            mQuery.mIncludeDecodeEvents = true;
+            return this;
+        }
+
+        /**
+         * Limits the number of results.  When the limit is reached, the earliest results are returned.
+         */
+        public Builder limit(int limit)
+        {
+            mQuery.mLimit = Math.max(limit, 0);
+            return this;
+        }
+
+        /**
+         * Builds the query
+         */
+        public ArchiveQuery build()
+        {
+            return mQuery;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
+import io.github.dsheirer.protocol.Protocol;
+
+/**
+ * Decoded message or decode event entry read from a message archive.
+ *
+ * @param timestamp of the message or the start of the decode event
+ * @param type of entry
+ * @param valid flag from the message.  Decode events are always valid.
+ * @param protocol for the entry, or null if the archived protocol is not recognized
+ * @param timeslot for the entry
+ * @param talkgroup for the entry, or MessageArchiveWriter.NO_VALUE
+ * @param fromRadio for the entry, or MessageArchiveWriter.NO_VALUE
+ * @param toRadio for the entry, or MessageArchiveWriter.NO_VALUE
+ * @param eventType for a decode event entry, otherwise null
+ * @param duration for a decode event entry in milliseconds, otherwise 0
+ * @param details for a decode event entry, otherwise null
+ * @param bits of the raw message for a message entry, or null if the message bits were not available
+ */
+public record ArchiveRecord(long timestamp, Type type, boolean valid, Protocol protocol, int timeslot, int talkgroup,
+                            int fromRadio, int toRadio, DecodeEventType eventType, long duration, String details,
+                            CorrectedBinaryMessage bits)
+{
+    /**
+     * Archive entry types
+     */
+    public enum Type
+    {
+        MESSAGE,
+        DECODE_EVENT;
+    }
+
+    /**
+     * Indicates if this entry has a talkgroup value
+     */
+    public boolean hasTalkgroup()
+    {
+        return talkgroup != MessageArchiveWriter.NO_VALUE;
+    }
+
+    /**
+     * Indicates if this entry has a FROM radio value
+     */
+    public boolean hasFromRadio()
+    {
+        return fromRadio != MessageArchiveWriter.NO_VALUE;
+    }
+
+    /**
+     * Indicates if this entry has a TO radio value
+     */
+    public boolean hasToRadio()
+    {
+        return toRadio != MessageArchiveWriter.NO_VALUE;
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
+import io.github.dsheirer.protocol.Protocol;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query reader for the binary message archives in a directory.
+ *
+ * The block indexes of each archive are loaded into memory and are incrementally refreshed on each query so that
+ * archives that are still being written can be queried.  A query only reads the archive blocks whose time range
+ * overlaps the query and whose talkgroup and radio index values contain the queried values, and only decodes the
+ * payloads of matching entries.
+ */
+public class MessageArchiveReader
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageArchiveReader.class);
+    private final Path mDirectory;
+    private final Map<Path,Archive> mArchives = new HashMap<>();
+
+    /**
+     * Constructs an instance
+     * @param directory containing message archive files
+     */
+    public MessageArchiveReader(Path directory)
+    {
+        mDirectory = directory;
+    }
+
+    /**
+     * Finds all archived entries that match the query.
+     * @param query criteria
+     * @return matching entries, ordered by timestamp
+     * @throws IOException if there is an error reading the archive directory
+     */
+    public synchronized List<ArchiveRecord> query(ArchiveQuery query) throws IOException
+    {
+        refresh();
+
+        List<ArchiveRecord> results = new ArrayList<>();
+
+        for(Archive archive: mArchives.values())
+        {
+            try
+            {
+                archive.query(query, results);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error querying message archive [" + archive.mDataPath + "]", ioe);
+            }
+        }
+
+        results.sort(Comparator.comparingLong(ArchiveRecord::timestamp));
+
+        if(results.size() > query.getLimit())
+        {
+            return new ArrayList<>(results.subList(0, query.getLimit()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Discovers new archives in the directory and loads any new index entries for each archive.
+     */
+    private void refresh() throws IOException
+    {
+        if(!Files.isDirectory(mDirectory))
+        {
+            return;
+        }
+
+        try(Stream<Path> paths = Files.list(mDirectory))
+        {
+            paths.filter(path -> path.getFileName().toString().endsWith(MessageArchiveWriter.INDEX_FILE_EXTENSION))
+                .forEach(indexPath -> {
+                    String name = indexPath.getFileName().toString();
+                    String base = name.substring(0, name.length() - MessageArchiveWriter.INDEX_FILE_EXTENSION.length());
+                    Path dataPath = indexPath.resolveSibling(base + MessageArchiveWriter.DATA_FILE_EXTENSION);
+
+                    if(!mArchives.containsKey(indexPath) && Files.exists(dataPath))
+                    {
+                        mArchives.put(indexPath, new Archive(dataPath, indexPath));
+                    }
+                });
+        }
+
+        for(Archive archive: mArchives.values())
+        {
+            try
+            {
+                archive.refresh();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error loading message archive index [" + archive.mIndexPath + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Single archive with an in-memory block index
+     */
+    private static class Archive
+    {
+        private final Path mDataPath;
+        private final Path mIndexPath;
+        private final List<BlockIndex> mBlocks = new ArrayList<>();
+        private long mIndexPosition = -1;
+        private Protocol[] mProtocols;
+        private DecodeEventType[] mEventTypes;
+
+        public Archive(Path dataPath, Path indexPath)
+        {
+            mDataPath = dataPath;
+            mIndexPath = indexPath;
+        }
+
+        /**
+         * Loads the data file dictionaries on first access and any index entries appended since the last refresh.
+         */
+        public void refresh() throws IOException
+        {
+            if(mProtocols == null)
+            {
+                readDictionaries();
+            }
+
+            try(FileChannel channel = FileChannel.open(mIndexPath, StandardOpenOption.READ))
+            {
+                if(mIndexPosition < 0)
+                {
+                    ByteBuffer header = read(channel, 0, 8);
+
+                    if(header.remaining() < 8 || header.getInt() != MessageArchiveWriter.INDEX_FILE_MAGIC)
+                    {
+                        throw new IOException("Unrecognized message archive index file");
+                    }
+
+                    checkVersion(header.getInt());
+                    mIndexPosition = 8;
+                }
+
+                long available = channel.size() - mIndexPosition;
+
+                if(available <= 0)
+                {
+                    return;
+                }
+
+                ByteBuffer buffer = read(channel, mIndexPosition, (int)Math.min(available, Integer.MAX_VALUE));
+
+                //Only consume complete index entries - the writer may be appending the next entry
+                while(buffer.remaining() >= 36)
+                {
+                    int start = buffer.position();
+                    long offset = buffer.getLong();
+                    int length = buffer.getInt();
+                    int count = buffer.getInt();
+                    long minimum = buffer.getLong();
+                    long maximum = buffer.getLong();
+                    int[] talkgroups = getValues(buffer);
+                    int[] radios = talkgroups != null ? getValues(buffer) : null;
+
+                    if(radios == null)
+                    {
+                        buffer.position(start);
+                        break;
+                    }
+
+                    mBlocks.add(new BlockIndex(offset, length, count, minimum, maximum, talkgroups, radios));
+                }
+
+                mIndexPosition += buffer.position();
+            }
+        }
+
+        /**
+         * Reads the protocol and decode event type dictionaries from the data file header and maps each archived
+         * ordinal to the current enumeration entry.
+         */
+        private void readDictionaries() throws IOException
+        {
+            try(FileChannel channel = FileChannel.open(mDataPath, StandardOpenOption.READ))
+            {
+                ByteBuffer header = read(channel, 0, (int)Math.min(channel.size(), 16 * 1024));
+
+                if(header.remaining() < 8 || header.getInt() != MessageArchiveWriter.DATA_FILE_MAGIC)
+                {
+                    throw new IOException("Unrecognized message archive data file");
+                }
+
+                checkVersion(header.getInt());
+
+                mProtocols = new Protocol[header.getInt()];
+                for(int x = 0; x < mProtocols.length; x++)
+                {
+                    mProtocols[x] = lookup(Protocol.class, getString(header));
+                }
+
+                mEventTypes = new DecodeEventType[header.getInt()];
+                for(int x = 0; x < mEventTypes.length; x++)
+                {
+                    mEventTypes[x] = lookup(DecodeEventType.class, getString(header));
+                }
+            }
+        }
+
+        /**
+         * Adds matching entries from this archive to the results
+         */
+        public void query(ArchiveQuery query, List<ArchiveRecord> results) throws IOException
+        {
+            if(mProtocols == null)
+            {
+                return;
+            }
+
+            FileChannel channel = null;
+
+            try
+            {
+                for(BlockIndex block: mBlocks)
+                {
+                    if(block.matches(query))
+                    {
+                        if(channel == null)
+                        {
+                            channel = FileChannel.open(mDataPath, StandardOpenOption.READ);
+                        }
+
+                        readBlock(channel, block, query, results);
+                    }
+                }
+            }
+            finally
+            {
+                if(channel != null)
+                {
+                    channel.close();
+                }
+            }
+        }
+
+        /**
+         * Reads the block and adds the matching entries to the results.
+         */
+        private void readBlock(FileChannel channel, BlockIndex index, ArchiveQuery query,
+                               List<ArchiveRecord> results) throws IOException
+        {
+            ByteBuffer block = read(channel, index.offset(), index.length());
+
+            if(block.remaining() < index.length() || block.getInt() != MessageArchiveWriter.BLOCK_MAGIC)
+            {
+                throw new IOException("Invalid message archive block at offset " + index.offset());
+            }
+
+            int count = block.getInt();
+            long baseTimestamp = block.getLong();
+            block.getInt(); //Payload length
+
+            int timestampColumn = MessageArchiveWriter.BLOCK_HEADER_SIZE;
+            int typeColumn = timestampColumn + count * 4;
+            int protocolColumn = typeColumn + count;
+            int timeslotColumn = protocolColumn + count;
+            int talkgroupColumn = timeslotColumn + count;
+            int fromRadioColumn = talkgroupColumn + count * 4;
+            int toRadioColumn = fromRadioColumn + count * 4;
+            int eventTypeColumn = toRadioColumn + count * 4;
+            int payloadEndColumn = eventTypeColumn + count * 2;
+            int payloadColumn = payloadEndColumn + count * 4;
+
+            for(int x = 0; x < count; x++)
+            {
+                long timestamp = baseTimestamp + block.getInt(timestampColumn + x * 4);
+
+                if(timestamp < query.getStart() || timestamp > query.getEnd())
+                {
+                    continue;
+                }
+
+                int talkgroup = block.getInt(talkgroupColumn + x * 4);
+
+                if(query.hasTalkgroup() && talkgroup != query.getTalkgroup())
+                {
+                    continue;
+                }
+
+                int fromRadio = block.getInt(fromRadioColumn + x * 4);
+                int toRadio = block.getInt(toRadioColumn + x * 4);
+
+                if(query.hasRadio() && fromRadio != query.getRadio() && toRadio != query.getRadio())
+                {
+                    continue;
+                }
+
+                byte type = block.get(typeColumn + x);
+                boolean isEvent = (type & 0x0F) == MessageArchiveWriter.TYPE_DECODE_EVENT;
+
+                if(isEvent ? !query.isIncludeDecodeEvents() : !query.isIncludeMessages())
+                {
+                    continue;
+                }
+
+                Protocol protocol = get(mProtocols, block.get(protocolColumn + x));
+
+                if(query.getProtocol() != null && query.getProtocol() != protocol)
+                {
+                    continue;
+                }
+
+                int timeslot = block.get(timeslotColumn + x);
+                boolean valid = (type & MessageArchiveWriter.FLAG_VALID) == MessageArchiveWriter.FLAG_VALID;
+                int payloadStart = payloadColumn + (x == 0 ? 0 : block.getInt(payloadEndColumn + (x - 1) * 4));
+                int payloadEnd = payloadColumn + block.getInt(payloadEndColumn + x * 4);
+
+                if(isEvent)
+                {
+                    long duration = block.getLong(payloadStart);
+                    String details = new String(block.array(), payloadStart + 8, payloadEnd - payloadStart - 8,
+                        StandardCharsets.UTF_8);
+                    DecodeEventType eventType = get(mEventTypes, block.getShort(eventTypeColumn + x * 2));
+                    results.add(new ArchiveRecord(timestamp, ArchiveRecord.Type.DECODE_EVENT, valid, protocol,
+                        timeslot, talkgroup, fromRadio, toRadio, eventType, duration, details, null));
+                }
+                else
+                {
+                    CorrectedBinaryMessage bits = null;
+
+                    if(payloadEnd > payloadStart)
+                    {
+                        int size = block.getInt(payloadStart);
+                        long[] words = new long[(payloadEnd - payloadStart - 4) / 8];
+
+                        for(int y = 0; y < words.length; y++)
+                        {
+                            words[y] = block.getLong(payloadStart + 4 + y * 8);
+                        }
+
+                        bits = new CorrectedBinaryMessage(BitSet.valueOf(words), size);
+                    }
+
+                    results.add(new ArchiveRecord(timestamp, ArchiveRecord.Type.MESSAGE, valid, protocol, timeslot,
+                        talkgroup, fromRadio, toRadio, null, 0, null, bits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Block index entry
+     */
+    private record BlockIndex(long offset, int length, int count, long minimum, long maximum, int[] talkgroups,
+                              int[] radios)
+    {
+        /**
+         * Indicates if the block may contain entries that match the query
+         */
+        public boolean matches(ArchiveQuery query)
+        {
+            return query.overlaps(minimum, maximum) &&
+                (!query.hasTalkgroup() || Arrays.binarySearch(talkgroups, query.getTalkgroup()) >= 0) &&
+                (!query.hasRadio() || Arrays.binarySearch(radios, query.getRadio()) >= 0);
+        }
+    }
+
+    /**
+     * Verifies that the archive file version is supported by this reader
+     * @throws IOException if the version is not supported
+     */
+    private static void checkVersion(int version) throws IOException
+    {
+        if(version != MessageArchiveWriter.VERSION)
+        {
+            throw new IOException("Unsupported message archive version [" + version + "]");
+        }
+    }
+
+    /**
+     * Reads a count prefixed int array from the buffer
+     * @return values or null if the buffer does not contain the complete array
+     */
+    private static int[] getValues(ByteBuffer buffer)
+    {
+        if(buffer.remaining() < 4)
+        {
+            return null;
+        }
+
+        int count = buffer.getInt();
+
+        if(count < 0 || buffer.remaining() < count * 4L)
+        {
+            return null;
+        }
+
+        int[] values = new int[count];
+
+        for(int x = 0; x < count; x++)
+        {
+            values[x] = buffer.getInt();
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads up to length bytes from the channel at the position
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer, position + buffer.position()) < 0)
+            {
+                break;
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads a length prefixed UTF-8 string
+     */
+    private static String getString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the enumeration entry with the name, or null if the entry doesn't exist in the current release.
+     */
+    private static <E extends Enum<E>> E lookup(Class<E> type, String name)
+    {
+        try
+        {
+            return Enum.valueOf(type, name);
+        }
+        catch(IllegalArgumentException iae)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Array value for the archived ordinal, or null if the ordinal is out of range
+     */
+    private static <T> T get(T[] values, int ordinal)
+    {
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.message.IMessageListener;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEventListener;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.heartbeat.HeartbeatManager;
+import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.StringUtils;
+import io.github.dsheirer.util.TimeStamp;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Channel module that records decoded messages and decode events to a binary message archive.  Messages and captured
+ * decode event values are queued on the decoder thread and written to the archive on a dispatcher thread.  The
+ * dispatcher heartbeat writes the current archive block once it expires, so that the entries from a quiet channel
+ * are visible to readers and are not lost if the application stops unexpectedly.
+ */
+public class MessageArchiveRecorder extends Module implements IMessageListener, IDecodeEventListener
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageArchiveRecorder.class);
+    private HeartbeatManager mHeartbeatManager = new HeartbeatManager();
+    private Dispatcher<Object> mDispatcher = new Dispatcher<>("sdrtrunk message archive", 250, mHeartbeatManager);
+    private AtomicBoolean mRunning = new AtomicBoolean();
+    private Path mDirectory;
+    private String mFileNameSuffix;
+    private long mFrequency;
+    private MessageArchiveWriter mWriter;
+
+    /**
+     * Constructs an instance
+     * @param directory for the archive files
+     * @param fileNameSuffix to append to the archive file name
+     * @param frequency of the channel to include in the archive file name
+     */
+    public MessageArchiveRecorder(Path directory, String fileNameSuffix, long frequency)
+    {
+        mDirectory = directory;
+        mFileNameSuffix = fileNameSuffix;
+        mFrequency = frequency;
+        mDispatcher.setListener(this::write);
+        mHeartbeatManager.addHeartbeatListener(heartbeat -> flushExpired());
+    }
+
+    @Override
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TimeStamp.getLongTimeStamp("_"));
+            sb.append("_");
+            sb.append(mFrequency);
+            sb.append("_Hz_");
+            sb.append(mFileNameSuffix);
+
+            MessageArchiveWriter writer = new MessageArchiveWriter(mDirectory
+                .resolve(StringUtils.replaceIllegalCharacters(sb.toString())));
+
+            try
+            {
+                writer.open();
+
+                synchronized(this)
+                {
+                    mWriter = writer;
+                }
+
+                mDispatcher.start();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error creating message archive [" + writer.getDataPath() + "]", ioe);
+            }
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            mDispatcher.stop();
+
+            synchronized(this)
+            {
+                if(mWriter != null)
+                {
+                    try
+                    {
+                        mWriter.close();
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("Error closing message archive [" + mWriter.getDataPath() + "]", ioe);
+                    }
+
+                    mWriter = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    /**
+     * Writes the message or captured decode event to the archive.  Invoked on the dispatcher thread.
+     */
+    private synchronized void write(Object entry)
+    {
+        if(mWriter != null)
+        {
+            try
+            {
+                if(entry instanceof IMessage message)
+                {
+                    mWriter.write(message);
+                }
+                else if(entry instanceof MessageArchiveWriter.DecodeEventEntry event)
+                {
+                    mWriter.write(event);
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing to message archive [" + mWriter.getDataPath() + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Writes the current archive block if it has expired.  Invoked on the dispatcher thread.
+     */
+    private synchronized void flushExpired()
+    {
+        if(mWriter != null)
+        {
+            try
+            {
+                mWriter.flushExpired(System.currentTimeMillis());
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing to message archive [" + mWriter.getDataPath() + "]", ioe);
+            }
+        }
+    }
+
+    @Override
+    public Listener<IMessage> getMessageListener()
+    {
+        return mDispatcher::receive;
+    }
+
+    @Override
+    public Listener<IDecodeEvent> getDecodeEventListener()
+    {
+        return event -> mDispatcher.receive(MessageArchiveWriter.DecodeEventEntry.capture(event));
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifier;
+import io.github.dsheirer.message.AbstractMessage;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.protocol.Protocol;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only writer for a binary message archive.  Each archive consists of a data file and an index file.
+ *
+ * Data file: a header containing the protocol and decode event type name dictionaries, followed by blocks of
+ * entries.  Each block stores its entries in fixed-width columns (timestamp offset, entry type, protocol, timeslot,
+ * talkgroup, FROM radio, TO radio and event type) followed by a variable length payload column containing the raw
+ * message bits or the decode event duration and details.  A reader can filter a block on the fixed columns and only
+ * decode the payloads of the matching entries.
+ *
+ * Index file: one entry per block with the block offset and length, the block time range and the sorted, distinct
+ * talkgroup values and the sorted, distinct FROM and TO radio values contained in the block.  Index entries are
+ * appended after the block is written so that a concurrent reader never observes an index entry for an incomplete
+ * block.
+ *
+ * A block is written once it contains the maximum number of entries, once the block spans the maximum block
+ * duration, when the block was started more than the maximum block duration ago (flushExpired), or when the archive
+ * is closed.
+ *
+ * Note: this class is not thread safe.
+ */
+public class MessageArchiveWriter
+{
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    public static final String DATA_FILE_EXTENSION = ".archive";
+    public static final String INDEX_FILE_EXTENSION = ".archive.idx";
+
+    static final int DATA_FILE_MAGIC = 0x53445241; //SDRA
+    static final int INDEX_FILE_MAGIC = 0x53445249; //SDRI
+    static final int BLOCK_MAGIC = 0x424C4B30; //BLK0
+    static final int VERSION = 2;
+    static final int BLOCK_HEADER_SIZE = 20;
+    static final int FIXED_COLUMN_BYTES_PER_ENTRY = 4 + 1 + 1 + 1 + 4 + 4 + 4 + 2 + 4;
+    static final byte TYPE_MESSAGE = 0;
+    static final byte TYPE_DECODE_EVENT = 1;
+    static final byte FLAG_VALID = 0x10;
+    static final int MAX_BLOCK_ENTRIES = 1024;
+    static final long MAX_BLOCK_DURATION_MS = 60_000;
+
+    private final Path mDataPath;
+    private final Path mIndexPath;
+    private FileChannel mDataChannel;
+    private FileChannel mIndexChannel;
+    private long mDataPosition;
+
+    private final int[] mTimestampOffsets = new int[MAX_BLOCK_ENTRIES];
+    private final byte[] mTypes = new byte[MAX_BLOCK_ENTRIES];
+    private final byte[] mProtocols = new byte[MAX_BLOCK_ENTRIES];
+    private final byte[] mTimeslots = new byte[MAX_BLOCK_ENTRIES];
+    private final int[] mTalkgroups = new int[MAX_BLOCK_ENTRIES];
+    private final int[] mFromRadios = new int[MAX_BLOCK_ENTRIES];
+    private final int[] mToRadios = new int[MAX_BLOCK_ENTRIES];
+    private final short[] mEventTypes = new short[MAX_BLOCK_ENTRIES];
+    private final int[] mPayloadEnds = new int[MAX_BLOCK_ENTRIES];
+    private ByteBuffer mPayload = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer mBlockBuffer = ByteBuffer.allocate(128 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private int mCount;
+    private long mBaseTimestamp;
+    private long mMinTimestamp;
+    private long mMaxTimestamp;
+    private long mBlockStarted;
+
+    /**
+     * Constructs an instance
+     * @param basePath for the archive files, without file extension
+     */
+    public MessageArchiveWriter(Path basePath)
+    {
+        mDataPath = basePath.resolveSibling(basePath.getFileName() + DATA_FILE_EXTENSION);
+        mIndexPath = basePath.resolveSibling(basePath.getFileName() + INDEX_FILE_EXTENSION);
+    }
+
+    /**
+     * Path of the archive data file
+     */
+    public Path getDataPath()
+    {
+        return mDataPath;
+    }
+
+    /**
+     * Creates the archive files and writes the file headers.
+     * @throws IOException if the files cannot be created
+     */
+    public void open() throws IOException
+    {
+        if(mDataChannel != null)
+        {
+            return;
+        }
+
+        mDataChannel = FileChannel.open(mDataPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        mIndexChannel = FileChannel.open(mIndexPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(16 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(DATA_FILE_MAGIC);
+        header.putInt(VERSION);
+        header.putInt(Protocol.values().length);
+        for(Protocol protocol: Protocol.values())
+        {
+            putString(header, protocol.name());
+        }
+        header.putInt(DecodeEventType.values().length);
+        for(DecodeEventType eventType: DecodeEventType.values())
+        {
+            putString(header, eventType.name());
+        }
+        header.flip();
+        mDataPosition = writeFully(mDataChannel, header, 0);
+
+        ByteBuffer indexHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        indexHeader.putInt(INDEX_FILE_MAGIC);
+        indexHeader.putInt(VERSION);
+        indexHeader.flip();
+        writeFully(mIndexChannel, indexHeader, 0);
+        mCount = 0;
+    }
+
+    /**
+     * Adds the message to the archive
+     * @param message to archive
+     * @throws IOException if there is an error writing a completed block
+     */
+    public void write(IMessage message) throws IOException
+    {
+        byte type = (byte)(TYPE_MESSAGE | (message.isValid() ? FLAG_VALID : 0));
+        int index = prepare(message.getTimestamp());
+
+        if(index < 0)
+        {
+            return;
+        }
+
+        if(message instanceof AbstractMessage abstractMessage && abstractMessage.getMessage() != null)
+        {
+            BinaryMessage bits = abstractMessage.getMessage();
+            long[] words = bits.toLongArray();
+            ensurePayloadCapacity(4 + words.length * 8);
+            mPayload.putInt(bits.size());
+
+            for(long word: words)
+            {
+                mPayload.putLong(word);
+            }
+        }
+
+        add(index, message.getTimestamp(), type, message.getProtocol(), message.getTimeslot(),
+            message.getIdentifiers(), (short)-1);
+    }
+
+    /**
+     * Adds the decode event to the archive.  The decode event values are captured on the calling thread.
+     * @param event to archive
+     * @throws IOException if there is an error writing a completed block
+     */
+    public void write(IDecodeEvent event) throws IOException
+    {
+        write(DecodeEventEntry.capture(event));
+    }
+
+    /**
+     * Adds the captured decode event values to the archive
+     * @param entry to archive
+     * @throws IOException if there is an error writing a completed block
+     */
+    public void write(DecodeEventEntry entry) throws IOException
+    {
+        int index = prepare(entry.timestamp());
+
+        if(index < 0)
+        {
+            return;
+        }
+
+        byte[] details = entry.details() != null ? entry.details().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ensurePayloadCapacity(8 + details.length);
+        mPayload.putLong(entry.duration());
+        mPayload.put(details);
+
+        short eventType = (short)(entry.eventType() != null ? entry.eventType().ordinal() : -1);
+        add(index, entry.timestamp(), (byte)(TYPE_DECODE_EVENT | FLAG_VALID), entry.protocol(), entry.timeslot(),
+            entry.identifiers(), eventType);
+    }
+
+    /**
+     * Writes the current block when a new entry with the timestamp can't be added to the current block.
+     * @return index for the new entry or -1 if the archive is closed.
+     */
+    private int prepare(long timestamp) throws IOException
+    {
+        if(mDataChannel == null)
+        {
+            return -1;
+        }
+
+        if(mCount > 0 && (mCount >= MAX_BLOCK_ENTRIES || Math.abs(timestamp - mBaseTimestamp) > MAX_BLOCK_DURATION_MS))
+        {
+            flush();
+        }
+
+        if(mCount == 0)
+        {
+            mBlockStarted = System.currentTimeMillis();
+            mBaseTimestamp = timestamp;
+            mMinTimestamp = timestamp;
+            mMaxTimestamp = timestamp;
+            mPayload.clear();
+        }
+
+        return mCount;
+    }
+
+    /**
+     * Adds the fixed column values for the entry at the index.  The entry payload must already be loaded.
+     */
+    private void add(int index, long timestamp, byte type, Protocol protocol, int timeslot,
+                     List<Identifier> identifiers, short eventType)
+    {
+        int talkgroup = NO_VALUE;
+        int fromRadio = NO_VALUE;
+        int toRadio = NO_VALUE;
+
+        for(Identifier identifier: identifiers)
+        {
+            if(identifier instanceof IntegerIdentifier integerIdentifier && integerIdentifier.getValue() != null)
+            {
+                if(identifier.getForm() == Form.TALKGROUP && identifier.getRole() == Role.TO && talkgroup == NO_VALUE)
+                {
+                    talkgroup = integerIdentifier.getValue();
+                }
+                else if(identifier.getForm() == Form.RADIO)
+                {
+                    if(identifier.getRole() == Role.FROM && fromRadio == NO_VALUE)
+                    {
+                        fromRadio = integerIdentifier.getValue();
+                    }
+                    else if(identifier.getRole() == Role.TO && toRadio == NO_VALUE)
+                    {
+                        toRadio = integerIdentifier.getValue();
+                    }
+                }
+            }
+        }
+
+        mTimestampOffsets[index] = (int)(timestamp - mBaseTimestamp);
+        mTypes[index] = type;
+        mProtocols[index] = (byte)(protocol != null ? protocol.ordinal() : -1);
+        mTimeslots[index] = (byte)timeslot;
+        mTalkgroups[index] = talkgroup;
+        mFromRadios[index] = fromRadio;
+        mToRadios[index] = toRadio;
+        mEventTypes[index] = eventType;
+        mPayloadEnds[index] = mPayload.position();
+        mMinTimestamp = Math.min(mMinTimestamp, timestamp);
+        mMaxTimestamp = Math.max(mMaxTimestamp, timestamp);
+        mCount++;
+    }
+
+    /**
+     * Ensures the payload buffer can accept the additional number of bytes.
+     */
+    private void ensurePayloadCapacity(int additional)
+    {
+        if(mPayload.remaining() < additional)
+        {
+            int capacity = Math.max(mPayload.capacity() * 2, mPayload.position() + additional);
+            ByteBuffer expanded = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            mPayload.flip();
+            expanded.put(mPayload);
+            mPayload = expanded;
+        }
+    }
+
+    /**
+     * Writes the current block when the block was started more than the maximum block duration before the current
+     * time, so that the entries from a quiet channel are visible to readers without waiting for a later entry.
+     * @param now current system time in milliseconds
+     * @throws IOException if there is an error writing to the archive files
+     */
+    public void flushExpired(long now) throws IOException
+    {
+        if(mCount > 0 && now - mBlockStarted > MAX_BLOCK_DURATION_MS)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the current block and the block index entry.
+     * @throws IOException if there is an error writing to the archive files
+     */
+    public void flush() throws IOException
+    {
+        if(mDataChannel == null || mCount == 0)
+        {
+            return;
+        }
+
+        int payloadLength = mPayload.position();
+        int blockLength = BLOCK_HEADER_SIZE + (mCount * FIXED_COLUMN_BYTES_PER_ENTRY) + payloadLength;
+
+        if(mBlockBuffer.capacity() < blockLength)
+        {
+            mBlockBuffer = ByteBuffer.allocate(blockLength).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        ByteBuffer block = mBlockBuffer.clear();
+        block.putInt(BLOCK_MAGIC);
+        block.putInt(mCount);
+        block.putLong(mBaseTimestamp);
+        block.putInt(payloadLength);
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putInt(mTimestampOffsets[x]);
+        }
+        block.put(mTypes, 0, mCount);
+        block.put(mProtocols, 0, mCount);
+        block.put(mTimeslots, 0, mCount);
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putInt(mTalkgroups[x]);
+        }
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putInt(mFromRadios[x]);
+        }
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putInt(mToRadios[x]);
+        }
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putShort(mEventTypes[x]);
+        }
+        for(int x = 0; x < mCount; x++)
+        {
+            block.putInt(mPayloadEnds[x]);
+        }
+        block.put(mPayload.array(), 0, payloadLength);
+        block.flip();
+
+        long blockOffset = mDataPosition;
+        mDataPosition += writeFully(mDataChannel, block, blockOffset);
+
+        int[] talkgroups = getDistinctValues(mTalkgroups, mCount);
+        int[] radios = new int[mCount * 2];
+        System.arraycopy(mFromRadios, 0, radios, 0, mCount);
+        System.arraycopy(mToRadios, 0, radios, mCount, mCount);
+        radios = getDistinctValues(radios, radios.length);
+
+        ByteBuffer index = ByteBuffer.allocate(40 + (talkgroups.length + radios.length) * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        index.putLong(blockOffset);
+        index.putInt(blockLength);
+        index.putInt(mCount);
+        index.putLong(mMinTimestamp);
+        index.putLong(mMaxTimestamp);
+        index.putInt(talkgroups.length);
+        for(int talkgroup: talkgroups)
+        {
+            index.putInt(talkgroup);
+        }
+        index.putInt(radios.length);
+        for(int radio: radios)
+        {
+            index.putInt(radio);
+        }
+        index.flip();
+        writeFully(mIndexChannel, index, mIndexChannel.size());
+
+        mCount = 0;
+        mPayload.clear();
+    }
+
+    /**
+     * Writes any pending entries and closes the archive files.
+     * @throws IOException if there is an error writing or closing the archive files
+     */
+    public void close() throws IOException
+    {
+        if(mDataChannel != null)
+        {
+            try
+            {
+                flush();
+            }
+            finally
+            {
+                mDataChannel.close();
+                mIndexChannel.close();
+                mDataChannel = null;
+                mIndexChannel = null;
+            }
+        }
+    }
+
+    /**
+     * Sorted, distinct values from the array, excluding the NO_VALUE flag value.
+     */
+    private static int[] getDistinctValues(int[] values, int count)
+    {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+
+        int distinct = 0;
+
+        for(int x = 0; x < count; x++)
+        {
+            if(sorted[x] != NO_VALUE && (distinct == 0 || sorted[distinct - 1] != sorted[x]))
+            {
+                sorted[distinct++] = sorted[x];
+            }
+        }
+
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * Writes the string as a length prefixed UTF-8 value
+     */
+    private static void putString(ByteBuffer buffer, String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short)bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the buffer contents to the channel at the position.
+     * @return number of bytes written
+     */
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        int written = 0;
+
+        while(buffer.hasRemaining())
+        {
+            written += channel.write(buffer, position + written);
+        }
+
+        return written;
+    }
+
+    /**
+     * Decode event values captured when the decode event is received, since decode events are updated as a call
+     * progresses and the archive is written on a different thread.
+     *
+     * @param timestamp of the start of the decode event
+     * @param duration of the decode event in milliseconds
+     * @param details of the decode event
+     * @param eventType of the decode event
+     * @param protocol of the decode event
+     * @param timeslot of the decode event
+     * @param identifiers of the decode event
+     */
+    public record DecodeEventEntry(long timestamp, long duration, String details, DecodeEventType eventType,
+                                   Protocol protocol, int timeslot, List<Identifier> identifiers)
+    {
+        /**
+         * Captures the current values of the decode event.
+         * @param event to capture
+         * @return captured values
+         */
+        public static DecodeEventEntry capture(IDecodeEvent event)
+        {
+            return new DecodeEventEntry(event.getTimeStart(), event.getDuration(), event.getDetails(),
+                event.getEventType(), event.getProtocol(), event.getTimeslot(),
+                List.copyOf(event.getIdentifierCollection().getIdentifiers()));
+        }
+    }
+}
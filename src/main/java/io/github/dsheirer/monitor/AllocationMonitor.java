@@ -0,0 +1,424 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Diagnostic allocation profiler that attributes heap allocation rates to application threads (tuner, channelizer,
+ * decoder, audio, etc.) and to the processing chain modules that receive sample buffers.  Uses the per-thread
+ * allocated bytes accounting of the HotSpot thread management bean and logs a report at a fixed interval.
+ *
+ * Module accounting wraps each module's sample buffer listener and measures the bytes allocated by the current thread
+ * while the module processes a buffer.  Allocation by downstream modules that are invoked on the same call is
+ * subtracted so that each module is only charged for its own allocation.
+ *
+ * Only one monitor can be active.  Module listeners are only wrapped while a monitor is active, so channels that are
+ * started before the monitor is started are not profiled at the module level.
+ */
+public class AllocationMonitor
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AllocationMonitor.class);
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+    private static final int REPORT_LIMIT = 25;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    private static final Pattern THREAD_NUMBER_SUFFIX = Pattern.compile(" thread \\d+$|-\\d+$");
+    private static volatile AllocationMonitor sActive;
+
+    private final com.sun.management.ThreadMXBean mThreadMXBean;
+    private final Map<String,ModuleAccount> mModuleAccounts = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> mNestedAllocation = ThreadLocal.withInitial(() -> new long[1]);
+    private Map<Long,Long> mThreadAllocatedBytes = new HashMap<>();
+    private ScheduledFuture<?> mReportHandle;
+    private long mLastReportTimestamp;
+    private volatile boolean mRunning;
+
+    /**
+     * Constructs an instance
+     * @throws IllegalStateException if thread allocation accounting is not supported by the JVM
+     */
+    public AllocationMonitor()
+    {
+        if(!isSupported())
+        {
+            throw new IllegalStateException("Thread allocated bytes accounting is not supported by this JVM");
+        }
+
+        mThreadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    }
+
+    /**
+     * Indicates if the JVM supports per-thread allocated bytes accounting.
+     */
+    public static boolean isSupported()
+    {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+            bean.isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * Wraps the listener to account for the allocation of the module while it processes each element, when an
+     * allocation monitor is active.  Wrapped listeners are equal to other wrappers of the same listener, so that a
+     * wrapper created for deregistration will remove the wrapper that was registered.
+     *
+     * @param listener of the module
+     * @param channelName for the channel that the module belongs to
+     * @param module that owns the listener
+     * @return wrapped listener, or the original listener if no allocation monitor is active.
+     */
+    public static <T> Listener<T> track(Listener<T> listener, String channelName, Object module)
+    {
+        AllocationMonitor monitor = sActive;
+
+        if(monitor == null || listener == null)
+        {
+            return listener;
+        }
+
+        return new TrackingListener<>(monitor, listener, monitor.getAccount(channelName,
+            module.getClass().getSimpleName()));
+    }
+
+    /**
+     * Creates a key that is equal to any tracking wrapper of the listener, for deregistering a listener that may have
+     * been wrapped via track().
+     * @param listener that may have been wrapped
+     * @return tracking key, or null if the listener is null
+     */
+    public static <T> Listener<T> getTrackingKey(Listener<T> listener)
+    {
+        return listener != null ? new TrackingListener<>(null, listener, null) : null;
+    }
+
+    /**
+     * Removes the module accounts for the channel from the active allocation monitor, when the channel's processing
+     * chain is disposed.
+     * @param channelName for the channel that the modules belong to
+     */
+    public static void release(String channelName)
+    {
+        AllocationMonitor monitor = sActive;
+
+        if(monitor != null && channelName != null)
+        {
+            monitor.mModuleAccounts.values().removeIf(account -> account.getChannel().equals(channelName));
+        }
+    }
+
+    /**
+     * Starts thread allocation accounting and periodic reporting and enables module accounting for processing chain
+     * modules that are registered after this monitor is started.
+     */
+    public void start()
+    {
+        if(!mRunning)
+        {
+            mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+            mRunning = true;
+            sActive = this;
+            mThreadAllocatedBytes = getThreadAllocatedBytes(new HashMap<>());
+            mLastReportTimestamp = System.nanoTime();
+            mReportHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::report, REPORT_INTERVAL_SECONDS,
+                REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            LOGGER.info("Allocation profiling enabled - reporting every " + REPORT_INTERVAL_SECONDS + " seconds");
+        }
+    }
+
+    /**
+     * Stops reporting and module accounting and discards the module accounts.
+     */
+    public void stop()
+    {
+        if(mRunning)
+        {
+            mRunning = false;
+
+            if(sActive == this)
+            {
+                sActive = null;
+            }
+
+            if(mReportHandle != null)
+            {
+                mReportHandle.cancel(false);
+                mReportHandle = null;
+            }
+
+            mModuleAccounts.clear();
+        }
+    }
+
+    /**
+     * Logs an allocation report for the interval since the previous report.
+     */
+    private void report()
+    {
+        try
+        {
+            LOGGER.info(getReport());
+        }
+        catch(Throwable t)
+        {
+            LOGGER.error("Error generating allocation profiling report", t);
+        }
+    }
+
+    /**
+     * Creates an allocation report for the interval since the previous report and resets the interval.
+     */
+    public synchronized String getReport()
+    {
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max((now - mLastReportTimestamp) / 1E9, 0.001);
+        mLastReportTimestamp = now;
+
+        //Thread allocation, grouped by thread name with the thread number suffix removed
+        Map<Long,String> threadNames = new HashMap<>();
+        Map<Long,Long> current = getThreadAllocatedBytes(threadNames);
+        Map<String,Long> threadGroups = new HashMap<>();
+        long total = 0;
+
+        for(Map.Entry<Long,Long> entry: current.entrySet())
+        {
+            Long previous = mThreadAllocatedBytes.get(entry.getKey());
+            long delta = entry.getValue() - (previous != null ? previous : 0);
+
+            if(delta > 0)
+            {
+                String group = THREAD_NUMBER_SUFFIX.matcher(threadNames.get(entry.getKey())).replaceFirst("");
+                threadGroups.merge(group, delta, Long::sum);
+                total += delta;
+            }
+        }
+
+        mThreadAllocatedBytes = current;
+
+        //Module allocation, by module type and by channel module
+        Map<String,Long> moduleTypes = new TreeMap<>();
+        Map<String,Long> channelModules = new HashMap<>();
+
+        for(ModuleAccount account: mModuleAccounts.values())
+        {
+            long delta = account.getIntervalBytes();
+
+            if(delta > 0)
+            {
+                moduleTypes.merge(account.getModule(), delta, Long::sum);
+                channelModules.put(account.getChannel() + " " + account.getModule(), delta);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Allocation profile for the last ").append((int)Math.round(elapsedSeconds)).append(" seconds - ");
+        sb.append("total ").append(formatRate(total, elapsedSeconds));
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        sb.append(" heap used ").append(String.format("%.1f", heap.getUsed() / BYTES_PER_MEGABYTE));
+        sb.append(" of ").append(String.format("%.1f MB", heap.getCommitted() / BYTES_PER_MEGABYTE)).append('\n');
+        append(sb, "Threads", threadGroups, elapsedSeconds);
+        append(sb, "Module Types", moduleTypes, elapsedSeconds);
+        append(sb, "Channel Modules", channelModules, elapsedSeconds);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the largest allocation rate entries to the report.
+     */
+    private static void append(StringBuilder sb, String title, Map<String,Long> allocations, double elapsedSeconds)
+    {
+        sb.append("  ").append(title).append(":\n");
+
+        if(allocations.isEmpty())
+        {
+            sb.append("    none\n");
+            return;
+        }
+
+        List<Map.Entry<String,Long>> entries = new ArrayList<>(allocations.entrySet());
+        entries.sort(Map.Entry.<String,Long>comparingByValue().reversed());
+
+        for(int x = 0; x < entries.size() && x < REPORT_LIMIT; x++)
+        {
+            Map.Entry<String,Long> entry = entries.get(x);
+            sb.append("    ").append(String.format("%12s", formatRate(entry.getValue(), elapsedSeconds)));
+            sb.append("  ").append(entry.getKey()).append('\n');
+        }
+
+        if(entries.size() > REPORT_LIMIT)
+        {
+            sb.append("    ... ").append(entries.size() - REPORT_LIMIT).append(" more\n");
+        }
+    }
+
+    /**
+     * Formats the allocation rate in megabytes per second.
+     */
+    private static String formatRate(long bytes, double elapsedSeconds)
+    {
+        return String.format("%.2f MB/s", bytes / BYTES_PER_MEGABYTE / elapsedSeconds);
+    }
+
+    /**
+     * Current allocated bytes for each live thread.
+     * @param threadNames map to receive the name of each thread
+     * @return map of thread ID to allocated bytes
+     */
+    private Map<Long,Long> getThreadAllocatedBytes(Map<Long,String> threadNames)
+    {
+        long[] ids = mThreadMXBean.getAllThreadIds();
+        long[] allocated = mThreadMXBean.getThreadAllocatedBytes(ids);
+        ThreadInfo[] infos = mThreadMXBean.getThreadInfo(ids);
+        Map<Long,Long> threadAllocatedBytes = new HashMap<>();
+
+        for(int x = 0; x < ids.length; x++)
+        {
+            //Threads that have terminated have a null thread info and an allocated bytes value of -1
+            if(infos[x] != null && allocated[x] >= 0)
+            {
+                threadAllocatedBytes.put(ids[x], allocated[x]);
+                threadNames.put(ids[x], infos[x].getThreadName());
+            }
+        }
+
+        return threadAllocatedBytes;
+    }
+
+    /**
+     * Account for the module within the channel
+     */
+    private ModuleAccount getAccount(String channel, String module)
+    {
+        return mModuleAccounts.computeIfAbsent(channel + "|" + module, key -> new ModuleAccount(channel, module));
+    }
+
+    /**
+     * Allocation accumulator for a module within a channel.
+     */
+    private static class ModuleAccount
+    {
+        private final String mChannel;
+        private final String mModule;
+        private final LongAdder mAllocatedBytes = new LongAdder();
+        private long mReportedBytes;
+
+        public ModuleAccount(String channel, String module)
+        {
+            mChannel = channel;
+            mModule = module;
+        }
+
+        public String getChannel()
+        {
+            return mChannel;
+        }
+
+        public String getModule()
+        {
+            return mModule;
+        }
+
+        public void add(long bytes)
+        {
+            mAllocatedBytes.add(bytes);
+        }
+
+        /**
+         * Bytes allocated since the previous invocation of this method.
+         */
+        public long getIntervalBytes()
+        {
+            long allocated = mAllocatedBytes.sum();
+            long delta = allocated - mReportedBytes;
+            mReportedBytes = allocated;
+            return delta;
+        }
+    }
+
+    /**
+     * Listener wrapper that charges the allocation of the current thread while the wrapped listener processes each
+     * element to the module account, excluding allocation by nested tracking listeners.
+     */
+    private static class TrackingListener<T> implements Listener<T>
+    {
+        private final AllocationMonitor mMonitor;
+        private final Listener<T> mListener;
+        private final ModuleAccount mAccount;
+
+        public TrackingListener(AllocationMonitor monitor, Listener<T> listener, ModuleAccount account)
+        {
+            mMonitor = monitor;
+            mListener = listener;
+            mAccount = account;
+        }
+
+        @Override
+        public void receive(T t)
+        {
+            if(!mMonitor.mRunning)
+            {
+                mListener.receive(t);
+                return;
+            }
+
+            //Nested holds the allocation by tracking listeners that are invoked while this listener is processing
+            long[] nested = mMonitor.mNestedAllocation.get();
+            long outerNested = nested[0];
+            nested[0] = 0;
+            long start = mMonitor.mThreadMXBean.getCurrentThreadAllocatedBytes();
+
+            try
+            {
+                mListener.receive(t);
+            }
+            finally
+            {
+                long allocated = mMonitor.mThreadMXBean.getCurrentThreadAllocatedBytes() - start;
+                mAccount.add(allocated - nested[0]);
+                nested[0] = outerNested + allocated;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof TrackingListener<?> other && other.mListener == mListener;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(mListener);
+        }
+    }
+}
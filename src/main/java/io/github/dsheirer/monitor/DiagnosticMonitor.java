@@ -61,6 +61,7 @@ public class DiagnosticMonitor
     private boolean mUserAlertedToBlockedThreadCondition = false;
     private Map<Integer,Integer> mBlockedThreadDetectionCountMap = new HashMap<>();
     private boolean mHeadless;
+    private AllocationMonitor mAllocationMonitor;
 
     /**
      * Constructs an instance
@@ -97,6 +98,19 @@ public class DiagnosticMonitor
         {
             LOGGER.info("Diagnostic monitoring disabled per user preference (application).");
         }
+
+        if(mUserPreferences.getApplicationPreference().isAllocationProfiling() && mAllocationMonitor == null)
+        {
+            if(AllocationMonitor.isSupported())
+            {
+                mAllocationMonitor = new AllocationMonitor();
+                mAllocationMonitor.start();
+            }
+            else
+            {
+                LOGGER.warn("Allocation profiling is enabled but is not supported by this JVM");
+            }
+        }
     }
 
     /**
@@ -110,6 +124,12 @@ public class DiagnosticMonitor
         }
 
         mBlockedThreadMonitorHandle = null;
+
+        if(mAllocationMonitor != null)
+        {
+            mAllocationMonitor.stop();
+            mAllocationMonitor = null;
+        }
     }
 
     /**
@@ -186,8 +206,11 @@ public class DiagnosticMonitor
         sb.append(DIVIDER);
         sb.append(mChannelProcessingManager.getDiagnosticInformation());
         sb.append(DIVIDER);
-        sb.append(mChannelProcessingManager.getChannelMetadataModel().getDiagnosticInformation());
-        sb.append(DIVIDER);
+        if(mChannelProcessingManager.getChannelMetadataModel() != null)
+        {
+            sb.append(mChannelProcessingManager.getChannelMetadataModel().getDiagnosticInformation());
+            sb.append(DIVIDER);
+        }
         sb.append(getThreadDumpReport());
         sb.append(DIVIDER);
 
@@ -0,0 +1,73 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing count metric.  Uses a striped adder so that concurrent increments from multiple threads
+ * don't contend on a single memory location.
+ */
+public class Counter extends Metric
+{
+    private final LongAdder mCount = new LongAdder();
+
+    Counter(String name, String help, MetricScope scope, String scopeName)
+    {
+        super(name, help, scope, scopeName);
+    }
+
+    /**
+     * Increments the count by one.
+     */
+    public void increment()
+    {
+        mCount.increment();
+    }
+
+    /**
+     * Increments the count by the specified amount.
+     * @param amount to add
+     */
+    public void add(long amount)
+    {
+        mCount.add(amount);
+    }
+
+    /**
+     * Current count
+     */
+    public long getCount()
+    {
+        return mCount.sum();
+    }
+
+    @Override
+    public String getType()
+    {
+        return "counter";
+    }
+
+    @Override
+    public void export(StringBuilder sb)
+    {
+        appendName(sb, null, null, null);
+        sb.append(getCount()).append('\n');
+    }
+}
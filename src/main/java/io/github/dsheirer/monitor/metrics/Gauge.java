@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value metric (e.g. queue depth) that is sampled from the supplier only when the metric is exported,
+ * so there is no cost to the instrumented component.
+ */
+public class Gauge extends Metric
+{
+    private final LongSupplier mSupplier;
+
+    Gauge(String name, String help, MetricScope scope, String scopeName, LongSupplier supplier)
+    {
+        super(name, help, scope, scopeName);
+        mSupplier = supplier;
+    }
+
+    /**
+     * Current value
+     */
+    public long getValue()
+    {
+        return mSupplier.getAsLong();
+    }
+
+    @Override
+    public String getType()
+    {
+        return "gauge";
+    }
+
+    @Override
+    public void export(StringBuilder sb)
+    {
+        appendName(sb, null, null, null);
+        sb.append(getValue()).append('\n');
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution metric with fixed power-of-two buckets.  Recording a value is a bit count to locate the bucket and a
+ * few atomic increments, with no allocation and no locking, so it is suitable for use on sample processing threads.
+ *
+ * Bucket N counts values that need N bits, so the inclusive upper bound of bucket N is 2^N - 1.  Values are recorded
+ * in the unit indicated by the metric name (e.g. microseconds for a name ending in _us).
+ */
+public class Histogram extends Metric
+{
+    /**
+     * Number of finite buckets.  The largest finite bucket bound is 2^27 - 1, or about 134 seconds in microseconds.
+     */
+    public static final int BUCKET_COUNT = 28;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT + 1);
+    private final LongAdder mCount = new LongAdder();
+    private final LongAdder mSum = new LongAdder();
+    private final AtomicLong mMaximum = new AtomicLong();
+
+    Histogram(String name, String help, MetricScope scope, String scopeName)
+    {
+        super(name, help, scope, scopeName);
+    }
+
+    /**
+     * Records the value.  Negative values are recorded as zero.
+     * @param value to record
+     */
+    public void record(long value)
+    {
+        if(value < 0)
+        {
+            value = 0;
+        }
+
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT);
+        mBuckets.incrementAndGet(bucket);
+        mCount.increment();
+        mSum.add(value);
+
+        long maximum = mMaximum.get();
+
+        while(value > maximum && !mMaximum.compareAndSet(maximum, value))
+        {
+            maximum = mMaximum.get();
+        }
+    }
+
+    /**
+     * Records the elapsed time since the start timestamp in microseconds.
+     * @param startNanos start time obtained from System.nanoTime()
+     */
+    public void recordElapsedMicros(long startNanos)
+    {
+        record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    /**
+     * Number of recorded values
+     */
+    public long getCount()
+    {
+        return mCount.sum();
+    }
+
+    /**
+     * Sum of the recorded values
+     */
+    public long getSum()
+    {
+        return mSum.sum();
+    }
+
+    /**
+     * Largest recorded value
+     */
+    public long getMaximum()
+    {
+        return mMaximum.get();
+    }
+
+    /**
+     * Estimates the value at the quantile from the bucket counts, using the upper bound of the bucket that contains
+     * the quantile.
+     * @param quantile in range 0.0 - 1.0
+     * @return estimated value, or 0 when no values are recorded.
+     */
+    public long getQuantile(double quantile)
+    {
+        long count = getCount();
+
+        if(count == 0)
+        {
+            return 0;
+        }
+
+        long target = (long)Math.ceil(count * quantile);
+        long cumulative = 0;
+
+        for(int x = 0; x < BUCKET_COUNT; x++)
+        {
+            cumulative += mBuckets.get(x);
+
+            if(cumulative >= target)
+            {
+                return Math.min((1L << x) - 1, getMaximum());
+            }
+        }
+
+        return getMaximum();
+    }
+
+    @Override
+    public String getType()
+    {
+        return "histogram";
+    }
+
+    @Override
+    public void export(StringBuilder sb)
+    {
+        long cumulative = 0;
+
+        for(int x = 0; x < BUCKET_COUNT; x++)
+        {
+            cumulative += mBuckets.get(x);
+            appendName(sb, "_bucket", "le", Long.toString((1L << x) - 1));
+            sb.append(cumulative).append('\n');
+        }
+
+        cumulative += mBuckets.get(BUCKET_COUNT);
+        appendName(sb, "_bucket", "le", "+Inf");
+        sb.append(cumulative).append('\n');
+        appendName(sb, "_sum", null, null);
+        sb.append(getSum()).append('\n');
+        appendName(sb, "_count", null, null);
+        sb.append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+/**
+ * Base pipeline metric.  Each metric is identified by the combination of a metric name, a scope and a scope name
+ * (e.g. tuner, channelizer or channel name).
+ */
+public abstract class Metric
+{
+    private final String mName;
+    private final String mHelp;
+    private final MetricScope mScope;
+    private final String mScopeName;
+
+    /**
+     * Constructs an instance
+     * @param name of the metric, using lowercase letters, digits and underscores.
+     * @param help description of the metric
+     * @param scope for the metric
+     * @param scopeName that identifies the tuner, channelizer or channel within the scope
+     */
+    protected Metric(String name, String help, MetricScope scope, String scopeName)
+    {
+        mName = name;
+        mHelp = help;
+        mScope = scope;
+        mScopeName = scopeName;
+    }
+
+    /**
+     * Metric name
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Metric description
+     */
+    public String getHelp()
+    {
+        return mHelp;
+    }
+
+    /**
+     * Metric scope
+     */
+    public MetricScope getScope()
+    {
+        return mScope;
+    }
+
+    /**
+     * Name of the tuner, channelizer or channel within the scope
+     */
+    public String getScopeName()
+    {
+        return mScopeName;
+    }
+
+    /**
+     * Metric type label used in the exported metric type declaration (ie counter, gauge or histogram)
+     */
+    public abstract String getType();
+
+    /**
+     * Appends the current value(s) of this metric to the string builder in the Prometheus text exposition format.
+     * @param sb to append to
+     */
+    public abstract void export(StringBuilder sb);
+
+    /**
+     * Appends the metric name and the scope labels, plus an optional extra label.
+     * @param sb to append to
+     * @param suffix to append to the metric name, or null.
+     * @param extraLabel name of an extra label, or null.
+     * @param extraValue value of the extra label.
+     */
+    protected void appendName(StringBuilder sb, String suffix, String extraLabel, String extraValue)
+    {
+        sb.append(mName);
+
+        if(suffix != null)
+        {
+            sb.append(suffix);
+        }
+
+        sb.append("{scope=\"").append(mScope.getLabel()).append("\",name=\"");
+
+        for(int x = 0; x < mScopeName.length(); x++)
+        {
+            char c = mScopeName.charAt(x);
+
+            switch(c)
+            {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+
+        sb.append('"');
+
+        if(extraLabel != null)
+        {
+            sb.append(',').append(extraLabel).append("=\"").append(extraValue).append('"');
+        }
+
+        sb.append("} ");
+    }
+}
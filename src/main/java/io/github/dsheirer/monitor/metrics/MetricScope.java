@@ -0,0 +1,52 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+/**
+ * Scope of a pipeline metric, identifying the processing stage that the metric describes.
+ */
+public enum MetricScope
+{
+    APPLICATION("application"),
+    TUNER("tuner"),
+    CHANNELIZER("channelizer"),
+    CHANNEL("channel"),
+    AUDIO("audio");
+
+    private String mLabel;
+
+    MetricScope(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Label value used when exporting metrics with this scope.
+     */
+    public String getLabel()
+    {
+        return mLabel;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
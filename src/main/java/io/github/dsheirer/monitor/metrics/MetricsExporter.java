@@ -0,0 +1,182 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports the pipeline metrics registry in the Prometheus text exposition format via a periodic file dump to the
+ * application log directory and/or a local HTTP pull endpoint.  Both export methods are disabled by default and are
+ * configured via the application preferences.
+ */
+public class MetricsExporter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MetricsExporter.class);
+    public static final String METRICS_FILE_NAME = "sdrtrunk_metrics.prom";
+    public static final String METRICS_HTTP_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private UserPreferences mUserPreferences;
+    private ScheduledFuture<?> mFileExportHandle;
+    private HttpServer mHttpServer;
+    private ExecutorService mHttpExecutor;
+
+    /**
+     * Constructs an instance
+     * @param userPreferences for the export settings and application log directory.
+     */
+    public MetricsExporter(UserPreferences userPreferences)
+    {
+        mUserPreferences = userPreferences;
+    }
+
+    /**
+     * Starts the periodic file export and the HTTP endpoint, if enabled.
+     */
+    public void start()
+    {
+        stop();
+
+        int interval = mUserPreferences.getApplicationPreference().getMetricsFileExportInterval();
+
+        if(interval > 0)
+        {
+            Path path = mUserPreferences.getDirectoryPreference().getDirectoryApplicationLog()
+                .resolve(METRICS_FILE_NAME);
+            mLog.info("Pipeline metrics file export enabled every " + interval + " seconds to [" + path + "]");
+            mFileExportHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(() -> exportFile(path), interval, interval,
+                TimeUnit.SECONDS);
+        }
+
+        int port = mUserPreferences.getApplicationPreference().getMetricsHttpPort();
+
+        if(port > 0)
+        {
+            try
+            {
+                mHttpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                mHttpServer.createContext(METRICS_HTTP_PATH, this::handle);
+                mHttpExecutor = Executors.newSingleThreadExecutor(new NamingThreadFactory("sdrtrunk metrics http"));
+                mHttpServer.setExecutor(mHttpExecutor);
+                mHttpServer.start();
+                mLog.info("Pipeline metrics HTTP endpoint enabled at http://localhost:" + port + METRICS_HTTP_PATH);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Unable to start pipeline metrics HTTP endpoint on port [" + port + "]", ioe);
+                stopHttpServer();
+            }
+        }
+
+        MetricsRegistry.getInstance().setEnabled(mFileExportHandle != null || mHttpServer != null);
+    }
+
+    /**
+     * Stops the periodic file export and the HTTP endpoint.
+     */
+    public void stop()
+    {
+        if(mFileExportHandle != null)
+        {
+            mFileExportHandle.cancel(false);
+            mFileExportHandle = null;
+        }
+
+        stopHttpServer();
+        MetricsRegistry.getInstance().setEnabled(false);
+    }
+
+    /**
+     * Stops the HTTP endpoint.
+     */
+    private void stopHttpServer()
+    {
+        if(mHttpServer != null)
+        {
+            mHttpServer.stop(0);
+            mHttpServer = null;
+        }
+
+        if(mHttpExecutor != null)
+        {
+            mHttpExecutor.shutdownNow();
+            mHttpExecutor = null;
+        }
+    }
+
+    /**
+     * Writes the metrics to a temporary file and then moves it over the metrics file so that a reader never sees a
+     * partially written file.
+     * @param path for the metrics file
+     */
+    private void exportFile(Path path)
+    {
+        try
+        {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(temp, MetricsRegistry.getInstance().export(), StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error writing pipeline metrics file [" + path + "]", t);
+        }
+    }
+
+    /**
+     * Responds to an HTTP metrics request.
+     */
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try(exchange)
+        {
+            if(!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = MetricsRegistry.getInstance().export().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try(OutputStream outputStream = exchange.getResponseBody())
+            {
+                outputStream.write(body);
+            }
+        }
+    }
+}
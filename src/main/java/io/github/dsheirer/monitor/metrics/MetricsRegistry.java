@@ -0,0 +1,201 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Application-wide registry of pipeline metrics (counters, gauges and histograms) for each tuner, channelizer and
+ * channel.  Components obtain their metrics from the registry when they start and remove them when they stop.
+ * Updating a metric doesn't touch the registry, so the registry is only accessed during registration and export.
+ */
+public class MetricsRegistry
+{
+    private static final MetricsRegistry sInstance = new MetricsRegistry();
+    private static final Comparator<Metric> EXPORT_ORDER = Comparator.comparing(Metric::getName)
+        .thenComparing(Metric::getScope).thenComparing(Metric::getScopeName);
+    private final Map<String,Metric> mMetrics = new ConcurrentHashMap<>();
+    private volatile boolean mEnabled;
+
+    private MetricsRegistry()
+    {
+    }
+
+    /**
+     * Singleton instance
+     */
+    public static MetricsRegistry getInstance()
+    {
+        return sInstance;
+    }
+
+    /**
+     * Indicates if the metrics are exported.  Components can use this to skip registering and recording optional
+     * metrics that are costly to collect when nothing consumes them.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+    /**
+     * Sets the enabled state, indicating if the metrics are exported.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        mEnabled = enabled;
+    }
+
+    /**
+     * Obtains the counter, creating it if necessary.
+     * @param name of the metric
+     * @param help description
+     * @param scope for the metric
+     * @param scopeName of the tuner, channelizer or channel
+     * @return counter
+     */
+    public Counter counter(String name, String help, MetricScope scope, String scopeName)
+    {
+        Metric metric = mMetrics.computeIfAbsent(key(name, scope, scopeName),
+            key -> new Counter(name, help, scope, scopeName));
+        return (Counter)check(metric, Counter.class);
+    }
+
+    /**
+     * Obtains the histogram, creating it if necessary.
+     * @param name of the metric
+     * @param help description
+     * @param scope for the metric
+     * @param scopeName of the tuner, channelizer or channel
+     * @return histogram
+     */
+    public Histogram histogram(String name, String help, MetricScope scope, String scopeName)
+    {
+        Metric metric = mMetrics.computeIfAbsent(key(name, scope, scopeName),
+            key -> new Histogram(name, help, scope, scopeName));
+        return (Histogram)check(metric, Histogram.class);
+    }
+
+    /**
+     * Registers a gauge, replacing any existing gauge with the same name and scope.
+     * @param name of the metric
+     * @param help description
+     * @param scope for the metric
+     * @param scopeName of the tuner, channelizer or channel
+     * @param supplier of the gauge value, sampled at export.
+     * @return gauge
+     */
+    public Gauge gauge(String name, String help, MetricScope scope, String scopeName, LongSupplier supplier)
+    {
+        Gauge gauge = new Gauge(name, help, scope, scopeName, supplier);
+        Metric previous = mMetrics.put(key(name, scope, scopeName), gauge);
+
+        if(previous != null && !(previous instanceof Gauge))
+        {
+            mMetrics.put(key(name, scope, scopeName), previous);
+            throw new IllegalArgumentException("Metric [" + name + "] is already registered as a " +
+                previous.getType());
+        }
+
+        return gauge;
+    }
+
+    /**
+     * Removes the metric from this registry.  The metric is only removed if it is the currently registered instance,
+     * so that a stopping component doesn't remove a metric that a restarted component has just registered.
+     * @param metric to remove
+     */
+    public void remove(Metric metric)
+    {
+        if(metric != null)
+        {
+            mMetrics.remove(key(metric.getName(), metric.getScope(), metric.getScopeName()), metric);
+        }
+    }
+
+    /**
+     * Removes all metrics for the scope and scope name.
+     * @param scope of the metrics
+     * @param scopeName of the tuner, channelizer or channel
+     */
+    public void remove(MetricScope scope, String scopeName)
+    {
+        mMetrics.values().removeIf(metric -> metric.getScope() == scope && metric.getScopeName().equals(scopeName));
+    }
+
+    /**
+     * Snapshot of the currently registered metrics, sorted by name and scope.
+     */
+    public List<Metric> getMetrics()
+    {
+        List<Metric> metrics = new ArrayList<>(mMetrics.values());
+        metrics.sort(EXPORT_ORDER);
+        return metrics;
+    }
+
+    /**
+     * Exports the current values of all registered metrics in the Prometheus text exposition format.
+     */
+    public String export()
+    {
+        StringBuilder sb = new StringBuilder();
+        String currentName = null;
+
+        for(Metric metric: getMetrics())
+        {
+            if(!metric.getName().equals(currentName))
+            {
+                currentName = metric.getName();
+                sb.append("# HELP ").append(currentName).append(' ').append(metric.getHelp()).append('\n');
+                sb.append("# TYPE ").append(currentName).append(' ').append(metric.getType()).append('\n');
+            }
+
+            metric.export(sb);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Verifies that an existing metric is the requested type.
+     */
+    private static Metric check(Metric metric, Class<? extends Metric> type)
+    {
+        if(!type.isInstance(metric))
+        {
+            throw new IllegalArgumentException("Metric [" + metric.getName() + "] is already registered as a " +
+                metric.getType());
+        }
+
+        return metric;
+    }
+
+    /**
+     * Registry key for the metric name and scope
+     */
+    private static String key(String name, MetricScope scope, String scopeName)
+    {
+        return name + '|' + scope.name() + '|' + scopeName;
+    }
+}
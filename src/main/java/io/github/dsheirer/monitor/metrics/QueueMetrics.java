@@ -0,0 +1,79 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.monitor.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Standard set of metrics for a queue that hands buffers from a producer thread to a consumer: queue depth, per-buffer
+ * processing time and overflow (discarded buffer) count.  Metric names are prefixed with the queue type so that
+ * different queue implementations can be distinguished.
+ */
+public class QueueMetrics
+{
+    private final Gauge mDepth;
+    private final Histogram mProcessingTime;
+    private final Counter mOverflow;
+
+    /**
+     * Constructs an instance and registers the metrics with the metrics registry.
+     * @param prefix for the metric names (e.g. dispatcher)
+     * @param scope for the metrics
+     * @param scopeName of the tuner, channelizer or channel
+     * @param depth supplier for the current queue depth
+     */
+    public QueueMetrics(String prefix, MetricScope scope, String scopeName, LongSupplier depth)
+    {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        mDepth = registry.gauge(prefix + "_queue_depth", "Number of buffers waiting in the queue",
+            scope, scopeName, depth);
+        mProcessingTime = registry.histogram(prefix + "_processing_time_us",
+            "Time to process each dequeued buffer in microseconds", scope, scopeName);
+        mOverflow = registry.counter(prefix + "_overflow_total", "Number of buffers discarded due to queue overflow",
+            scope, scopeName);
+    }
+
+    /**
+     * Records the processing time of a single buffer.
+     * @param startNanos time that processing started, from System.nanoTime()
+     */
+    public void processed(long startNanos)
+    {
+        mProcessingTime.recordElapsedMicros(startNanos);
+    }
+
+    /**
+     * Counts a buffer that was discarded due to an overflow condition.
+     */
+    public void overflow()
+    {
+        mOverflow.increment();
+    }
+
+    /**
+     * Removes these metrics from the metrics registry.
+     */
+    public void dispose()
+    {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.remove(mDepth);
+        registry.remove(mProcessingTime);
+        registry.remove(mOverflow);
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of playlist changes that have occurred since the playlist snapshot was written.
+ *
+ * The journal carries the generation of the snapshot that it applies to and a journal from any other generation is
+ * discarded when opened.  Each entry is length-prefixed and carries a CRC32 so that a partially written entry at the
+ * end of the journal, from an application crash or power loss, is detected and truncated when the journal is opened.
+ *
+ * File layout:
+ *   header: magic, format version, generation
+ *   entries: int body length, int body CRC32, body: byte operation, int record type code, long record id,
+ *            UTF group, int payload length and payload bytes.
+ *
+ * Note: this class is not thread safe.
+ */
+public class PlaylistJournal implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistJournal.class);
+    private static final int MAGIC = 0x5344544A;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int ENTRY_PREFIX_LENGTH = Integer.BYTES + Integer.BYTES;
+
+    private final Path mPath;
+    private final FileChannel mChannel;
+    private final List<Entry> mEntries;
+    private long mGeneration;
+
+    /**
+     * Constructs an instance
+     */
+    private PlaylistJournal(Path path, FileChannel channel, long generation, List<Entry> entries)
+    {
+        mPath = path;
+        mChannel = channel;
+        mGeneration = generation;
+        mEntries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Opens the journal for appending.  Existing entries for the generation are read and can be accessed via
+     * getEntries() for replay against the snapshot.  A missing journal, or a journal from a different generation,
+     * is reset to an empty journal for the generation.
+     *
+     * @param path to the journal file
+     * @param generation of the current playlist snapshot
+     * @return opened journal
+     * @throws IOException if the journal can't be opened
+     */
+    public static PlaylistJournal open(Path path, long generation) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+        try
+        {
+            List<Entry> entries = new ArrayList<>();
+            ByteBuffer contents = ByteBuffer.allocate((int)Math.min(channel.size(), Integer.MAX_VALUE));
+
+            while(contents.hasRemaining())
+            {
+                if(channel.read(contents, contents.position()) < 0)
+                {
+                    break;
+                }
+            }
+
+            contents.flip();
+
+            if(contents.remaining() >= HEADER_LENGTH && contents.getInt() == MAGIC &&
+                contents.getInt() == FORMAT_VERSION && contents.getLong() == generation)
+            {
+                long validLength = read(contents, entries);
+
+                if(validLength < channel.size())
+                {
+                    mLog.warn("Truncating incomplete playlist journal entry at offset [" + validLength + "] in [" +
+                        path + "]");
+                    channel.truncate(validLength);
+                }
+
+                channel.position(validLength);
+            }
+            else
+            {
+                if(channel.size() > 0)
+                {
+                    mLog.info("Discarding playlist journal that does not match the playlist snapshot [" + path + "]");
+                }
+
+                writeHeader(channel, generation);
+            }
+
+            return new PlaylistJournal(path, channel, generation, entries);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the entries from the journal contents that are positioned after the header.
+     * @param contents of the journal
+     * @param entries to receive the parsed entries
+     * @return length of the journal up to the end of the last valid entry
+     */
+    private static long read(ByteBuffer contents, List<Entry> entries)
+    {
+        long validLength = contents.position();
+
+        while(contents.remaining() >= ENTRY_PREFIX_LENGTH)
+        {
+            int length = contents.getInt();
+            int crc = contents.getInt();
+
+            if(length < 0 || length > contents.remaining())
+            {
+                break;
+            }
+
+            ByteBuffer body = contents.slice(contents.position(), length);
+            contents.position(contents.position() + length);
+
+            if(crc(body.duplicate()) != crc)
+            {
+                break;
+            }
+
+            try
+            {
+                Operation operation = Operation.fromCode(body.get());
+                PlaylistRecordType type = PlaylistRecordType.fromCode(body.getInt());
+                long id = body.getLong();
+                byte[] group = new byte[Short.toUnsignedInt(body.getShort())];
+                body.get(group);
+                byte[] payload = new byte[body.getInt()];
+                body.get(payload);
+                entries.add(new Entry(operation, new PlaylistRecord(type, id,
+                    new String(group, StandardCharsets.UTF_8), payload)));
+            }
+            catch(BufferUnderflowException | IllegalArgumentException e)
+            {
+                break;
+            }
+
+            validLength = contents.position();
+        }
+
+        return validLength;
+    }
+
+    /**
+     * Path to the journal file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Generation of the playlist snapshot that this journal applies to
+     */
+    public long getGeneration()
+    {
+        return mGeneration;
+    }
+
+    /**
+     * Entries that were present in the journal when it was opened, in the order they were appended.
+     */
+    public List<Entry> getEntries()
+    {
+        return mEntries;
+    }
+
+    /**
+     * Current size of the journal file in bytes
+     */
+    public long getSize() throws IOException
+    {
+        return mChannel.size();
+    }
+
+    /**
+     * Indicates if the journal has no entries
+     */
+    public boolean isEmpty() throws IOException
+    {
+        return getSize() <= HEADER_LENGTH;
+    }
+
+    /**
+     * Appends the entries to the journal and forces the entries to storage.
+     * @param entries to append
+     * @throws IOException if there is an error writing to the journal
+     */
+    public void append(List<Entry> entries) throws IOException
+    {
+        if(entries.isEmpty())
+        {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        for(Entry entry: entries)
+        {
+            bodyBytes.reset();
+            body.writeByte(entry.operation().getCode());
+            body.writeInt(entry.record().type().getCode());
+            body.writeLong(entry.record().id());
+            byte[] group = entry.record().group().getBytes(StandardCharsets.UTF_8);
+            body.writeShort(group.length);
+            body.write(group);
+            body.writeInt(entry.record().payload().length);
+            body.write(entry.record().payload());
+            body.flush();
+
+            byte[] encoded = bodyBytes.toByteArray();
+            out.writeInt(encoded.length);
+            out.writeInt(crc(ByteBuffer.wrap(encoded)));
+            out.write(encoded);
+        }
+
+        out.flush();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+        while(buffer.hasRemaining())
+        {
+            mChannel.write(buffer);
+        }
+
+        mChannel.force(false);
+    }
+
+    /**
+     * Discards all entries and resets the journal for a new snapshot generation.
+     * @param generation of the new playlist snapshot
+     * @throws IOException if there is an error writing to the journal
+     */
+    public void reset(long generation) throws IOException
+    {
+        writeHeader(mChannel, generation);
+        mGeneration = generation;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mChannel.close();
+    }
+
+    /**
+     * Truncates the journal and writes the header for the generation.
+     */
+    private static void writeHeader(FileChannel channel, long generation) throws IOException
+    {
+        channel.truncate(0);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(generation).flip();
+
+        while(header.hasRemaining())
+        {
+            channel.write(header, header.position());
+        }
+
+        channel.position(HEADER_LENGTH);
+        channel.force(false);
+    }
+
+    private static int crc(ByteBuffer buffer)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int)crc.getValue();
+    }
+
+    /**
+     * Journal entry operations
+     */
+    public enum Operation
+    {
+        /**
+         * Adds or replaces the record with the same id
+         */
+        PUT(1),
+
+        /**
+         * Removes the record with the same id
+         */
+        REMOVE(2);
+
+        private final int mCode;
+
+        Operation(int code)
+        {
+            mCode = code;
+        }
+
+        public int getCode()
+        {
+            return mCode;
+        }
+
+        public static Operation fromCode(int code)
+        {
+            for(Operation operation: values())
+            {
+                if(operation.getCode() == code)
+                {
+                    return operation;
+                }
+            }
+
+            throw new IllegalArgumentException("Unrecognized playlist journal operation code [" + code + "]");
+        }
+    }
+
+    /**
+     * Journal entry
+     * @param operation to apply
+     * @param record to apply.  Removal entries carry a record with an empty payload.
+     */
+    public record Entry(Operation operation, PlaylistRecord record) {}
+}
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.BroadcastModel;
+import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.Channel.ChannelType;
 import io.github.dsheirer.controller.channel.ChannelEvent;
 import io.github.dsheirer.controller.channel.ChannelModel;
@@ -47,7 +48,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ScheduledFuture;
@@ -76,7 +76,9 @@ public class PlaylistManager implements Listener<ChannelEvent>
     private TunerManager mTunerManager;
     private UserPreferences mUserPreferences;
     private RadioReference mRadioReference;
+    private PlaylistStore mPlaylistStore;
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
+    private AtomicBoolean mPlaylistCheckpointPending = new AtomicBoolean();
     private ScheduledFuture<?> mPlaylistSaveFuture;
     private boolean mPlaylistLoading = false;
     private List<IAliasListRefreshListener> mAliasListRefreshListeners = new ArrayList<>();
@@ -85,7 +87,9 @@ public class PlaylistManager implements Listener<ChannelEvent>
      * Playlist manager - manages all channel configurations, channel maps, and alias lists and handles loading or
      * persisting to the current playlist file
      *
-     * Monitors playlist changes to automatically save configuration changes after they occur.
+     * Monitors playlist changes to automatically save configuration changes after they occur.  Changed objects are
+     * appended to the playlist change journal and the journal is periodically compacted into the playlist snapshot
+     * and exported to the XML playlist file.
      *
      * @param userPreferences for user settings
      * @param tunerManager for access to tuner model
@@ -119,17 +123,20 @@ public class PlaylistManager implements Listener<ChannelEvent>
         //save the playlist when there are any changes
         mChannelModel.addListener(this);
 
-        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> schedulePlaylistSave());
+        mAliasModel.aliasList().addListener(new PlaylistChangeListener<Alias>(PlaylistRecordType.ALIAS));
 
-        mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> schedulePlaylistSave());
+        mChannelMapModel.getChannelMaps()
+            .addListener(new PlaylistChangeListener<ChannelMap>(PlaylistRecordType.CHANNEL_MAP));
 
         mBroadcastModel.addListener(broadcastEvent -> {
             switch(broadcastEvent.getEvent())
             {
                 case CONFIGURATION_ADD:
                 case CONFIGURATION_CHANGE:
+                    put(PlaylistRecordType.BROADCAST_CONFIGURATION, broadcastEvent.getBroadcastConfiguration());
+                    break;
                 case CONFIGURATION_DELETE:
-                    schedulePlaylistSave();
+                    remove(PlaylistRecordType.BROADCAST_CONFIGURATION, broadcastEvent.getBroadcastConfiguration());
                     break;
                 default:
                     //Do nothing
@@ -266,6 +273,19 @@ public class PlaylistManager implements Listener<ChannelEvent>
         transferPlaylistToModels(playlist);
     }
 
+    /**
+     * Completes any pending playlist save and closes the playlist change journal.  Invoke on application shutdown.
+     */
+    public void shutdown()
+    {
+        saveNow();
+
+        if(mPlaylistStore != null)
+        {
+            mPlaylistStore.close();
+        }
+    }
+
     /**
      * Closes the current playlist, saving if necessary, clears the models and sets the current playlist to use
      * the specified playlist path.
@@ -373,7 +393,8 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             try
             {
-                mPlaylistSaveFuture.cancel(true);
+                //Don't interrupt a save in progress since an interrupt closes the playlist journal file channel
+                mPlaylistSaveFuture.cancel(false);
             }
             catch(Exception e)
             {
@@ -383,9 +404,13 @@ public class PlaylistManager implements Listener<ChannelEvent>
             mPlaylistSaveFuture = null;
         }
 
-        if(mPlaylistSavePending.getAndSet(false))
+        mPlaylistSavePending.set(false);
+        mPlaylistCheckpointPending.set(false);
+
+        //Compact any journaled changes into the snapshot and export the XML playlist before the playlist is closed
+        if(mPlaylistStore != null)
         {
-            save();
+            mPlaylistStore.checkpoint();
         }
     }
 
@@ -428,90 +453,105 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 case NOTIFICATION_ADD:
                 case NOTIFICATION_CONFIGURATION_CHANGE:
+                    put(PlaylistRecordType.CHANNEL, event.getChannel());
+                    break;
                 case NOTIFICATION_DELETE:
-                    schedulePlaylistSave();
+                    remove(PlaylistRecordType.CHANNEL, event.getChannel());
                     break;
             }
         }
     }
 
     /**
-     * Saves the current playlist
+     * Records the added or changed playlist object for the playlist change journal and schedules a playlist save.
      */
-    private void save()
+    private void put(PlaylistRecordType type, Object object)
     {
-        PlaylistPreference playlistPreference = mUserPreferences.getPlaylistPreference();
-
-        PlaylistV2 playlist = new PlaylistV2();
-
-        playlist.setAliases(new ArrayList(mAliasModel.getAliases()));
-        playlist.setBroadcastConfigurations(new ArrayList(mBroadcastModel.getBroadcastConfigurations()));
-        playlist.setChannels(new ArrayList(mChannelModel.getChannels()));
-        playlist.setChannelMaps(new ArrayList(mChannelMapModel.getChannelMaps()));
-        playlist.setVersion(PLAYLIST_CURRENT_VERSION);
+        if(!mPlaylistLoading && mPlaylistStore != null && object != null)
+        {
+            mPlaylistStore.put(type, object);
+            schedulePlaylistSave(false);
+        }
+    }
 
-        //Create a backup copy of the current playlist
-        if(Files.exists(playlistPreference.getPlaylist()))
+    /**
+     * Records the removed playlist object for the playlist change journal and schedules a playlist save.
+     */
+    private void remove(PlaylistRecordType type, Object object)
+    {
+        if(!mPlaylistLoading && mPlaylistStore != null && object != null)
         {
-            try
-            {
-                Files.copy(playlistPreference.getPlaylist(), playlistPreference.getPlaylistBackup(),
-                    StandardCopyOption.REPLACE_EXISTING);
-            }
-            catch(Exception e)
-            {
-                mLog.error("Error creating backup copy of current playlist prior to saving updates [" +
-                    playlistPreference.getPlaylist().toString() + "]", e);
-            }
+            mPlaylistStore.remove(type, object);
+            schedulePlaylistSave(false);
         }
+    }
+
+    /**
+     * Saves the current playlist changes to the playlist change journal, or compacts the change journal into the
+     * playlist snapshot and exports the XML playlist when a checkpoint is requested.
+     * @param checkpoint true to compact the change journal and export the XML playlist
+     */
+    private void save(boolean checkpoint)
+    {
+        PlaylistStore playlistStore = mPlaylistStore;
 
-        //Create a temporary lock file to signify that we're in the process of updating the playlist
-        if(!Files.exists(playlistPreference.getPlaylistLock()))
+        if(playlistStore != null)
         {
-            try
+            if(checkpoint)
             {
-                Files.createFile(playlistPreference.getPlaylistLock());
+                playlistStore.checkpoint();
             }
-            catch(IOException e)
+            else
             {
-                mLog.error("Error creating temporary lock file prior to saving playlist [" +
-                    playlistPreference.getPlaylistLock().toString() + "]", e);
+                playlistStore.flush();
             }
         }
+    }
 
-        try(OutputStream out = Files.newOutputStream(playlistPreference.getPlaylist()))
-        {
-            JacksonXmlModule xmlModule = new JacksonXmlModule();
-            xmlModule.setDefaultUseWrapper(false);
-            ObjectMapper objectMapper = new XmlMapper(xmlModule);
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-            objectMapper.writeValue(out, playlist);
-            out.flush();
+    /**
+     * Current playlist contents from the playlist models
+     */
+    private PlaylistV2 createPlaylist()
+    {
+        PlaylistV2 playlist = new PlaylistV2();
 
-            //Remove the playlist lock file to indicate that we successfully saved the file
-            if(Files.exists(playlistPreference.getPlaylistLock()))
-            {
-                Files.delete(playlistPreference.getPlaylistLock());
-            }
-        }
-        catch(IOException ioe)
-        {
-            mLog.error("IO error while writing the playlist to a file [" + playlistPreference.getPlaylist().toString() + "]", ioe);
-        }
-        catch(Exception e)
-        {
-            mLog.error("Error while saving playlist [" + playlistPreference.getPlaylist().toString() + "]", e);
-        }
+        playlist.setAliases(new ArrayList(mAliasModel.getAliases()));
+        playlist.setBroadcastConfigurations(new ArrayList(mBroadcastModel.getBroadcastConfigurations()));
+        playlist.setChannels(new ArrayList(mChannelModel.getChannels()));
+        playlist.setChannelMaps(new ArrayList(mChannelMapModel.getChannelMaps()));
+        playlist.setVersion(PLAYLIST_CURRENT_VERSION);
+
+        return playlist;
     }
 
     /**
-     * Loads a version 2 playlist
+     * Loads a version 2 playlist from the playlist snapshot and change journal, or imports the XML playlist when
+     * there is no usable snapshot.
      */
     public PlaylistV2 load()
     {
         PlaylistPreference files = mUserPreferences.getPlaylistPreference();
 
-        PlaylistV2 playlist = null;
+        if(mPlaylistStore != null)
+        {
+            mPlaylistStore.close();
+        }
+
+        mPlaylistStore = new PlaylistStore(files, this::createPlaylist);
+
+        PlaylistV2 playlist = mPlaylistStore.load();
+
+        if(playlist != null)
+        {
+            if(PlaylistUpdater.update(playlist))
+            {
+                mPlaylistStore.importPlaylist(playlist, true);
+            }
+
+            //Compact replayed journal changes into the snapshot and export the XML playlist, if needed
+            schedulePlaylistSave(true);
+            return playlist;
+        }
 
         //Check for a lock file that indicates the previous save attempt was incomplete or had an error
         if(Files.exists(files.getPlaylistLock()))
@@ -551,11 +591,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
             try(InputStream in = Files.newInputStream(files.getPlaylist()))
             {
                 playlist = objectMapper.readValue(in, PlaylistV2.class);
+                mPlaylistStore.importPlaylist(playlist, PlaylistUpdater.update(playlist));
 
-                if(PlaylistUpdater.update(playlist))
-                {
-                    schedulePlaylistSave();
-                }
+                //Write the playlist snapshot for the imported playlist
+                schedulePlaylistSave(true);
             }
             catch(IOException ioe)
             {
@@ -579,8 +618,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
                 if(PlaylistUpdater.update(playlist))
                 {
                     mLog.info("Legacy playlist was updated to version [" + PLAYLIST_CURRENT_VERSION + "] - saving");
-                    schedulePlaylistSave();
                 }
+
+                mPlaylistStore.importPlaylist(playlist, true);
+                schedulePlaylistSave(true);
             }
             catch(IOException ioe)
             {
@@ -595,20 +636,52 @@ public class PlaylistManager implements Listener<ChannelEvent>
         if(playlist == null)
         {
             playlist = new PlaylistV2();
-            schedulePlaylistSave();
+            mPlaylistStore.importPlaylist(playlist, true);
+            schedulePlaylistSave(true);
         }
 
         return playlist;
     }
 
+    /**
+     * Schedules a full playlist save for changes that are not visible to the playlist models.  The next save compacts
+     * the full playlist into a new snapshot and exports the XML playlist.
+     */
+    public void schedulePlaylistSave()
+    {
+        if(!mPlaylistLoading && mPlaylistStore != null)
+        {
+            mPlaylistStore.invalidate();
+            schedulePlaylistSave(true);
+        }
+    }
+
+    /**
+     * Schedules a playlist save for a change to the channel configuration that is not visible to the channel model.
+     * @param channel that was changed
+     */
+    public void schedulePlaylistSave(Channel channel)
+    {
+        if(channel != null && channel.getChannelType() == ChannelType.STANDARD)
+        {
+            put(PlaylistRecordType.CHANNEL, channel);
+        }
+    }
+
     /**
      * Schedules a playlist save task.  Subsequent calls to this method will be ignored until the save event occurs,
      * thus limiting repetitive playlist saving to a minimum.
+     * @param checkpoint true to compact the change journal and export the XML playlist during the save
      */
-    public void schedulePlaylistSave()
+    private void schedulePlaylistSave(boolean checkpoint)
     {
         if(!mPlaylistLoading)
         {
+            if(checkpoint)
+            {
+                mPlaylistCheckpointPending.set(true);
+            }
+
             if(mPlaylistSavePending.compareAndSet(false, true))
             {
                 mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
@@ -617,17 +690,67 @@ public class PlaylistManager implements Listener<ChannelEvent>
     }
 
     /**
-     * Resets the playlist save pending flag to false and proceeds to save the playlist.
+     * Resets the playlist save pending flag to false and proceeds to save the playlist.  The flag is reset before the
+     * save so that changes that occur during the save schedule a subsequent save.
      */
     public class PlaylistSaveTask implements Runnable
     {
         @Override
         public void run()
         {
-            save();
-
             mPlaylistSaveFuture = null;
             mPlaylistSavePending.set(false);
+            save(mPlaylistCheckpointPending.getAndSet(false));
+        }
+    }
+
+    /**
+     * Observable list change listener that records added, changed and removed playlist objects for the playlist
+     * change journal.
+     */
+    private class PlaylistChangeListener<T> implements ListChangeListener<T>
+    {
+        private final PlaylistRecordType mRecordType;
+
+        public PlaylistChangeListener(PlaylistRecordType recordType)
+        {
+            mRecordType = recordType;
+        }
+
+        @Override
+        public void onChanged(Change<? extends T> change)
+        {
+            while(change.next())
+            {
+                if(change.wasPermutated())
+                {
+                    continue;
+                }
+
+                if(change.wasRemoved())
+                {
+                    for(T removed: change.getRemoved())
+                    {
+                        remove(mRecordType, removed);
+                    }
+                }
+
+                if(change.wasAdded())
+                {
+                    for(T added: change.getAddedSubList())
+                    {
+                        put(mRecordType, added);
+                    }
+                }
+
+                if(change.wasUpdated())
+                {
+                    for(int x = change.getFrom(); x < change.getTo(); x++)
+                    {
+                        put(mRecordType, change.getList().get(x));
+                    }
+                }
+            }
         }
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+/**
+ * Serialized playlist object persisted in the playlist snapshot and change journal.
+ *
+ * @param type of record
+ * @param id that uniquely identifies the playlist object for the lifetime of the playlist.  Ids are never reused.
+ * @param group for the record.  Aliases are grouped by alias list name, other record types use an empty group.
+ * @param payload containing the XML element for the playlist object, or an empty array for a removal record.
+ */
+public record PlaylistRecord(PlaylistRecordType type, long id, String group, byte[] payload)
+{
+    public static final String NO_GROUP = "";
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    /**
+     * Creates a removal record that only identifies the record to remove.
+     * @param type of record
+     * @param id of the record
+     * @param group of the record
+     * @return removal record
+     */
+    public static PlaylistRecord removal(PlaylistRecordType type, long id, String group)
+    {
+        return new PlaylistRecord(type, id, group, EMPTY_PAYLOAD);
+    }
+}
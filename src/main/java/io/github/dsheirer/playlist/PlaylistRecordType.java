@@ -0,0 +1,92 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+
+/**
+ * Types of playlist records that are persisted in the playlist snapshot and change journal.
+ *
+ * Each record payload is the XML element for the object, using the same element name as the object's list property
+ * in the playlist file so that the XML playlist can be exported by streaming the record payloads.
+ */
+public enum PlaylistRecordType
+{
+    ALIAS(1, Alias.class, "alias"),
+    CHANNEL(2, Channel.class, "channel"),
+    CHANNEL_MAP(3, ChannelMap.class, "channel_map"),
+    BROADCAST_CONFIGURATION(4, BroadcastConfiguration.class, "stream");
+
+    private final int mCode;
+    private final Class<?> mRecordClass;
+    private final String mElementName;
+
+    PlaylistRecordType(int code, Class<?> recordClass, String elementName)
+    {
+        mCode = code;
+        mRecordClass = recordClass;
+        mElementName = elementName;
+    }
+
+    /**
+     * Persisted value for this record type.
+     */
+    public int getCode()
+    {
+        return mCode;
+    }
+
+    /**
+     * Class of the playlist object for this record type.
+     */
+    public Class<?> getRecordClass()
+    {
+        return mRecordClass;
+    }
+
+    /**
+     * XML element name used for objects of this record type in the playlist file.
+     */
+    public String getElementName()
+    {
+        return mElementName;
+    }
+
+    /**
+     * Lookup the record type from the persisted value.
+     * @param code to lookup
+     * @return record type
+     * @throws IllegalArgumentException if the code is unrecognized
+     */
+    public static PlaylistRecordType fromCode(int code)
+    {
+        for(PlaylistRecordType type: values())
+        {
+            if(type.getCode() == code)
+            {
+                return type;
+            }
+        }
+
+        throw new IllegalArgumentException("Unrecognized playlist record type code [" + code + "]");
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary snapshot of a playlist.
+ *
+ * Records are stored in compressed blocks, one block per record type, except for aliases which are stored in one
+ * block per alias list.  The snapshot header holds an index of the blocks so that opening a snapshot only reads the
+ * header and each block can be read and decompressed independently, on demand.
+ *
+ * File layout:
+ *   int header length
+ *   header: magic, format version, playlist version, generation, next record id, XML playlist last modified
+ *           timestamp and size, block count, and for each block: record type code, group, record count,
+ *           uncompressed length, compressed length and CRC32 of the compressed bytes.
+ *   compressed blocks, in header index order.  Each decompressed block contains, for each record: long id,
+ *           int payload length and payload bytes.
+ */
+public class PlaylistSnapshot
+{
+    private static final int MAGIC = 0x53445450;
+    private static final int FORMAT_VERSION = 1;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path mPath;
+    private final int mPlaylistVersion;
+    private final long mGeneration;
+    private final long mNextId;
+    private final long mXmlLastModified;
+    private final long mXmlSize;
+    private final List<Section> mSections;
+
+    /**
+     * Constructs an instance
+     */
+    private PlaylistSnapshot(Path path, int playlistVersion, long generation, long nextId, long xmlLastModified,
+                             long xmlSize, List<Section> sections)
+    {
+        mPath = path;
+        mPlaylistVersion = playlistVersion;
+        mGeneration = generation;
+        mNextId = nextId;
+        mXmlLastModified = xmlLastModified;
+        mXmlSize = xmlSize;
+        mSections = Collections.unmodifiableList(sections);
+    }
+
+    /**
+     * Opens the snapshot file and reads the header.  Blocks are not read until requested.
+     * @param path to the snapshot file
+     * @return snapshot
+     * @throws IOException if the file can't be read or is not a playlist snapshot
+     */
+    public static PlaylistSnapshot open(Path path) throws IOException
+    {
+        try(DataInputStream in = new DataInputStream(Files.newInputStream(path)))
+        {
+            int headerLength = in.readInt();
+            byte[] header = new byte[headerLength];
+            in.readFully(header);
+
+            DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header));
+
+            if(headerIn.readInt() != MAGIC)
+            {
+                throw new IOException("File is not a playlist snapshot [" + path + "]");
+            }
+
+            int formatVersion = headerIn.readInt();
+
+            if(formatVersion != FORMAT_VERSION)
+            {
+                throw new IOException("Unsupported playlist snapshot format version [" + formatVersion + "]");
+            }
+
+            int playlistVersion = headerIn.readInt();
+            long generation = headerIn.readLong();
+            long nextId = headerIn.readLong();
+            long xmlLastModified = headerIn.readLong();
+            long xmlSize = headerIn.readLong();
+            int sectionCount = headerIn.readInt();
+
+            List<Section> sections = new ArrayList<>();
+            long offset = Integer.BYTES + headerLength;
+
+            for(int x = 0; x < sectionCount; x++)
+            {
+                PlaylistRecordType type = PlaylistRecordType.fromCode(headerIn.readInt());
+                String group = headerIn.readUTF();
+                int recordCount = headerIn.readInt();
+                int length = headerIn.readInt();
+                int compressedLength = headerIn.readInt();
+                long crc = headerIn.readLong();
+                sections.add(new Section(type, group, recordCount, length, compressedLength, crc, offset));
+                offset += compressedLength;
+            }
+
+            return new PlaylistSnapshot(path, playlistVersion, generation, nextId, xmlLastModified, xmlSize,
+                sections);
+        }
+    }
+
+    /**
+     * Writes a snapshot file.  The snapshot is written to a temporary file and then moved into place so that an
+     * existing snapshot is only replaced by a complete snapshot.
+     *
+     * @param path for the snapshot file
+     * @param playlistVersion of the playlist
+     * @param generation of the snapshot.  The change journal that accompanies this snapshot uses the same generation.
+     * @param nextId to assign to the next playlist record
+     * @param xmlLastModified timestamp of the XML playlist file that was exported with this snapshot
+     * @param xmlSize of the XML playlist file that was exported with this snapshot
+     * @param blocks to write
+     * @throws IOException if there is an error writing the file
+     */
+    public static void write(Path path, int playlistVersion, long generation, long nextId, long xmlLastModified,
+                             long xmlSize, List<Block> blocks) throws IOException
+    {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(FORMAT_VERSION);
+        headerOut.writeInt(playlistVersion);
+        headerOut.writeLong(generation);
+        headerOut.writeLong(nextId);
+        headerOut.writeLong(xmlLastModified);
+        headerOut.writeLong(xmlSize);
+        headerOut.writeInt(blocks.size());
+
+        for(Block block: blocks)
+        {
+            headerOut.writeInt(block.type().getCode());
+            headerOut.writeUTF(block.group());
+            headerOut.writeInt(block.recordCount());
+            headerOut.writeInt(block.length());
+            headerOut.writeInt(block.compressed().length);
+            headerOut.writeLong(crc(block.compressed()));
+        }
+
+        headerOut.flush();
+
+        Path temporary = Paths.get(path.toString() + TEMPORARY_SUFFIX);
+
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer headerLength = ByteBuffer.allocate(Integer.BYTES).putInt(0, header.size());
+            writeFully(channel, headerLength);
+            writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+
+            for(Block block: blocks)
+            {
+                writeFully(channel, ByteBuffer.wrap(block.compressed()));
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Path to the snapshot file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Playlist version of the playlist contained in this snapshot
+     */
+    public int getPlaylistVersion()
+    {
+        return mPlaylistVersion;
+    }
+
+    /**
+     * Generation of this snapshot.  Each compaction of the change journal produces a new snapshot generation.
+     */
+    public long getGeneration()
+    {
+        return mGeneration;
+    }
+
+    /**
+     * Next playlist record id to assign
+     */
+    public long getNextId()
+    {
+        return mNextId;
+    }
+
+    /**
+     * Last modified timestamp of the XML playlist file that was exported with this snapshot.
+     */
+    public long getXmlLastModified()
+    {
+        return mXmlLastModified;
+    }
+
+    /**
+     * Size of the XML playlist file that was exported with this snapshot.
+     */
+    public long getXmlSize()
+    {
+        return mXmlSize;
+    }
+
+    /**
+     * Index of the blocks contained in this snapshot
+     */
+    public List<Section> getSections()
+    {
+        return mSections;
+    }
+
+    /**
+     * Blocks for the record type.
+     * @param type of record
+     * @return sections for the record type, in snapshot order.
+     */
+    public List<Section> getSections(PlaylistRecordType type)
+    {
+        List<Section> sections = new ArrayList<>();
+
+        for(Section section: mSections)
+        {
+            if(section.type() == type)
+            {
+                sections.add(section);
+            }
+        }
+
+        return sections;
+    }
+
+    /**
+     * Reads the compressed block for the section.
+     * @param section to read
+     * @return block
+     * @throws IOException if there is an error reading the block or the block fails the integrity check
+     */
+    public Block readBlock(Section section) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(section.compressedLength());
+
+        try(FileChannel channel = FileChannel.open(mPath, StandardOpenOption.READ))
+        {
+            long position = section.offset();
+
+            while(buffer.hasRemaining())
+            {
+                int read = channel.read(buffer, position);
+
+                if(read < 0)
+                {
+                    throw new IOException("Unexpected end of playlist snapshot file [" + mPath + "]");
+                }
+
+                position += read;
+            }
+        }
+
+        byte[] compressed = buffer.array();
+
+        if(crc(compressed) != section.crc())
+        {
+            throw new IOException("Playlist snapshot block failed integrity check - type [" + section.type() +
+                "] group [" + section.group() + "]");
+        }
+
+        return new Block(section.type(), section.group(), section.recordCount(), section.length(), compressed);
+    }
+
+    /**
+     * Reads and decompresses the records for the section.
+     * @param section to read
+     * @return records
+     * @throws IOException if there is an error reading the block
+     */
+    public List<PlaylistRecord> readRecords(Section section) throws IOException
+    {
+        return readBlock(section).getRecords();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+
+    private static long crc(byte[] bytes)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Index entry for a block in the snapshot file.
+     *
+     * @param type of records in the block
+     * @param group of the records in the block
+     * @param recordCount in the block
+     * @param length of the block after decompression
+     * @param compressedLength of the block in the snapshot file
+     * @param crc of the compressed block
+     * @param offset of the compressed block in the snapshot file
+     */
+    public record Section(PlaylistRecordType type, String group, int recordCount, int length, int compressedLength,
+                          long crc, long offset) {}
+
+    /**
+     * Compressed block of records that share the same record type and group.
+     *
+     * @param type of records in the block
+     * @param group of the records in the block
+     * @param recordCount in the block
+     * @param length of the block after decompression
+     * @param compressed block bytes
+     */
+    public record Block(PlaylistRecordType type, String group, int recordCount, int length, byte[] compressed)
+    {
+        /**
+         * Creates a compressed block from the records.
+         * @param type of records
+         * @param group of the records
+         * @param records to include in the block
+         * @return block
+         */
+        public static Block create(PlaylistRecordType type, String group, List<PlaylistRecord> records)
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            try
+            {
+                for(PlaylistRecord record: records)
+                {
+                    out.writeLong(record.id());
+                    out.writeInt(record.payload().length);
+                    out.write(record.payload());
+                }
+
+                out.flush();
+            }
+            catch(IOException ioe)
+            {
+                //Not possible with a byte array output stream
+                throw new IllegalStateException("Error writing playlist snapshot block", ioe);
+            }
+
+            byte[] uncompressed = bytes.toByteArray();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(uncompressed);
+            deflater.finish();
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(uncompressed.length / 4, 64));
+            byte[] buffer = new byte[8192];
+
+            while(!deflater.finished())
+            {
+                int count = deflater.deflate(buffer);
+                compressed.write(buffer, 0, count);
+            }
+
+            deflater.end();
+
+            return new Block(type, group, records.size(), uncompressed.length, compressed.toByteArray());
+        }
+
+        /**
+         * Decompresses the block.
+         * @return decompressed block bytes
+         * @throws IOException if the block can't be decompressed
+         */
+        public byte[] decompress() throws IOException
+        {
+            byte[] uncompressed = new byte[length()];
+            Inflater inflater = new Inflater();
+            inflater.setInput(compressed());
+
+            try
+            {
+                int offset = 0;
+
+                while(offset < uncompressed.length && !inflater.finished())
+                {
+                    int count = inflater.inflate(uncompressed, offset, uncompressed.length - offset);
+
+                    if(count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    {
+                        break;
+                    }
+
+                    offset += count;
+                }
+
+                if(offset != uncompressed.length)
+                {
+                    throw new IOException("Playlist snapshot block is truncated - type [" + type() + "] group [" +
+                        group() + "]");
+                }
+            }
+            catch(DataFormatException dfe)
+            {
+                throw new IOException("Playlist snapshot block is corrupt - type [" + type() + "] group [" + group() +
+                    "]", dfe);
+            }
+            finally
+            {
+                inflater.end();
+            }
+
+            return uncompressed;
+        }
+
+        /**
+         * Decompresses the block and parses the records.
+         * @return records
+         * @throws IOException if the block can't be decompressed or parsed
+         */
+        public List<PlaylistRecord> getRecords() throws IOException
+        {
+            List<PlaylistRecord> records = new ArrayList<>(recordCount());
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(decompress()));
+
+            for(int x = 0; x < recordCount(); x++)
+            {
+                long id = in.readLong();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                records.add(new PlaylistRecord(type(), id, group(), payload));
+            }
+
+            return records;
+        }
+
+        /**
+         * Streams the record payloads from this block to the output stream, each followed by a line separator.
+         * @param out to receive the payloads
+         * @throws IOException if there is an error
+         */
+        public void writePayloads(OutputStream out) throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(decompress());
+
+            for(int x = 0; x < recordCount(); x++)
+            {
+                buffer.getLong();
+                int length = buffer.getInt();
+                out.write(buffer.array(), buffer.position(), length);
+                out.write('\n');
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+}
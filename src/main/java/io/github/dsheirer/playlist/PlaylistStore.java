@@ -0,0 +1,846 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import io.github.dsheirer.preference.playlist.PlaylistPreference;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incremental playlist persistence using a compact binary snapshot and an append-only change journal.
+ *
+ * Playlist model changes are tracked per object and written to the change journal as individually serialized records,
+ * so that the cost of persisting a change is proportional to the size of the change rather than the size of the
+ * playlist.  When the journal grows beyond a threshold, or at a checkpoint, the journal is compacted into a new
+ * snapshot.  Compaction only serializes the snapshot blocks (alias lists or record types) that have changed and
+ * copies the compressed blocks that haven't changed from the previous snapshot.
+ *
+ * The XML playlist file remains the playlist interchange format.  It is exported at each compaction by streaming the
+ * record payloads from the snapshot blocks, and it is imported when no snapshot exists or when the XML playlist was
+ * modified outside of the application after the snapshot was written.
+ *
+ * Record payloads use the Jackson XML mapping of each playlist object, so the annotations on the playlist objects
+ * remain the single definition of the persisted form.
+ *
+ * Model change notifications (put/remove) can be invoked from any thread.  Persistence operations (load, flush and
+ * checkpoint) perform file IO and should be invoked off of the JavaFX thread.
+ */
+public class PlaylistStore
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistStore.class);
+    private static final long COMPACTION_THRESHOLD_BYTES = 8 * 1024 * 1024;
+    private static final PlaylistRecordType[] EXPORT_ORDER = {PlaylistRecordType.ALIAS,
+        PlaylistRecordType.BROADCAST_CONFIGURATION, PlaylistRecordType.CHANNEL, PlaylistRecordType.CHANNEL_MAP};
+
+    private final Path mPlaylistPath;
+    private final Path mBackupPath;
+    private final Path mLockPath;
+    private final Path mSnapshotPath;
+    private final Path mJournalPath;
+    private final Supplier<PlaylistV2> mPlaylistSupplier;
+    private final Map<PlaylistRecordType,ObjectWriter> mWriters = new EnumMap<>(PlaylistRecordType.class);
+    private final Map<PlaylistRecordType,ObjectReader> mReaders = new EnumMap<>(PlaylistRecordType.class);
+
+    //Guards the record id, record group, pending change and dirty section state
+    private final Object mStateLock = new Object();
+    private final Map<Object,Long> mRecordIds = new IdentityHashMap<>();
+    private final Map<Long,String> mRecordGroups = new HashMap<>();
+    private final Map<Long,PendingChange> mPendingChanges = new LinkedHashMap<>();
+    private final Set<SectionKey> mDirtySections = new HashSet<>();
+    private long mNextId = 1;
+    private boolean mFullRewrite = false;
+    private boolean mExportRequired = false;
+
+    //Guards the snapshot and journal files
+    private final Object mFileLock = new Object();
+    private PlaylistSnapshot mSnapshot;
+    private PlaylistJournal mJournal;
+    private long mGeneration = 0;
+
+    /**
+     * Constructs an instance for the current playlist.
+     * @param playlistPreference for the playlist file paths
+     * @param playlistSupplier to provide the current playlist contents from the playlist models at compaction
+     */
+    public PlaylistStore(PlaylistPreference playlistPreference, Supplier<PlaylistV2> playlistSupplier)
+    {
+        mPlaylistPath = playlistPreference.getPlaylist();
+        mBackupPath = playlistPreference.getPlaylistBackup();
+        mLockPath = playlistPreference.getPlaylistLock();
+        mSnapshotPath = playlistPreference.getPlaylistSnapshot();
+        mJournalPath = playlistPreference.getPlaylistJournal();
+        mPlaylistSupplier = playlistSupplier;
+
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        XmlMapper mapper = new XmlMapper(xmlModule);
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        for(PlaylistRecordType type: PlaylistRecordType.values())
+        {
+            mWriters.put(type, mapper.writerFor(type.getRecordClass()).withRootName(type.getElementName()));
+            mReaders.put(type, mapper.readerFor(type.getRecordClass()));
+        }
+    }
+
+    /**
+     * Loads the playlist from the snapshot and replays the change journal.
+     *
+     * Each snapshot block is read and decoded independently, so the blocks for each alias list are decoded
+     * concurrently.
+     *
+     * @return playlist or null if there is no usable snapshot, or if the XML playlist was modified after the snapshot
+     * was written, indicating that the XML playlist should be imported.
+     */
+    public PlaylistV2 load()
+    {
+        synchronized(mFileLock)
+        {
+            if(!Files.exists(mSnapshotPath))
+            {
+                return null;
+            }
+
+            PlaylistJournal journal = null;
+
+            try
+            {
+                PlaylistSnapshot snapshot = PlaylistSnapshot.open(mSnapshotPath);
+                mGeneration = snapshot.getGeneration();
+
+                //A lock file indicates that the XML export was interrupted, so the snapshot is the current playlist
+                boolean exportInterrupted = Files.exists(mLockPath);
+
+                if(!exportInterrupted && Files.exists(mPlaylistPath) && !isExportedWith(snapshot))
+                {
+                    mLog.info("Playlist [" + mPlaylistPath + "] was modified after the playlist snapshot was " +
+                        "written - importing the XML playlist");
+                    return null;
+                }
+
+                long start = System.currentTimeMillis();
+                journal = PlaylistJournal.open(mJournalPath, snapshot.getGeneration());
+                PlaylistV2 playlist = replay(snapshot, journal);
+
+                if(exportInterrupted)
+                {
+                    mLog.info("Previous playlist export was incomplete - playlist will be exported from the snapshot");
+                    Files.delete(mLockPath);
+                }
+
+                mSnapshot = snapshot;
+                mJournal = journal;
+
+                synchronized(mStateLock)
+                {
+                    mExportRequired = exportInterrupted || !Files.exists(mPlaylistPath) ||
+                        !journal.getEntries().isEmpty();
+                }
+
+                mLog.info("Loaded playlist snapshot [" + mSnapshotPath + "] with [" + journal.getEntries().size() +
+                    "] journal changes in [" + (System.currentTimeMillis() - start) + "ms]");
+                return playlist;
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error loading playlist snapshot [" + mSnapshotPath + "] - importing the XML playlist", e);
+
+                if(journal != null)
+                {
+                    try
+                    {
+                        journal.close();
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("Error closing playlist journal", ioe);
+                    }
+                }
+
+                mSnapshot = null;
+                mJournal = null;
+
+                synchronized(mStateLock)
+                {
+                    mRecordIds.clear();
+                    mRecordGroups.clear();
+                    mDirtySections.clear();
+                    mNextId = 1;
+                }
+
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Registers the contents of a playlist that was imported from the XML playlist file.  A full snapshot is written
+     * at the next checkpoint.
+     * @param playlist that was imported
+     * @param modified true if the playlist was modified after import (ie updated) and should be exported.
+     */
+    public void importPlaylist(PlaylistV2 playlist, boolean modified)
+    {
+        synchronized(mStateLock)
+        {
+            mRecordIds.clear();
+            mRecordGroups.clear();
+            mPendingChanges.clear();
+            mDirtySections.clear();
+
+            register(PlaylistRecordType.ALIAS, playlist.getAliases());
+            register(PlaylistRecordType.BROADCAST_CONFIGURATION, playlist.getBroadcastConfigurations());
+            register(PlaylistRecordType.CHANNEL, playlist.getChannels());
+            register(PlaylistRecordType.CHANNEL_MAP, playlist.getChannelMaps());
+
+            mFullRewrite = true;
+            mExportRequired = modified || !Files.exists(mPlaylistPath);
+        }
+    }
+
+    /**
+     * Registers record ids and groups for the playlist objects.  Note: invoke while holding the state lock.
+     */
+    private void register(PlaylistRecordType type, List<?> objects)
+    {
+        for(Object object: objects)
+        {
+            long id = mNextId++;
+            mRecordIds.put(object, id);
+            mRecordGroups.put(id, getGroup(type, object));
+        }
+    }
+
+    /**
+     * Records that the playlist object was added or changed.
+     * @param type of record
+     * @param object that was added or changed
+     */
+    public void put(PlaylistRecordType type, Object object)
+    {
+        synchronized(mStateLock)
+        {
+            long id = getId(object);
+            mPendingChanges.put(id, new PendingChange(type, id, object));
+        }
+    }
+
+    /**
+     * Records that the playlist object was removed.
+     * @param type of record
+     * @param object that was removed
+     */
+    public void remove(PlaylistRecordType type, Object object)
+    {
+        synchronized(mStateLock)
+        {
+            Long id = mRecordIds.remove(object);
+
+            if(id != null)
+            {
+                mPendingChanges.put(id, new PendingChange(type, id, null));
+            }
+        }
+    }
+
+    /**
+     * Records a change to the playlist that is not attributable to individual playlist objects.  The next
+     * checkpoint rewrites the full snapshot and exports the XML playlist.
+     */
+    public void invalidate()
+    {
+        synchronized(mStateLock)
+        {
+            mFullRewrite = true;
+            mExportRequired = true;
+        }
+    }
+
+    /**
+     * Appends pending changes to the change journal and compacts the journal when it exceeds the size threshold.
+     */
+    public void flush()
+    {
+        synchronized(mFileLock)
+        {
+            if(mJournal == null)
+            {
+                //There's no snapshot for the journal to apply to
+                checkpoint();
+                return;
+            }
+
+            writePendingChanges();
+
+            try
+            {
+                if(mJournal.getSize() > COMPACTION_THRESHOLD_BYTES)
+                {
+                    compact();
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error checking playlist journal size", ioe);
+            }
+        }
+    }
+
+    /**
+     * Appends pending changes to the change journal and, when there are changes since the last snapshot, compacts
+     * the journal into a new snapshot and exports the XML playlist.
+     */
+    public void checkpoint()
+    {
+        synchronized(mFileLock)
+        {
+            if(mJournal != null)
+            {
+                writePendingChanges();
+            }
+
+            boolean required;
+
+            synchronized(mStateLock)
+            {
+                required = mSnapshot == null || mJournal == null || mFullRewrite || mExportRequired ||
+                    !mDirtySections.isEmpty() || !mPendingChanges.isEmpty();
+            }
+
+            if(required)
+            {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Closes the change journal.  Pending changes that have not been flushed are discarded.
+     */
+    public void close()
+    {
+        synchronized(mFileLock)
+        {
+            if(mJournal != null)
+            {
+                try
+                {
+                    mJournal.close();
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error closing playlist journal [" + mJournalPath + "]", ioe);
+                }
+
+                mJournal = null;
+            }
+        }
+    }
+
+    /**
+     * Serializes the pending changes and appends them to the change journal.  Note: invoke while holding the file
+     * lock with an open journal.
+     */
+    private void writePendingChanges()
+    {
+        List<PendingChange> changes;
+
+        synchronized(mStateLock)
+        {
+            if(mPendingChanges.isEmpty())
+            {
+                return;
+            }
+
+            changes = new ArrayList<>(mPendingChanges.values());
+            mPendingChanges.clear();
+        }
+
+        List<PlaylistJournal.Entry> entries = new ArrayList<>();
+
+        for(PendingChange change: changes)
+        {
+            if(change.object() != null)
+            {
+                String group = getGroup(change.type(), change.object());
+
+                try
+                {
+                    PlaylistRecord record = new PlaylistRecord(change.type(), change.id(), group,
+                        mWriters.get(change.type()).writeValueAsBytes(change.object()));
+                    entries.add(new PlaylistJournal.Entry(PlaylistJournal.Operation.PUT, record));
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error serializing playlist " + change.type() + " record - record not saved", e);
+                    continue;
+                }
+
+                synchronized(mStateLock)
+                {
+                    String previousGroup = mRecordGroups.put(change.id(), group);
+                    mDirtySections.add(new SectionKey(change.type(), group));
+
+                    if(previousGroup != null && !previousGroup.equals(group))
+                    {
+                        mDirtySections.add(new SectionKey(change.type(), previousGroup));
+                    }
+                }
+            }
+            else
+            {
+                String group;
+
+                synchronized(mStateLock)
+                {
+                    group = mRecordGroups.remove(change.id());
+
+                    if(group != null)
+                    {
+                        mDirtySections.add(new SectionKey(change.type(), group));
+                    }
+                }
+
+                PlaylistRecord record = PlaylistRecord.removal(change.type(), change.id(),
+                    group != null ? group : PlaylistRecord.NO_GROUP);
+                entries.add(new PlaylistJournal.Entry(PlaylistJournal.Operation.REMOVE, record));
+            }
+        }
+
+        try
+        {
+            mJournal.append(entries);
+
+            synchronized(mStateLock)
+            {
+                mExportRequired = true;
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing playlist changes to journal [" + mJournalPath + "] - playlist will be fully " +
+                "rewritten", ioe);
+            invalidate();
+        }
+    }
+
+    /**
+     * Compacts the change journal into a new snapshot.  Blocks that have not changed since the previous snapshot are
+     * copied from the previous snapshot and only the changed blocks are serialized from the playlist models.  The XML
+     * playlist is exported when the playlist has changed since it was last exported.  Note: invoke while holding the
+     * file lock.
+     */
+    private void compact()
+    {
+        long start = System.currentTimeMillis();
+        Set<SectionKey> dirtySections;
+        boolean fullRewrite;
+        boolean exportRequired;
+
+        synchronized(mStateLock)
+        {
+            //Pending changes are serialized from the playlist models, so mark the affected blocks as changed
+            for(PendingChange change: mPendingChanges.values())
+            {
+                String previousGroup = change.object() != null ? mRecordGroups.get(change.id()) :
+                    mRecordGroups.remove(change.id());
+
+                if(previousGroup != null)
+                {
+                    mDirtySections.add(new SectionKey(change.type(), previousGroup));
+                }
+
+                if(change.object() != null)
+                {
+                    mDirtySections.add(new SectionKey(change.type(), getGroup(change.type(), change.object())));
+                }
+            }
+
+            mPendingChanges.clear();
+            dirtySections = new HashSet<>(mDirtySections);
+            mDirtySections.clear();
+            fullRewrite = mFullRewrite || mSnapshot == null;
+            mFullRewrite = false;
+            exportRequired = mExportRequired;
+            mExportRequired = false;
+        }
+
+        //Changes made after this point remain pending and are written to the journal for the new snapshot
+        PlaylistV2 playlist = mPlaylistSupplier.get();
+
+        try
+        {
+            List<PlaylistSnapshot.Block> blocks = new ArrayList<>();
+            int serializedCount = 0;
+
+            for(PlaylistRecordType type: EXPORT_ORDER)
+            {
+                Map<String,PlaylistSnapshot.Block> groups = new TreeMap<>();
+
+                if(!fullRewrite)
+                {
+                    for(PlaylistSnapshot.Section section: mSnapshot.getSections(type))
+                    {
+                        if(!dirtySections.contains(new SectionKey(type, section.group())))
+                        {
+                            groups.put(section.group(), mSnapshot.readBlock(section));
+                        }
+                    }
+                }
+
+                Map<String,List<PlaylistRecord>> changedGroups = new TreeMap<>();
+
+                for(Object object: getObjects(playlist, type))
+                {
+                    String group = getGroup(type, object);
+
+                    if(fullRewrite || dirtySections.contains(new SectionKey(type, group)))
+                    {
+                        long id;
+
+                        synchronized(mStateLock)
+                        {
+                            id = getId(object);
+                            mRecordGroups.put(id, group);
+                        }
+
+                        changedGroups.computeIfAbsent(group, key -> new ArrayList<>())
+                            .add(new PlaylistRecord(type, id, group, mWriters.get(type).writeValueAsBytes(object)));
+                        serializedCount++;
+                    }
+                }
+
+                for(Map.Entry<String,List<PlaylistRecord>> entry: changedGroups.entrySet())
+                {
+                    groups.put(entry.getKey(), PlaylistSnapshot.Block.create(type, entry.getKey(), entry.getValue()));
+                }
+
+                blocks.addAll(groups.values());
+            }
+
+            if(exportRequired || !Files.exists(mPlaylistPath))
+            {
+                export(blocks, playlist.getVersion());
+            }
+
+            long nextId;
+
+            synchronized(mStateLock)
+            {
+                nextId = mNextId;
+            }
+
+            long generation = Math.max(mGeneration + 1, System.currentTimeMillis());
+            PlaylistSnapshot.write(mSnapshotPath, playlist.getVersion(), generation, nextId,
+                Files.getLastModifiedTime(mPlaylistPath).toMillis(), Files.size(mPlaylistPath), blocks);
+            mSnapshot = PlaylistSnapshot.open(mSnapshotPath);
+            mGeneration = generation;
+
+            if(mJournal == null)
+            {
+                mJournal = PlaylistJournal.open(mJournalPath, generation);
+            }
+            else
+            {
+                mJournal.reset(generation);
+            }
+
+            mLog.info("Playlist snapshot written with [" + serializedCount + "] changed records in [" +
+                (System.currentTimeMillis() - start) + "ms]");
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error writing playlist snapshot [" + mSnapshotPath + "]", e);
+
+            //Restore the dirty state so that the next checkpoint can try again
+            synchronized(mStateLock)
+            {
+                mDirtySections.addAll(dirtySections);
+                mFullRewrite |= fullRewrite;
+                mExportRequired |= exportRequired;
+            }
+        }
+    }
+
+    /**
+     * Exports the XML playlist file by streaming the record payloads from the snapshot blocks.  A backup copy of the
+     * current XML playlist is created and a lock file is held while the XML playlist is written.
+     * @param blocks to export
+     * @param version of the playlist
+     * @throws IOException if there is an error writing the XML playlist
+     */
+    private void export(List<PlaylistSnapshot.Block> blocks, int version) throws IOException
+    {
+        //Create a backup copy of the current playlist
+        if(Files.exists(mPlaylistPath))
+        {
+            try
+            {
+                Files.copy(mPlaylistPath, mBackupPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error creating backup copy of current playlist prior to saving updates [" +
+                    mPlaylistPath + "]", e);
+            }
+        }
+
+        //Create a temporary lock file to signify that we're in the process of updating the playlist
+        if(!Files.exists(mLockPath))
+        {
+            Files.createFile(mLockPath);
+        }
+
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(mPlaylistPath)))
+        {
+            out.write(("<playlist version=\"" + version + "\">\n").getBytes(StandardCharsets.UTF_8));
+
+            for(PlaylistSnapshot.Block block: blocks)
+            {
+                block.writePayloads(out);
+            }
+
+            out.write("</playlist>\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        //Remove the playlist lock file to indicate that we successfully saved the file
+        Files.delete(mLockPath);
+    }
+
+    /**
+     * Replays the change journal against the snapshot and decodes the playlist objects.
+     * @param snapshot to load
+     * @param journal of changes since the snapshot was written
+     * @return loaded playlist
+     * @throws Exception if there is an error reading or decoding the snapshot
+     */
+    private PlaylistV2 replay(PlaylistSnapshot snapshot, PlaylistJournal journal) throws Exception
+    {
+        //Latest journal entry for each record id
+        Map<Long,PlaylistJournal.Entry> latest = new LinkedHashMap<>();
+        long nextId = snapshot.getNextId();
+
+        for(PlaylistJournal.Entry entry: journal.getEntries())
+        {
+            latest.remove(entry.record().id());
+            latest.put(entry.record().id(), entry);
+            nextId = Math.max(nextId, entry.record().id() + 1);
+        }
+
+        List<Future<List<DecodedRecord>>> futures = new ArrayList<>();
+
+        for(PlaylistSnapshot.Section section: snapshot.getSections())
+        {
+            futures.add(ThreadPool.CACHED.submit(() -> decode(snapshot, section, latest)));
+        }
+
+        List<DecodedRecord> journalRecords = new ArrayList<>();
+        Set<SectionKey> dirtySections = new HashSet<>();
+
+        for(PlaylistJournal.Entry entry: latest.values())
+        {
+            PlaylistRecord record = entry.record();
+            dirtySections.add(new SectionKey(record.type(), record.group()));
+
+            if(entry.operation() == PlaylistJournal.Operation.PUT)
+            {
+                journalRecords.add(new DecodedRecord(record, mReaders.get(record.type()).readValue(record.payload())));
+            }
+        }
+
+        PlaylistV2 playlist = new PlaylistV2();
+        playlist.setVersion(snapshot.getPlaylistVersion());
+        List<DecodedRecord> decodedRecords = new ArrayList<>();
+
+        for(int x = 0; x < futures.size(); x++)
+        {
+            try
+            {
+                List<DecodedRecord> sectionRecords = futures.get(x).get();
+                decodedRecords.addAll(sectionRecords);
+
+                PlaylistSnapshot.Section section = snapshot.getSections().get(x);
+
+                if(sectionRecords.size() != section.recordCount())
+                {
+                    //Records in this section were changed or removed by the journal
+                    dirtySections.add(new SectionKey(section.type(), section.group()));
+                }
+            }
+            catch(ExecutionException ee)
+            {
+                throw ee.getCause() instanceof Exception cause ? cause : ee;
+            }
+        }
+
+        decodedRecords.addAll(journalRecords);
+
+        synchronized(mStateLock)
+        {
+            mRecordIds.clear();
+            mRecordGroups.clear();
+            mPendingChanges.clear();
+            mDirtySections.clear();
+            mDirtySections.addAll(dirtySections);
+            mNextId = nextId;
+
+            for(DecodedRecord decoded: decodedRecords)
+            {
+                mRecordIds.put(decoded.object(), decoded.record().id());
+                mRecordGroups.put(decoded.record().id(), decoded.record().group());
+
+                switch(decoded.record().type())
+                {
+                    case ALIAS -> playlist.getAliases().add((Alias)decoded.object());
+                    case BROADCAST_CONFIGURATION ->
+                        playlist.getBroadcastConfigurations().add((BroadcastConfiguration)decoded.object());
+                    case CHANNEL -> playlist.getChannels().add((Channel)decoded.object());
+                    case CHANNEL_MAP -> playlist.getChannelMaps().add((ChannelMap)decoded.object());
+                }
+            }
+        }
+
+        return playlist;
+    }
+
+    /**
+     * Reads and decodes the records for a snapshot section, excluding records that are superseded by the journal.
+     */
+    private List<DecodedRecord> decode(PlaylistSnapshot snapshot, PlaylistSnapshot.Section section,
+                                       Map<Long,PlaylistJournal.Entry> journalEntries) throws IOException
+    {
+        ObjectReader reader = mReaders.get(section.type());
+        List<DecodedRecord> decoded = new ArrayList<>();
+
+        for(PlaylistRecord record: snapshot.readRecords(section))
+        {
+            if(!journalEntries.containsKey(record.id()))
+            {
+                decoded.add(new DecodedRecord(record, reader.readValue(record.payload())));
+            }
+        }
+
+        return decoded;
+    }
+
+    /**
+     * Indicates if the XML playlist file is unchanged since it was exported with the snapshot.
+     */
+    private boolean isExportedWith(PlaylistSnapshot snapshot) throws IOException
+    {
+        return Files.getLastModifiedTime(mPlaylistPath).toMillis() == snapshot.getXmlLastModified() &&
+            Files.size(mPlaylistPath) == snapshot.getXmlSize();
+    }
+
+    /**
+     * Record id for the object, assigning a new id if the object doesn't have an id.  Note: invoke while holding
+     * the state lock.
+     */
+    private long getId(Object object)
+    {
+        Long id = mRecordIds.get(object);
+
+        if(id == null)
+        {
+            id = mNextId++;
+            mRecordIds.put(object, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Record group for the object.  Aliases are grouped by alias list name.
+     */
+    private static String getGroup(PlaylistRecordType type, Object object)
+    {
+        if(type == PlaylistRecordType.ALIAS && object instanceof Alias alias && alias.getAliasListName() != null)
+        {
+            return alias.getAliasListName();
+        }
+
+        return PlaylistRecord.NO_GROUP;
+    }
+
+    /**
+     * Playlist objects of the record type.
+     */
+    private static List<?> getObjects(PlaylistV2 playlist, PlaylistRecordType type)
+    {
+        return switch(type)
+        {
+            case ALIAS -> playlist.getAliases();
+            case BROADCAST_CONFIGURATION -> playlist.getBroadcastConfigurations();
+            case CHANNEL -> playlist.getChannels();
+            case CHANNEL_MAP -> playlist.getChannelMaps();
+        };
+    }
+
+    /**
+     * Pending change to a playlist object
+     * @param type of record
+     * @param id of the record
+     * @param object that was added or changed, or null if the object was removed.
+     */
+    private record PendingChange(PlaylistRecordType type, long id, Object object) {}
+
+    /**
+     * Snapshot block identifier
+     * @param type of record
+     * @param group of the records
+     */
+    private record SectionKey(PlaylistRecordType type, String group) {}
+
+    /**
+     * Decoded playlist object and the record it was decoded from
+     */
+    private record DecodedRecord(PlaylistRecord record, Object object) {}
+}
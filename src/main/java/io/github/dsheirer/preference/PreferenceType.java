@@ -29,6 +29,7 @@ public enum PreferenceType
     DECODE_EVENT,
     DIRECTORY,
     DUPLICATE_CALL_DETECTION,
+    EVENT_LOG,
     JMBE_LIBRARY,
     MP3,
     MULTI_FREQUENCY,
@@ -33,11 +33,19 @@ public class ApplicationPreference extends Preference
 {
     private static final String PREFERENCE_KEY_CHANNEL_AUTO_DIAGNOSTIC_MONITORING = "automatic.diagnostic.monitoring";
     private static final String PREFERENCE_KEY_CHANNEL_AUTO_START_TIMEOUT = "channel.auto.start.timeout";
+    private static final String PREFERENCE_KEY_ALLOCATION_PROFILING = "allocation.profiling";
+    private static final String PREFERENCE_KEY_VIRTUAL_THREADS = "virtual.threads";
+    private static final String PREFERENCE_KEY_METRICS_FILE_EXPORT_INTERVAL = "metrics.file.export.interval.seconds";
+    private static final String PREFERENCE_KEY_METRICS_HTTP_PORT = "metrics.http.port";
 
     private final static Logger mLog = LoggerFactory.getLogger(ApplicationPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(ApplicationPreference.class);
     private Integer mChannelAutoStartTimeout;
     private Boolean mAutomaticDiagnosticMonitoring;
+    private Boolean mAllocationProfiling;
+    private Boolean mVirtualThreads;
+    private Integer mMetricsFileExportInterval;
+    private Integer mMetricsHttpPort;
 
     /**
      * Constructs an instance
@@ -104,4 +112,104 @@ public class ApplicationPreference extends Preference
         mPreferences.putBoolean(PREFERENCE_KEY_CHANNEL_AUTO_DIAGNOSTIC_MONITORING, enabled);
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if the diagnostic allocation profiling mode is enabled.
+     * @return enabled.
+     */
+    public boolean isAllocationProfiling()
+    {
+        if(mAllocationProfiling == null)
+        {
+            mAllocationProfiling = mPreferences.getBoolean(PREFERENCE_KEY_ALLOCATION_PROFILING, false);
+        }
+
+        return mAllocationProfiling;
+    }
+
+    /**
+     * Sets the enabled state for the diagnostic allocation profiling mode.
+     * @param enabled true to turn on allocation profiling.
+     */
+    public void setAllocationProfiling(boolean enabled)
+    {
+        mAllocationProfiling = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_ALLOCATION_PROFILING, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if channel dispatchers and audio queue processors should run on virtual threads.
+     * @return enabled.
+     */
+    public boolean isVirtualThreads()
+    {
+        if(mVirtualThreads == null)
+        {
+            mVirtualThreads = mPreferences.getBoolean(PREFERENCE_KEY_VIRTUAL_THREADS, false);
+        }
+
+        return mVirtualThreads;
+    }
+
+    /**
+     * Sets the enabled state for the virtual thread execution mode.  Changes are applied after application restart.
+     * @param enabled true to run channel dispatchers and audio queue processors on virtual threads.
+     */
+    public void setVirtualThreads(boolean enabled)
+    {
+        mVirtualThreads = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_VIRTUAL_THREADS, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Interval for periodically writing the pipeline metrics to a file in the application log directory.
+     * @return interval in seconds, or 0 when the metrics file export is disabled.
+     */
+    public int getMetricsFileExportInterval()
+    {
+        if(mMetricsFileExportInterval == null)
+        {
+            mMetricsFileExportInterval = mPreferences.getInt(PREFERENCE_KEY_METRICS_FILE_EXPORT_INTERVAL, 0);
+        }
+
+        return mMetricsFileExportInterval;
+    }
+
+    /**
+     * Sets the pipeline metrics file export interval.
+     * @param interval in seconds, or 0 to disable.
+     */
+    public void setMetricsFileExportInterval(int interval)
+    {
+        mMetricsFileExportInterval = interval;
+        mPreferences.putInt(PREFERENCE_KEY_METRICS_FILE_EXPORT_INTERVAL, interval);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Local (loopback) HTTP port for the pipeline metrics pull endpoint.
+     * @return port number, or 0 when the endpoint is disabled.
+     */
+    public int getMetricsHttpPort()
+    {
+        if(mMetricsHttpPort == null)
+        {
+            mMetricsHttpPort = mPreferences.getInt(PREFERENCE_KEY_METRICS_HTTP_PORT, 0);
+        }
+
+        return mMetricsHttpPort;
+    }
+
+    /**
+     * Sets the local HTTP port for the pipeline metrics pull endpoint.
+     * @param port number, or 0 to disable.
+     */
+    public void setMetricsHttpPort(int port)
+    {
+        mMetricsHttpPort = port;
+        mPreferences.putInt(PREFERENCE_KEY_METRICS_HTTP_PORT, port);
+        notifyPreferenceUpdated();
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.preference.event;
+
+import io.github.dsheirer.preference.Preference;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.sample.Listener;
+import java.util.prefs.Preferences;
+
+/**
+ * User preferences for channel event log files
+ */
+public class EventLogPreference extends Preference
+{
+    private static final String PREFERENCE_KEY_ROTATION_SIZE_MB = "event.log.rotation.size.mb";
+    private static final String PREFERENCE_KEY_ROTATION_INTERVAL_HOURS = "event.log.rotation.interval.hours";
+    private static final String PREFERENCE_KEY_COMPRESS_ROTATED = "event.log.compress.rotated";
+    private Preferences mPreferences = Preferences.userNodeForPackage(EventLogPreference.class);
+    private Integer mRotationSizeMB;
+    private Integer mRotationIntervalHours;
+    private Boolean mCompressRotated;
+
+    /**
+     * Constructs this preference with an update listener
+     * @param updateListener to receive notifications whenever these preferences change
+     */
+    public EventLogPreference(Listener<PreferenceType> updateListener)
+    {
+        super(updateListener);
+    }
+
+    @Override
+    public PreferenceType getPreferenceType()
+    {
+        return PreferenceType.EVENT_LOG;
+    }
+
+    /**
+     * Maximum size of an event log file in megabytes before the log is rotated to a new file.
+     * @return size in megabytes, or zero if logs are not rotated by size.
+     */
+    public int getRotationSizeMB()
+    {
+        if(mRotationSizeMB == null)
+        {
+            mRotationSizeMB = Math.max(mPreferences.getInt(PREFERENCE_KEY_ROTATION_SIZE_MB, 0), 0);
+        }
+
+        return mRotationSizeMB;
+    }
+
+    /**
+     * Sets the maximum event log file size in megabytes, or zero to disable size rotation.
+     */
+    public void setRotationSizeMB(int sizeMB)
+    {
+        mRotationSizeMB = Math.max(sizeMB, 0);
+        mPreferences.putInt(PREFERENCE_KEY_ROTATION_SIZE_MB, mRotationSizeMB);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Maximum age of an event log file in hours before the log is rotated to a new file.
+     * @return interval in hours, or zero if logs are not rotated by time.
+     */
+    public int getRotationIntervalHours()
+    {
+        if(mRotationIntervalHours == null)
+        {
+            mRotationIntervalHours = Math.max(mPreferences.getInt(PREFERENCE_KEY_ROTATION_INTERVAL_HOURS, 0), 0);
+        }
+
+        return mRotationIntervalHours;
+    }
+
+    /**
+     * Sets the event log file rotation interval in hours, or zero to disable time rotation.
+     */
+    public void setRotationIntervalHours(int hours)
+    {
+        mRotationIntervalHours = Math.max(hours, 0);
+        mPreferences.putInt(PREFERENCE_KEY_ROTATION_INTERVAL_HOURS, mRotationIntervalHours);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if event log files should be gzip compressed once they are rotated and closed.
+     */
+    public boolean isCompressRotated()
+    {
+        if(mCompressRotated == null)
+        {
+            mCompressRotated = mPreferences.getBoolean(PREFERENCE_KEY_COMPRESS_ROTATED, false);
+        }
+
+        return mCompressRotated;
+    }
+
+    /**
+     * Sets the preference to gzip compress event log files once they are rotated and closed.
+     */
+    public void setCompressRotated(boolean compress)
+    {
+        mCompressRotated = compress;
+        mPreferences.putBoolean(PREFERENCE_KEY_COMPRESS_ROTATED, compress);
+        notifyPreferenceUpdated();
+    }
+}
@@ -36,12 +36,14 @@ public class MP3Preference extends Preference
     private static final String PREFERENCE_KEY_AUDIO_MP3_SETTING = "audio.mp3.setting";
     private static final String PREFERENCE_KEY_AUDIO_MP3_SAMPLE_RATE = "audio.mp3.sample.rate";
     private static final String PREFERENCE_KEY_AUDIO_MP3_NORMALIZE_BEFORE_ENCODE = "audio.mp3.normalize.before.encode";
+    private static final String PREFERENCE_KEY_AUDIO_MP3_STREAM_FROM_MEMORY = "audio.mp3.stream.from.memory";
     private final static Logger mLog = LoggerFactory.getLogger(MP3Preference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(MP3Preference.class);
     private InputAudioFormat mInputAudioFormat;
     private MP3Setting mMP3Setting;
 
     private Boolean mNormalizeAudio;
+    private Boolean mStreamFromMemory;
 
     /**
      * Constructs this preference with an update listener
@@ -173,4 +175,30 @@ public class MP3Preference extends Preference
         mPreferences.putBoolean(PREFERENCE_KEY_AUDIO_MP3_NORMALIZE_BEFORE_ENCODE, normalizeAudio);
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if the user prefers to stream MP3 audio directly from memory instead of creating a temporary
+     * recording file for each streamed audio segment.
+     * @return true to stream from memory
+     */
+    public boolean isStreamFromMemory()
+    {
+        if(mStreamFromMemory == null)
+        {
+            mStreamFromMemory = mPreferences.getBoolean(PREFERENCE_KEY_AUDIO_MP3_STREAM_FROM_MEMORY, false);
+        }
+
+        return mStreamFromMemory;
+    }
+
+    /**
+     * Sets the preference to stream MP3 audio directly from memory instead of using temporary recording files.
+     * @param streamFromMemory true to stream from memory
+     */
+    public void setStreamFromMemory(boolean streamFromMemory)
+    {
+        mStreamFromMemory = streamFromMemory;
+        mPreferences.putBoolean(PREFERENCE_KEY_AUDIO_MP3_STREAM_FROM_MEMORY, streamFromMemory);
+        notifyPreferenceUpdated();
+    }
 }
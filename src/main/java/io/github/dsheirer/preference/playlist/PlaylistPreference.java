@@ -109,6 +109,24 @@ public class PlaylistPreference extends Preference
         return Paths.get(playlist + ".backup");
     }
 
+    /**
+     * Binary snapshot file for the playlist.
+     */
+    public Path getPlaylistSnapshot()
+    {
+        String playlist = getPlaylist().toAbsolutePath().toString();
+        return Paths.get(playlist + ".snapshot");
+    }
+
+    /**
+     * Change journal file for the playlist snapshot.
+     */
+    public Path getPlaylistJournal()
+    {
+        String playlist = getPlaylist().toAbsolutePath().toString();
+        return Paths.get(playlist + ".journal");
+    }
+
     /**
      * Sets the path to the playlist
      */
@@ -25,7 +25,10 @@ package io.github.dsheirer.preference.source;
 public enum ChannelizerType
 {
     POLYPHASE("Polyphase"),
-    HETERODYNE(" Heterodyne");
+    POLYPHASE_MULTI_CORE("Polyphase Multi-Core"),
+    HETERODYNE(" Heterodyne"),
+    HETERODYNE_DECIMATION_TREE("Heterodyne Decimation Tree"),
+    FAST_CONVOLUTION("Fast Convolution");
 
     private String mLabel;
 
@@ -36,9 +36,11 @@ public class TunerPreference extends Preference
     private Preferences mPreferences = Preferences.userNodeForPackage(TunerPreference.class);
     private static final String PREFERENCE_KEY_CHANNELIZER_TYPE = "channelizer.type";
     private static final String PREFERENCE_KEY_RSP_DUO_TUNER_MODE = "rsp.duo.tuner.mode";
+    private static final String PREFERENCE_KEY_POLYPHASE_WORKER_COUNT = "polyphase.worker.count";
 
     private ChannelizerType mChannelizerType;
     private RspDuoSelectionMode mRspDuoSelectionMode;
+    private Integer mPolyphaseWorkerCount;
 
     /**
      * Constructs a tuner preference with the update listener
@@ -72,13 +74,25 @@ public class TunerPreference extends Preference
                 {
                     mChannelizerType = ChannelizerType.POLYPHASE;
                 }
+                else if(type.equalsIgnoreCase(ChannelizerType.POLYPHASE_MULTI_CORE.name()))
+                {
+                    mChannelizerType = ChannelizerType.POLYPHASE_MULTI_CORE;
+                }
                 else if(type.equalsIgnoreCase(ChannelizerType.HETERODYNE.name()))
                 {
                     mChannelizerType = ChannelizerType.HETERODYNE;
                 }
+                else if(type.equalsIgnoreCase(ChannelizerType.HETERODYNE_DECIMATION_TREE.name()))
+                {
+                    mChannelizerType = ChannelizerType.HETERODYNE_DECIMATION_TREE;
+                }
+                else if(type.equalsIgnoreCase(ChannelizerType.FAST_CONVOLUTION.name()))
+                {
+                    mChannelizerType = ChannelizerType.FAST_CONVOLUTION;
+                }
             }
 
-            if(type == null)
+            if(mChannelizerType == null)
             {
                 mChannelizerType = ChannelizerType.POLYPHASE;
             }
@@ -97,6 +111,31 @@ public class TunerPreference extends Preference
         notifyPreferenceUpdated();
     }
 
+    /**
+     * Number of worker threads used by the multi-core polyphase channelizer.
+     * @return worker count, or zero to use the number of available processors (default).
+     */
+    public int getPolyphaseWorkerCount()
+    {
+        if(mPolyphaseWorkerCount == null)
+        {
+            mPolyphaseWorkerCount = mPreferences.getInt(PREFERENCE_KEY_POLYPHASE_WORKER_COUNT, 0);
+        }
+
+        return mPolyphaseWorkerCount;
+    }
+
+    /**
+     * Sets the number of worker threads used by the multi-core polyphase channelizer.
+     * @param count of workers, or zero to use the number of available processors.
+     */
+    public void setPolyphaseWorkerCount(int count)
+    {
+        mPolyphaseWorkerCount = count;
+        mPreferences.putInt(PREFERENCE_KEY_POLYPHASE_WORKER_COUNT, count);
+        notifyPreferenceUpdated();
+    }
+
     /**
      * RSPduo tuner select mode.
      * @return mode or a default value of DUAL
@@ -31,15 +31,13 @@ import io.github.dsheirer.identifier.tone.ToneIdentifier;
 import io.github.dsheirer.identifier.tone.ToneSequence;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.SignalledProcessor;
 import io.github.dsheirer.util.StringUtils;
-import io.github.dsheirer.util.ThreadPool;
 import io.github.dsheirer.util.TimeStamp;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import org.slf4j.Logger;
@@ -52,7 +50,8 @@ public class AudioRecordingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecordingManager.class);
     private LinkedTransferQueue<AudioSegment> mCompletedAudioSegmentQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mQueueProcessorHandle;
+    private SignalledProcessor mQueueProcessor = new SignalledProcessor("sdrtrunk audio recording manager",
+        this::processAudioSegments, 0);
     private UserPreferences mUserPreferences;
     private int mUnknownAudioRecordingIndex = 1;
     private int mDuplicateAudioRecordingSuffix = 1;
@@ -72,11 +71,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
      */
     public void start()
     {
-        if(mQueueProcessorHandle == null)
-        {
-            mQueueProcessorHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new QueueProcessor(),
-                0, 1, TimeUnit.SECONDS);
-        }
+        mQueueProcessor.start();
     }
 
     /**
@@ -84,11 +79,10 @@ public class AudioRecordingManager implements Listener<AudioSegment>
      */
     public void stop()
     {
-        if(mQueueProcessorHandle != null)
+        if(mQueueProcessor.isRunning())
         {
-            mQueueProcessorHandle.cancel(true);
+            mQueueProcessor.stop();
             processAudioSegments();
-            mQueueProcessorHandle = null;
         }
     }
 
@@ -123,6 +117,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
         if(audioSegment.recordAudioProperty().get())
         {
             mCompletedAudioSegmentQueue.add(audioSegment);
+            mQueueProcessor.signal();
         }
         else
         {
@@ -131,7 +126,8 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Processes any queued audio segments
+     * Processes any queued audio segments.  Invoked by the queue processor each time a recordable audio segment is
+     * queued.
      */
     private void processAudioSegments()
     {
@@ -140,24 +136,13 @@ public class AudioRecordingManager implements Listener<AudioSegment>
 
         while(audioSegment != null)
         {
-            if(audioSegment.isDuplicate() && mUserPreferences.getCallManagementPreference().isDuplicateRecordingSuppressionEnabled())
+            try
             {
-                audioSegment.decrementConsumerCount();
+                processAudioSegment(audioSegment, recordFormat);
             }
-            else
+            catch(Throwable t)
             {
-                Path path = getAudioRecordingPath(audioSegment.getIdentifierCollection(), recordFormat);
-
-                try
-                {
-                    AudioSegmentRecorder.record(audioSegment, path, recordFormat, mUserPreferences);
-                }
-                catch(IOException ioe)
-                {
-                    mLog.error("Error recording audio segment to [" + path.toString() + "]");
-                }
-
-                audioSegment.decrementConsumerCount();
+                mLog.error("Error while processing queued audio segments to recordings", t);
             }
 
             //Grab the next one to record
@@ -165,6 +150,35 @@ public class AudioRecordingManager implements Listener<AudioSegment>
         }
     }
 
+    /**
+     * Records the audio segment, unless it's a duplicate and duplicate recording suppression is enabled.
+     * @param audioSegment to record
+     * @param recordFormat for the recording
+     */
+    private void processAudioSegment(AudioSegment audioSegment, RecordFormat recordFormat)
+    {
+        if(audioSegment.isDuplicate() &&
+            mUserPreferences.getCallManagementPreference().isDuplicateRecordingSuppressionEnabled())
+        {
+            audioSegment.decrementConsumerCount();
+        }
+        else
+        {
+            Path path = getAudioRecordingPath(audioSegment.getIdentifierCollection(), recordFormat);
+
+            try
+            {
+                AudioSegmentRecorder.record(audioSegment, path, recordFormat, mUserPreferences);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error recording audio segment to [" + path.toString() + "]");
+            }
+
+            audioSegment.decrementConsumerCount();
+        }
+    }
+
     /**
      * Base path to recordings folder
      * @return
@@ -354,23 +368,4 @@ public class AudioRecordingManager implements Listener<AudioSegment>
 
         return null;
     }
-
-    /**
-     * Threaded queue processor to process/record each recordable audio segment
-     */
-    public class QueueProcessor implements Runnable
-    {
-        @Override
-        public void run()
-        {
-            try
-            {
-                processAudioSegments();
-            }
-            catch(Throwable t)
-            {
-                mLog.error("Error while processing queued audio segments to recordings", t);
-            }
-        }
-    }
 }
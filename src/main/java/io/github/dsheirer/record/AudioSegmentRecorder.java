@@ -21,8 +21,8 @@ package io.github.dsheirer.record;
 
 import io.github.dsheirer.audio.AudioFormats;
 import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.convert.EncodedAudioCache;
 import io.github.dsheirer.audio.convert.InputAudioFormat;
-import io.github.dsheirer.audio.convert.MP3AudioConverter;
 import io.github.dsheirer.audio.convert.MP3Setting;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.preference.UserPreferences;
@@ -35,7 +35,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -109,27 +109,16 @@ public class AudioSegmentRecorder
             byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
             outputStream.write(id3Bytes);
 
-            //Convert audio to MP3 and write to file
-            InputAudioFormat inputAudioFormat = userPreferences.getMP3Preference().getAudioSampleRate();
-            MP3Setting mp3Setting = userPreferences.getMP3Preference().getMP3Setting();
+            //Write the shared MP3 encoded audio
+            EncodedAudioCache.EncodedAudio encodedAudio = acquireMP3(audioSegment, userPreferences);
 
-            boolean normalizeAudio = userPreferences.getMP3Preference().isNormalizeAudioBeforeEncode();
-
-            MP3AudioConverter converter = new MP3AudioConverter(inputAudioFormat, mp3Setting, normalizeAudio);
-            List<byte[]> mp3Frames = converter.convert(audioSegment.getAudioBuffers());
-            for(byte[] mp3Frame: mp3Frames)
+            try
             {
-                outputStream.write(mp3Frame);
+                outputStream.write(encodedAudio.getAudio());
             }
-
-            List<byte[]> lastFrames = converter.flush();
-
-            if(!lastFrames.isEmpty())
+            finally
             {
-                for(byte[] lastFrame: lastFrames)
-                {
-                    outputStream.write(lastFrame);
-                }
+                encodedAudio.release();
             }
 
             outputStream.flush();
@@ -137,6 +126,52 @@ public class AudioSegmentRecorder
         }
     }
 
+    /**
+     * Creates an in-memory MP3 recording of the audio segment, including ID3 metadata.
+     * @param audioSegment to record
+     * @param userPreferences for configuration
+     * @param identifierCollection to use instead of the collection embedded in the audio segment
+     * @return MP3 recording bytes or null if the audio segment has no audio.
+     */
+    public static byte[] getMP3(AudioSegment audioSegment, UserPreferences userPreferences,
+                                IdentifierCollection identifierCollection)
+    {
+        if(!audioSegment.hasAudio())
+        {
+            return null;
+        }
+
+        Map<AudioMetadata,String> metadataMap = AudioMetadataUtils.getMetadataMap(identifierCollection,
+            audioSegment.getAliasList());
+        byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
+
+        EncodedAudioCache.EncodedAudio encodedAudio = acquireMP3(audioSegment, userPreferences);
+
+        try
+        {
+            byte[] audio = encodedAudio.getAudio();
+            byte[] mp3 = Arrays.copyOf(id3Bytes, id3Bytes.length + audio.length);
+            System.arraycopy(audio, 0, mp3, id3Bytes.length, audio.length);
+            return mp3;
+        }
+        finally
+        {
+            encodedAudio.release();
+        }
+    }
+
+    /**
+     * Acquires the shared MP3 encoded audio for the audio segment using the user's MP3 preferences.  The caller must
+     * release the encoded audio once finished.
+     */
+    private static EncodedAudioCache.EncodedAudio acquireMP3(AudioSegment audioSegment, UserPreferences userPreferences)
+    {
+        InputAudioFormat inputAudioFormat = userPreferences.getMP3Preference().getAudioSampleRate();
+        MP3Setting mp3Setting = userPreferences.getMP3Preference().getMP3Setting();
+        boolean normalizeAudio = userPreferences.getMP3Preference().isNormalizeAudioBeforeEncode();
+        return EncodedAudioCache.getInstance().acquire(audioSegment, mp3Setting, inputAudioFormat, normalizeAudio);
+    }
+
     /**
      * Records the audio segment as a WAVe file to the specified path.
      * @param audioSegment to record
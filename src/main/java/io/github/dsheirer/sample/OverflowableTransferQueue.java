@@ -18,6 +18,8 @@
  ******************************************************************************/
 package io.github.dsheirer.sample;
 
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.QueueMetrics;
 import io.github.dsheirer.source.Source;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,7 @@ public class OverflowableTransferQueue<E>
     protected AtomicBoolean mOverflow = new AtomicBoolean();
     private int mMaximumSize;
     private int mResetThreshold;
+    private volatile QueueMetrics mQueueMetrics;
 
     /**
      * Concurrent transfer queue that couples a higher-throughput linked transfer queue with an atomic integer for
@@ -58,6 +61,7 @@ public class OverflowableTransferQueue<E>
     public void dispose()
     {
         clear();
+        setMetricScope(null, null);
         mOverflowListener = null;
         mSourceOverflowListener = null;
     }
@@ -81,10 +85,37 @@ public class OverflowableTransferQueue<E>
         }
         else
         {
+            QueueMetrics metrics = mQueueMetrics;
+
+            if(metrics != null)
+            {
+                metrics.overflow();
+            }
+
             overflow(e);
         }
     }
 
+    /**
+     * Registers queue depth and overflow count metrics for this queue with the metrics registry, replacing any
+     * previously registered metrics.  Metrics are removed when this queue is disposed.
+     * @param scope of the metrics, or null to remove the metrics
+     * @param scopeName of the tuner, channelizer or channel that this queue serves
+     */
+    public void setMetricScope(MetricScope scope, String scopeName)
+    {
+        if(mQueueMetrics != null)
+        {
+            mQueueMetrics.dispose();
+            mQueueMetrics = null;
+        }
+
+        if(scope != null)
+        {
+            mQueueMetrics = new QueueMetrics("transfer_queue", scope, scopeName, mCounter::get);
+        }
+    }
+
     /**
      * Invoked when the buffer is in an overflow state.  The element argument is thrown away.  Override this method
      * in subclasses to perform any necessary cleanup action(s).
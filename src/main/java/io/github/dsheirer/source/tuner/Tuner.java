@@ -18,6 +18,7 @@
  */
 package io.github.dsheirer.source.tuner;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
 import io.github.dsheirer.preference.source.ChannelizerType;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
@@ -26,6 +27,8 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerEvent.Event;
 import io.github.dsheirer.source.tuner.manager.ChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.DecimationTreeChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.FastConvolutionChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -71,10 +74,23 @@ public abstract class Tuner implements ISourceEventProcessor, ITunerErrorListene
         {
             setChannelSourceManager(new PolyphaseChannelSourceManager(mTunerController));
         }
+        else if(channelizerType == ChannelizerType.POLYPHASE_MULTI_CORE)
+        {
+            setChannelSourceManager(new PolyphaseChannelSourceManager(mTunerController,
+                ChannelizerWorkerPool.getInstance()));
+        }
         else if(channelizerType == ChannelizerType.HETERODYNE)
         {
             setChannelSourceManager(new HeterodyneChannelSourceManager(mTunerController));
         }
+        else if(channelizerType == ChannelizerType.HETERODYNE_DECIMATION_TREE)
+        {
+            setChannelSourceManager(new DecimationTreeChannelSourceManager(mTunerController));
+        }
+        else if(channelizerType == ChannelizerType.FAST_CONVOLUTION)
+        {
+            setChannelSourceManager(new FastConvolutionChannelSourceManager(mTunerController));
+        }
         else
         {
             throw new IllegalArgumentException("Unrecognized channelizer type: " + channelizerType);
@@ -91,6 +107,7 @@ public abstract class Tuner implements ISourceEventProcessor, ITunerErrorListene
         {
             try
             {
+                getTunerController().setMetricScopeName(getPreferredName());
                 getTunerController().start();
             }
             catch(SourceException se)
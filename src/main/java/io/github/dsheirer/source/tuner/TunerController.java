@@ -19,7 +19,12 @@
 package io.github.dsheirer.source.tuner;
 
 import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.IReusableNativeBufferListener;
 import io.github.dsheirer.buffer.INativeBufferProvider;
+import io.github.dsheirer.monitor.metrics.Counter;
+import io.github.dsheirer.monitor.metrics.Histogram;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.MetricsRegistry;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.RecorderFactory;
 import io.github.dsheirer.record.wave.IRecordingStatusListener;
@@ -56,6 +61,10 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     protected Broadcaster<INativeBuffer> mNativeBufferBroadcaster = new Broadcaster();
     protected FrequencyController mFrequencyController;
     private int mMiddleUnusableHalfBandwidth;
+    private String mMetricScopeName;
+    private volatile boolean mReusableBufferListenersOnly = false;
+    private Counter mSampleCounter;
+    private volatile Histogram mBroadcastTime;
     private int mMeasuredFrequencyError;
     private double mUsableBandwidthPercentage;
     private SourceEventListenerToProcessorAdapter mSourceEventListener;
@@ -116,8 +125,50 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
         return mFrequencyErrorCorrectionManager;
     }
 
+    /**
+     * Registers sample throughput and buffer distribution time metrics for this tuner with the metrics registry.
+     * @param name of this tuner to use as the metric scope name
+     */
+    public void setMetricScopeName(String name)
+    {
+        removeMetrics();
+        mMetricScopeName = name;
+
+        if(name != null)
+        {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            mSampleCounter = registry.counter("tuner_samples_total", "Number of complex samples produced by the tuner",
+                MetricScope.TUNER, name);
+            mBroadcastTime = registry.histogram("tuner_buffer_broadcast_time_us",
+                "Time to distribute each tuner sample buffer to the registered listeners in microseconds",
+                MetricScope.TUNER, name);
+        }
+    }
+
+    /**
+     * Name of this tuner used as the metric scope name, or null if metrics are not registered.
+     */
+    public String getMetricScopeName()
+    {
+        return mMetricScopeName;
+    }
+
+    /**
+     * Removes this tuner's metrics from the metrics registry.
+     */
+    private void removeMetrics()
+    {
+        if(mMetricScopeName != null)
+        {
+            mBroadcastTime = null;
+            MetricsRegistry.getInstance().remove(MetricScope.TUNER, mMetricScopeName);
+            mMetricScopeName = null;
+        }
+    }
+
     protected void dispose()
     {
+        removeMetrics();
         getFrequencyErrorCorrectionManager().dispose();
         mNativeBufferBroadcaster.clear();
         mFrequencyController.dispose();
@@ -628,7 +679,14 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
 
         try
         {
+            //Disable reusable buffers before adding the listener so that the producer can detect the change
+            if(!(listener instanceof IReusableNativeBufferListener))
+            {
+                mReusableBufferListenersOnly = false;
+            }
+
             mNativeBufferBroadcaster.addListener(listener);
+            updateReusableBufferListenersOnly();
         }
         finally
         {
@@ -647,6 +705,7 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
         try
         {
             mNativeBufferBroadcaster.removeListener(listener);
+            updateReusableBufferListenersOnly();
         }
         finally
         {
@@ -654,6 +713,38 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
         }
     }
 
+    /**
+     * Updates the flag that indicates if all registered buffer listeners honor the reusable native buffer contract.
+     * Note: invoke while holding the buffer listener lock.
+     */
+    private void updateReusableBufferListenersOnly()
+    {
+        boolean reusableOnly = mNativeBufferBroadcaster.hasListeners();
+
+        for(Listener<INativeBuffer> listener: mNativeBufferBroadcaster.getListeners())
+        {
+            if(!(listener instanceof IReusableNativeBufferListener))
+            {
+                reusableOnly = false;
+                break;
+            }
+        }
+
+        mReusableBufferListenersOnly = reusableOnly;
+    }
+
+    /**
+     * Indicates if all registered buffer listeners implement IReusableNativeBufferListener so that native buffers
+     * can be produced from pooled memory and reused once all listeners have released the buffer.  Producers should
+     * check this value again after broadcasting a reusable buffer and should not release the buffer if the value
+     * changed to false, since a listener that doesn't honor the contract may have been added during the broadcast.
+     * An unreleased buffer is simply garbage collected.
+     */
+    protected boolean isReusableBufferListenersOnly()
+    {
+        return mReusableBufferListenersOnly;
+    }
+
     /**
      * Indicates if there are any complex buffer listeners registered on this controller
      */
@@ -681,8 +772,21 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
      */
     protected void broadcast(INativeBuffer complexSamples)
     {
-        //Note: unprotected access to the broadcaster ... the broadcaster uses thread-save internal list
-        mNativeBufferBroadcaster.broadcast(complexSamples);
+        Histogram broadcastTime = mBroadcastTime;
+
+        if(broadcastTime != null)
+        {
+            mSampleCounter.add(complexSamples.sampleCount());
+            long start = System.nanoTime();
+            //Note: unprotected access to the broadcaster ... the broadcaster uses thread-save internal list
+            mNativeBufferBroadcaster.broadcast(complexSamples);
+            broadcastTime.recordElapsedMicros(start);
+        }
+        else
+        {
+            //Note: unprotected access to the broadcaster ... the broadcaster uses thread-save internal list
+            mNativeBufferBroadcaster.broadcast(complexSamples);
+        }
     }
 
     /**
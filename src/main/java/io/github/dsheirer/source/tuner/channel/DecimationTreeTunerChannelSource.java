@@ -0,0 +1,235 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.channel;
+
+import io.github.dsheirer.dsp.filter.decimate.DecimationFilterFactory;
+import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.util.RingBufferDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Complex sample source that is fed by a node of a shared decimation tree.  The decimation tree performs the frequency
+ * translation and half-band decimation stages that are shared with other channels and delivers the samples for the
+ * tree node that this channel is attached to.  This channel source performs the final frequency translation and
+ * decimation at the node sample rate, so the per-channel processing cost scales with the channel bandwidth rather than
+ * the tuner bandwidth.
+ *
+ * Sample buffer processing occurs on this channel's dispatcher thread.
+ */
+public class DecimationTreeTunerChannelSource extends TunerChannelSource
+{
+    private static final Logger mLog = LoggerFactory.getLogger(DecimationTreeTunerChannelSource.class);
+
+    //Maximum number of filled buffers for the dispatcher queue
+    private static final int BUFFER_MAX_CAPACITY = 600;
+
+    private RingBufferDispatcher<NodeSamples> mBufferDispatcher;
+    private ComplexMixer mMixer;
+    private IRealDecimationFilter mIDecimationFilter;
+    private IRealDecimationFilter mQDecimationFilter;
+    private Listener<ComplexSamples> mSamplesListener;
+    private Route mRoute;
+    private int mDecimation;
+    private double mChannelSampleRate;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param producerSourceEventListener to receive sample stream start/stop requests
+     * @param tunerChannel that details the desired channel frequency and bandwidth
+     * @param sampleRate of the tuner sample stream
+     * @param channelSpecification for the requested channel.
+     * @param threadName for the dispatcher
+     */
+    public DecimationTreeTunerChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                            TunerChannel tunerChannel, double sampleRate,
+                                            ChannelSpecification channelSpecification, String threadName)
+    {
+        super(producerSourceEventListener, tunerChannel, threadName);
+
+        int desiredDecimation = (int)(sampleRate / channelSpecification.getMinimumSampleRate());
+        mDecimation = DecimationFilterFactory.getDecimationRate(desiredDecimation);
+        mChannelSampleRate = sampleRate / (double)mDecimation;
+        mMixer = ComplexMixerFactory.getMixer(0, sampleRate);
+
+        mBufferDispatcher = new RingBufferDispatcher<>(threadName, BUFFER_MAX_CAPACITY,
+            RingBufferDispatcher.WaitStrategy.PARK, getHeartbeatManager());
+        mBufferDispatcher.setListener(new NodeSamplesProcessor());
+        mBufferDispatcher.setOverflowListener(this::broadcastOverflowState);
+        mBufferDispatcher.setMetricScope(MetricScope.CHANNEL, threadName);
+    }
+
+    /**
+     * Overall decimation rate from the tuner sample rate to the channel sample rate.  The decimation tree can perform
+     * up to half of this decimation (ie all but the final decimate by 2 stage) in shared stages.
+     */
+    public int getDecimation()
+    {
+        return mDecimation;
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        mBufferDispatcher.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        super.stop();
+        mBufferDispatcher.stop();
+    }
+
+    @Override
+    public void dispose()
+    {
+    }
+
+    /**
+     * Primary method for the decimation tree to deliver samples from the tree node that this channel is attached to.
+     *
+     * @param samples from the tree node
+     * @param route that describes the tree node and the channel mixer frequency
+     */
+    public void receive(ComplexSamples samples, Route route)
+    {
+        mBufferDispatcher.receive(new NodeSamples(samples, route));
+    }
+
+    /**
+     * Not used.  The decimation tree recalculates the route for each channel when the tuner frequency changes.
+     */
+    @Override
+    public void setFrequency(long frequency)
+    {
+    }
+
+    /**
+     * Frequency of the final mixer that translates this channel from the tree node frequency to baseband.
+     * @return mixer frequency
+     */
+    public long getMixerFrequency()
+    {
+        Route route = mRoute;
+        return route != null ? (long)route.mixerFrequency() : 0;
+    }
+
+    /**
+     * Tree node level that this channel is currently attached to, where level 0 is the full rate tuner sample stream.
+     */
+    public int getTreeLevel()
+    {
+        Route route = mRoute;
+        return route != null ? route.level() : 0;
+    }
+
+    @Override
+    protected void setSampleRate(double sampleRate)
+    {
+        //Not implemented.  Sample rate changes are not permitted once sample stream starts
+    }
+
+    @Override
+    public void setListener(Listener<ComplexSamples> listener)
+    {
+        mSamplesListener = listener;
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mChannelSampleRate;
+    }
+
+    /**
+     * Updates the final mixer and decimation filters when the decimation tree moves this channel to a different tree
+     * node, or when the tuner frequency changes.  Note: invoke on the dispatcher thread.
+     */
+    private void updateRoute(Route route)
+    {
+        if(mRoute == null || mRoute.level() != route.level())
+        {
+            int decimation = mDecimation >> route.level();
+            mIDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
+            mQDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
+            mMixer.setSampleRate(route.sampleRate());
+        }
+
+        mMixer.setFrequency(route.mixerFrequency());
+        mRoute = route;
+    }
+
+    /**
+     * Describes the tree node that a channel is attached to.
+     *
+     * @param level of the tree node where level 0 is the full rate tuner sample stream
+     * @param sampleRate of the tree node samples
+     * @param mixerFrequency to translate the channel from the tree node center frequency to baseband
+     */
+    public record Route(int level, double sampleRate, double mixerFrequency) {}
+
+    /**
+     * Samples from a tree node with the route that produced them.
+     */
+    private record NodeSamples(ComplexSamples samples, Route route) {}
+
+    /**
+     * Processes tree node samples received from the dispatcher and sends to the registered listener
+     */
+    private class NodeSamplesProcessor implements Listener<NodeSamples>
+    {
+        @Override
+        public void receive(NodeSamples nodeSamples)
+        {
+            if(nodeSamples.route() != mRoute)
+            {
+                updateRoute(nodeSamples.route());
+            }
+
+            if(mSamplesListener != null)
+            {
+                ComplexSamples basebanded = mMixer.mix(nodeSamples.samples());
+                float[] i = mIDecimationFilter.decimateReal(basebanded.i());
+                float[] q = mQDecimationFilter.decimateReal(basebanded.q());
+
+                try
+                {
+                    mSamplesListener.receive(new ComplexSamples(i, q, basebanded.timestamp()));
+                }
+                catch(Throwable t)
+                {
+                    //The listener can be made null and cause the error - only log if we have a non-null listener
+                    if(mSamplesListener != null)
+                    {
+                        mLog.error("Error dispatching complex samples to listener [" + mSamplesListener + "]");
+                    }
+                }
+            }
+        }
+    }
+}
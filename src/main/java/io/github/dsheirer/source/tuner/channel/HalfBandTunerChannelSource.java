@@ -27,7 +27,7 @@ import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.SourceEvent;
-import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.RingBufferDispatcher;
 import java.util.Iterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +44,7 @@ public class HalfBandTunerChannelSource<T extends INativeBuffer> extends TunerCh
     //Maximum number of filled buffers for the blocking queue
     private static final int BUFFER_MAX_CAPACITY = 600;
 
-    private Dispatcher<T> mBufferDispatcher;
+    private RingBufferDispatcher<T> mBufferDispatcher;
     private ComplexMixer mFrequencyCorrectionMixer;
     private IRealDecimationFilter mIDecimationFilter;
     private IRealDecimationFilter mQDecimationFilter;
@@ -75,9 +75,10 @@ public class HalfBandTunerChannelSource<T extends INativeBuffer> extends TunerCh
         mIDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
         mQDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
 
-        //Set dispatcher to process 1/10 of estimated sample arrival rate, 20 times per second (up to 200% per interval)
-        mBufferDispatcher = new Dispatcher(threadName, 50, getHeartbeatManager());
+        mBufferDispatcher = new RingBufferDispatcher<>(threadName, BUFFER_MAX_CAPACITY,
+            RingBufferDispatcher.WaitStrategy.PARK, getHeartbeatManager());
         mBufferDispatcher.setListener(new NativeBufferProcessor());
+        mBufferDispatcher.setOverflowListener(this::broadcastOverflowState);
 
         //Setup the frequency mixer to the current source frequency
         mChannelSampleRate = sampleRate / (double)decimation;
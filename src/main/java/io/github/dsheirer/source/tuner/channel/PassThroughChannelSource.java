@@ -20,6 +20,7 @@
 package io.github.dsheirer.source.tuner.channel;
 
 import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.monitor.metrics.MetricScope;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.ISourceEventListener;
@@ -57,6 +58,7 @@ public class PassThroughChannelSource extends TunerChannelSource implements ISou
         mTunerController = tunerController;
         mBufferDispatcher = new Dispatcher<>(threadName, 50, getHeartbeatManager());
         mBufferDispatcher.setListener(new BufferProcessor());
+        mBufferDispatcher.setMetricScope(MetricScope.CHANNEL, threadName);
     }
 
     @Override
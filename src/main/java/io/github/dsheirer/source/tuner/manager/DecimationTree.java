@@ -0,0 +1,480 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.tuner.channel.DecimationTreeTunerChannelSource;
+import io.github.dsheirer.source.tuner.channel.DecimationTreeTunerChannelSource.Route;
+import io.github.dsheirer.util.RingBufferDispatcher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared multi-stage decimation tree for heterodyne channel provisioning.
+ *
+ * The root node is the full rate tuner sample stream.  Each node can have up to three child nodes that are centered
+ * at -1/4, 0 and +1/4 of the node sample rate from the node center frequency.  A child node translates the node
+ * samples by a quarter of the sample rate, which is a multiplication by the sequence 1, -j, -1, j and requires no
+ * oscillator, and then decimates by 2 with a 23-tap half-band filter.  Channels only attach where their bandwidth fits
+ * within +/- 20% of the node sample rate and every node is followed by at least one further decimation stage in the
+ * channel, so the short filter used by the first stage of the decimate-by-4 filter is sufficient and the three
+ * overlapping children cover the usable bandwidth of the parent node.
+ *
+ * Each channel descends from the root to the deepest node that fully contains the channel bandwidth, stopping one
+ * level short of the channel's overall decimation rate.  The channel performs the final frequency translation and
+ * decimation at the node sample rate.  Channels that are near each other share the early (high sample rate) stages,
+ * so the full rate processing cost is bounded by the three first level nodes regardless of the number of channels,
+ * and the per-channel cost scales with the channel bandwidth rather than the tuner bandwidth.
+ *
+ * Node filter states are preserved across channel add and remove so that adding a channel doesn't disturb the other
+ * channels.  When the tuner center frequency changes, the channel routes are recalculated since the channel offsets
+ * from the tuner center frequency change.
+ *
+ * Tree processing occurs on a dedicated dispatcher thread and each channel performs its final stage on its own
+ * dispatcher thread.
+ */
+public class DecimationTree implements ISharedChannelizer<DecimationTreeTunerChannelSource>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(DecimationTree.class);
+
+    //Maximum number of native buffers for the dispatcher queue
+    private static final int BUFFER_MAX_CAPACITY = 500;
+
+    //Fraction of a node's Nyquist bandwidth that is protected from aliasing by the node half-band filter
+    private static final double USABLE_BANDWIDTH = 0.4;
+    private static final int NODE_FILTER_LENGTH = 23;
+    private static final WindowType NODE_FILTER_WINDOW_TYPE = WindowType.BLACKMAN;
+
+    private final Map<DecimationTreeTunerChannelSource,Node> mChannelNodes = new LinkedHashMap<>();
+    private final RingBufferDispatcher<INativeBuffer> mBufferDispatcher;
+    private final Node mRoot;
+    private long mTunerFrequency;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the tuner sample stream
+     * @param tunerFrequency of the tuner sample stream
+     * @param threadName for the tree dispatcher
+     * @param metricScopeName for the tree dispatcher metrics, or null.
+     */
+    public DecimationTree(double sampleRate, long tunerFrequency, String threadName, String metricScopeName)
+    {
+        mTunerFrequency = tunerFrequency;
+        mRoot = new Node(null, 0, 0.0, sampleRate);
+        mBufferDispatcher = new RingBufferDispatcher<>(threadName, BUFFER_MAX_CAPACITY,
+            RingBufferDispatcher.WaitStrategy.PARK);
+        mBufferDispatcher.setListener(this::process);
+
+        if(metricScopeName != null)
+        {
+            mBufferDispatcher.setMetricScope(MetricScope.CHANNELIZER, metricScopeName);
+        }
+    }
+
+    /**
+     * Starts the tree dispatcher thread.
+     */
+    @Override
+    public void start()
+    {
+        mBufferDispatcher.start();
+    }
+
+    /**
+     * Stops the tree dispatcher thread.
+     */
+    @Override
+    public void stop()
+    {
+        mBufferDispatcher.stop();
+    }
+
+    /**
+     * Primary method for receiving native buffers from the tuner.
+     */
+    @Override
+    public void receive(INativeBuffer nativeBuffer)
+    {
+        mBufferDispatcher.receive(nativeBuffer);
+    }
+
+    /**
+     * Number of channels attached to the tree.
+     */
+    @Override
+    public synchronized int getChannelCount()
+    {
+        return mChannelNodes.size();
+    }
+
+    /**
+     * Number of nodes in the tree, including the root node.
+     */
+    public synchronized int getNodeCount()
+    {
+        return mRoot.getNodeCount();
+    }
+
+    /**
+     * Adds the channel to the tree.
+     */
+    @Override
+    public synchronized void add(DecimationTreeTunerChannelSource channel)
+    {
+        if(!mChannelNodes.containsKey(channel))
+        {
+            attach(channel);
+        }
+    }
+
+    /**
+     * Removes the channel from the tree and removes any tree nodes that are no longer needed.
+     */
+    @Override
+    public synchronized void remove(DecimationTreeTunerChannelSource channel)
+    {
+        Node node = mChannelNodes.remove(channel);
+
+        if(node != null)
+        {
+            node.remove(channel);
+        }
+    }
+
+    /**
+     * Sets the tuner center frequency and recalculates the route for each channel.
+     * @param tunerFrequency in hertz
+     */
+    @Override
+    public synchronized void setTunerFrequency(long tunerFrequency)
+    {
+        if(mTunerFrequency != tunerFrequency)
+        {
+            mTunerFrequency = tunerFrequency;
+
+            List<DecimationTreeTunerChannelSource> channels = new ArrayList<>(mChannelNodes.keySet());
+
+            for(DecimationTreeTunerChannelSource channel: channels)
+            {
+                mChannelNodes.remove(channel).remove(channel);
+                attach(channel);
+            }
+        }
+    }
+
+    /**
+     * Calculates the route for the channel and attaches the channel to the route node, creating nodes as needed.
+     */
+    private void attach(DecimationTreeTunerChannelSource channel)
+    {
+        double channelOffset = channel.getTunerChannel().getFrequency() - mTunerFrequency;
+        double halfBandwidth = channel.getTunerChannel().getBandwidth() / 2.0;
+
+        //Leave at least the final decimate by 2 stage to the channel
+        int maxLevel = Integer.numberOfTrailingZeros(Math.max(channel.getDecimation(), 1)) - 1;
+
+        Node node = mRoot;
+
+        while(node.getLevel() < maxLevel)
+        {
+            int shift = node.getBestChildShift(channelOffset, halfBandwidth);
+
+            if(shift == Node.NO_CHILD)
+            {
+                break;
+            }
+
+            node = node.getChild(shift);
+        }
+
+        Route route = new Route(node.getLevel(), node.getSampleRate(), node.getOffset() - channelOffset);
+        node.add(channel, route);
+        mChannelNodes.put(channel, node);
+    }
+
+    /**
+     * Processes a native buffer through the tree.  Invoked on the dispatcher thread.
+     */
+    private void process(INativeBuffer nativeBuffer)
+    {
+        synchronized(this)
+        {
+            Iterator<ComplexSamples> iterator = nativeBuffer.iterator();
+
+            while(iterator.hasNext())
+            {
+                mRoot.process(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Description of the tree nodes and attached channels
+     */
+    @Override
+    public synchronized String getStateDescription()
+    {
+        StringBuilder sb = new StringBuilder();
+        mRoot.describe(sb, mTunerFrequency);
+        return sb.toString();
+    }
+
+    /**
+     * Decimation tree node.
+     */
+    private static class Node
+    {
+        private static final int NO_CHILD = Integer.MIN_VALUE;
+        private final Node mParent;
+        private final int mShift;
+        private final int mLevel;
+        private final double mOffset;
+        private final double mSampleRate;
+        private final Node[] mChildren = new Node[3];
+        private final Map<DecimationTreeTunerChannelSource,Route> mChannels = new LinkedHashMap<>();
+        private IRealDecimationFilter mIDecimationFilter;
+        private IRealDecimationFilter mQDecimationFilter;
+        private float[] mIScratch = new float[0];
+        private float[] mQScratch = new float[0];
+        private int mPhase = 0;
+
+        /**
+         * Constructs an instance
+         * @param parent node or null for the root node
+         * @param shift of -1, 0, or 1 quarter of the parent sample rate from the parent center frequency
+         * @param offset of the node center frequency from the tuner center frequency
+         * @param sampleRate of the node
+         */
+        Node(Node parent, int shift, double offset, double sampleRate)
+        {
+            mParent = parent;
+            mShift = shift;
+            mLevel = parent == null ? 0 : parent.getLevel() + 1;
+            mOffset = offset;
+            mSampleRate = sampleRate;
+
+            if(parent != null)
+            {
+                mIDecimationFilter = FilterFactory.getRealDecimationFilter(NODE_FILTER_LENGTH, NODE_FILTER_WINDOW_TYPE);
+                mQDecimationFilter = FilterFactory.getRealDecimationFilter(NODE_FILTER_LENGTH, NODE_FILTER_WINDOW_TYPE);
+            }
+        }
+
+        int getLevel()
+        {
+            return mLevel;
+        }
+
+        double getOffset()
+        {
+            return mOffset;
+        }
+
+        double getSampleRate()
+        {
+            return mSampleRate;
+        }
+
+        /**
+         * Identifies the child node shift (-1, 0 or 1) with the center frequency closest to the channel where the
+         * child node usable bandwidth fully contains the channel.
+         * @return shift or NO_CHILD if no child node can contain the channel.
+         */
+        int getBestChildShift(double channelOffset, double halfBandwidth)
+        {
+            int best = NO_CHILD;
+            double bestDistance = Double.MAX_VALUE;
+            double usable = mSampleRate / 2.0 * USABLE_BANDWIDTH;
+
+            for(int shift = -1; shift <= 1; shift++)
+            {
+                double distance = Math.abs(channelOffset - (mOffset + shift * mSampleRate / 4.0));
+
+                if(distance + halfBandwidth <= usable && distance < bestDistance)
+                {
+                    best = shift;
+                    bestDistance = distance;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Access the child node for the shift, creating the child node if needed.
+         */
+        Node getChild(int shift)
+        {
+            Node child = mChildren[shift + 1];
+
+            if(child == null)
+            {
+                child = new Node(this, shift, mOffset + shift * mSampleRate / 4.0, mSampleRate / 2.0);
+                mChildren[shift + 1] = child;
+            }
+
+            return child;
+        }
+
+        void add(DecimationTreeTunerChannelSource channel, Route route)
+        {
+            mChannels.put(channel, route);
+        }
+
+        /**
+         * Removes the channel and removes this node from the parent when this node is no longer needed.
+         */
+        void remove(DecimationTreeTunerChannelSource channel)
+        {
+            mChannels.remove(channel);
+            prune();
+        }
+
+        private void prune()
+        {
+            if(mParent != null && mChannels.isEmpty() && mChildren[0] == null && mChildren[1] == null &&
+                mChildren[2] == null)
+            {
+                mParent.mChildren[mShift + 1] = null;
+                mParent.prune();
+            }
+        }
+
+        int getNodeCount()
+        {
+            int count = 1;
+
+            for(Node child: mChildren)
+            {
+                if(child != null)
+                {
+                    count += child.getNodeCount();
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * Delivers the samples to the channels attached to this node and processes the samples through each child.
+         */
+        void process(ComplexSamples samples)
+        {
+            for(Map.Entry<DecimationTreeTunerChannelSource,Route> entry: mChannels.entrySet())
+            {
+                entry.getKey().receive(samples, entry.getValue());
+            }
+
+            for(Node child: mChildren)
+            {
+                if(child != null)
+                {
+                    try
+                    {
+                        child.process(child.translate(samples));
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error processing samples through decimation tree node", t);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Translates the parent node samples by the quarter sample rate shift and decimates by 2.
+         */
+        private ComplexSamples translate(ComplexSamples parentSamples)
+        {
+            float[] i = parentSamples.i();
+            float[] q = parentSamples.q();
+
+            if(mShift != 0)
+            {
+                int length = i.length;
+
+                if(mIScratch.length != length)
+                {
+                    mIScratch = new float[length];
+                    mQScratch = new float[length];
+                }
+
+                //Multiply by exp(-j * shift * PI/2 * n), which cycles through 1, -j, -1, j for a positive shift
+                int phase = mPhase;
+
+                for(int x = 0; x < length; x++)
+                {
+                    switch(phase)
+                    {
+                        case 0:
+                            mIScratch[x] = i[x];
+                            mQScratch[x] = q[x];
+                            break;
+                        case 1:
+                            mIScratch[x] = q[x];
+                            mQScratch[x] = -i[x];
+                            break;
+                        case 2:
+                            mIScratch[x] = -i[x];
+                            mQScratch[x] = -q[x];
+                            break;
+                        case 3:
+                            mIScratch[x] = -q[x];
+                            mQScratch[x] = i[x];
+                            break;
+                    }
+
+                    phase = (phase + mShift) & 3;
+                }
+
+                mPhase = phase;
+                i = mIScratch;
+                q = mQScratch;
+            }
+
+            return new ComplexSamples(mIDecimationFilter.decimateReal(i), mQDecimationFilter.decimateReal(q),
+                parentSamples.timestamp());
+        }
+
+        void describe(StringBuilder sb, long tunerFrequency)
+        {
+            sb.append("\n\tNode Level [").append(mLevel).append("] Frequency [")
+                .append((long)(tunerFrequency + mOffset)).append("] Sample Rate [").append((long)mSampleRate)
+                .append("] Channels [").append(mChannels.size()).append("]");
+
+            for(Node child: mChildren)
+            {
+                if(child != null)
+                {
+                    child.describe(sb, tunerFrequency);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.DecimationTreeTunerChannelSource;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+
+/**
+ * Channel provider for heterodyne and decimate method of channel provisioning using a shared decimation tree.  Unlike
+ * the heterodyne channel source manager where each channel translates and decimates the full rate tuner sample
+ * stream, channels provided by this manager share the early translation and decimation stages of the tree, so the
+ * per-channel cost scales with the channel bandwidth rather than the tuner bandwidth.
+ */
+public class DecimationTreeChannelSourceManager
+    extends SharedChannelizerSourceManager<DecimationTreeTunerChannelSource,DecimationTree>
+{
+    /**
+     * Constructs an instance
+     * @param tunerController providing the sample stream
+     */
+    public DecimationTreeChannelSourceManager(TunerController tunerController)
+    {
+        super(tunerController, DecimationTreeTunerChannelSource.class, "Decimation Tree Channel Source Manager");
+    }
+
+    @Override
+    protected DecimationTree createChannelizer(double sampleRate, long tunerFrequency, String metricScopeName)
+    {
+        return new DecimationTree(sampleRate, tunerFrequency, "sdrtrunk decimation tree", metricScopeName);
+    }
+
+    @Override
+    protected DecimationTreeTunerChannelSource createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                                                   TunerChannel tunerChannel, double sampleRate,
+                                                                   ChannelSpecification channelSpecification,
+                                                                   String threadName)
+    {
+        return new DecimationTreeTunerChannelSource(producerSourceEventListener, tunerChannel, sampleRate,
+            channelSpecification, threadName);
+    }
+
+    @Override
+    protected String getChannelDescription(DecimationTreeTunerChannelSource channelSource)
+    {
+        return "Tree Level [" + channelSource.getTreeLevel() + "] Mixer [" + channelSource.getMixerFrequency() + "]";
+    }
+}
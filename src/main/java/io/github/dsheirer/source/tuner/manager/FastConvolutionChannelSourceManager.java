@@ -0,0 +1,70 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.dsp.filter.channelizer.FastConvolutionChannelSource;
+import io.github.dsheirer.dsp.filter.channelizer.FastConvolutionChannelizer;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+
+/**
+ * Channel provider using an overlap-save fast convolution (FFT filter bank) channelizer.  A single forward FFT of the
+ * tuner sample stream is shared by all channels and each channel extracts, filters and decimates its own band of FFT
+ * bins.  Unlike the polyphase channelizer, channels are not aligned to a fixed channel grid, so each channel can have
+ * an arbitrary center frequency and bandwidth without synthesizing adjacent polyphase channels.
+ */
+public class FastConvolutionChannelSourceManager
+    extends SharedChannelizerSourceManager<FastConvolutionChannelSource,FastConvolutionChannelizer>
+{
+    /**
+     * Constructs an instance
+     * @param tunerController providing the sample stream
+     */
+    public FastConvolutionChannelSourceManager(TunerController tunerController)
+    {
+        super(tunerController, FastConvolutionChannelSource.class, "Fast Convolution Channel Source Manager");
+    }
+
+    @Override
+    protected FastConvolutionChannelizer createChannelizer(double sampleRate, long tunerFrequency,
+                                                           String metricScopeName)
+    {
+        return new FastConvolutionChannelizer(sampleRate, tunerFrequency, "sdrtrunk fast convolution channelizer",
+            metricScopeName);
+    }
+
+    @Override
+    protected FastConvolutionChannelSource createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                                               TunerChannel tunerChannel, double sampleRate,
+                                                               ChannelSpecification channelSpecification,
+                                                               String threadName)
+    {
+        return new FastConvolutionChannelSource(producerSourceEventListener, tunerChannel, sampleRate,
+            channelSpecification, threadName);
+    }
+
+    @Override
+    protected String getChannelDescription(FastConvolutionChannelSource channelSource)
+    {
+        return "Center Bin [" + channelSource.getCenterBin() + "] Mixer [" + channelSource.getMixerFrequency() + "]";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+
+/**
+ * Channelizer that processes the tuner sample stream once on behalf of all of its channels.  The channelizer receives
+ * native buffers from the sample delay buffer of a shared channelizer source manager.
+ * @param <T> type of channel source that receives channelizer output
+ */
+public interface ISharedChannelizer<T extends TunerChannelSource> extends Listener<INativeBuffer>
+{
+    /**
+     * Starts the channelizer processing thread.
+     */
+    void start();
+
+    /**
+     * Stops the channelizer processing thread.
+     */
+    void stop();
+
+    /**
+     * Adds the channel to receive channelizer output.
+     */
+    void add(T channel);
+
+    /**
+     * Removes the channel from receiving channelizer output.
+     */
+    void remove(T channel);
+
+    /**
+     * Number of channels receiving channelizer output.
+     */
+    int getChannelCount();
+
+    /**
+     * Sets the tuner center frequency so that the channelizer can update the channel offsets.
+     * @param tunerFrequency in hertz
+     */
+    void setTunerFrequency(long tunerFrequency);
+
+    /**
+     * Description of the channelizer state
+     */
+    String getStateDescription();
+}
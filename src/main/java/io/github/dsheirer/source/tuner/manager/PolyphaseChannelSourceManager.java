@@ -18,6 +18,7 @@
  */
 package io.github.dsheirer.source.tuner.manager;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
 import io.github.dsheirer.dsp.filter.channelizer.PolyphaseChannelManager;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
@@ -46,10 +47,28 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
      * @param tunerController with a center tuned frequency that will be managed by this instance
      */
     public PolyphaseChannelSourceManager(TunerController tunerController)
+    {
+        this(tunerController, null);
+    }
+
+    /**
+     * Constructs an instance
+     * @param tunerController with a center tuned frequency that will be managed by this instance
+     * @param workerPool (optional) for multi-core channelizer processing, or null for single-threaded channelizer
+     */
+    public PolyphaseChannelSourceManager(TunerController tunerController, ChannelizerWorkerPool workerPool)
     {
         mTunerController = tunerController;
 
-        mPolyphaseChannelManager = new PolyphaseChannelManager(tunerController);
+        if(workerPool != null)
+        {
+            mPolyphaseChannelManager = new PolyphaseChannelManager(tunerController, workerPool);
+        }
+        else
+        {
+            mPolyphaseChannelManager = new PolyphaseChannelManager(tunerController);
+        }
+
         //Register to receive channel count change notifications for rebroadcasting
         mPolyphaseChannelManager.addSourceEventListener(this::process);
         mTunerController.addListener(mPolyphaseChannelManager);
@@ -0,0 +1,439 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.NativeSampleDelayBuffer;
+import io.github.dsheirer.controller.channel.event.ChannelStopProcessingRequest;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base channel provider for channelizers that process the tuner sample stream once on behalf of all channels.
+ * Subclasses provide the channelizer and channel source construction and this class manages the channel lifecycle,
+ * the tuner center frequency and the sample delay buffer.
+ *
+ * The channelizer is created and registered with the sample delay buffer when the first channel starts, so the first
+ * channel is pre-loaded with delayed samples.  Channels that start while the channelizer is running join at the
+ * current sample, as with the polyphase channelizer.  The channelizer is stopped and discarded when the last channel
+ * stops.
+ *
+ * @param <T> type of channel source provided by this manager
+ * @param <C> type of channelizer that feeds the channel sources
+ */
+public abstract class SharedChannelizerSourceManager<T extends TunerChannelSource, C extends ISharedChannelizer<T>>
+    extends ChannelSourceManager
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SharedChannelizerSourceManager.class);
+
+    private final static int DELAY_BUFFER_DURATION_MILLISECONDS = 2000;
+
+    private List<T> mChannelSources = new CopyOnWriteArrayList<>();
+    private SortedSet<TunerChannel> mTunerChannels = new TreeSet<>();
+    private TunerController mTunerController;
+    private ChannelSourceEventProcessor mChannelSourceEventProcessor = new ChannelSourceEventProcessor();
+    private NativeSampleDelayBuffer mSampleDelayBuffer;
+    private Class<T> mChannelSourceClass;
+    private String mName;
+    private volatile C mChannelizer;
+    private boolean mRunning = true;
+
+    /**
+     * Constructs an instance
+     * @param tunerController providing the sample stream
+     * @param channelSourceClass to identify channel source events from channels provided by this manager
+     * @param name of this manager for the state description
+     */
+    protected SharedChannelizerSourceManager(TunerController tunerController, Class<T> channelSourceClass, String name)
+    {
+        mTunerController = tunerController;
+        mChannelSourceClass = channelSourceClass;
+        mName = name;
+        mTunerController.addListener(this);
+    }
+
+    /**
+     * Creates the channelizer when the first channel starts.
+     * @param sampleRate of the tuner sample stream
+     * @param tunerFrequency of the tuner sample stream
+     * @param metricScopeName for the channelizer metrics, or null.
+     * @return channelizer
+     */
+    protected abstract C createChannelizer(double sampleRate, long tunerFrequency, String metricScopeName);
+
+    /**
+     * Creates a channel source.
+     * @param producerSourceEventListener to receive source events from the channel source
+     * @param tunerChannel for the channel source
+     * @param sampleRate of the tuner sample stream
+     * @param channelSpecification for the channel source
+     * @param threadName for the channel source
+     * @return channel source
+     */
+    protected abstract T createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                             TunerChannel tunerChannel, double sampleRate,
+                                             ChannelSpecification channelSpecification, String threadName);
+
+    /**
+     * Channelizer specific description of the channel source state, for example: Tree Level [3] Mixer [-25000]
+     * @param channelSource to describe
+     */
+    protected abstract String getChannelDescription(T channelSource);
+
+    @Override
+    public String getStateDescription()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mName).append(" Providing [").append(mTunerChannels.size()).append("] Channels");
+        sb.append("\n\tTuner Controller Frequency: ").append(mTunerController.getFrequency());
+        for(T channelSource: mChannelSources)
+        {
+            sb.append("\n\tChannel [").append(channelSource.getTunerChannel())
+                    .append("] Frequency [").append(channelSource.getFrequency())
+                    .append("] ").append(getChannelDescription(channelSource));
+            sb.append(" HASH:").append(Integer.toHexString(channelSource.hashCode()).toUpperCase());
+        }
+
+        C channelizer = mChannelizer;
+
+        if(channelizer != null)
+        {
+            sb.append(channelizer.getStateDescription());
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public void stopAllChannels()
+    {
+        mRunning = false;
+
+        List<TunerChannelSource> toStop = new ArrayList<>(mChannelSources);
+
+        for(TunerChannelSource tunerChannelSource: toStop)
+        {
+            MyEventBus.getGlobalEventBus().post(new ChannelStopProcessingRequest(tunerChannelSource));
+        }
+    }
+
+    @Override
+    public SortedSet<TunerChannel> getTunerChannels()
+    {
+        return mTunerChannels;
+    }
+
+    @Override
+    public int getTunerChannelCount()
+    {
+        return mTunerChannels.size();
+    }
+
+    @Override
+    public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification,
+                                        String threadName)
+    {
+        if(!mRunning)
+        {
+            return null;
+        }
+
+        TunerChannelSource source = null;
+
+        try
+        {
+            mTunerController.getLock().lock();
+            if(CenterFrequencyCalculator.canTune(tunerChannel, mTunerController, mTunerChannels))
+            {
+                T tunerChannelSource = createChannelSource(mChannelSourceEventProcessor, tunerChannel,
+                    mTunerController.getSampleRate(), channelSpecification, threadName);
+
+                mChannelSources.add(tunerChannelSource);
+
+                //Add to the channel list and update the tuner center frequency as needed
+                mTunerChannels.add(tunerChannel);
+                updateTunerFrequency();
+
+                //Lock the tuner controller frequency and sample rate
+                mTunerController.setLockedSampleRate(true);
+
+                broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
+
+                source = tunerChannelSource;
+            }
+        }
+        finally
+        {
+            mTunerController.getLock().unlock();
+        }
+
+        return source;
+    }
+
+    @Override
+    public void setErrorMessage(String errorMessage)
+    {
+        for(TunerChannelSource tunerChannelSource: mChannelSources)
+        {
+            tunerChannelSource.setError(errorMessage);
+        }
+    }
+
+    /**
+     * Calculates a new center frequency and updates the tuner center frequency
+     */
+    private void updateTunerFrequency()
+    {
+        if(!mTunerController.isTunedFor(getTunerChannels()))
+        {
+            long centerFrequency = CenterFrequencyCalculator.getCenterFrequency(mTunerController, getTunerChannels());
+
+            if(centerFrequency == CenterFrequencyCalculator.INVALID_FREQUENCY)
+            {
+                mLog.error("Couldn't calculate center frequency for tuner and tuner channels");
+                return;
+            }
+
+            if(centerFrequency != mTunerController.getFrequency())
+            {
+                try
+                {
+                    mTunerController.setFrequency(centerFrequency);
+                }
+                catch(SourceException se)
+                {
+                    mLog.error("Couldn't update tuner center frequency to " + centerFrequency, se);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void process(SourceEvent tunerSourceEvent) throws SourceException
+    {
+        switch(tunerSourceEvent.getEvent())
+        {
+            case NOTIFICATION_FREQUENCY_CHANGE:
+                //Tuner center frequency has changed - update the channel offsets in the channelizer
+                C channelizer = mChannelizer;
+
+                if(channelizer != null)
+                {
+                    channelizer.setTunerFrequency(tunerSourceEvent.getValue().longValue());
+                }
+
+                //Clear the delay buffer since any delayed samples will be centered on the previous frequency
+                if(mSampleDelayBuffer != null)
+                {
+                    mSampleDelayBuffer.clear();
+                }
+                break;
+            case NOTIFICATION_FREQUENCY_CORRECTION_CHANGE:
+                //The tuner is self-correcting for PPM error - relay to channels
+                broadcastToChannels(tunerSourceEvent);
+                break;
+            case NOTIFICATION_SAMPLE_RATE_CHANGE:
+            case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_LOCKED:
+            case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_UNLOCKED:
+                //no-op
+                break;
+            default:
+                mLog.info("Unrecognized Source Event received from tuner: " + tunerSourceEvent);
+        }
+    }
+
+    /**
+     * Broadcasts the source event to any channel
+     */
+    private void broadcastToChannels(SourceEvent sourceEvent)
+    {
+        for(T channelSource : mChannelSources)
+        {
+            try
+            {
+                channelSource.process(sourceEvent);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error broadcasting source event to channel: " + sourceEvent);
+            }
+        }
+    }
+
+    /**
+     * Creates a complex sample delay buffer and registers it with the tuner controller to start the flow
+     * of complex sample buffers from the tuner.
+     */
+    private void startDelayBuffer()
+    {
+        if(mSampleDelayBuffer == null)
+        {
+            long bufferDuration = mTunerController.getBufferDuration();
+
+            if(bufferDuration <= 0)
+            {
+                bufferDuration = 1;
+            }
+
+            int delayBufferSize = (int)(DELAY_BUFFER_DURATION_MILLISECONDS / bufferDuration);
+            mSampleDelayBuffer = new NativeSampleDelayBuffer(delayBufferSize, mTunerController.getBufferDuration());
+            mTunerController.addBufferListener(mSampleDelayBuffer);
+        }
+    }
+
+    /**
+     * Adds the channel to the channelizer.  Creates and starts the channelizer for the first channel and registers
+     * the channelizer with the delay buffer to pre-load the channelizer with delayed samples starting at the timestamp.
+     *
+     * Note: invoke while holding the tuner controller lock, which also guards tuner frequency change notifications.
+     * @param channelSource to add
+     * @param timestamp for the start of the channel sample stream
+     */
+    private void startChannel(T channelSource, long timestamp)
+    {
+        if(mChannelizer == null)
+        {
+            startDelayBuffer();
+            mChannelizer = createChannelizer(mTunerController.getSampleRate(), mTunerController.getFrequency(),
+                mTunerController.getMetricScopeName());
+            mChannelizer.add(channelSource);
+            mChannelizer.start();
+            mSampleDelayBuffer.addListener(mChannelizer, timestamp);
+        }
+        else
+        {
+            mChannelizer.add(channelSource);
+        }
+    }
+
+    /**
+     * Removes the channel from the channelizer and stops the channelizer when there are no more channels.
+     *
+     * Note: invoke while holding the tuner controller lock.
+     * @param channelSource to remove
+     */
+    private void stopChannel(T channelSource)
+    {
+        if(mChannelizer != null)
+        {
+            mChannelizer.remove(channelSource);
+
+            if(mChannelizer.getChannelCount() == 0)
+            {
+                mChannelizer.stop();
+                mChannelizer = null;
+                stopDelayBuffer();
+            }
+        }
+    }
+
+    /**
+     * De-registers the complex sample delay buffer and disposes of any queued reusable buffers.
+     */
+    private void stopDelayBuffer()
+    {
+        if(mSampleDelayBuffer != null)
+        {
+            mTunerController.removeBufferListener(mSampleDelayBuffer);
+            mSampleDelayBuffer.dispose();
+            mSampleDelayBuffer = null;
+        }
+    }
+
+    /**
+     * Processes channel source events
+     */
+    public class ChannelSourceEventProcessor implements Listener<SourceEvent>
+    {
+        @Override
+        public void receive(SourceEvent sourceEvent)
+        {
+            switch(sourceEvent.getEvent())
+            {
+                case REQUEST_START_SAMPLE_STREAM:
+                    if(mChannelSourceClass.isInstance(sourceEvent.getSource()))
+                    {
+                        T channelSource = mChannelSourceClass.cast(sourceEvent.getSource());
+
+                        //The start sample stream request contains a start timestamp and the delay buffer
+                        //will preload the channelizer with delayed sample buffers that either contain the
+                        //timestamp or occur later/newer than the timestamp.
+                        try
+                        {
+                            mTunerController.getLock().lock();
+                            startChannel(channelSource, sourceEvent.getValue().longValue());
+                        }
+                        finally
+                        {
+                            mTunerController.getLock().unlock();
+                        }
+                    }
+                    break;
+                case REQUEST_STOP_SAMPLE_STREAM:
+                    if(mChannelSourceClass.isInstance(sourceEvent.getSource()))
+                    {
+                        T channelSource = mChannelSourceClass.cast(sourceEvent.getSource());
+
+                        try
+                        {
+                            mTunerController.getLock().lock();
+                            stopChannel(channelSource);
+                            mChannelSources.remove(channelSource);
+                            mTunerChannels.remove(channelSource.getTunerChannel());
+                            channelSource.dispose();
+
+                            //Unlock the tuner controller if there are no more channels
+                            if(getTunerChannelCount() == 0)
+                            {
+                                mTunerController.setLockedSampleRate(false);
+                            }
+                            broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
+                        }
+                        finally
+                        {
+                            mTunerController.getLock().unlock();
+                        }
+                    }
+                    break;
+                case NOTIFICATION_MEASURED_FREQUENCY_ERROR_SYNC_LOCKED:
+                    //Rebroadcast so that the tuner source can process this event
+                    broadcast(sourceEvent);
+                    break;
+                case NOTIFICATION_CHANNEL_COUNT_CHANGE:
+                    //Lock the tuner controller frequency & sample rate when we're processing channels
+                    break;
+                default:
+                    mLog.info("Unrecognized Source Event received from channel: " + sourceEvent);
+                    break;
+            }
+        }
+    }
+}
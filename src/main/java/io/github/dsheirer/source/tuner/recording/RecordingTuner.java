@@ -18,6 +18,7 @@
  */
 package io.github.dsheirer.source.tuner.recording;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelizerWorkerPool;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.source.ChannelizerType;
 import io.github.dsheirer.source.SourceException;
@@ -25,6 +26,8 @@ import io.github.dsheirer.source.tuner.ITunerErrorListener;
 import io.github.dsheirer.source.tuner.Tuner;
 import io.github.dsheirer.source.tuner.TunerClass;
 import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.manager.DecimationTreeChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.FastConvolutionChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PassThroughSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
@@ -65,10 +68,23 @@ public class RecordingTuner extends Tuner
             {
                 setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController()));
             }
+            else if(channelizerType == ChannelizerType.POLYPHASE_MULTI_CORE)
+            {
+                setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController(),
+                    ChannelizerWorkerPool.getInstance()));
+            }
             else if(channelizerType == ChannelizerType.HETERODYNE)
             {
                 setChannelSourceManager(new HeterodyneChannelSourceManager(getTunerController()));
             }
+            else if(channelizerType == ChannelizerType.HETERODYNE_DECIMATION_TREE)
+            {
+                setChannelSourceManager(new DecimationTreeChannelSourceManager(getTunerController()));
+            }
+            else if(channelizerType == ChannelizerType.FAST_CONVOLUTION)
+            {
+                setChannelSourceManager(new FastConvolutionChannelSourceManager(getTunerController()));
+            }
             else
             {
                 throw new IllegalArgumentException("Unrecognized channelizer type: " + channelizerType);
@@ -23,14 +23,12 @@ import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.ITunerErrorListener;
 import io.github.dsheirer.source.tuner.TunerController;
 import io.github.dsheirer.source.tuner.TunerType;
-import io.github.dsheirer.source.wave.ComplexWaveSource;
+import io.github.dsheirer.source.wave.MappedComplexWaveSource;
 import java.io.File;
 import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sound.sampled.UnsupportedAudioFileException;
-
 /**
  * Tuner controller for playback of baseband complex recording files.
  */
@@ -40,7 +38,7 @@ public class RecordingTunerController extends TunerController
 
     public static final int DC_NOISE_BANDWIDTH = 0;
     public static final double USABLE_BANDWIDTH_PERCENTAGE = 1.00;
-    private ComplexWaveSource mComplexWaveSource;
+    private MappedComplexWaveSource mComplexWaveSource;
     private String mPath;
     private long mCenterFrequency;
     private boolean mRunning;
@@ -72,7 +70,8 @@ public class RecordingTunerController extends TunerController
         {
             try
             {
-                mComplexWaveSource = new ComplexWaveSource(new File(mPath), true);
+                mComplexWaveSource = new MappedComplexWaveSource(new File(mPath),
+                    MappedComplexWaveSource.ReplayMode.REAL_TIME, true);
             }
             catch(IOException ioe)
             {
@@ -89,7 +88,7 @@ public class RecordingTunerController extends TunerController
                 mComplexWaveSource.start();
                 mLog.info("Tuner Recording Loaded: " + mPath);
             }
-            catch(IOException | UnsupportedAudioFileException e)
+            catch(IOException e)
             {
                 mLog.error("Error", e);
                 setErrorMessage(e.getMessage() + " File:" + mPath);
@@ -20,6 +20,7 @@ package io.github.dsheirer.source.tuner.usb;
 
 import io.github.dsheirer.buffer.INativeBuffer;
 import io.github.dsheirer.buffer.INativeBufferFactory;
+import io.github.dsheirer.buffer.IReusableNativeBuffer;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.ITunerErrorListener;
@@ -756,14 +757,35 @@ public abstract class USBTunerController extends TunerController
         /**
          * Makes a copy of the transfer's native memory byte array payload so that the transfer can be reused.
          * Dispatches the native buffer to registered listeners.
+         *
+         * When all registered listeners honor the reusable native buffer contract, the payload is copied into a
+         * pooled direct buffer that is returned to the pool once the last listener releases it, otherwise the
+         * payload is copied into a new heap array.
+         *
          * @param transfer to copy and dispatch
          */
         private void dispatchTransfer(Transfer transfer)
         {
             //Pass the transfer's byte buffer so the native buffer factory can make a copy of the byte array contents
             //and package it as a native buffer.
-            INativeBuffer nativeBuffer = getNativeBufferFactory().getBuffer(transfer.buffer(), System.currentTimeMillis());
-            mNativeBufferBroadcaster.broadcast(nativeBuffer);
+            if(isReusableBufferListenersOnly())
+            {
+                INativeBuffer nativeBuffer = getNativeBufferFactory().getReusableBuffer(transfer.buffer(),
+                    System.currentTimeMillis());
+                broadcast(nativeBuffer);
+
+                //Release the producer's hold on the buffer, unless a listener that doesn't support reusable buffers
+                //was added during the broadcast and may still be using the buffer
+                if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer &&
+                    isReusableBufferListenersOnly())
+                {
+                    reusableNativeBuffer.decrementUserCount();
+                }
+            }
+            else
+            {
+                broadcast(getNativeBufferFactory().getBuffer(transfer.buffer(), System.currentTimeMillis()));
+            }
         }
     }
 
@@ -0,0 +1,711 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.wave;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.ShortNativeBuffer;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.SampleType;
+import io.github.dsheirer.source.Source;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replay source for 16-bit, 2-channel (I/Q) PCM wave baseband recordings that memory-maps the recording sample data
+ * and dispatches read-only views of the mapped file as native buffers, without copying the sample data onto the heap.
+ *
+ * A replay can be positioned via seek(timestamp) using the recording start time plus the sample offset into the
+ * recording.  The recording start time is parsed from the sdrtrunk recording file name suffix (_yyyyMMdd_HHmmss.wav)
+ * or, when absent, is estimated from the file's last modified time minus the recording duration.
+ *
+ * Buffer timestamps use the recording time for a non-looping replay that is not paced in real time (ie batch
+ * decoding), so that decoded messages carry the original recording time.  Real time and looping replays use the
+ * current system time for buffer timestamps, since the recording time would jump backwards on each loop and would
+ * not match the time that downstream consumers use to age samples and time calls.
+ *
+ * Replay can be paced in real time or, for offline processing, can dispatch buffers as fast as the listener will
+ * accept them on a dedicated replay thread.  Buffers can also be pulled directly, on the caller's thread, via next().
+ */
+public class MappedComplexWaveSource extends Source implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MappedComplexWaveSource.class);
+    private static final Pattern RECORDING_TIMESTAMP_PATTERN = Pattern.compile(".*_(\\d{8}_\\d{6})\\.wav$",
+        Pattern.CASE_INSENSITIVE);
+    private static final int BYTES_PER_FRAME = 4;
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final long REAL_TIME_INTERVAL_MS = 20;
+
+    /**
+     * Maximum bytes per mapped segment.  Must be a multiple of the frame size and less than Integer.MAX_VALUE.
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final File mFile;
+    private final ReplayMode mReplayMode;
+    private final boolean mLoop;
+    private final boolean mRecordingTimestamps;
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+    private int mBufferSampleCount = 65536; //Complex samples per buffer
+    private long mFrequency = 0;
+    private FileChannel mFileChannel;
+    private MappedByteBuffer[] mSegments;
+    private long mSampleCount;
+    private double mSampleRate;
+    private long mRecordingStart;
+    private long mSamplePosition;
+    private volatile boolean mResynchronize;
+    private Listener<INativeBuffer> mListener;
+    private Runnable mEndOfRecordingListener;
+    private ScheduledFuture<?> mReplayController;
+    private Thread mReplayThread;
+
+    /**
+     * Constructs an instance
+     * @param file containing 16-bit, 2-channel complex I/Q sample data
+     * @param replayMode to pace the replay when started
+     * @param loop to restart at the beginning of the recording once the end is reached
+     * @throws IOException if the file doesn't exist
+     */
+    public MappedComplexWaveSource(File file, ReplayMode replayMode, boolean loop) throws IOException
+    {
+        if(file == null || !file.exists())
+        {
+            throw new IOException("Empty or null file");
+        }
+
+        mFile = file;
+        mReplayMode = replayMode;
+        mLoop = loop;
+        mRecordingTimestamps = replayMode == ReplayMode.AS_FAST_AS_POSSIBLE && !loop;
+    }
+
+    @Override
+    public SampleType getSampleType()
+    {
+        return SampleType.COMPLEX;
+    }
+
+    @Override
+    public void setSourceEventListener(Listener<SourceEvent> listener)
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void removeSourceEventListener()
+    {
+        //Not implemented
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        //Not implemented
+        return null;
+    }
+
+    /**
+     * Recording file
+     */
+    public File getFile()
+    {
+        return mFile;
+    }
+
+    /**
+     * Registers the listener to receive sample buffers
+     */
+    public void setListener(Listener<INativeBuffer> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Registers a listener to be notified when a non-looping replay reaches the end of the recording.  The listener
+     * is invoked on the replay thread.
+     */
+    public void setEndOfRecordingListener(Runnable listener)
+    {
+        mEndOfRecordingListener = listener;
+    }
+
+    /**
+     * Number of complex samples per buffer
+     */
+    public int getBufferSampleCount()
+    {
+        return mBufferSampleCount;
+    }
+
+    /**
+     * Sets the number of complex samples per buffer.  Buffers that span the end of the recording or a mapped segment
+     * boundary will be shorter.
+     */
+    public void setBufferSampleCount(int bufferSampleCount)
+    {
+        mBufferSampleCount = Math.max(bufferSampleCount, 1);
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns the frequency set for this file.  Normally returns zero, but the value can be set with setFrequency().
+     */
+    @Override
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Changes the value returned from getFrequency() for this source.
+     */
+    public void setFrequency(long frequency)
+    {
+        mFrequency = frequency;
+    }
+
+    /**
+     * Total number of complex samples in the recording
+     */
+    public long getSampleCount()
+    {
+        return mSampleCount;
+    }
+
+    /**
+     * Recording start time in milliseconds
+     */
+    public long getRecordingStart()
+    {
+        return mRecordingStart;
+    }
+
+    /**
+     * Overrides the recording start time that was parsed or estimated when the file was opened.
+     * @param timestamp in milliseconds
+     */
+    public void setRecordingStart(long timestamp)
+    {
+        mRecordingStart = timestamp;
+    }
+
+    /**
+     * Recording duration in milliseconds
+     */
+    public long getDuration()
+    {
+        return mSampleRate > 0 ? (long)(mSampleCount * 1000.0 / mSampleRate) : 0;
+    }
+
+    /**
+     * Index of the next complex sample to be dispatched
+     */
+    public synchronized long getSamplePosition()
+    {
+        return mSamplePosition;
+    }
+
+    /**
+     * Recording timestamp of the next complex sample to be dispatched
+     */
+    public synchronized long getTimestamp()
+    {
+        return getTimestamp(mSamplePosition);
+    }
+
+    /**
+     * Calculates the recording timestamp of the complex sample at the specified index.
+     */
+    private long getTimestamp(long sampleIndex)
+    {
+        return mRecordingStart + (long)(sampleIndex * 1000.0 / mSampleRate);
+    }
+
+    /**
+     * Positions the replay at the sample nearest to the timestamp.  Timestamps outside the recording are clamped to
+     * the start or end of the recording.
+     * @param timestamp in milliseconds
+     */
+    public void seek(long timestamp)
+    {
+        seekToSample((long)((timestamp - mRecordingStart) * mSampleRate / 1000.0));
+    }
+
+    /**
+     * Positions the replay at the specified complex sample index.
+     * @param sampleIndex to dispatch next, clamped to the bounds of the recording
+     */
+    public synchronized void seekToSample(long sampleIndex)
+    {
+        mSamplePosition = Math.max(0, Math.min(sampleIndex, mSampleCount));
+        mResynchronize = true;
+    }
+
+    /**
+     * Opens and maps the recording.
+     * @throws IOException if the file can't be read or is not a 16-bit 2-channel PCM wave file
+     */
+    public synchronized void open() throws IOException
+    {
+        if(mFileChannel != null)
+        {
+            return;
+        }
+
+        FileChannel channel = FileChannel.open(mFile.toPath(), StandardOpenOption.READ);
+
+        try
+        {
+            WaveHeader header = WaveHeader.read(channel);
+            long dataLength = header.dataLength() - (header.dataLength() % BYTES_PER_FRAME);
+            int segmentCount = (int)((dataLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+
+            for(int x = 0; x < segmentCount; x++)
+            {
+                long offset = x * SEGMENT_SIZE;
+                segments[x] = channel.map(FileChannel.MapMode.READ_ONLY, header.dataOffset() + offset,
+                    Math.min(SEGMENT_SIZE, dataLength - offset));
+            }
+
+            mFileChannel = channel;
+            mSegments = segments;
+            mSampleRate = header.sampleRate();
+            mSampleCount = dataLength / BYTES_PER_FRAME;
+            mSamplePosition = 0;
+            mRecordingStart = parseRecordingStart(mFile, getDuration());
+        }
+        catch(IOException ioe)
+        {
+            channel.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Stops replay and closes the file.  Buffers that were previously dispatched remain valid until they are garbage
+     * collected, since the mapping is released with the last reference to the mapped segment.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        stop();
+
+        synchronized(this)
+        {
+            mSegments = null;
+
+            if(mFileChannel != null)
+            {
+                mFileChannel.close();
+                mFileChannel = null;
+            }
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        stop();
+        seekToSample(0);
+        start();
+    }
+
+    /**
+     * Starts replay using the configured replay mode.  Opens the file if it is not already open.
+     */
+    @Override
+    public void start()
+    {
+        try
+        {
+            open();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error opening recording [" + mFile + "]", ioe);
+            return;
+        }
+
+        if(mRunning.compareAndSet(false, true))
+        {
+            mResynchronize = true;
+
+            if(mReplayMode == ReplayMode.REAL_TIME)
+            {
+                mReplayController = ThreadPool.SCHEDULED.scheduleAtFixedRate(new RealTimeReplayController(), 0,
+                    REAL_TIME_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            else
+            {
+                mReplayThread = new NamingThreadFactory("sdrtrunk recording replay")
+                    .newThread(new FastReplayController());
+                mReplayThread.start();
+            }
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            if(mReplayController != null)
+            {
+                mReplayController.cancel(true);
+                mReplayController = null;
+            }
+
+            if(mReplayThread != null && mReplayThread != Thread.currentThread())
+            {
+                try
+                {
+                    mReplayThread.join(1000);
+                }
+                catch(InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            mReplayThread = null;
+        }
+    }
+
+    /**
+     * Indicates if the replay is running
+     */
+    public boolean isRunning()
+    {
+        return mRunning.get();
+    }
+
+    /**
+     * Creates the next buffer from the current sample position and advances the sample position.  The buffer is a
+     * read-only view of the mapped recording.  See the class description for the buffer timestamp.
+     * @return next buffer or null if the end of the recording is reached or the file is not open.
+     */
+    public synchronized INativeBuffer nextBuffer()
+    {
+        if(mSegments == null || mSamplePosition >= mSampleCount)
+        {
+            return null;
+        }
+
+        long byteOffset = mSamplePosition * BYTES_PER_FRAME;
+        MappedByteBuffer segment = mSegments[(int)(byteOffset / SEGMENT_SIZE)];
+        int segmentOffset = (int)(byteOffset % SEGMENT_SIZE);
+        int frames = (int)Math.min(mBufferSampleCount, Math.min(mSampleCount - mSamplePosition,
+            (segment.capacity() - segmentOffset) / BYTES_PER_FRAME));
+
+        ByteBuffer view = segment.duplicate().position(segmentOffset).limit(segmentOffset + (frames * BYTES_PER_FRAME));
+        long timestamp = mRecordingTimestamps ? getTimestamp(mSamplePosition) : System.currentTimeMillis();
+        INativeBuffer buffer = new ShortNativeBuffer(view.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer(),
+            timestamp, (float)(mSampleRate / 1000.0));
+        mSamplePosition += frames;
+        return buffer;
+    }
+
+    /**
+     * Creates the next buffer and sends it to the registered listener.
+     * @return true if a buffer was dispatched or false if the end of the recording is reached.
+     */
+    public boolean next()
+    {
+        INativeBuffer buffer = nextBuffer();
+
+        if(buffer == null)
+        {
+            return false;
+        }
+
+        Listener<INativeBuffer> listener = mListener;
+
+        if(listener != null)
+        {
+            listener.receive(buffer);
+        }
+
+        return true;
+    }
+
+    /**
+     * Handles reaching the end of the recording, either by looping back to the start or stopping the replay.
+     * @return true if replay should continue
+     */
+    private boolean endOfRecording()
+    {
+        if(mLoop && mSampleCount > 0)
+        {
+            mLog.debug("End of recording - looping [" + mFile.getName() + "]");
+            seekToSample(0);
+            return true;
+        }
+
+        stop();
+
+        if(mEndOfRecordingListener != null)
+        {
+            mEndOfRecordingListener.run();
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicates if the file is a 16-bit, 2-channel PCM wave file that is supported by this source.
+     */
+    public static boolean supports(File file)
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            WaveHeader.read(channel);
+            return true;
+        }
+        catch(Exception e)
+        {
+            //Do nothing, we'll return a default of false
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines the recording start time from the file name timestamp suffix or from the file modified timestamp.
+     */
+    private static long parseRecordingStart(File file, long duration)
+    {
+        Matcher matcher = RECORDING_TIMESTAMP_PATTERN.matcher(file.getName());
+
+        if(matcher.matches())
+        {
+            try
+            {
+                return new SimpleDateFormat("yyyyMMdd_HHmmss").parse(matcher.group(1)).getTime();
+            }
+            catch(ParseException pe)
+            {
+                //Fall through to use the modified timestamp
+            }
+        }
+
+        return file.lastModified() - duration;
+    }
+
+    /**
+     * Replay pacing modes
+     */
+    public enum ReplayMode
+    {
+        /**
+         * Buffers are dispatched at the recording sample rate.
+         */
+        REAL_TIME,
+
+        /**
+         * Buffers are dispatched as fast as the listener accepts them, on a dedicated replay thread.
+         */
+        AS_FAST_AS_POSSIBLE;
+    }
+
+    /**
+     * Dispatches buffers at the recording sample rate.  Pacing is based on the elapsed time since the replay was
+     * started or repositioned so that scheduling jitter doesn't accumulate as drift.
+     */
+    private class RealTimeReplayController implements Runnable
+    {
+        private long mStartNanos;
+        private long mStartSample;
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                if(mResynchronize)
+                {
+                    mResynchronize = false;
+                    mStartNanos = System.nanoTime();
+                    mStartSample = getSamplePosition();
+                }
+
+                double elapsedSeconds = (System.nanoTime() - mStartNanos) / 1E9;
+                long dueSample = mStartSample + (long)(elapsedSeconds * mSampleRate);
+
+                while(mRunning.get() && !mResynchronize && getSamplePosition() < dueSample)
+                {
+                    if(!next() && !endOfRecording())
+                    {
+                        return;
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error during real time replay of recording [" + mFile.getName() + "]", t);
+            }
+        }
+    }
+
+    /**
+     * Dispatches buffers as fast as the listener accepts them.
+     */
+    private class FastReplayController implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                while(mRunning.get())
+                {
+                    if(!next() && !endOfRecording())
+                    {
+                        return;
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error during replay of recording [" + mFile.getName() + "]", t);
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Wave file header details for the sample data chunk.
+     * @param sampleRate of the recording
+     * @param dataOffset to the start of the sample data in the file
+     * @param dataLength of the sample data in bytes
+     */
+    private record WaveHeader(double sampleRate, long dataOffset, long dataLength)
+    {
+        /**
+         * Parses the RIFF chunks to locate the format and data chunks.
+         * @throws IOException if the file is not a 16-bit, 2-channel PCM wave file.
+         */
+        static WaveHeader read(FileChannel channel) throws IOException
+        {
+            ByteBuffer riff = read(channel, 0, 12);
+
+            if(riff.getInt(0) != 0x46464952 || riff.getInt(8) != 0x45564157) //'RIFF' and 'WAVE'
+            {
+                throw new IOException("Unsupported file format - not a RIFF/WAVE file");
+            }
+
+            long fileSize = channel.size();
+            long position = 12;
+            double sampleRate = 0;
+
+            while(position + 8 <= fileSize)
+            {
+                ByteBuffer chunk = read(channel, position, 8);
+                int id = chunk.getInt(0);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+
+                if(id == 0x20746D66) //'fmt '
+                {
+                    ByteBuffer format = read(channel, position + 8, (int)Math.min(size, 40));
+                    int formatTag = format.getShort(0) & 0xFFFF;
+                    int channels = format.getShort(2) & 0xFFFF;
+                    int bitsPerSample = format.getShort(14) & 0xFFFF;
+
+                    if(formatTag == WAVE_FORMAT_EXTENSIBLE && format.limit() >= 26)
+                    {
+                        formatTag = format.getShort(24) & 0xFFFF;
+                    }
+
+                    if(formatTag != WAVE_FORMAT_PCM || channels != 2 || bitsPerSample != 16)
+                    {
+                        throw new IOException("Unsupported Wave Format - EXPECTED: 2 channels 16-bit PCM samples " +
+                            "FOUND: " + channels + " channels " + bitsPerSample + "-bit samples format [" +
+                            formatTag + "]");
+                    }
+
+                    sampleRate = format.getInt(4) & 0xFFFFFFFFL;
+                }
+                else if(id == 0x61746164) //'data'
+                {
+                    if(sampleRate <= 0)
+                    {
+                        throw new IOException("Unsupported file format - missing wave format chunk");
+                    }
+
+                    long available = fileSize - (position + 8);
+
+                    //Recordings that were not closed cleanly may have an empty or oversize data chunk length
+                    if(size == 0 || size > available)
+                    {
+                        size = available;
+                    }
+
+                    return new WaveHeader(sampleRate, position + 8, size);
+                }
+
+                //Chunks are padded to an even byte length
+                position += 8 + size + (size % 2);
+            }
+
+            throw new IOException("Unsupported file format - missing wave data chunk");
+        }
+
+        /**
+         * Reads the requested bytes from the channel into a little endian buffer.
+         */
+        private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+            while(buffer.hasRemaining())
+            {
+                if(channel.read(buffer, position + buffer.position()) < 0)
+                {
+                    throw new IOException("Unexpected end of file while reading wave header");
+                }
+            }
+
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
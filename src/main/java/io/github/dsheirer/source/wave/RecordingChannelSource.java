@@ -0,0 +1,168 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.wave;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.ComplexSource;
+import io.github.dsheirer.source.SourceEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Channel source that replays a baseband recording into a processing chain as fast as the processing chain can
+ * accept the samples.  Samples are delivered on a dedicated replay thread so the decoders are paced by their own
+ * throughput rather than the recording sample rate.  A heartbeat is broadcast after each buffer so that the channel
+ * state continues to be monitored.
+ *
+ * Note: channel state call fade and reset timers run against the system clock, so when replaying much faster than
+ * real time, calls separated by short periods of silence in the recording may be combined into a single call.
+ */
+public class RecordingChannelSource extends ComplexSource
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RecordingChannelSource.class);
+    private final MappedComplexWaveSource mWaveSource;
+    private Listener<ComplexSamples> mListener;
+
+    /**
+     * Constructs an instance and opens the recording.
+     * @param file containing 16-bit, 2-channel complex I/Q baseband samples
+     * @param frequency of the recorded channel, or zero if unknown
+     * @throws IOException if the recording can't be opened
+     */
+    public RecordingChannelSource(File file, long frequency) throws IOException
+    {
+        mWaveSource = new MappedComplexWaveSource(file, MappedComplexWaveSource.ReplayMode.AS_FAST_AS_POSSIBLE,
+            false);
+        mWaveSource.open();
+        mWaveSource.setFrequency(frequency);
+        mWaveSource.setListener(this::process);
+    }
+
+    /**
+     * Registers a listener to be notified once the end of the recording is reached.  The listener is invoked on the
+     * replay thread.
+     */
+    public void setEndOfRecordingListener(Runnable listener)
+    {
+        mWaveSource.setEndOfRecordingListener(listener);
+    }
+
+    /**
+     * Recording file
+     */
+    public File getFile()
+    {
+        return mWaveSource.getFile();
+    }
+
+    /**
+     * Recording duration in milliseconds
+     */
+    public long getDuration()
+    {
+        return mWaveSource.getDuration();
+    }
+
+    @Override
+    public void setListener(Listener<ComplexSamples> listener)
+    {
+        mListener = listener;
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mWaveSource.getSampleRate();
+    }
+
+    @Override
+    public long getFrequency()
+    {
+        return mWaveSource.getFrequency();
+    }
+
+    @Override
+    public void setSourceEventListener(Listener<SourceEvent> listener)
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void removeSourceEventListener()
+    {
+        //Not implemented
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        //Not implemented
+        return null;
+    }
+
+    @Override
+    public void reset()
+    {
+        mWaveSource.reset();
+    }
+
+    @Override
+    public void start()
+    {
+        mWaveSource.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        try
+        {
+            mWaveSource.close();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error closing recording [" + getFile() + "]", ioe);
+        }
+    }
+
+    /**
+     * Sends each of the sample fragments from the buffer to the listener and then broadcasts a heartbeat.
+     */
+    private void process(INativeBuffer buffer)
+    {
+        Listener<ComplexSamples> listener = mListener;
+
+        if(listener != null)
+        {
+            Iterator<ComplexSamples> iterator = buffer.iterator();
+
+            while(iterator.hasNext())
+            {
+                listener.receive(iterator.next());
+            }
+        }
+
+        getHeartbeatManager().broadcast();
+    }
+}
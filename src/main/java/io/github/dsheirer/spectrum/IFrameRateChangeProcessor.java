@@ -0,0 +1,36 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.spectrum;
+
+/**
+ * Processor with a configurable DFT results frame rate.
+ */
+public interface IFrameRateChangeProcessor
+{
+    /**
+     * Sets the number of DFT results frames produced per second.
+     * @param framesPerSecond in the range 1 - 1000
+     */
+    void setFrameRate(int framesPerSecond);
+
+    /**
+     * Number of DFT results frames produced per second.
+     */
+    int getFrameRate();
+}
@@ -0,0 +1,38 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.spectrum;
+
+import io.github.dsheirer.dsp.window.WindowType;
+
+/**
+ * Processor with a configurable DFT window type.
+ */
+public interface IWindowTypeChangeProcessor
+{
+    /**
+     * Sets the window type applied to samples prior to the DFT.
+     * @param windowType to apply
+     */
+    void setWindowType(WindowType windowType);
+
+    /**
+     * Window type applied to samples prior to the DFT.
+     */
+    WindowType getWindowType();
+}
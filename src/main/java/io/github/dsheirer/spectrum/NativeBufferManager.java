@@ -20,6 +20,7 @@
 package io.github.dsheirer.spectrum;
 
 import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.IReusableNativeBuffer;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
 
 import java.io.IOException;
@@ -38,6 +39,8 @@ import java.util.concurrent.LinkedTransferQueue;
  *
  * The queuing on both the producer and consumer side ensures the thread-safe transfer queue never overfills.
  *
+ * Reusable native buffers are retained while they are enqueued and are released once they are consumed or cleared.
+ *
  * The estimated request size argument sets the initial quota of samples to enqueue on the producer size.  This value
  * is updated on the consumer side with each request.  This class is designed for the get() operation to consistently
  * request the same size buffer, with occasional changes.
@@ -51,6 +54,7 @@ public class NativeBufferManager<T extends INativeBuffer>
     private List<T> mConsumerQueue = new ArrayList<>();
     private int mRequestSize;
     private int mProducerAvailable;
+    private float[] mFragment;
 
     /**
      * Constructs an instance
@@ -77,6 +81,11 @@ public class NativeBufferManager<T extends INativeBuffer>
         //Add this buffer to the producer queue if it's needed to meet the anticipated request size
         if(mProducerAvailable < mRequestSize)
         {
+            if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.incrementUserCount();
+            }
+
             mProducerQueue.add(nativeBuffer);
             mProducerAvailable += nativeBuffer.sampleCount();
         }
@@ -87,9 +96,27 @@ public class NativeBufferManager<T extends INativeBuffer>
      */
     public void clear()
     {
-        mTransferQueue.clear();
-        mProducerQueue.clear();
-        mConsumerQueue.clear();
+        List<T> cleared = new ArrayList<>();
+        mTransferQueue.drainTo(cleared);
+        release(cleared);
+        release(mProducerQueue);
+        release(mConsumerQueue);
+    }
+
+    /**
+     * Releases any reusable native buffers and clears the list.
+     */
+    private void release(List<T> buffers)
+    {
+        for(T buffer: buffers)
+        {
+            if(buffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.decrementUserCount();
+            }
+        }
+
+        buffers.clear();
     }
 
     /**
@@ -128,11 +155,21 @@ public class NativeBufferManager<T extends INativeBuffer>
 
         for(T buffer: mConsumerQueue)
         {
-            Iterator<InterleavedComplexSamples> iterator = buffer.iteratorInterleaved();
+            Iterator<InterleavedComplexSamples> iterator;
+
+            if(buffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                iterator = reusableNativeBuffer.iteratorInterleaved(mFragment);
+            }
+            else
+            {
+                iterator = buffer.iteratorInterleaved();
+            }
 
             while(iterator.hasNext() && samplesPointer < samples.length)
             {
                 InterleavedComplexSamples complexSamples = iterator.next();
+                mFragment = complexSamples.samples();
                 int toCopy = Math.min(samples.length - samplesPointer, complexSamples.samples().length);
                 System.arraycopy(complexSamples.samples(), 0, samples, samplesPointer, toCopy);
                 samplesPointer += toCopy;
@@ -144,7 +181,7 @@ public class NativeBufferManager<T extends INativeBuffer>
             }
         }
 
-        mConsumerQueue.clear();
+        release(mConsumerQueue);
         return samples;
     }
 }
@@ -39,8 +39,6 @@ import io.github.dsheirer.source.tuner.Tuner;
 import io.github.dsheirer.source.tuner.manager.DiscoveredTuner;
 import io.github.dsheirer.source.tuner.ui.DiscoveredTunerModel;
 import io.github.dsheirer.spectrum.OverlayPanel.ChannelDisplay;
-import io.github.dsheirer.spectrum.converter.ComplexDecibelConverter;
-import io.github.dsheirer.spectrum.converter.DFTResultsConverter;
 import io.github.dsheirer.spectrum.menu.AveragingItem;
 import io.github.dsheirer.spectrum.menu.DFTSizeItem;
 import io.github.dsheirer.spectrum.menu.FFTWindowTypeItem;
@@ -54,6 +52,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.util.ArrayList;
@@ -81,7 +80,7 @@ import javax.swing.event.ChangeListener;
 import javax.swing.event.MouseInputAdapter;
 
 public class SpectralDisplayPanel extends JPanel
-        implements Listener<INativeBuffer>, ISourceEventProcessor, IDFTWidthChangeProcessor
+        implements Listener<INativeBuffer>, ISourceEventProcessor, IDFTWidthChangeProcessor, IFrameRateChangeProcessor
 {
     private static final long serialVersionUID = 1L;
 
@@ -89,6 +88,7 @@ public class SpectralDisplayPanel extends JPanel
 
     public static final String FFT_SIZE_PROPERTY = "spectral.display.dft.size";
     public static final String SPECTRAL_DISPLAY_ENABLED = "spectral.display.enabled";
+    public static final String FRAME_RATE_PROPERTY = "spectral.display.frame.rate";
     public static final int NO_ZOOM = 0;
     public static final int MAX_ZOOM = 6;
 
@@ -101,8 +101,8 @@ public class SpectralDisplayPanel extends JPanel
     private SpectrumPanel mSpectrumPanel;
     private WaterfallPanel mWaterfallPanel;
     private OverlayPanel mOverlayPanel;
-    private ComplexDftProcessor mComplexDftProcessor;
-    private DFTResultsConverter mDFTConverter;
+    private SpectrumEngine mSpectrumEngine;
+    private SpectrumSubscription mSpectrumSubscription;
     private ChannelModel mChannelModel;
     private ChannelProcessingManager mChannelProcessingManager;
     private SettingsManager mSettingsManager;
@@ -172,11 +172,9 @@ public class SpectralDisplayPanel extends JPanel
 
         mSettingsManager = null;
 
-        mComplexDftProcessor.dispose();
-        mComplexDftProcessor = null;
-
-        mDFTConverter.dispose();
-        mDFTConverter = null;
+        mSpectrumEngine.dispose();
+        mSpectrumEngine = null;
+        mSpectrumSubscription = null;
 
         mSpectrumPanel.dispose();
         mSpectrumPanel = null;
@@ -196,7 +194,7 @@ public class SpectralDisplayPanel extends JPanel
      */
     public void setDFTSize(DFTSize size, boolean save)
     {
-        mComplexDftProcessor.setDFTSize(size);
+        mSpectrumEngine.setDFTSize(size);
         mOverlayPanel.setDFTSize(size);
         mDFTSize = size;
 
@@ -218,6 +216,22 @@ public class SpectralDisplayPanel extends JPanel
         return mDFTSize;
     }
 
+    @Override
+    public int getFrameRate()
+    {
+        return mSpectrumSubscription.getFrameRate();
+    }
+
+    /**
+     * Sets the spectrum and waterfall frame rate and saves the setting.
+     */
+    @Override
+    public void setFrameRate(int framesPerSecond)
+    {
+        mSpectrumSubscription.setFrameRate(framesPerSecond);
+        SystemProperties.getInstance().set(FRAME_RATE_PROPERTY, framesPerSecond);
+    }
+
     public int getZoom()
     {
         return mZoom;
@@ -389,15 +403,25 @@ public class SpectralDisplayPanel extends JPanel
         add(mScrollPane, "grow");
 
         /**
-         * Setup DFTProcessor to process samples and register the waterfall and
-         * spectrum panel to receive the processed dft results
+         * Setup the spectrum engine to process samples and subscribe the waterfall and spectrum panel to receive the
+         * full resolution results so that the panels can zoom.  The subscription is paused while this panel is not
+         * showing so that the engine doesn't calculate DFTs that won't be displayed.
          */
-        mComplexDftProcessor = new ComplexDftProcessor();
-        mDFTConverter = new ComplexDecibelConverter();
-        mComplexDftProcessor.addConverter(mDFTConverter);
-
-        mDFTConverter.addListener((DFTResultsListener)mSpectrumPanel);
-        mDFTConverter.addListener((DFTResultsListener)mWaterfallPanel);
+        mSpectrumEngine = new SpectrumEngine("sdrtrunk spectral display");
+        int frameRate = SystemProperties.getInstance().get(FRAME_RATE_PROPERTY, 20);
+        SpectrumPanel spectrumPanel = mSpectrumPanel;
+        WaterfallPanel waterfallPanel = mWaterfallPanel;
+        mSpectrumSubscription = mSpectrumEngine.subscribe(results -> {
+            spectrumPanel.receive(results);
+            waterfallPanel.receive(results);
+        }, frameRate, 0, SpectrumReduction.MAXIMUM);
+
+        addHierarchyListener(e -> {
+            if((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && mSpectrumSubscription != null)
+            {
+                mSpectrumSubscription.setPaused(!isShowing());
+            }
+        });
     }
 
     /**
@@ -405,6 +429,11 @@ public class SpectralDisplayPanel extends JPanel
      */
     public void process(SourceEvent event)
     {
+        if(event.getEvent() == SourceEvent.Event.NOTIFICATION_SAMPLE_RATE_CHANGE)
+        {
+            mSpectrumEngine.setSampleRate(event.getValue().doubleValue());
+        }
+
         mOverlayPanel.process(event);
     }
 
@@ -413,7 +442,7 @@ public class SpectralDisplayPanel extends JPanel
      */
     @Override public void receive(INativeBuffer nativeBuffer)
     {
-        mComplexDftProcessor.receive(nativeBuffer);
+        mSpectrumEngine.receive(nativeBuffer);
     }
 
     /**
@@ -424,16 +453,14 @@ public class SpectralDisplayPanel extends JPanel
     {
         clearTuner();
 
-        mComplexDftProcessor.clearBuffer();
-
-        mComplexDftProcessor.start();
+        mSpectrumEngine.start();
 
         mTuner = tuner;
 
         if(mTuner != null)
         {
             //Register the dft processor to receive samples from the tuner
-            mTuner.getTunerController().addBufferListener(mComplexDftProcessor);
+            mTuner.getTunerController().addBufferListener(mSpectrumEngine);
 
             //Verify that the tuner is still non-null, in case it encountered an error on starting sample stream
             if(mTuner != null)
@@ -462,12 +489,11 @@ public class SpectralDisplayPanel extends JPanel
             mTuner.getTunerController().removeListener(SpectralDisplayPanel.this);
 
             //Deregister the dft processor from receiving samples
-            mTuner.getTunerController().removeBufferListener(mComplexDftProcessor);
+            mTuner.getTunerController().removeBufferListener(mSpectrumEngine);
             mTuner = null;
         }
 
-        mComplexDftProcessor.stop();
-        mComplexDftProcessor.clearBuffer();
+        mSpectrumEngine.stop();
         mSpectrumPanel.clearSpectrum();
         mWaterfallPanel.clearWaterfall();
     }
@@ -709,14 +735,14 @@ public class SpectralDisplayPanel extends JPanel
                 JMenu frameRateMenu = new JMenu("Frame Rate");
                 displayMenu.add(frameRateMenu);
 
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 14));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 16));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 18));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 20));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 25));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 30));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 40));
-                frameRateMenu.add(new FrameRateItem(mComplexDftProcessor, 50));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 14));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 16));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 18));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 20));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 25));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 30));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 40));
+                frameRateMenu.add(new FrameRateItem(SpectralDisplayPanel.this, 50));
 
                 /**
                  * FFT Window Type
@@ -726,7 +752,7 @@ public class SpectralDisplayPanel extends JPanel
 
                 for(WindowType type : WindowType.values())
                 {
-                    fftWindowType.add(new FFTWindowTypeItem(mComplexDftProcessor, type));
+                    fftWindowType.add(new FFTWindowTypeItem(mSpectrumEngine, type));
                 }
 
                 if(event.getComponent() != mWaterfallPanel)
@@ -0,0 +1,484 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.spectrum;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.IReusableNativeBuffer;
+import io.github.dsheirer.buffer.IReusableNativeBufferListener;
+import io.github.dsheirer.dsp.magnitude.IMagnitudeCalculator;
+import io.github.dsheirer.dsp.magnitude.MagnitudeFactory;
+import io.github.dsheirer.dsp.window.Window;
+import io.github.dsheirer.dsp.window.WindowFactory;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.util.RingBufferDispatcher;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jtransforms.fft.FloatFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spectrum engine that calculates a Welch-averaged power spectrum from a complex sample stream and shares the results
+ * with any number of subscribers.
+ *
+ * The sample stream is divided into DFT segments that start every stride samples.  Each segment is windowed,
+ * transformed and converted to squared magnitude (power) values once and the power values are accumulated by each
+ * subscription until that subscription's next frame is due.  Subscribers can request different frame rates, pixel
+ * widths and pixel reduction methods without causing additional DFT calculations.
+ *
+ * The segment stride is sized so that each frame of the fastest subscriber averages approximately SEGMENTS_PER_FRAME
+ * segments, but never less than half of the DFT size, which is the conventional Welch overlap.  Incoming buffers that
+ * don't contribute samples to a segment are ignored on the producer thread without conversion, and no processing is
+ * performed while there are no active (unpaused) subscriptions.
+ */
+public class SpectrumEngine implements Listener<INativeBuffer>, IReusableNativeBufferListener,
+    IDFTWidthChangeProcessor, IWindowTypeChangeProcessor
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SpectrumEngine.class);
+    private static final int BUFFER_MAX_CAPACITY = 50;
+    private static final int SEGMENTS_PER_FRAME = 8;
+
+    private final List<SpectrumSubscription> mSubscriptions = new CopyOnWriteArrayList<>();
+    private final IMagnitudeCalculator mMagnitudeCalculator = MagnitudeFactory.getMagnitudeCalculator();
+    private final SegmentBufferDispatcher mBufferDispatcher;
+    private volatile DFTSize mDFTSize = DFTSize.FFT04096;
+    private volatile WindowType mWindowType = WindowType.BLACKMAN_HARRIS_7;
+    private volatile double mSampleRate;
+    private volatile long mNextSamplePosition;
+
+    //Producer thread state
+    private long mStreamPosition;
+
+    //Processing thread state
+    private DFTSize mCurrentDFTSize;
+    private WindowType mCurrentWindowType;
+    private FloatFFT_1D mFFT;
+    private Window mWindow;
+    private float[] mSegment;
+    private float[] mTransform;
+    private float[] mI;
+    private float[] mQ;
+    private float[] mFragment;
+    private long mSegmentStart;
+    private int mSegmentFill;
+
+    /**
+     * Constructs an instance
+     * @param threadName for the spectrum processing thread
+     */
+    public SpectrumEngine(String threadName)
+    {
+        mBufferDispatcher = new SegmentBufferDispatcher(threadName);
+        mBufferDispatcher.setListener(this::process);
+    }
+
+    /**
+     * Starts processing samples.
+     */
+    public void start()
+    {
+        mBufferDispatcher.start();
+    }
+
+    /**
+     * Stops processing samples and discards any queued sample buffers.
+     */
+    public void stop()
+    {
+        mBufferDispatcher.stop();
+    }
+
+    /**
+     * Indicates if this engine is started.
+     */
+    public boolean isRunning()
+    {
+        return mBufferDispatcher.isRunning();
+    }
+
+    /**
+     * Stops this engine and removes all subscriptions.
+     */
+    public void dispose()
+    {
+        stop();
+        mSubscriptions.clear();
+    }
+
+    /**
+     * Creates a subscription to receive spectrum frames from this engine.
+     * @param listener to receive frames in decibels with the DC bin centered
+     * @param framesPerSecond to deliver
+     * @param pixelWidth of each frame, or zero for one value per DFT bin
+     * @param reduction method for combining the DFT bins that map to each pixel
+     * @return subscription that can be used to change the settings or to unsubscribe
+     */
+    public SpectrumSubscription subscribe(DFTResultsListener listener, int framesPerSecond, int pixelWidth,
+                                          SpectrumReduction reduction)
+    {
+        SpectrumSubscription subscription = new SpectrumSubscription(listener, framesPerSecond, pixelWidth, reduction);
+        mSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Removes the subscription.
+     */
+    public void unsubscribe(SpectrumSubscription subscription)
+    {
+        mSubscriptions.remove(subscription);
+    }
+
+    /**
+     * Indicates if this engine is running and has at least one subscription that is not paused.
+     */
+    public boolean isActive()
+    {
+        if(mBufferDispatcher.isRunning())
+        {
+            for(SpectrumSubscription subscription: mSubscriptions)
+            {
+                if(!subscription.isPaused())
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the sample rate of the incoming sample stream, used to size the segment stride.  When the sample rate is
+     * not set, segments overlap by half of the DFT size.
+     * @param sampleRate in Hertz
+     */
+    public void setSampleRate(double sampleRate)
+    {
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Sample rate of the incoming sample stream.
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Queues a DFT size change that is applied before the next sample buffer is processed.
+     */
+    @Override
+    public void setDFTSize(DFTSize size)
+    {
+        mDFTSize = size;
+    }
+
+    @Override
+    public DFTSize getDFTSize()
+    {
+        return mDFTSize;
+    }
+
+    /**
+     * Queues a window type change that is applied before the next sample buffer is processed.
+     */
+    @Override
+    public void setWindowType(WindowType windowType)
+    {
+        mWindowType = windowType;
+    }
+
+    @Override
+    public WindowType getWindowType()
+    {
+        return mWindowType;
+    }
+
+    /**
+     * Receives sample buffers on the producer thread and queues only the buffers that contribute samples to a DFT
+     * segment for processing.
+     */
+    @Override
+    public void receive(INativeBuffer nativeBuffer)
+    {
+        long position = mStreamPosition;
+        mStreamPosition += nativeBuffer.sampleCount();
+
+        //The next sample position lags while buffers are queued, so the check can only queue extra buffers
+        if(mStreamPosition > mNextSamplePosition && isActive())
+        {
+            mBufferDispatcher.receive(new SegmentBuffer(nativeBuffer, position));
+        }
+    }
+
+    /**
+     * Segment stride in samples.
+     */
+    private int getStride(int dftSize)
+    {
+        int stride = dftSize / 2;
+        double sampleRate = mSampleRate;
+
+        if(sampleRate > 0)
+        {
+            int frameRate = 1;
+
+            for(SpectrumSubscription subscription: mSubscriptions)
+            {
+                if(!subscription.isPaused())
+                {
+                    frameRate = Math.max(frameRate, subscription.getFrameRate());
+                }
+            }
+
+            stride = Math.max(stride, (int)(sampleRate / (frameRate * SEGMENTS_PER_FRAME)));
+        }
+
+        return stride;
+    }
+
+    /**
+     * Applies queued DFT size and window type changes.
+     */
+    private void checkSettings()
+    {
+        DFTSize dftSize = mDFTSize;
+        WindowType windowType = mWindowType;
+
+        if(dftSize != mCurrentDFTSize)
+        {
+            mCurrentDFTSize = dftSize;
+            int size = dftSize.getSize();
+            mFFT = new FloatFFT_1D(size);
+            mSegment = new float[size * 2];
+            mTransform = new float[size * 2];
+            mI = new float[size];
+            mQ = new float[size];
+            mSegmentFill = 0;
+            mCurrentWindowType = null;
+        }
+
+        if(windowType != mCurrentWindowType)
+        {
+            mCurrentWindowType = windowType;
+            mWindow = WindowFactory.getWindowImplementation(getInterleavedWindow(windowType,
+                mCurrentDFTSize.getSize()));
+        }
+    }
+
+    /**
+     * Creates window coefficients for an interleaved complex sample array where each coefficient is repeated for the
+     * inphase and quadrature sample.
+     * @param windowType to create
+     * @param length of the window in complex samples
+     * @return interleaved coefficients
+     */
+    private static float[] getInterleavedWindow(WindowType windowType, int length)
+    {
+        float[] window = WindowFactory.getWindow(windowType, length);
+        float[] interleaved = new float[length * 2];
+
+        for(int x = 0; x < length; x++)
+        {
+            interleaved[2 * x] = window[x];
+            interleaved[2 * x + 1] = window[x];
+        }
+
+        return interleaved;
+    }
+
+    /**
+     * Processes a queued sample buffer on the processing thread.
+     */
+    private void process(SegmentBuffer segmentBuffer)
+    {
+        INativeBuffer nativeBuffer = segmentBuffer.nativeBuffer();
+
+        try
+        {
+            checkSettings();
+
+            Iterator<InterleavedComplexSamples> iterator;
+
+            if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                iterator = reusableNativeBuffer.iteratorInterleaved(mFragment);
+            }
+            else
+            {
+                iterator = nativeBuffer.iteratorInterleaved();
+            }
+
+            long fragmentPosition = segmentBuffer.position();
+
+            while(iterator.hasNext())
+            {
+                float[] samples = iterator.next().samples();
+                mFragment = samples;
+                process(samples, fragmentPosition);
+                fragmentPosition += samples.length / 2;
+            }
+
+            mNextSamplePosition = mSegmentStart + mSegmentFill;
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error while calculating spectrum", e);
+        }
+        finally
+        {
+            if(nativeBuffer instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.decrementUserCount();
+            }
+        }
+    }
+
+    /**
+     * Copies the samples that are needed for the current segment and calculates each segment once it is full.
+     * @param samples interleaved complex sample fragment
+     * @param fragmentPosition of the first sample of the fragment in the sample stream
+     */
+    private void process(float[] samples, long fragmentPosition)
+    {
+        int dftSize = mCurrentDFTSize.getSize();
+        int sampleCount = samples.length / 2;
+        int offset = 0;
+
+        while(offset < sampleCount)
+        {
+            long position = fragmentPosition + offset;
+            long nextSamplePosition = mSegmentStart + mSegmentFill;
+
+            if(nextSamplePosition > position)
+            {
+                //Skip the samples that fall between segments
+                offset += (int)Math.min(nextSamplePosition - position, sampleCount - offset);
+                continue;
+            }
+            else if(nextSamplePosition < position)
+            {
+                //Discontinuity from a discarded buffer or an idle period - start a new segment
+                mSegmentStart = position;
+                mSegmentFill = 0;
+            }
+
+            int toCopy = Math.min(dftSize - mSegmentFill, sampleCount - offset);
+            System.arraycopy(samples, offset * 2, mSegment, mSegmentFill * 2, toCopy * 2);
+            mSegmentFill += toCopy;
+            offset += toCopy;
+
+            if(mSegmentFill == dftSize)
+            {
+                calculate();
+
+                int stride = getStride(dftSize);
+
+                if(stride < dftSize)
+                {
+                    //Retain the overlapping samples for the next segment
+                    System.arraycopy(mSegment, stride * 2, mSegment, 0, (dftSize - stride) * 2);
+                    mSegmentFill = dftSize - stride;
+                }
+                else
+                {
+                    mSegmentFill = 0;
+                }
+
+                mSegmentStart += stride;
+            }
+        }
+    }
+
+    /**
+     * Calculates the power spectrum of the current segment and distributes it to each subscription.
+     */
+    private void calculate()
+    {
+        System.arraycopy(mSegment, 0, mTransform, 0, mTransform.length);
+        mWindow.apply(mTransform);
+        mFFT.complexForward(mTransform);
+
+        for(int x = 0; x < mI.length; x++)
+        {
+            mI[x] = mTransform[2 * x];
+            mQ[x] = mTransform[2 * x + 1];
+        }
+
+        float[] power = mMagnitudeCalculator.calculate(mI, mQ);
+        long timestamp = System.currentTimeMillis();
+
+        for(SpectrumSubscription subscription: mSubscriptions)
+        {
+            try
+            {
+                subscription.receive(power, timestamp);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error dispatching spectrum frame to listener [" +
+                    subscription.getListener().getClass() + "]", e);
+            }
+        }
+    }
+
+    /**
+     * Native buffer and the position of the first sample of the buffer in the sample stream.
+     */
+    private record SegmentBuffer(INativeBuffer nativeBuffer, long position) {}
+
+    /**
+     * Queues segment buffers for the spectrum processing thread.  Each pooled native buffer holds a user count while
+     * it waits, which the processing thread drops once every sample in the buffer is added to the Welch segments.
+     * Buffers that never reach the processing thread because the ring is full or stopped are released on discard.
+     */
+    private static class SegmentBufferDispatcher extends RingBufferDispatcher<SegmentBuffer>
+    {
+        public SegmentBufferDispatcher(String threadName)
+        {
+            super(threadName, BUFFER_MAX_CAPACITY, WaitStrategy.PARK);
+            setDiscardListener(this::overflow);
+        }
+
+        @Override
+        public void receive(SegmentBuffer segmentBuffer)
+        {
+            if(segmentBuffer.nativeBuffer() instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.incrementUserCount();
+            }
+
+            super.receive(segmentBuffer);
+        }
+
+        @Override
+        protected void overflow(SegmentBuffer segmentBuffer)
+        {
+            if(segmentBuffer.nativeBuffer() instanceof IReusableNativeBuffer reusableNativeBuffer)
+            {
+                reusableNativeBuffer.decrementUserCount();
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.spectrum;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Subscription to the Welch-averaged power spectrum produced by a spectrum engine.  Each subscription averages the
+ * power spectrum of all DFT segments received since its previous frame and delivers the average, in decibels and
+ * with the DC bin centered, to the listener at the subscription's frame rate.  When a pixel width is specified, the
+ * DFT bins that map to each pixel are reduced to a single value using the subscription's reduction method.
+ *
+ * Frame rate, pixel width, reduction and paused settings can be changed from any thread.  Accumulation and delivery
+ * are performed on the spectrum engine's processing thread.
+ */
+public class SpectrumSubscription implements IFrameRateChangeProcessor
+{
+    private static final VectorSpecies<Float> VECTOR_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private final DFTResultsListener mListener;
+    private volatile int mFrameRate;
+    private volatile int mPixelWidth;
+    private volatile SpectrumReduction mReduction;
+    private volatile boolean mPaused;
+    private float[] mAccumulator;
+    private int mAccumulatorCount;
+    private long mLastFrameTimestamp;
+
+    /**
+     * Constructs an instance.  Use SpectrumEngine.subscribe() to create a subscription.
+     * @param listener to receive spectrum frames
+     * @param framesPerSecond to deliver to the listener
+     * @param pixelWidth to reduce each frame to, or zero for one value per DFT bin
+     * @param reduction method for combining DFT bins into a pixel
+     */
+    SpectrumSubscription(DFTResultsListener listener, int framesPerSecond, int pixelWidth,
+                         SpectrumReduction reduction)
+    {
+        mListener = listener;
+        setFrameRate(framesPerSecond);
+        setPixelWidth(pixelWidth);
+        setReduction(reduction);
+    }
+
+    /**
+     * Listener for this subscription
+     */
+    public DFTResultsListener getListener()
+    {
+        return mListener;
+    }
+
+    @Override
+    public int getFrameRate()
+    {
+        return mFrameRate;
+    }
+
+    @Override
+    public void setFrameRate(int framesPerSecond)
+    {
+        if(framesPerSecond < 1 || framesPerSecond > 1000)
+        {
+            throw new IllegalArgumentException("Spectrum frame rate must be in range 1 - 1000 -- requested " +
+                "setting:" + framesPerSecond);
+        }
+
+        mFrameRate = framesPerSecond;
+    }
+
+    /**
+     * Number of values in each frame, or zero when each frame contains one value per DFT bin.
+     */
+    public int getPixelWidth()
+    {
+        return mPixelWidth;
+    }
+
+    /**
+     * Sets the number of values in each frame.  When the pixel width is less than the DFT size, the DFT bins that map
+     * to each pixel are combined using the reduction method.
+     * @param pixelWidth of each frame, or zero for one value per DFT bin
+     */
+    public void setPixelWidth(int pixelWidth)
+    {
+        mPixelWidth = Math.max(pixelWidth, 0);
+    }
+
+    /**
+     * Method for combining the DFT bins that map to a single pixel.
+     */
+    public SpectrumReduction getReduction()
+    {
+        return mReduction;
+    }
+
+    /**
+     * Sets the method for combining the DFT bins that map to a single pixel.
+     */
+    public void setReduction(SpectrumReduction reduction)
+    {
+        mReduction = reduction != null ? reduction : SpectrumReduction.MAXIMUM;
+    }
+
+    /**
+     * Indicates if this subscription is paused.
+     */
+    public boolean isPaused()
+    {
+        return mPaused;
+    }
+
+    /**
+     * Pauses or resumes this subscription.  A paused subscription does not accumulate or deliver frames and when all
+     * subscriptions are paused, the spectrum engine stops calculating the DFT.
+     */
+    public void setPaused(boolean paused)
+    {
+        mPaused = paused;
+    }
+
+    /**
+     * Adds the power spectrum of a DFT segment to the average for the next frame and delivers the frame to the
+     * listener when the frame interval has elapsed.
+     * @param power spectrum of a DFT segment as squared magnitude values in DFT bin order
+     * @param timestamp of the DFT segment in milliseconds
+     */
+    void receive(float[] power, long timestamp)
+    {
+        if(mPaused)
+        {
+            //Discard the partial average so that a resumed subscription starts with a fresh frame
+            mAccumulatorCount = 0;
+            return;
+        }
+
+        accumulate(power);
+
+        if(timestamp - mLastFrameTimestamp >= 1000 / mFrameRate)
+        {
+            mLastFrameTimestamp = timestamp;
+            mListener.receive(getFrame());
+            mAccumulatorCount = 0;
+        }
+    }
+
+    /**
+     * Adds the power values to the accumulator.  The accumulator is reset when this is the first segment of a frame
+     * or when the DFT size changes.
+     */
+    private void accumulate(float[] power)
+    {
+        if(mAccumulator == null || mAccumulator.length != power.length)
+        {
+            mAccumulator = new float[power.length];
+            mAccumulatorCount = 0;
+        }
+
+        if(mAccumulatorCount == 0)
+        {
+            System.arraycopy(power, 0, mAccumulator, 0, power.length);
+        }
+        else
+        {
+            int x = 0;
+
+            for(; x < VECTOR_SPECIES.loopBound(power.length); x += VECTOR_SPECIES.length())
+            {
+                FloatVector.fromArray(VECTOR_SPECIES, mAccumulator, x)
+                    .add(FloatVector.fromArray(VECTOR_SPECIES, power, x))
+                    .intoArray(mAccumulator, x);
+            }
+
+            for(; x < power.length; x++)
+            {
+                mAccumulator[x] += power[x];
+            }
+        }
+
+        mAccumulatorCount++;
+    }
+
+    /**
+     * Creates a frame from the accumulated power values.  Bins are reordered so that the DC bin is centered, reduced
+     * to the pixel width and converted to decibels, scaled to the DFT size.
+     */
+    private float[] getFrame()
+    {
+        int binCount = mAccumulator.length;
+        int middle = binCount / 2;
+        int pixelWidth = mPixelWidth;
+        SpectrumReduction reduction = mReduction;
+
+        if(pixelWidth == 0 || pixelWidth >= binCount)
+        {
+            pixelWidth = binCount;
+        }
+
+        //Scale each bin to the DFT size and the number of averaged segments
+        float scalor = 1.0f / ((float)binCount * mAccumulatorCount);
+        float[] frame = new float[pixelWidth];
+        int binStart = 0;
+
+        for(int pixel = 0; pixel < pixelWidth; pixel++)
+        {
+            int binEnd = (int)((long)(pixel + 1) * binCount / pixelWidth);
+            float value = mAccumulator[(binStart + middle) % binCount];
+
+            for(int bin = binStart + 1; bin < binEnd; bin++)
+            {
+                float binValue = mAccumulator[(bin + middle) % binCount];
+
+                switch(reduction)
+                {
+                    case MAXIMUM:
+                        value = Math.max(value, binValue);
+                        break;
+                    case MINIMUM:
+                        value = Math.min(value, binValue);
+                        break;
+                    case AVERAGE:
+                    default:
+                        value += binValue;
+                        break;
+                }
+            }
+
+            if(reduction == SpectrumReduction.AVERAGE)
+            {
+                value /= (binEnd - binStart);
+            }
+
+            frame[pixel] = 10.0f * (float)Math.log10(value * scalor);
+            binStart = binEnd;
+        }
+
+        return frame;
+    }
+}
@@ -20,7 +20,7 @@
 package io.github.dsheirer.spectrum.menu;
 
 import io.github.dsheirer.dsp.window.WindowType;
-import io.github.dsheirer.spectrum.ComplexDftProcessor;
+import io.github.dsheirer.spectrum.IWindowTypeChangeProcessor;
 
 import javax.swing.JCheckBoxMenuItem;
 import java.awt.event.ActionEvent;
@@ -30,14 +30,14 @@ public class FFTWindowTypeItem extends JCheckBoxMenuItem
 {
     private static final long serialVersionUID = 1L;
 
-    private ComplexDftProcessor mComplexDftProcessor;
+    private IWindowTypeChangeProcessor mWindowTypeChangeProcessor;
     private WindowType mWindowType;
 
-    public FFTWindowTypeItem(ComplexDftProcessor processor, WindowType windowType)
+    public FFTWindowTypeItem(IWindowTypeChangeProcessor processor, WindowType windowType)
     {
         super(windowType.toString());
 
-        mComplexDftProcessor = processor;
+        mWindowTypeChangeProcessor = processor;
         mWindowType = windowType;
 
         if(processor.getWindowType() == mWindowType)
@@ -49,7 +49,7 @@ public class FFTWindowTypeItem extends JCheckBoxMenuItem
         {
             @Override public void actionPerformed(ActionEvent arg0)
             {
-                mComplexDftProcessor.setWindowType(mWindowType);
+                mWindowTypeChangeProcessor.setWindowType(mWindowType);
             }
         });
     }
@@ -19,7 +19,7 @@
 
 package io.github.dsheirer.spectrum.menu;
 
-import io.github.dsheirer.spectrum.ComplexDftProcessor;
+import io.github.dsheirer.spectrum.IFrameRateChangeProcessor;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
@@ -29,14 +29,14 @@ public class FrameRateItem extends JCheckBoxMenuItem
 {
     private static final long serialVersionUID = 1L;
 
-    private ComplexDftProcessor mComplexDftProcessor;
+    private IFrameRateChangeProcessor mFrameRateChangeProcessor;
     private int mFrameRate;
     
-    public FrameRateItem(ComplexDftProcessor processor, int frameRate )
+    public FrameRateItem(IFrameRateChangeProcessor processor, int frameRate )
     {
     	super( String.valueOf( frameRate ) );
     	
-    	mComplexDftProcessor = processor;
+    	mFrameRateChangeProcessor = processor;
     	mFrameRate = frameRate;
 
     	if( processor.getFrameRate() == mFrameRate )
@@ -49,7 +49,7 @@ public class FrameRateItem extends JCheckBoxMenuItem
 			@Override
             public void actionPerformed( ActionEvent arg0 )
             {
-				mComplexDftProcessor.setFrameRate( mFrameRate );
+				mFrameRateChangeProcessor.setFrameRate( mFrameRate );
             }
 		} );
     }
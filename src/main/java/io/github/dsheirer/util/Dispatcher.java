@@ -19,6 +19,8 @@
 package io.github.dsheirer.util;
 
 import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.QueueMetrics;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.heartbeat.HeartbeatManager;
 import java.util.ArrayList;
@@ -37,18 +39,28 @@ import org.slf4j.LoggerFactory;
  * registered listener on this consumer/dispatcher thread.  Internally uses a single-thread thread pool to effect a
  * timer-based interval for processing to avoid excessive context switching inherent in a blocking queue.  Sizes the
  * thread pool to a single thread to ensure Garbage Collector can efficiently clean objects created on the thread.
+ *
+ * When the ThreadPool virtual thread execution mode is enabled, the dispatcher instead uses a virtual thread that
+ * blocks on the queue and dispatches each element as soon as it arrives.  Blocking is inexpensive for a virtual
+ * thread, so this avoids the interval polling latency without dedicating a platform thread to each dispatcher.  The
+ * processing interval is then only used for the heartbeat.
  */
-public class Dispatcher<E> implements Listener<E>
+public class Dispatcher<E> implements IDispatcher<E>
 {
     private final static Logger mLog = LoggerFactory.getLogger(Dispatcher.class);
-    private final LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<>();
+    private volatile LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<>();
     private Listener<E> mListener;
+    private Listener<E> mDiscardListener;
     private final AtomicBoolean mRunning = new AtomicBoolean();
     private String mThreadName;
     private ScheduledExecutorService mExecutorService;
     private ScheduledFuture<?> mScheduledFuture;
     private final long mInterval;
     private HeartbeatManager mHeartbeatManager;
+    private MetricScope mMetricScope;
+    private String mMetricScopeName;
+    private volatile QueueMetrics mQueueMetrics;
+    private volatile BlockingProcessor mBlockingProcessor;
 
     /**
      * Constructs an instance of a Dispatcher with integrated heartbeat support.
@@ -86,11 +98,25 @@ public class Dispatcher<E> implements Listener<E>
      * Sets or changes the listener to receive buffers from this processor.
      * @param listener to receive buffers
      */
+    @Override
     public void setListener(Listener<E> listener)
     {
         mListener = listener;
     }
 
+    @Override
+    public void setDiscardListener(Listener<E> listener)
+    {
+        mDiscardListener = listener;
+    }
+
+    @Override
+    public void setMetricScope(MetricScope scope, String scopeName)
+    {
+        mMetricScope = scope;
+        mMetricScopeName = scopeName;
+    }
+
     /**
      * Primary input method for adding buffers to this processor.  Note: incoming buffers will be ignored if this
      * processor is in a stopped state.  You must invoke start() to allow incoming buffers and initiate buffer
@@ -98,17 +124,29 @@ public class Dispatcher<E> implements Listener<E>
      *
      * @param e to enqueue for distribution to a registered listener
      */
+    @Override
     public void receive(E e)
     {
         if(mRunning.get())
         {
             mQueue.add(e);
+
+            //Release the element if this dispatcher was stopped while the element was being queued
+            if(!mRunning.get())
+            {
+                discardQueued();
+            }
+        }
+        else
+        {
+            discard(e);
         }
     }
 
     /**
      * Starts this buffer processor and allows queuing of incoming buffers.
      */
+    @Override
     public void start()
     {
         if(mRunning.compareAndSet(false, true))
@@ -126,17 +164,34 @@ public class Dispatcher<E> implements Listener<E>
                 mExecutorService = null;
             }
 
-            mQueue.clear();
-            mExecutorService = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(mThreadName));
+            //Each start uses a new queue so that a previous blocking processor that is still exiting can't take
+            //elements from the new queue
+            mQueue = new LinkedTransferQueue<>();
 
-            Runnable r = (mHeartbeatManager != null ? new ProcessorWithHeartbeat() : new Processor());
-            mScheduledFuture = mExecutorService.scheduleAtFixedRate(r, 0, mInterval, TimeUnit.MILLISECONDS);
+            if(mMetricScope != null)
+            {
+                mQueueMetrics = new QueueMetrics("dispatcher", mMetricScope, mMetricScopeName, mQueue::size);
+            }
+
+            if(ThreadPool.isVirtualThreads())
+            {
+                mBlockingProcessor = new BlockingProcessor(mQueue);
+                ThreadPool.getThreadFactory(mThreadName).newThread(mBlockingProcessor).start();
+            }
+            else
+            {
+                mExecutorService = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(mThreadName));
+
+                Runnable r = (mHeartbeatManager != null ? new ProcessorWithHeartbeat() : new Processor());
+                mScheduledFuture = mExecutorService.scheduleAtFixedRate(r, 0, mInterval, TimeUnit.MILLISECONDS);
+            }
         }
     }
 
     /**
      * Stops this buffer processor and waits up to two seconds for the processing thread to terminate.
      */
+    @Override
     public void stop()
     {
         if(mRunning.compareAndSet(true, false))
@@ -147,7 +202,15 @@ public class Dispatcher<E> implements Listener<E>
                 //be able to release those locks or we'll get a deadlock situation.
                 mScheduledFuture.cancel(false);
                 mScheduledFuture = null;
-                mQueue.clear();
+                discardQueued();
+            }
+
+            //Note: the blocking processor is not interrupted for the same reason as above.  It exits once it detects
+            //that it is no longer the active processor, within one processing interval.
+            if(mBlockingProcessor != null)
+            {
+                mBlockingProcessor = null;
+                discardQueued();
             }
 
             if(mExecutorService != null)
@@ -155,12 +218,53 @@ public class Dispatcher<E> implements Listener<E>
                 mExecutorService.shutdown();
                 mExecutorService = null;
             }
+
+            if(mQueueMetrics != null)
+            {
+                mQueueMetrics.dispose();
+                mQueueMetrics = null;
+            }
+        }
+    }
+
+    /**
+     * Removes all queued elements and passes each element to the discard listener.
+     */
+    private void discardQueued()
+    {
+        E element = mQueue.poll();
+
+        while(element != null)
+        {
+            discard(element);
+            element = mQueue.poll();
+        }
+    }
+
+    /**
+     * Passes the element that will not be dispatched to the discard listener, if there is one.
+     */
+    private void discard(E element)
+    {
+        Listener<E> discardListener = mDiscardListener;
+
+        if(discardListener != null)
+        {
+            try
+            {
+                discardListener.receive(element);
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while discarding element [" + element.getClass() + "]", t);
+            }
         }
     }
 
     /**
      * Indicates if this processor is currently running
      */
+    @Override
     public boolean isRunning()
     {
         return mRunning.get();
@@ -175,20 +279,63 @@ public class Dispatcher<E> implements Listener<E>
 
         mQueue.drainTo(elements);
 
+        QueueMetrics metrics = mQueueMetrics;
+
         for(E element: elements)
         {
-            if(mRunning.get() && mListener != null)
+            dispatch(element, metrics);
+        }
+    }
+
+    /**
+     * Dispatches the element to the listener.
+     * @param element to dispatch
+     * @param metrics to update, or null
+     */
+    private void dispatch(E element, QueueMetrics metrics)
+    {
+        if(!mRunning.get())
+        {
+            discard(element);
+        }
+        else if(mListener != null)
+        {
+            try
             {
-                try
+                if(metrics != null)
                 {
+                    long start = System.nanoTime();
                     mListener.receive(element);
+                    metrics.processed(start);
                 }
-                catch(Throwable t)
+                else
                 {
-                    mLog.error("Error while dispatching element [" + element.getClass() + "] to listener [" +
-                            mListener.getClass() + "]", t);
+                    mListener.receive(element);
                 }
             }
+            catch(Throwable t)
+            {
+                mLog.error("Error while dispatching element [" + element.getClass() + "] to listener [" +
+                        mListener.getClass() + "]", t);
+            }
+        }
+    }
+
+    /**
+     * Broadcasts a heartbeat to the heartbeat manager, if there is one.
+     */
+    private void heartbeat()
+    {
+        if(mHeartbeatManager != null)
+        {
+            try
+            {
+                mHeartbeatManager.broadcast();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error broadcasting heartbeat during Dispatcher processing interval", t);
+            }
         }
     }
 
@@ -224,17 +371,59 @@ public class Dispatcher<E> implements Listener<E>
             if(mRunning.compareAndSet(false, true))
             {
                 process();
+                heartbeat();
+                mRunning.set(false);
+            }
+        }
+    }
+
+    /**
+     * Virtual thread processor that blocks on the queue, dispatches each element as soon as it arrives and commands a
+     * heartbeat at each processing interval.  Runs until it is no longer the active processor for this dispatcher.
+     */
+    class BlockingProcessor implements Runnable
+    {
+        private final LinkedTransferQueue<E> mProcessorQueue;
+
+        public BlockingProcessor(LinkedTransferQueue<E> queue)
+        {
+            mProcessorQueue = queue;
+        }
 
+        @Override
+        public void run()
+        {
+            long interval = TimeUnit.MILLISECONDS.toNanos(mInterval);
+            long nextHeartbeat = System.nanoTime() + interval;
+
+            while(mBlockingProcessor == this)
+            {
                 try
                 {
-                    mHeartbeatManager.broadcast();
+                    E element = mProcessorQueue.poll(Math.max(nextHeartbeat - System.nanoTime(), 0),
+                        TimeUnit.NANOSECONDS);
+
+                    QueueMetrics metrics = mQueueMetrics;
+
+                    //Elements taken after this dispatcher is stopped are discarded by dispatch()
+                    while(element != null)
+                    {
+                        dispatch(element, metrics);
+                        element = mBlockingProcessor == this ? mProcessorQueue.poll() : null;
+                    }
                 }
-                catch(Throwable t)
+                catch(InterruptedException ie)
                 {
-                    mLog.error("Error broadcasting heartbeat during Dispatcher processing interval", t);
+                    return;
                 }
 
-                mRunning.set(false);
+                long now = System.nanoTime();
+
+                if(now >= nextHeartbeat)
+                {
+                    nextHeartbeat = now + interval;
+                    heartbeat();
+                }
             }
         }
     }
@@ -0,0 +1,65 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.sample.Listener;
+
+/**
+ * Hand-off between a producer thread and a consumer thread.  Elements received from the producer are queued and
+ * delivered, in order, to the registered listener on a consumer thread that is managed by the implementation.
+ */
+public interface IDispatcher<E> extends Listener<E>
+{
+    /**
+     * Sets or changes the listener to receive elements from this dispatcher.
+     * @param listener to receive elements
+     */
+    void setListener(Listener<E> listener);
+
+    /**
+     * Sets the listener to receive queued elements that are discarded without being dispatched when this dispatcher
+     * is stopped, so that pooled or reference counted elements can be released.
+     * @param listener to receive discarded elements, or null
+     */
+    void setDiscardListener(Listener<E> listener);
+
+    /**
+     * Starts this dispatcher and allows queuing of incoming elements.
+     */
+    void start();
+
+    /**
+     * Stops this dispatcher and discards any queued elements.
+     */
+    void stop();
+
+    /**
+     * Indicates if this dispatcher is currently running
+     */
+    boolean isRunning();
+
+    /**
+     * Registers queue depth, per-element processing time and overflow metrics for this dispatcher with the metrics
+     * registry while this dispatcher is running.  Invoke before start().
+     * @param scope of the metrics
+     * @param scopeName of the tuner, channelizer or channel that this dispatcher serves
+     */
+    void setMetricScope(MetricScope scope, String scopeName);
+}
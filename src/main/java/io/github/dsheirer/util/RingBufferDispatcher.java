@@ -0,0 +1,585 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.monitor.metrics.MetricScope;
+import io.github.dsheirer.monitor.metrics.QueueMetrics;
+import io.github.dsheirer.sample.IOverflowListener;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.heartbeat.HeartbeatManager;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-producer, single-consumer dispatcher that hands elements from a producer thread to a registered listener on a
+ * dedicated consumer thread, using a bounded and preallocated ring buffer.
+ *
+ * Unlike the Dispatcher, handing off an element doesn't allocate a queue node and the consumer thread is woken as
+ * soon as an element is available rather than at the next polling interval.  The wait strategy determines how the
+ * consumer thread waits for elements:
+ *
+ *   -PARK: the consumer parks and the producer unparks the consumer when an element is added.  Lowest CPU usage.
+ *   -YIELD: the consumer yields the processor between checks for elements.
+ *   -SPIN: the consumer busy-spins checking for elements.  Lowest latency, but consumes a full core.
+ *
+ * When the ring buffer is full, incoming elements are discarded and counted, the dispatcher enters an overflow state,
+ * and the (optional) overflow listener is notified.  The overflow state is cleared and the listener is notified once
+ * the consumer drains the ring buffer to half capacity.
+ *
+ * Note: the receive() method must only be invoked by a single producer thread.
+ */
+public class RingBufferDispatcher<E> implements IDispatcher<E>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RingBufferDispatcher.class);
+    private static final long HEARTBEAT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long OVERFLOW_LOG_INTERVAL_MS = 10000;
+
+    /**
+     * Consumer thread wait strategy when the ring buffer is empty.
+     */
+    public enum WaitStrategy {PARK, YIELD, SPIN}
+
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+    private final AtomicBoolean mOverflow = new AtomicBoolean();
+    private final AtomicLong mOverflowCount = new AtomicLong();
+    private final int mCapacity;
+    private final int mResetThreshold;
+    private final WaitStrategy mWaitStrategy;
+    private final HeartbeatManager mHeartbeatManager;
+    private String mThreadName;
+    private volatile Listener<E> mListener;
+    private volatile Listener<E> mDiscardListener;
+    private volatile IOverflowListener mOverflowListener;
+    private volatile Ring<E> mRing;
+    private long mLastOverflowLogTimestamp;
+    private MetricScope mMetricScope;
+    private String mMetricScopeName;
+    private volatile QueueMetrics mQueueMetrics;
+
+    /**
+     * Constructs an instance with integrated heartbeat support.
+     * @param threadName to name the dispatcher thread
+     * @param capacity of the ring buffer, rounded up to the next power of two.
+     * @param waitStrategy for the consumer thread when the ring buffer is empty.
+     * @param heartbeatManager to receive a heartbeat command every 50 milliseconds, or null.
+     */
+    public RingBufferDispatcher(String threadName, int capacity, WaitStrategy waitStrategy,
+                                HeartbeatManager heartbeatManager)
+    {
+        if(capacity < 2)
+        {
+            throw new IllegalArgumentException("Ring buffer capacity must be 2 or greater");
+        }
+
+        mThreadName = threadName;
+        mCapacity = Integer.highestOneBit(capacity - 1) << 1;
+        mResetThreshold = mCapacity / 2;
+        mWaitStrategy = waitStrategy;
+        mHeartbeatManager = heartbeatManager;
+    }
+
+    /**
+     * Constructs an instance
+     * @param threadName to name the dispatcher thread
+     * @param capacity of the ring buffer, rounded up to the next power of two.
+     * @param waitStrategy for the consumer thread when the ring buffer is empty.
+     */
+    public RingBufferDispatcher(String threadName, int capacity, WaitStrategy waitStrategy)
+    {
+        this(threadName, capacity, waitStrategy, null);
+    }
+
+    /**
+     * Sets the thread name.  If this dispatcher is already started, this has no effect.
+     * @param threadName to use for this dispatcher.
+     */
+    public void setThreadName(String threadName)
+    {
+        mThreadName = threadName;
+    }
+
+    /**
+     * Sets or changes the listener to receive elements from this dispatcher.
+     * @param listener to receive elements
+     */
+    @Override
+    public void setListener(Listener<E> listener)
+    {
+        mListener = listener;
+    }
+
+    @Override
+    public void setDiscardListener(Listener<E> listener)
+    {
+        mDiscardListener = listener;
+    }
+
+    /**
+     * Registers the listener to receive overflow state changes.  Use null argument to clear the listener.  The
+     * listener is notified of an overflow on the producer thread and of an overflow reset on the consumer thread.
+     */
+    public void setOverflowListener(IOverflowListener listener)
+    {
+        mOverflowListener = listener;
+    }
+
+    /**
+     * Capacity of the ring buffer
+     */
+    public int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    /**
+     * Current number of elements waiting to be dispatched.
+     */
+    public int size()
+    {
+        Ring<E> ring = mRing;
+        return ring != null ? ring.size() : 0;
+    }
+
+    /**
+     * Total number of elements discarded because the ring buffer was full.
+     */
+    public long getOverflowCount()
+    {
+        return mOverflowCount.get();
+    }
+
+    @Override
+    public void setMetricScope(MetricScope scope, String scopeName)
+    {
+        mMetricScope = scope;
+        mMetricScopeName = scopeName;
+    }
+
+    /**
+     * Indicates if this dispatcher is currently in an overflow state.
+     */
+    public boolean isOverflow()
+    {
+        return mOverflow.get();
+    }
+
+    /**
+     * Primary input method for adding elements to this dispatcher.  Note: incoming elements are passed to the discard
+     * listener if this dispatcher is in a stopped state.  You must invoke start() to allow incoming elements and
+     * initiate processing.
+     *
+     * @param e to enqueue for distribution to a registered listener
+     */
+    @Override
+    public void receive(E e)
+    {
+        Ring<E> ring = mRing;
+
+        if(ring == null)
+        {
+            discard(e);
+            return;
+        }
+
+        if(ring.offer(e))
+        {
+            if(!ring.mActive)
+            {
+                //Release the element if this dispatcher was stopped and the consumer finished draining the ring while
+                //the element was being added
+                if(ring.mConsumerExited)
+                {
+                    discardQueued(ring);
+                }
+            }
+            else if(ring.mConsumerWaiting)
+            {
+                LockSupport.unpark(ring.mConsumerThread);
+            }
+        }
+        else
+        {
+            mOverflowCount.incrementAndGet();
+
+            QueueMetrics metrics = mQueueMetrics;
+
+            if(metrics != null)
+            {
+                metrics.overflow();
+            }
+
+            setOverflow(true);
+            overflow(e);
+        }
+    }
+
+    /**
+     * Invoked on the producer thread when an element is discarded because the ring buffer is full.  Override this
+     * method in subclasses to perform any necessary cleanup action(s).
+     *
+     * @param e element that is being discarded
+     */
+    protected void overflow(E e)
+    {
+        //No-op.  Override in subclass to perform any cleanup actions during overflow
+    }
+
+    /**
+     * Passes an element that is discarded when this dispatcher is stopped to the discard listener, if there is one.
+     */
+    private void discard(E e)
+    {
+        Listener<E> discardListener = mDiscardListener;
+
+        if(discardListener != null)
+        {
+            try
+            {
+                discardListener.receive(e);
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while discarding element [" + e.getClass() + "]", t);
+            }
+        }
+    }
+
+    /**
+     * Passes each element remaining in the ring of a stopped dispatcher to the discard listener.  This is invoked by
+     * the consumer thread as it exits and by the producer thread for an element that it added after the consumer
+     * thread exited, so the ring is drained while holding the ring's monitor.
+     */
+    private void discardQueued(Ring<E> ring)
+    {
+        synchronized(ring)
+        {
+            E element = ring.poll();
+
+            while(element != null)
+            {
+                discard(element);
+                element = ring.poll();
+            }
+        }
+    }
+
+    /**
+     * Toggles the overflow state and notifies the listener of the state change.
+     */
+    private void setOverflow(boolean overflow)
+    {
+        if(mOverflow.compareAndSet(!overflow, overflow))
+        {
+            //Overflow is only entered on the producer thread, so the log throttle timestamp is not shared
+            if(overflow && System.currentTimeMillis() - mLastOverflowLogTimestamp > OVERFLOW_LOG_INTERVAL_MS)
+            {
+                mLastOverflowLogTimestamp = System.currentTimeMillis();
+                mLog.warn("Dispatcher [" + mThreadName + "] ring buffer overflow - discarding elements until the " +
+                    "consumer catches up.  Total discarded: " + mOverflowCount.get());
+            }
+
+            IOverflowListener listener = mOverflowListener;
+
+            if(listener != null)
+            {
+                listener.sourceOverflow(overflow);
+            }
+        }
+    }
+
+    /**
+     * Starts this dispatcher and allows queuing of incoming elements.
+     */
+    @Override
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            mOverflow.set(false);
+
+            if(mMetricScope != null)
+            {
+                mQueueMetrics = new QueueMetrics("ring_dispatcher", mMetricScope, mMetricScopeName, this::size);
+            }
+
+            //Each start uses a new ring so that a previous consumer thread that is still exiting can't contend with
+            //the new consumer thread.
+            Ring<E> ring = new Ring<>(mCapacity);
+            //Only the park wait strategy is suitable for a virtual thread, since spinning or yielding would occupy a
+            //carrier thread
+            Thread thread = (mWaitStrategy == WaitStrategy.PARK ? ThreadPool.getThreadFactory(mThreadName) :
+                new NamingThreadFactory(mThreadName)).newThread(new Consumer(ring));
+            ring.mConsumerThread = thread;
+            mRing = ring;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops this dispatcher and passes any queued elements to the discard listener.  The consumer thread terminates
+     * after it finishes dispatching the current element.
+     */
+    @Override
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            Ring<E> ring = mRing;
+            mRing = null;
+
+            if(ring != null)
+            {
+                ring.mActive = false;
+                LockSupport.unpark(ring.mConsumerThread);
+            }
+
+            if(mQueueMetrics != null)
+            {
+                mQueueMetrics.dispose();
+                mQueueMetrics = null;
+            }
+        }
+    }
+
+    /**
+     * Indicates if this dispatcher is currently running
+     */
+    @Override
+    public boolean isRunning()
+    {
+        return mRunning.get();
+    }
+
+    /**
+     * Consumer thread that services the ring buffer, dispatches elements to the listener and issues the periodic
+     * heartbeat.
+     */
+    private class Consumer implements Runnable
+    {
+        private final Ring<E> mConsumerRing;
+
+        public Consumer(Ring<E> ring)
+        {
+            mConsumerRing = ring;
+        }
+
+        @Override
+        public void run()
+        {
+            long nextHeartbeat = System.nanoTime() + HEARTBEAT_INTERVAL_NANOS;
+
+            while(mConsumerRing.mActive)
+            {
+                boolean dispatched = false;
+                E element = mConsumerRing.poll();
+
+                while(element != null && mConsumerRing.mActive)
+                {
+                    dispatched = true;
+                    dispatch(element);
+                    element = mConsumerRing.poll();
+                }
+
+                if(element != null)
+                {
+                    //Stopped after the element was taken from the ring
+                    discard(element);
+                }
+
+                if(mOverflow.get() && mConsumerRing.size() <= mResetThreshold)
+                {
+                    setOverflow(false);
+                }
+
+                long now = System.nanoTime();
+
+                if(mHeartbeatManager != null && now >= nextHeartbeat)
+                {
+                    nextHeartbeat = now + HEARTBEAT_INTERVAL_NANOS;
+
+                    try
+                    {
+                        mHeartbeatManager.broadcast();
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error broadcasting heartbeat during ring buffer dispatcher processing", t);
+                    }
+                }
+
+                if(!dispatched)
+                {
+                    await(Math.max(nextHeartbeat - now, 0));
+                }
+            }
+
+            //Signal that the consumer has exited before the final drain, so that the producer drains any element that
+            //it adds after the final drain
+            mConsumerRing.mConsumerExited = true;
+            discardQueued(mConsumerRing);
+        }
+
+        /**
+         * Waits for an element to arrive, using the configured wait strategy.
+         * @param maximumNanos to wait when parking, to support the heartbeat interval.
+         */
+        private void await(long maximumNanos)
+        {
+            switch(mWaitStrategy)
+            {
+                case SPIN:
+                    Thread.onSpinWait();
+                    break;
+                case YIELD:
+                    Thread.yield();
+                    break;
+                case PARK:
+                default:
+                    mConsumerRing.mConsumerWaiting = true;
+
+                    //Recheck after signalling that we're waiting, in case the producer added an element before it
+                    //could see the waiting flag
+                    if(mConsumerRing.isEmpty() && mConsumerRing.mActive)
+                    {
+                        LockSupport.parkNanos(this, maximumNanos > 0 ? maximumNanos : HEARTBEAT_INTERVAL_NANOS);
+                    }
+
+                    mConsumerRing.mConsumerWaiting = false;
+                    break;
+            }
+        }
+
+        /**
+         * Dispatches the element to the listener
+         */
+        private void dispatch(E element)
+        {
+            Listener<E> listener = mListener;
+
+            if(listener != null)
+            {
+                QueueMetrics metrics = mQueueMetrics;
+
+                try
+                {
+                    if(metrics != null)
+                    {
+                        long start = System.nanoTime();
+                        listener.receive(element);
+                        metrics.processed(start);
+                    }
+                    else
+                    {
+                        listener.receive(element);
+                    }
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error while dispatching element [" + element.getClass() + "] to listener [" +
+                        listener.getClass() + "]", t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Preallocated single-producer, single-consumer ring buffer.  The producer owns the tail sequence and the consumer
+     * owns the head sequence.  Each sequence is only ever incremented, and the slot index is the sequence masked to
+     * the ring capacity.
+     */
+    private static class Ring<T>
+    {
+        private final Object[] mElements;
+        private final int mMask;
+        private final AtomicLong mHead = new AtomicLong();
+        private final AtomicLong mTail = new AtomicLong();
+        private long mCachedHead;
+        private volatile Thread mConsumerThread;
+        private volatile boolean mConsumerWaiting;
+        private volatile boolean mActive = true;
+        private volatile boolean mConsumerExited;
+
+        public Ring(int capacity)
+        {
+            mElements = new Object[capacity];
+            mMask = capacity - 1;
+        }
+
+        /**
+         * Adds the element to the ring.  Note: producer thread only.
+         * @return true if added or false if the ring is full.
+         */
+        public boolean offer(T element)
+        {
+            long tail = mTail.get();
+
+            //Refresh the producer's cached copy of the consumer sequence only when the ring appears to be full
+            if(tail - mCachedHead >= mElements.length)
+            {
+                mCachedHead = mHead.get();
+
+                if(tail - mCachedHead >= mElements.length)
+                {
+                    return false;
+                }
+            }
+
+            mElements[(int)(tail & mMask)] = element;
+            mTail.set(tail + 1);
+            return true;
+        }
+
+        /**
+         * Removes the element at the head of the ring.  Note: consumer thread only.
+         * @return element or null if the ring is empty.
+         */
+        @SuppressWarnings("unchecked")
+        public T poll()
+        {
+            long head = mHead.get();
+
+            if(head >= mTail.get())
+            {
+                return null;
+            }
+
+            int index = (int)(head & mMask);
+            T element = (T)mElements[index];
+            mElements[index] = null;
+            mHead.lazySet(head + 1);
+            return element;
+        }
+
+        public int size()
+        {
+            return (int)(mTail.get() - mHead.get());
+        }
+
+        public boolean isEmpty()
+        {
+            return mHead.get() >= mTail.get();
+        }
+
+    }
+}
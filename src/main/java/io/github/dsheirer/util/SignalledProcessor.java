@@ -0,0 +1,152 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event-driven queue processor.  Runs the processing task on a dedicated thread each time that the processor is
+ * signalled, instead of polling the queue at a fixed rate.  Producers signal the processor after enqueuing work, or
+ * when queued work becomes ready (e.g. an audio segment completes), and the task should drain all of the ready work on
+ * each run so that work arriving in a burst is processed as a single batch.
+ *
+ * Signals are coalesced: any number of signals that arrive while the task is waiting produce a single run, and a
+ * signal that arrives while the task is running produces exactly one additional run, so that no signal is lost.
+ *
+ * An optional maximum interval causes the task to also run when the processor has not been signalled within the
+ * interval, for tasks that have time-based housekeeping (e.g. stopping an idle audio output line).
+ *
+ * The processing thread is created via ThreadPool.getThreadFactory() and is a virtual thread when the virtual thread
+ * execution mode is enabled.
+ */
+public class SignalledProcessor
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SignalledProcessor.class);
+    private final Semaphore mSignal = new Semaphore(0);
+    private final AtomicBoolean mSignalled = new AtomicBoolean();
+    private final String mName;
+    private final Runnable mTask;
+    private final long mMaxIntervalMs;
+    private volatile Thread mThread;
+
+    /**
+     * Constructs an instance
+     * @param name for the processing thread
+     * @param task to run each time the processor is signalled.  The task should drain all ready work.
+     * @param maxIntervalMs maximum time between task runs when the processor is not signalled, or zero to only run the
+     * task when signalled.
+     */
+    public SignalledProcessor(String name, Runnable task, long maxIntervalMs)
+    {
+        mName = name;
+        mTask = task;
+        mMaxIntervalMs = maxIntervalMs;
+    }
+
+    /**
+     * Signals the processor that there is work to process.  This method does not block and can be invoked from any
+     * thread.
+     */
+    public void signal()
+    {
+        if(mSignalled.compareAndSet(false, true))
+        {
+            mSignal.release();
+        }
+    }
+
+    /**
+     * Starts the processing thread and runs the task once to process any work that was queued before the start.
+     */
+    public synchronized void start()
+    {
+        if(mThread == null)
+        {
+            mThread = ThreadPool.getThreadFactory(mName).newThread(this::process);
+            mThread.start();
+            signal();
+        }
+    }
+
+    /**
+     * Stops the processing thread.  The processing thread is interrupted so that a task that is blocked (e.g. writing
+     * to an audio line) can exit.
+     */
+    public synchronized void stop()
+    {
+        Thread thread = mThread;
+        mThread = null;
+
+        if(thread != null)
+        {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Indicates if the processing thread is running
+     */
+    public boolean isRunning()
+    {
+        return mThread != null;
+    }
+
+    /**
+     * Processing loop.  Waits for a signal, or for the maximum interval to elapse, and runs the task.
+     */
+    private void process()
+    {
+        Thread current = Thread.currentThread();
+
+        while(mThread == current)
+        {
+            try
+            {
+                if(mMaxIntervalMs > 0)
+                {
+                    mSignal.tryAcquire(mMaxIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                else
+                {
+                    mSignal.acquire();
+                }
+
+                //Clear the flag before running so that a signal that arrives during the run produces another run
+                mSignalled.set(false);
+
+                if(mThread == current)
+                {
+                    mTask.run();
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                return;
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while running signalled processor [" + mName + "]", t);
+            }
+        }
+    }
+}
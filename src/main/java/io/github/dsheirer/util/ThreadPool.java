@@ -24,8 +24,20 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Application-wide shared thread pools and scheduled executor service.
+ *
+ * Supports an optional virtual thread execution mode where dispatchers and queue processors that would otherwise
+ * each hold a dedicated platform thread, or share the fixed-size scheduled executor, run on their own virtual thread
+ * instead.  The execution mode must be set at application startup, before any channels are started.
+ */
 public class ThreadPool
 {
     private final static Logger mLog = LoggerFactory.getLogger(ThreadPool.class);
@@ -33,6 +45,7 @@ public class ThreadPool
             Executors.newScheduledThreadPool(4, new NamingThreadFactory("sdrtrunk scheduled"));
     public static ExecutorService CACHED =
             Executors.newCachedThreadPool(new NamingThreadFactory("sdrtrunk cached"));
+    private static boolean sVirtualThreads = false;
 
     /**
      * Application-wide shared thread pools and scheduled executor service.
@@ -43,6 +56,156 @@ public class ThreadPool
 
     public static void logSettings()
     {
-        mLog.info("Application thread pool created SCHEDULED and CACHED executors threads");
+        mLog.info("Application thread pool created SCHEDULED and CACHED executors threads - virtual thread " +
+            "execution mode is " + (sVirtualThreads ? "enabled" : "disabled"));
+    }
+
+    /**
+     * Sets the virtual thread execution mode.  Invoke at application startup.
+     * @param enabled true to run dispatchers and queue processors on virtual threads.
+     */
+    public static void setVirtualThreads(boolean enabled)
+    {
+        sVirtualThreads = enabled;
+    }
+
+    /**
+     * Indicates if the virtual thread execution mode is enabled.
+     */
+    public static boolean isVirtualThreads()
+    {
+        return sVirtualThreads;
+    }
+
+    /**
+     * Creates a thread factory for dispatcher and queue processor threads that produces virtual threads when the
+     * virtual thread execution mode is enabled, or platform threads otherwise.
+     * @param prefix for naming each thread
+     * @return thread factory
+     */
+    public static ThreadFactory getThreadFactory(String prefix)
+    {
+        if(sVirtualThreads)
+        {
+            return Thread.ofVirtual().name(prefix + " thread ", 1)
+                .uncaughtExceptionHandler((thread, throwable) ->
+                    mLog.error("Error while executing runnable in virtual thread [" + thread.getName() + "]",
+                        throwable))
+                .factory();
+        }
+
+        return new NamingThreadFactory(prefix);
+    }
+
+    /**
+     * Schedules the queue processor task to run periodically.  When the virtual thread execution mode is enabled, the
+     * task runs on a dedicated virtual thread so that it isn't delayed by other tasks that are sharing the scheduled
+     * executor, otherwise the task is scheduled on the shared scheduled executor.
+     *
+     * @param name for the virtual thread
+     * @param task to run.  The task should catch and log any errors.
+     * @param initialDelay before the first run
+     * @param period between the start of each run
+     * @param timeUnit for the delay and period
+     * @return future that can be used to cancel the task
+     */
+    public static Future<?> scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period,
+                                                TimeUnit timeUnit)
+    {
+        if(!sVirtualThreads)
+        {
+            return SCHEDULED.scheduleAtFixedRate(task, initialDelay, period, timeUnit);
+        }
+
+        FixedRateTask fixedRateTask = new FixedRateTask(name, task, timeUnit.toNanos(initialDelay),
+            timeUnit.toNanos(period));
+
+        FutureTask<Void> future = new FutureTask<>(fixedRateTask, null)
+        {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning)
+            {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                fixedRateTask.cancel();
+                return cancelled;
+            }
+        };
+
+        getThreadFactory(name).newThread(future).start();
+        return future;
+    }
+
+    /**
+     * Periodic task loop for a dedicated virtual thread.  The loop runs until it is cancelled or its thread is
+     * interrupted.  Cancelling also wakes the thread so that it doesn't wait for the remainder of the period.
+     */
+    private static class FixedRateTask implements Runnable
+    {
+        private final String mName;
+        private final Runnable mTask;
+        private final long mInitialDelayNanos;
+        private final long mPeriodNanos;
+        private volatile boolean mCancelled;
+        private volatile Thread mThread;
+
+        public FixedRateTask(String name, Runnable task, long initialDelayNanos, long periodNanos)
+        {
+            mName = name;
+            mTask = task;
+            mInitialDelayNanos = initialDelayNanos;
+            mPeriodNanos = periodNanos;
+        }
+
+        /**
+         * Stops the loop, waking the thread if it is waiting for the next run.
+         */
+        public void cancel()
+        {
+            mCancelled = true;
+
+            Thread thread = mThread;
+
+            if(thread != null)
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            mThread = Thread.currentThread();
+            long next = System.nanoTime() + mInitialDelayNanos;
+
+            while(!mCancelled && !Thread.currentThread().isInterrupted())
+            {
+                long wait = next - System.nanoTime();
+
+                if(wait > 0)
+                {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+
+                try
+                {
+                    mTask.run();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error while running scheduled task [" + mName + "]", t);
+                }
+
+                next += mPeriodNanos;
+
+                //Skip missed runs when the task overruns the period
+                long now = System.nanoTime();
+
+                if(next < now)
+                {
+                    next = now + mPeriodNanos;
+                }
+            }
+        }
     }
 }
@@ -25,6 +25,7 @@ import io.github.dsheirer.preference.calibration.VectorCalibrationPreference;
 import io.github.dsheirer.vector.calibrate.airspy.AirspySampleConverterCalibration;
 import io.github.dsheirer.vector.calibrate.airspy.AirspyUnpackedCalibration;
 import io.github.dsheirer.vector.calibrate.airspy.AirspyUnpackedInterleavedCalibration;
+import io.github.dsheirer.vector.calibrate.buffer.ByteSampleConverterCalibration;
 import io.github.dsheirer.vector.calibrate.demodulator.DqpskDemodulatorCalibration;
 import io.github.dsheirer.vector.calibrate.demodulator.FmDemodulatorCalibration;
 import io.github.dsheirer.vector.calibrate.filter.FirFilterCalibration;
@@ -103,6 +104,7 @@ public class CalibrationManager
             sInstance.add(new AirspyUnpackedCalibration());
             sInstance.add(new AirspyUnpackedInterleavedCalibration());
             sInstance.add(new AmDemodulatorCalibration());
+            sInstance.add(new ByteSampleConverterCalibration());
             sInstance.add(new ComplexGainCalibration());
             sInstance.add(new ComplexGainControlCalibration());
             sInstance.add(new ComplexOscillatorCalibration());
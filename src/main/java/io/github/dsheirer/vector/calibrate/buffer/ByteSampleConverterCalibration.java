@@ -0,0 +1,123 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.calibrate.buffer;
+
+import io.github.dsheirer.buffer.IByteSampleConverter;
+import io.github.dsheirer.buffer.ScalarByteSampleConverter;
+import io.github.dsheirer.buffer.VectorByteSampleConverter;
+import io.github.dsheirer.vector.calibrate.Calibration;
+import io.github.dsheirer.vector.calibrate.CalibrationException;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+
+/**
+ * Calculates optimal implementation (SCALAR vs VECTOR) for converting 8-bit samples from pooled (direct) native
+ * buffers.
+ */
+public class ByteSampleConverterCalibration extends Calibration
+{
+    private static final int BUFFER_SIZE = 131072;
+    private static final int FRAGMENT_SIZE = 4096;
+    private static final int ITERATION_DURATION_MS = 1000;
+    private static final int WARM_UP_ITERATIONS = 5;
+    private static final int TEST_ITERATIONS = 5;
+
+    /**
+     * Constructs an instance
+     */
+    public ByteSampleConverterCalibration()
+    {
+        super(CalibrationType.BYTE_SAMPLE_CONVERTER);
+    }
+
+    @Override
+    public void calibrate() throws CalibrationException
+    {
+        byte[] samples = new byte[BUFFER_SIZE];
+        new Random().nextBytes(samples);
+        MemorySegment buffer = MemorySegment.ofBuffer(ByteBuffer.allocateDirect(BUFFER_SIZE).put(samples).clear());
+
+        Mean scalarMean = new Mean();
+        Mean vectorMean = new Mean();
+
+        for(int x = 0; x < WARM_UP_ITERATIONS; x++)
+        {
+            scalarMean.increment(test(new ScalarByteSampleConverter(false), buffer));
+            vectorMean.increment(test(new VectorByteSampleConverter(false), buffer));
+        }
+
+        mLog.info("8-BIT CONVERTER WARMUP - SCALAR: " + DECIMAL_FORMAT.format(scalarMean.getResult()));
+        mLog.info("8-BIT CONVERTER WARMUP - VECTOR: " + DECIMAL_FORMAT.format(vectorMean.getResult()));
+
+        scalarMean.clear();
+        vectorMean.clear();
+
+        for(int x = 0; x < TEST_ITERATIONS; x++)
+        {
+            scalarMean.increment(test(new ScalarByteSampleConverter(false), buffer));
+        }
+
+        mLog.info("8-BIT CONVERTER - SCALAR: " + DECIMAL_FORMAT.format(scalarMean.getResult()));
+
+        for(int x = 0; x < TEST_ITERATIONS; x++)
+        {
+            vectorMean.increment(test(new VectorByteSampleConverter(false), buffer));
+        }
+
+        mLog.info("8-BIT CONVERTER - VECTOR: " + DECIMAL_FORMAT.format(vectorMean.getResult()));
+
+        if(scalarMean.getResult() > vectorMean.getResult())
+        {
+            setImplementation(Implementation.SCALAR);
+        }
+        else
+        {
+            setImplementation(Implementation.VECTOR_SIMD_PREFERRED);
+        }
+
+        mLog.info("8-BIT CONVERTER - SETTING OPTIMAL IMPLEMENTATION TO: " + getImplementation());
+    }
+
+    /**
+     * Counts the number of fragments converted by the converter during the iteration duration.
+     */
+    private long test(IByteSampleConverter converter, MemorySegment buffer)
+    {
+        float[] converted = new float[FRAGMENT_SIZE];
+        long start = System.currentTimeMillis();
+        long count = 0;
+        float accumulator = 0;
+
+        while((System.currentTimeMillis() - start) < ITERATION_DURATION_MS)
+        {
+            for(int offset = 0; offset < BUFFER_SIZE; offset += FRAGMENT_SIZE)
+            {
+                converter.convert(buffer, offset, converted, 0.01f, -0.01f);
+                accumulator += converted[2];
+                count++;
+            }
+        }
+
+        return count + (long)(accumulator * 0);
+    }
+}
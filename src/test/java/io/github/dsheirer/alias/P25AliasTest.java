@@ -260,4 +260,41 @@ public class P25AliasTest
         List<Alias> aliases = aliasList.getAliases(p25FQTG1);
         assertEquals(0, aliases.size(), "Expected 0 matching aliases");
     }
+
+    /**
+     * Tests talkgroup range lookups, including a value that was previously cached as unaliased and then becomes
+     * aliased when a new range is added to the alias list.
+     */
+    @Test
+    void aliasP25TalkgroupRanges()
+    {
+        AliasList aliasList = new AliasList("Test Alias List");
+
+        for(int x = 0; x < 100; x++)
+        {
+            Alias alias = new Alias();
+            alias.setName("Range " + x);
+            alias.addAliasID(new TalkgroupRange(Protocol.APCO25, x * 100, x * 100 + 49));
+            aliasList.addAlias(alias);
+        }
+
+        List<Alias> aliases = aliasList.getAliases(APCO25Talkgroup.create(4520));
+        assertEquals(1, aliases.size(), "Expected 1 matching alias");
+        assertEquals("Range 45", aliases.getFirst().getName(), "Unexpected alias name");
+
+        assertEquals(0, aliasList.getAliases(APCO25Talkgroup.create(4550)).size(), "Expected 0 matching aliases");
+        assertEquals(0, aliasList.getAliases(APCO25Talkgroup.create(10000)).size(), "Expected 0 matching aliases");
+
+        Alias gapAlias = new Alias();
+        gapAlias.setName("Gap Range");
+        gapAlias.addAliasID(new TalkgroupRange(Protocol.APCO25, 4550, 4599));
+        aliasList.addAlias(gapAlias);
+
+        aliases = aliasList.getAliases(APCO25Talkgroup.create(4550));
+        assertEquals(1, aliases.size(), "Expected 1 matching alias after adding range");
+        assertEquals("Gap Range", aliases.getFirst().getName(), "Unexpected alias name");
+
+        aliasList.removeAlias(gapAlias);
+        assertEquals(0, aliasList.getAliases(APCO25Talkgroup.create(4550)).size(), "Expected 0 matching aliases");
+    }
 }
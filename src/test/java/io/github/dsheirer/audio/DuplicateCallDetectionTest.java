@@ -214,4 +214,54 @@ public class DuplicateCallDetectionTest
         assertFalse(audioSegment1.isDuplicate(), "Audio segment should not be flagged as duplicate.");
         assertFalse(audioSegment2.isDuplicate(), "Audio segment should not be flagged as duplicate.");
     }
+
+    /**
+     * Test: same talkgroup and source radio on two different systems.
+     *
+     * Success Criteria: neither call gets flagged as duplicate since each system is monitored independently.
+     */
+    @Test
+    void sameCallOnDifferentSystems()
+    {
+        AliasList aliasList = new AliasList("test");
+
+        AudioSegment audioSegment1 = new AudioSegment(aliasList, 1);
+        audioSegment1.addIdentifier(SystemConfigurationIdentifier.create("Test System 1"));
+        audioSegment1.addIdentifier(APCO25Talkgroup.create(1));
+        audioSegment1.addIdentifier(APCO25RadioIdentifier.createFrom(2));
+        audioSegment1.addAudio(new float[2]);
+
+        AudioSegment audioSegment2 = new AudioSegment(aliasList, 2);
+        audioSegment2.addIdentifier(SystemConfigurationIdentifier.create("Test System 2"));
+        audioSegment2.addIdentifier(APCO25Talkgroup.create(1));
+        audioSegment2.addIdentifier(APCO25RadioIdentifier.createFrom(2));
+        audioSegment2.addAudio(new float[2]);
+
+        ICallManagementProvider provider = new TestCallManagementProvider(true, true);
+
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        Listener<AudioSegment> callback = audioSegment -> countDownLatch.countDown();
+
+        DuplicateCallDetector duplicateCallDetector = new DuplicateCallDetector(provider);
+        duplicateCallDetector.setDuplicateCallDetectionListener(callback);
+
+        duplicateCallDetector.receive(audioSegment1);
+        duplicateCallDetector.receive(audioSegment2);
+
+        try
+        {
+            //Wait up to 100 ms, but the duplicate detector should fire within 25 ms.
+            countDownLatch.await(100, TimeUnit.MILLISECONDS);
+        }
+        catch(InterruptedException e)
+        {
+            //Don't log the exception ... it's expected
+        }
+
+        audioSegment1.completeProperty().set(true);
+        audioSegment2.completeProperty().set(true);
+
+        assertFalse(audioSegment1.isDuplicate(), "Audio segment should not be flagged as duplicate.");
+        assertFalse(audioSegment2.isDuplicate(), "Audio segment should not be flagged as duplicate.");
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.bits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit tests for the binary message contiguous field accessors, compared against the same bits in a
+ * java.util.BitSet.
+ */
+public class BinaryMessageTest
+{
+    private static final int SIZE = 300;
+
+    /**
+     * Test: contiguous integer and long field values at random positions and widths, including fields that cross a
+     * word boundary, fields at the start and end of the message and fields in a sparse message.
+     *
+     * Success: each value matches the value assembled one bit at a time from the BitSet, most significant bit first.
+     */
+    @Test
+    void testContiguousFields()
+    {
+        Random random = new Random(3);
+
+        for(int density: new int[]{2, 16})
+        {
+            BitSet expected = new BitSet();
+            BinaryMessage message = new BinaryMessage(SIZE);
+
+            for(int x = 0; x < SIZE; x++)
+            {
+                boolean bit = random.nextInt(density) == 0;
+                expected.set(x, bit);
+                message.set(x, bit);
+            }
+
+            for(int width = 1; width <= 64; width++)
+            {
+                for(int start: new int[]{0, 64 - width, 64, random.nextInt(SIZE - width), SIZE - width})
+                {
+                    int end = start + width - 1;
+                    long value = BitVectorTest.getValue(expected, start, end);
+                    String label = "Field [" + start + "-" + end + "]";
+
+                    assertEquals(value, message.getLong(new LongField(start, end)), label);
+                    assertEquals(value, message.getLong(new LongField(start - 5, end - 5), 5), label);
+
+                    if(width > 1)
+                    {
+                        assertEquals(value, message.getLong(start, end), label);
+                    }
+
+                    if(width <= 32)
+                    {
+                        assertEquals((int)value, message.getInt(new IntField(start, end)), label);
+                        assertEquals((int)value, message.getInt(new IntField(start - 7, end - 7), 7), label);
+                        assertEquals((int)value, message.getInt(start, end), label);
+                    }
+                }
+            }
+        }
+    }
+}
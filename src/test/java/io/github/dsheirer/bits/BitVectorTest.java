@@ -0,0 +1,232 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.bits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the long-backed bit vector, compared against the same bits in a java.util.BitSet.
+ */
+public class BitVectorTest
+{
+    private static final int SIZE = 300;
+
+    /**
+     * Test: random bits added one at a time, two at a time and as dibits, transferred to a binary message.
+     *
+     * Success: each bit matches the BitSet at the same index, both in the vector and in the transferred message, and
+     * the message size and fill pointer match the vector.
+     */
+    @Test
+    void testWordLayout() throws BitSetFullException
+    {
+        Random random = new Random(1);
+
+        for(int iteration = 0; iteration < 100; iteration++)
+        {
+            BitSet expected = getRandomBits(random, SIZE);
+            BitVector vector = new BitVector(SIZE);
+            int fill = random.nextInt(SIZE / 4) * 4;
+            int index = 0;
+
+            while(index < fill)
+            {
+                switch(index % 3)
+                {
+                    case 0 -> vector.add(expected.get(index));
+                    case 1 -> vector.add(expected.get(index), expected.get(index + 1));
+                    default -> vector.addDibits(new byte[]{(byte)((expected.get(index) ? 2 : 0) +
+                        (expected.get(index + 1) ? 1 : 0))}, 0, 1);
+                }
+
+                index = index % 3 == 0 ? index + 1 : index + 2;
+            }
+
+            while(index < SIZE)
+            {
+                vector.add(expected.get(index++));
+            }
+
+            assertTrue(vector.isFull());
+            assertEquals(SIZE, vector.pointer());
+
+            CorrectedBinaryMessage message = vector.toCorrectedBinaryMessage();
+            assertEquals(SIZE, message.size());
+            assertEquals(SIZE, message.pointer());
+
+            for(int x = 0; x < SIZE; x++)
+            {
+                assertEquals(expected.get(x), vector.get(x), "Vector bit [" + x + "]");
+                assertEquals(expected.get(x), message.get(x), "Message bit [" + x + "]");
+            }
+
+            assertEquals(expected.cardinality(), message.cardinality());
+        }
+    }
+
+    /**
+     * Test: a partially filled vector and a vector with runs of set bits that span word boundaries and fill a word.
+     *
+     * Success: the transferred message contains exactly the set bits and has the fill pointer of the vector.
+     */
+    @Test
+    void testTransferRuns() throws BitSetFullException
+    {
+        BitVector vector = new BitVector(SIZE);
+        BitSet expected = new BitSet();
+
+        for(int x = 0; x < 200; x++)
+        {
+            boolean bit = (x >= 60 && x < 70) || (x >= 128 && x < 192) || x == 199;
+            vector.add(bit);
+            expected.set(x, bit);
+        }
+
+        CorrectedBinaryMessage message = vector.toCorrectedBinaryMessage();
+        assertEquals(200, message.pointer());
+        assertEquals(expected, BitSet.valueOf(message.toLongArray()));
+    }
+
+    /**
+     * Test: contiguous and fragmented field values at random positions and widths, including fields that cross a
+     * word boundary and fields that end on the final bit of the vector.
+     *
+     * Success: each value matches the value assembled one bit at a time from the BitSet, most significant bit first.
+     */
+    @Test
+    void testGetValue() throws BitSetFullException
+    {
+        Random random = new Random(2);
+        BitSet expected = getRandomBits(random, SIZE);
+        BitVector vector = new BitVector(SIZE);
+
+        for(int x = 0; x < SIZE; x++)
+        {
+            vector.add(expected.get(x));
+        }
+
+        for(int width = 1; width <= 64; width++)
+        {
+            for(int start: new int[]{0, 63 - width / 2, 64 - width, 64, random.nextInt(SIZE - width), SIZE - width})
+            {
+                int end = start + width - 1;
+                long value = getValue(expected, start, end);
+                String label = "Field [" + start + "-" + end + "]";
+
+                assertEquals(value, vector.getLong(new LongField(start, end)), label);
+                assertEquals(value, vector.getLong(new LongField(start - 1, end - 1), 1), label);
+
+                if(width <= 32)
+                {
+                    assertEquals((int)value, vector.getInt(new IntField(start, end)), label);
+                    assertEquals((int)value, vector.getInt(new IntField(start - 3, end - 3), 3), label);
+                    assertEquals(value != 0, vector.hasInt(new IntField(start, end)), label);
+
+                    int[] indices = new int[width];
+
+                    for(int x = 0; x < width; x++)
+                    {
+                        indices[x] = start + x;
+                    }
+
+                    assertEquals((int)value, vector.getInt(new FragmentedIntField(indices)), label);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test: filling beyond the vector size, resetting and resizing the vector.
+     *
+     * Success: adding a bit to a full vector throws, reset clears all bits and the fill pointer, and a larger reset
+     * size grows the vector.
+     */
+    @Test
+    void testBounds() throws BitSetFullException
+    {
+        BitVector vector = new BitVector(70);
+
+        for(int x = 0; x < 70; x++)
+        {
+            vector.add(true);
+        }
+
+        assertTrue(vector.isFull());
+        assertThrows(BitSetFullException.class, () -> vector.add(true));
+        assertEquals(-1L >>> 58, vector.getLong(new LongField(64, 69)));
+
+        vector.reset();
+        assertEquals(0, vector.pointer());
+        assertEquals(70, vector.size());
+        assertFalse(vector.isFull());
+        assertEquals(0L, vector.getLong(new LongField(0, 63)));
+        assertEquals(0L, vector.getLong(new LongField(6, 69)));
+        assertEquals(0, vector.toCorrectedBinaryMessage().cardinality());
+
+        vector.reset(200);
+        assertEquals(200, vector.size());
+
+        for(int x = 0; x < 200; x++)
+        {
+            vector.add(x == 199);
+        }
+
+        assertTrue(vector.get(199));
+        assertEquals(1L, vector.getLong(new LongField(136, 199)));
+    }
+
+    /**
+     * Creates a bit set with random bits in the range 0 to size - 1.
+     */
+    private static BitSet getRandomBits(Random random, int size)
+    {
+        BitSet bits = new BitSet();
+
+        for(int x = 0; x < size; x++)
+        {
+            bits.set(x, random.nextBoolean());
+        }
+
+        return bits;
+    }
+
+    /**
+     * Value of the bit range assembled one bit at a time, with the start index as the most significant bit.
+     */
+    static long getValue(BitSet bits, int start, int end)
+    {
+        long value = 0;
+
+        for(int x = start; x <= end; x++)
+        {
+            value = (value << 1) | (bits.get(x) ? 1 : 0);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness;
+import io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.Output;
+import org.junit.jupiter.api.Test;
+
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.CHANNEL_OFFSET;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.CHANNEL_SPECIFICATION;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.INPUT_SAMPLE_COUNT;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.SAMPLE_RATE;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.TUNER_FREQUENCY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the overlap-save fast convolution channelizer and fast convolution channel source.
+ */
+public class FastConvolutionChannelizerTest
+{
+    private static final int EXPECTED_DECIMATION = 64;
+    private static final int EXPECTED_FFT_SIZE = 8192;
+
+    /**
+     * Test: a tone inside the channel passband at a known offset from a channel that is offset from the tuner center.
+     *
+     * Success: the channel output rate is the tuner rate divided by the channel decimation, every tuner sample
+     * except the final partial block produces channel output, and the tone is translated to the expected baseband
+     * frequency with unity gain.  The channel offset is not a multiple of the FFT bin width, so this also covers the
+     * residual offset mixer.
+     */
+    @Test
+    void testOffsetChannelPassband() throws InterruptedException
+    {
+        double toneOffset = 2000.0;
+        FastConvolutionChannelSource channel = createChannel();
+        Output output = SharedChannelizerTestHarness.process(createChannelizer(), channel,
+            CHANNEL_OFFSET + toneOffset, getExpectedOutputCount());
+
+        assertEquals(EXPECTED_FFT_SIZE, FastConvolutionChannelizer.getFFTSize(SAMPLE_RATE));
+        assertEquals(EXPECTED_DECIMATION, channel.getDecimation());
+        assertEquals(SAMPLE_RATE / EXPECTED_DECIMATION, output.sampleRate(), 0.001);
+        assertEquals(getExpectedOutputCount(), output.samples().size());
+
+        assertEquals(toneOffset, output.frequency(), 1.0, "Baseband tone frequency");
+        assertEquals(1.0, output.amplitude(), 0.05, "Passband gain");
+    }
+
+    /**
+     * Test: a tone outside the channel bandwidth, within the channel FFT bins, near the channel output Nyquist.
+     *
+     * Success: the tone is attenuated by at least 40 dB.
+     */
+    @Test
+    void testOffsetChannelStopband() throws InterruptedException
+    {
+        Output output = SharedChannelizerTestHarness.process(createChannelizer(), createChannel(),
+            CHANNEL_OFFSET + 15_000.0, getExpectedOutputCount());
+        assertEquals(getExpectedOutputCount(), output.samples().size());
+        assertTrue(output.amplitude() < 0.01, "Stopband tone amplitude [" + output.amplitude() + "]");
+    }
+
+    /**
+     * Expected channel output sample count for the test input samples, which is one output sample per decimation of
+     * the input samples, less the samples of the final partial overlap-save block that is held by the channelizer.
+     */
+    private static int getExpectedOutputCount()
+    {
+        int overlap = FastConvolutionChannelizer.getOverlap(EXPECTED_FFT_SIZE);
+        int advance = EXPECTED_FFT_SIZE - overlap;
+        int blocks = (INPUT_SAMPLE_COUNT - overlap) / advance;
+        return blocks * advance / EXPECTED_DECIMATION;
+    }
+
+    /**
+     * Creates a channelizer at the test sample rate and tuner frequency.
+     */
+    private static FastConvolutionChannelizer createChannelizer()
+    {
+        return new FastConvolutionChannelizer(SAMPLE_RATE, TUNER_FREQUENCY, "test channelizer", null);
+    }
+
+    /**
+     * Creates a channel for the test tuner channel.
+     */
+    private static FastConvolutionChannelSource createChannel()
+    {
+        return new FastConvolutionChannelSource(event -> {}, SharedChannelizerTestHarness.getTunerChannel(),
+            SAMPLE_RATE, CHANNEL_SPECIFICATION, "test channel");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.module.decode.p25.phase1;
+
+import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
+import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBlock;
+import io.github.dsheirer.dsp.symbol.DibitBlockAssembler;
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.Complex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the P25 Phase 1 message framer.
+ */
+public class P25P1MessageFramerTest
+{
+    private static final int SYNC_DIBIT_LENGTH = 24;
+    private static final int BUFFER_DIBIT_LENGTH = 200;
+
+    /**
+     * Test: feed a 180 degree phase inverted sync pattern followed by more dibits through the dibit block assembler,
+     * as the decoder does while demodulating a single sample buffer, without flushing the assembler.
+     *
+     * Success: the PLL inversion correction is applied within the buffer, at the same dibit as when the dibits are
+     * delivered to the framer one at a time, before the demodulator produces the next dibit.
+     */
+    @Test
+    void testPhaseInversionCorrectedWithinBuffer()
+    {
+        PhaseLockedLoop perDibitPll = new PhaseLockedLoop();
+        P25P1MessageFramer perDibitFramer = new P25P1MessageFramer(perDibitPll, 9600);
+        process(perDibitPll, perDibitFramer::receive);
+
+        PhaseLockedLoop blockPll = new PhaseLockedLoop();
+        P25P1MessageFramer blockFramer = new P25P1MessageFramer(blockPll, 9600);
+        DibitBlockAssembler assembler = new DibitBlockAssembler();
+        assembler.setListener(blockFramer::receive);
+        assembler.setBlockSizeLimitProvider(blockFramer::getDibitBlockSizeLimit);
+        process(blockPll, assembler);
+
+        assertEquals(1, perDibitPll.mCorrectionCount, "Per-dibit PLL inversion correction count");
+        assertEquals(1, blockPll.mCorrectionCount, "Block PLL inversion correction count");
+        assertTrue(blockPll.mCorrectionDibitCount < BUFFER_DIBIT_LENGTH, "PLL inversion correction was not applied " +
+            "within the buffer");
+        assertEquals(perDibitPll.mCorrectionDibitCount, blockPll.mCorrectionDibitCount, "PLL inversion correction " +
+            "was delayed");
+    }
+
+    /**
+     * Feeds the phase inverted sync pattern followed by filler dibits to the listener, counting each dibit in the PLL.
+     */
+    private static void process(PhaseLockedLoop pll, Listener<Dibit> listener)
+    {
+        long sync = FrameSync.P25_PHASE1_ERROR_180.getSync();
+
+        for(int x = 0; x < BUFFER_DIBIT_LENGTH; x++)
+        {
+            int shift = (SYNC_DIBIT_LENGTH - 1 - x) * 2;
+            pll.mDibitCount++;
+            listener.receive(DibitBlock.toDibit(x < SYNC_DIBIT_LENGTH ? (int)(sync >> shift) : x));
+        }
+    }
+
+    /**
+     * Phase locked loop that records when inversion corrections are applied, relative to the demodulated dibit count.
+     */
+    private static class PhaseLockedLoop implements IPhaseLockedLoop
+    {
+        private int mDibitCount;
+        private int mCorrectionCount;
+        private int mCorrectionDibitCount;
+
+        @Override
+        public void correctInversion(double correction)
+        {
+            mCorrectionCount++;
+            mCorrectionDibitCount = mDibitCount;
+        }
+
+        @Override
+        public void increment()
+        {
+        }
+
+        @Override
+        public void adjust(double error)
+        {
+        }
+
+        @Override
+        public Complex getCurrentVector()
+        {
+            return null;
+        }
+
+        @Override
+        public Complex incrementAndGetCurrentVector()
+        {
+            return null;
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+    }
+}
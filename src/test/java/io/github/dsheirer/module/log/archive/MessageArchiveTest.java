@@ -0,0 +1,380 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.module.log.archive;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.message.AbstractMessage;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.decode.event.DecodeEvent;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.protocol.Protocol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for writing and reading the binary message archive.
+ */
+public class MessageArchiveTest
+{
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+    private static final int TALKGROUP_1 = 100;
+    private static final int TALKGROUP_2 = 200;
+    private static final int RADIO_1 = 1001;
+    private static final int RADIO_2 = 2002;
+    private static final int RADIO_3 = 3003;
+
+    private static final CorrectedBinaryMessage BITS = createBits();
+
+    /**
+     * Writes an archive to the directory with two blocks, separated by more than the maximum block duration:
+     *
+     * Block 1: group message (TG1, FROM R1) and a unit-to-unit call event (FROM R2, TO R3)
+     * Block 2: group call event (TG1, FROM R3) and an invalid message with no identifiers
+     */
+    private static void writeArchive(Path directory) throws IOException
+    {
+        MessageArchiveWriter writer = new MessageArchiveWriter(directory.resolve("test"));
+        writer.open();
+        writer.write(new TestMessage(BITS, TIMESTAMP, true, 1,
+            List.of(APCO25Talkgroup.create(TALKGROUP_1), APCO25RadioIdentifier.createFrom(RADIO_1))));
+        writer.write(DecodeEvent.builder(DecodeEventType.CALL_UNIT_TO_UNIT, TIMESTAMP + 1000)
+            .duration(2500)
+            .details("Unit To Unit")
+            .protocol(Protocol.APCO25)
+            .identifiers(new IdentifierCollection(List.of(APCO25RadioIdentifier.createFrom(RADIO_2),
+                APCO25RadioIdentifier.createTo(RADIO_3))))
+            .build());
+        writer.write(DecodeEvent.builder(DecodeEventType.CALL_GROUP, TIMESTAMP + 120_000)
+            .duration(4000)
+            .details("Group Call")
+            .protocol(Protocol.APCO25)
+            .timeslot(1)
+            .identifiers(new IdentifierCollection(List.of(APCO25Talkgroup.create(TALKGROUP_1),
+                APCO25RadioIdentifier.createFrom(RADIO_3))))
+            .build());
+        writer.write(new TestMessage(new CorrectedBinaryMessage(16), TIMESTAMP + 121_000, false, 0, List.of()));
+        writer.close();
+    }
+
+    /**
+     * Creates the message bits for the first test message
+     */
+    private static CorrectedBinaryMessage createBits()
+    {
+        CorrectedBinaryMessage bits = new CorrectedBinaryMessage(96);
+
+        for(int x = 0; x < 96; x += 3)
+        {
+            bits.set(x);
+        }
+
+        return bits;
+    }
+
+    /**
+     * Test: data and index files start with the magic and version header.
+     *
+     * Success: headers match the writer constants.
+     */
+    @Test
+    void testFileHeaders(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("test" +
+            MessageArchiveWriter.DATA_FILE_EXTENSION))).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(MessageArchiveWriter.DATA_FILE_MAGIC, data.getInt());
+        assertEquals(MessageArchiveWriter.VERSION, data.getInt());
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("test" +
+            MessageArchiveWriter.INDEX_FILE_EXTENSION))).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(MessageArchiveWriter.INDEX_FILE_MAGIC, index.getInt());
+        assertEquals(MessageArchiveWriter.VERSION, index.getInt());
+    }
+
+    /**
+     * Test: read back all entries with an unrestricted query.
+     *
+     * Success: entries are returned in time order with every field intact.
+     */
+    @Test
+    void testRoundTrip(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        List<ArchiveRecord> records = query(directory, ArchiveQuery.builder().build());
+        assertEquals(4, records.size());
+
+        ArchiveRecord message = records.get(0);
+        assertEquals(TIMESTAMP, message.timestamp());
+        assertEquals(ArchiveRecord.Type.MESSAGE, message.type());
+        assertTrue(message.valid());
+        assertEquals(Protocol.APCO25, message.protocol());
+        assertEquals(1, message.timeslot());
+        assertEquals(TALKGROUP_1, message.talkgroup());
+        assertEquals(RADIO_1, message.fromRadio());
+        assertFalse(message.hasToRadio());
+        assertNotNull(message.bits());
+        assertEquals(BITS.size(), message.bits().size());
+        assertEquals(BITS.toHexString(), message.bits().toHexString());
+
+        ArchiveRecord unitToUnit = records.get(1);
+        assertEquals(TIMESTAMP + 1000, unitToUnit.timestamp());
+        assertEquals(ArchiveRecord.Type.DECODE_EVENT, unitToUnit.type());
+        assertEquals(DecodeEventType.CALL_UNIT_TO_UNIT, unitToUnit.eventType());
+        assertEquals(2500, unitToUnit.duration());
+        assertEquals("Unit To Unit", unitToUnit.details());
+        assertFalse(unitToUnit.hasTalkgroup());
+        assertEquals(RADIO_2, unitToUnit.fromRadio());
+        assertEquals(RADIO_3, unitToUnit.toRadio());
+
+        ArchiveRecord groupCall = records.get(2);
+        assertEquals(TIMESTAMP + 120_000, groupCall.timestamp());
+        assertEquals(DecodeEventType.CALL_GROUP, groupCall.eventType());
+        assertEquals(4000, groupCall.duration());
+        assertEquals("Group Call", groupCall.details());
+        assertEquals(1, groupCall.timeslot());
+        assertEquals(TALKGROUP_1, groupCall.talkgroup());
+        assertEquals(RADIO_3, groupCall.fromRadio());
+
+        ArchiveRecord invalid = records.get(3);
+        assertEquals(ArchiveRecord.Type.MESSAGE, invalid.type());
+        assertFalse(invalid.valid());
+        assertFalse(invalid.hasTalkgroup());
+        assertFalse(invalid.hasFromRadio());
+        assertFalse(invalid.hasToRadio());
+    }
+
+    /**
+     * Test: time range queries that select a single block and a range that falls between the blocks.
+     *
+     * Success: only entries within the time range are returned.
+     */
+    @Test
+    void testTimeRangeQuery(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        assertTimestamps(query(directory, ArchiveQuery.builder()
+            .timeRange(TIMESTAMP + 60_000, TIMESTAMP + 200_000).build()), TIMESTAMP + 120_000, TIMESTAMP + 121_000);
+        assertTimestamps(query(directory, ArchiveQuery.builder()
+            .timeRange(TIMESTAMP, TIMESTAMP + 500).build()), TIMESTAMP);
+        assertTimestamps(query(directory, ArchiveQuery.builder()
+            .timeRange(TIMESTAMP + 2000, TIMESTAMP + 100_000).build()));
+    }
+
+    /**
+     * Test: talkgroup queries.
+     *
+     * Success: only entries with the talkgroup are returned, across both blocks.
+     */
+    @Test
+    void testTalkgroupQuery(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        assertTimestamps(query(directory, ArchiveQuery.builder().talkgroup(TALKGROUP_1).build()), TIMESTAMP,
+            TIMESTAMP + 120_000);
+        assertTimestamps(query(directory, ArchiveQuery.builder().talkgroup(TALKGROUP_2).build()));
+    }
+
+    /**
+     * Test: radio queries match either the FROM or the TO radio of an entry.
+     *
+     * Success: radio 3 is returned as the TO radio in the first block and as the FROM radio in the second block.
+     */
+    @Test
+    void testRadioQuery(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        assertTimestamps(query(directory, ArchiveQuery.builder().radio(RADIO_3).build()), TIMESTAMP + 1000,
+            TIMESTAMP + 120_000);
+        assertTimestamps(query(directory, ArchiveQuery.builder().radio(RADIO_2).build()), TIMESTAMP + 1000);
+        assertTimestamps(query(directory, ArchiveQuery.builder().radio(RADIO_1).build()), TIMESTAMP);
+        assertTimestamps(query(directory, ArchiveQuery.builder().radio(RADIO_3)
+            .timeRange(TIMESTAMP, TIMESTAMP + 60_000).build()), TIMESTAMP + 1000);
+    }
+
+    /**
+     * Test: entry type, protocol and limit restrictions.
+     *
+     * Success: only the matching entries are returned, up to the limit.
+     */
+    @Test
+    void testTypeProtocolAndLimitQuery(@TempDir Path directory) throws IOException
+    {
+        writeArchive(directory);
+
+        assertTimestamps(query(directory, ArchiveQuery.builder().messagesOnly().build()), TIMESTAMP,
+            TIMESTAMP + 121_000);
+        assertTimestamps(query(directory, ArchiveQuery.builder().decodeEventsOnly().talkgroup(TALKGROUP_1).build()),
+            TIMESTAMP + 120_000);
+        assertTimestamps(query(directory, ArchiveQuery.builder().protocol(Protocol.DMR).build()));
+        assertEquals(4, query(directory, ArchiveQuery.builder().protocol(Protocol.APCO25).build()).size());
+        assertTimestamps(query(directory, ArchiveQuery.builder().limit(2).build()), TIMESTAMP, TIMESTAMP + 1000);
+    }
+
+    /**
+     * Test: decode event values are captured when the event is received and the event is updated before the captured
+     * values are written to the archive.
+     *
+     * Success: the archived entry has the values from when the event was captured.
+     */
+    @Test
+    void testCapturedDecodeEvent(@TempDir Path directory) throws IOException
+    {
+        DecodeEvent event = DecodeEvent.builder(DecodeEventType.CALL_GROUP, TIMESTAMP)
+            .duration(1000)
+            .details("Group Call")
+            .protocol(Protocol.APCO25)
+            .identifiers(new IdentifierCollection(List.of(APCO25Talkgroup.create(TALKGROUP_1))))
+            .build();
+        MessageArchiveWriter.DecodeEventEntry entry = MessageArchiveWriter.DecodeEventEntry.capture(event);
+
+        event.setDuration(5000);
+        event.setDetails("Group Call Updated");
+        event.setIdentifierCollection(new IdentifierCollection(List.of(APCO25Talkgroup.create(TALKGROUP_2))));
+
+        MessageArchiveWriter writer = new MessageArchiveWriter(directory.resolve("test"));
+        writer.open();
+        writer.write(entry);
+        writer.close();
+
+        List<ArchiveRecord> records = query(directory, ArchiveQuery.builder().build());
+        assertEquals(1, records.size());
+        assertEquals(1000, records.get(0).duration());
+        assertEquals("Group Call", records.get(0).details());
+        assertEquals(TALKGROUP_1, records.get(0).talkgroup());
+    }
+
+    /**
+     * Test: a block is only visible to readers once it is written, and an open block is written once the block has
+     * been open for longer than the maximum block duration, without waiting for a later entry.
+     *
+     * Success: the entry is not visible before the block expires and is visible after the expired block is written.
+     */
+    @Test
+    void testFlushExpired(@TempDir Path directory) throws IOException
+    {
+        MessageArchiveWriter writer = new MessageArchiveWriter(directory.resolve("test"));
+
+        try
+        {
+            writer.open();
+            long now = System.currentTimeMillis();
+            writer.write(new TestMessage(BITS, TIMESTAMP, true, 1, List.of(APCO25Talkgroup.create(TALKGROUP_1))));
+
+            writer.flushExpired(now);
+            assertTimestamps(query(directory, ArchiveQuery.builder().build()));
+
+            writer.flushExpired(now + MessageArchiveWriter.MAX_BLOCK_DURATION_MS + 1000);
+            assertTimestamps(query(directory, ArchiveQuery.builder().build()), TIMESTAMP);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Executes the query against the test archive directory
+     */
+    private static List<ArchiveRecord> query(Path directory, ArchiveQuery query) throws IOException
+    {
+        return new MessageArchiveReader(directory).query(query);
+    }
+
+    /**
+     * Asserts that the records have the expected timestamps, in order.
+     */
+    private static void assertTimestamps(List<ArchiveRecord> records, long... expected)
+    {
+        assertArrayEquals(expected, records.stream().mapToLong(ArchiveRecord::timestamp).toArray());
+    }
+
+    /**
+     * Minimal message implementation for archiving.
+     */
+    private static class TestMessage extends AbstractMessage implements IMessage
+    {
+        private final long mTimestamp;
+        private final boolean mValid;
+        private final int mTimeslot;
+        private final List<Identifier> mIdentifiers;
+
+        public TestMessage(CorrectedBinaryMessage message, long timestamp, boolean valid, int timeslot,
+                           List<Identifier> identifiers)
+        {
+            super(message);
+            mTimestamp = timestamp;
+            mValid = valid;
+            mTimeslot = timeslot;
+            mIdentifiers = identifiers;
+        }
+
+        @Override
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        @Override
+        public boolean isValid()
+        {
+            return mValid;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return Protocol.APCO25;
+        }
+
+        @Override
+        public int getTimeslot()
+        {
+            return mTimeslot;
+        }
+
+        @Override
+        public List<Identifier> getIdentifiers()
+        {
+            return mIdentifiers;
+        }
+    }
+}
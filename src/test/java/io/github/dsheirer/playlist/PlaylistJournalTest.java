@@ -0,0 +1,191 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.playlist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the playlist change journal.
+ */
+public class PlaylistJournalTest
+{
+    private static final long GENERATION = 1_700_000_000_000L;
+
+    /**
+     * Creates a journal entry that puts an alias record with a small XML payload.
+     */
+    private static PlaylistJournal.Entry put(long id, String group, String name)
+    {
+        byte[] payload = ("<alias name=\"" + name + "\" list=\"" + group + "\"/>").getBytes(StandardCharsets.UTF_8);
+        return new PlaylistJournal.Entry(PlaylistJournal.Operation.PUT,
+            new PlaylistRecord(PlaylistRecordType.ALIAS, id, group, payload));
+    }
+
+    /**
+     * Creates a journal in the directory with two entries appended separately, so that the second entry is the tail
+     * of the journal.
+     * @param directory for the journal file
+     * @return journal file
+     */
+    private static Path writeJournal(Path directory) throws IOException
+    {
+        Path path = directory.resolve("playlist.xml.journal");
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            journal.append(List.of(put(1, "List A", "Alias 1")));
+            journal.append(List.of(put(2, "List B", "Alias 2")));
+        }
+
+        return path;
+    }
+
+    /**
+     * Test: entries appended to the journal are read back, in order, when the journal is reopened.
+     * Success: both entries are replayed with their operation, type, id, group and payload intact.
+     */
+    @Test
+    void testReopenReadsEntries(@TempDir Path directory) throws IOException
+    {
+        Path path = writeJournal(directory);
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            List<PlaylistJournal.Entry> entries = journal.getEntries();
+            assertEquals(2, entries.size(), "Entry count");
+
+            for(int x = 0; x < entries.size(); x++)
+            {
+                PlaylistJournal.Entry expected = x == 0 ? put(1, "List A", "Alias 1") : put(2, "List B", "Alias 2");
+                PlaylistJournal.Entry actual = entries.get(x);
+                assertEquals(expected.operation(), actual.operation(), "Operation");
+                assertEquals(expected.record().type(), actual.record().type(), "Record type");
+                assertEquals(expected.record().id(), actual.record().id(), "Record id");
+                assertEquals(expected.record().group(), actual.record().group(), "Record group");
+                assertArrayEquals(expected.record().payload(), actual.record().payload(), "Record payload");
+            }
+        }
+    }
+
+    /**
+     * Test: a journal whose last entry was only partially written, as from a crash during append.
+     * Success: the partial entry is dropped and truncated from the file, earlier entries are kept and entries
+     * appended afterward follow the last complete entry.
+     */
+    @Test
+    void testTruncatedTailIsDropped(@TempDir Path directory) throws IOException
+    {
+        Path path = writeJournal(directory);
+
+        long completeLength;
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            completeLength = journal.getSize();
+        }
+
+        long partialLength = completeLength - 5;
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            channel.truncate(partialLength);
+        }
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            assertEquals(1, journal.getEntries().size(), "Entry count after torn tail");
+            assertEquals(1, journal.getEntries().get(0).record().id(), "Surviving record id");
+            assertTrue(journal.getSize() < partialLength, "Partial entry truncated from journal");
+            journal.append(List.of(put(3, "List C", "Alias 3")));
+        }
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            assertEquals(2, journal.getEntries().size(), "Entry count after append");
+            assertEquals(1, journal.getEntries().get(0).record().id(), "First record id");
+            assertEquals(3, journal.getEntries().get(1).record().id(), "Appended record id");
+        }
+    }
+
+    /**
+     * Test: a journal whose last entry is complete but has a corrupted byte in the entry body.
+     * Success: the entry fails the CRC check and is dropped, and the earlier entry is kept.
+     */
+    @Test
+    void testCorruptTailIsDropped(@TempDir Path directory) throws IOException
+    {
+        Path path = writeJournal(directory);
+
+        long length = Files.size(path);
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, length - 2);
+            last.put(0, (byte)(last.get(0) ^ 0xFF));
+            last.rewind();
+            channel.write(last, length - 2);
+        }
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            assertEquals(1, journal.getEntries().size(), "Entry count after corrupt tail");
+            assertEquals(1, journal.getEntries().get(0).record().id(), "Surviving record id");
+            assertTrue(journal.getSize() < length, "Corrupt entry truncated from journal");
+        }
+    }
+
+    /**
+     * Test: a journal written for a previous snapshot generation is opened for the current snapshot generation.
+     * Success: none of the stale entries are replayed and the journal is reset to an empty journal for the current
+     * generation.
+     */
+    @Test
+    void testStaleGenerationIsDiscarded(@TempDir Path directory) throws IOException
+    {
+        Path path = writeJournal(directory);
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION + 1))
+        {
+            assertTrue(journal.getEntries().isEmpty(), "Stale entries discarded");
+            assertTrue(journal.isEmpty(), "Journal reset");
+            assertEquals(GENERATION + 1, journal.getGeneration(), "Journal generation");
+        }
+
+        try(PlaylistJournal journal = PlaylistJournal.open(path, GENERATION))
+        {
+            assertTrue(journal.getEntries().isEmpty(), "Stale entries not recoverable after reset");
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.id.talkgroup.Talkgroup;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.preference.playlist.PlaylistPreference;
+import io.github.dsheirer.protocol.Protocol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for playlist persistence using the playlist snapshot and change journal.
+ */
+public class PlaylistStoreTest
+{
+    private static final String LIST_A = "List A";
+    private static final String LIST_B = "List B";
+    private static final String PLAYLIST = "playlist.xml";
+
+    /**
+     * Creates a playlist with two alias lists and a channel.
+     */
+    private static PlaylistV2 createPlaylist()
+    {
+        PlaylistV2 playlist = new PlaylistV2();
+        playlist.getAliases().add(createAlias("Dispatch", LIST_A, 100));
+        playlist.getAliases().add(createAlias("Fire", LIST_A, 200));
+        playlist.getAliases().add(createAlias("Police", LIST_B, 300));
+
+        Channel channel = new Channel("Control");
+        channel.setSystem("System");
+        channel.setSite("Site");
+        playlist.getChannels().add(channel);
+        return playlist;
+    }
+
+    /**
+     * Creates an alias with a talkgroup identifier
+     */
+    private static Alias createAlias(String name, String aliasList, int talkgroup)
+    {
+        Alias alias = new Alias(name);
+        alias.setAliasListName(aliasList);
+        alias.addAliasID(new Talkgroup(Protocol.APCO25, talkgroup));
+        return alias;
+    }
+
+    /**
+     * Creates a playlist store for a playlist file in the directory that persists the model playlist.
+     */
+    private static PlaylistStore createStore(Path directory, PlaylistV2 model)
+    {
+        Path playlist = directory.resolve(PLAYLIST);
+
+        PlaylistPreference preference = new PlaylistPreference(null, null)
+        {
+            @Override
+            public Path getPlaylist()
+            {
+                return playlist;
+            }
+        };
+
+        return new PlaylistStore(preference, () -> model);
+    }
+
+    /**
+     * Creates an XML mapper configured the same as the playlist manager uses to read the XML playlist.
+     */
+    private static ObjectMapper createMapper()
+    {
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        return new XmlMapper(xmlModule).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Serializes each of the playlist objects, sorted, for comparing playlist contents independent of order.
+     */
+    private static List<String> serialize(ObjectMapper mapper, List<?> objects) throws IOException
+    {
+        List<String> serialized = new ArrayList<>();
+
+        for(Object object: objects)
+        {
+            serialized.add(mapper.writeValueAsString(object));
+        }
+
+        serialized.sort(null);
+        return serialized;
+    }
+
+    /**
+     * Compressed alias blocks from the snapshot, by alias list name.
+     */
+    private static Map<String,byte[]> getAliasBlocks(Path directory) throws IOException
+    {
+        PlaylistSnapshot snapshot = PlaylistSnapshot.open(getSnapshotPath(directory));
+        Map<String,byte[]> blocks = new TreeMap<>();
+
+        for(PlaylistSnapshot.Section section: snapshot.getSections(PlaylistRecordType.ALIAS))
+        {
+            blocks.put(section.group(), snapshot.readBlock(section).compressed());
+        }
+
+        return blocks;
+    }
+
+    private static Path getSnapshotPath(Path directory)
+    {
+        return directory.resolve(PLAYLIST + ".snapshot").toAbsolutePath();
+    }
+
+    private static Path getJournalPath(Path directory)
+    {
+        return directory.resolve(PLAYLIST + ".journal").toAbsolutePath();
+    }
+
+    /**
+     * Test: a playlist is written to the snapshot and then changed (add, change and remove) with the changes
+     * flushed to the journal.  A new store loads the playlist from the snapshot and replays the journal.
+     * Success: the flush doesn't produce a new snapshot, the journal holds the three changes and the loaded playlist
+     * contents match the model.
+     */
+    @Test
+    void testSnapshotAndJournalRoundTrip(@TempDir Path directory) throws IOException
+    {
+        PlaylistV2 model = createPlaylist();
+        PlaylistStore store = createStore(directory, model);
+        store.importPlaylist(model, true);
+        store.checkpoint();
+        long generation = PlaylistSnapshot.open(getSnapshotPath(directory)).getGeneration();
+
+        Alias added = createAlias("EMS", LIST_B, 400);
+        model.getAliases().add(added);
+        store.put(PlaylistRecordType.ALIAS, added);
+
+        Alias changed = model.getAliases().get(0);
+        changed.setColor(0x00FF00);
+        store.put(PlaylistRecordType.ALIAS, changed);
+
+        Alias removed = model.getAliases().remove(1);
+        store.remove(PlaylistRecordType.ALIAS, removed);
+
+        store.flush();
+        store.close();
+
+        assertEquals(generation, PlaylistSnapshot.open(getSnapshotPath(directory)).getGeneration(),
+            "Flush appends to the journal without compacting");
+
+        try(PlaylistJournal journal = PlaylistJournal.open(getJournalPath(directory), generation))
+        {
+            assertEquals(3, journal.getEntries().size(), "Journal entry count");
+        }
+
+        PlaylistStore reloaded = createStore(directory, null);
+        PlaylistV2 loaded = reloaded.load();
+        reloaded.close();
+
+        ObjectMapper mapper = createMapper();
+        assertNotNull(loaded, "Playlist loaded from snapshot");
+        assertEquals(model.getVersion(), loaded.getVersion(), "Playlist version");
+        assertEquals(serialize(mapper, model.getAliases()), serialize(mapper, loaded.getAliases()), "Aliases");
+        assertEquals(serialize(mapper, model.getChannels()), serialize(mapper, loaded.getChannels()), "Channels");
+    }
+
+    /**
+     * Test: a playlist whose final journal entry was only partially written when the application stopped.
+     * Success: the playlist loads with the complete journal changes and without the partially written change.
+     */
+    @Test
+    void testTruncatedJournalTailIsDropped(@TempDir Path directory) throws IOException
+    {
+        PlaylistV2 model = createPlaylist();
+        PlaylistStore store = createStore(directory, model);
+        store.importPlaylist(model, true);
+        store.checkpoint();
+
+        Alias complete = createAlias("EMS", LIST_B, 400);
+        model.getAliases().add(complete);
+        store.put(PlaylistRecordType.ALIAS, complete);
+        store.flush();
+
+        Alias partial = createAlias("Highway", LIST_B, 500);
+        model.getAliases().add(partial);
+        store.put(PlaylistRecordType.ALIAS, partial);
+        store.flush();
+        store.close();
+
+        Path journal = getJournalPath(directory);
+        Files.write(journal, Arrays.copyOf(Files.readAllBytes(journal), (int)Files.size(journal) - 5));
+
+        PlaylistStore reloaded = createStore(directory, null);
+        PlaylistV2 loaded = reloaded.load();
+        reloaded.close();
+
+        model.getAliases().remove(partial);
+
+        ObjectMapper mapper = createMapper();
+        assertNotNull(loaded, "Playlist loaded from snapshot");
+        assertEquals(serialize(mapper, model.getAliases()), serialize(mapper, loaded.getAliases()), "Aliases");
+    }
+
+    /**
+     * Test: a journal that was written for a previous snapshot generation, as when the application stops after a new
+     * snapshot is written but before the journal is reset.
+     * Success: the journal changes are not replayed against the new snapshot.
+     */
+    @Test
+    void testStaleJournalGenerationIsDiscarded(@TempDir Path directory) throws IOException
+    {
+        PlaylistV2 model = createPlaylist();
+        PlaylistStore store = createStore(directory, model);
+        store.importPlaylist(model, true);
+        store.checkpoint();
+
+        Alias added = createAlias("EMS", LIST_B, 400);
+        model.getAliases().add(added);
+        store.put(PlaylistRecordType.ALIAS, added);
+        store.flush();
+        store.close();
+
+        //Rewrite the snapshot with the same contents as a new generation so that the journal is stale
+        Path snapshotPath = getSnapshotPath(directory);
+        PlaylistSnapshot snapshot = PlaylistSnapshot.open(snapshotPath);
+        List<PlaylistSnapshot.Block> blocks = new ArrayList<>();
+
+        for(PlaylistSnapshot.Section section: snapshot.getSections())
+        {
+            blocks.add(snapshot.readBlock(section));
+        }
+
+        PlaylistSnapshot.write(snapshotPath, snapshot.getPlaylistVersion(), snapshot.getGeneration() + 1,
+            snapshot.getNextId(), snapshot.getXmlLastModified(), snapshot.getXmlSize(), blocks);
+
+        PlaylistStore reloaded = createStore(directory, null);
+        PlaylistV2 loaded = reloaded.load();
+        reloaded.close();
+
+        model.getAliases().remove(added);
+
+        ObjectMapper mapper = createMapper();
+        assertNotNull(loaded, "Playlist loaded from snapshot");
+        assertEquals(serialize(mapper, model.getAliases()), serialize(mapper, loaded.getAliases()), "Aliases");
+    }
+
+    /**
+     * Test: an alias in one alias list is changed and the journal is compacted into a new snapshot.
+     * Success: the block for the unchanged alias list is copied byte-identical into the new snapshot and the block for
+     * the changed alias list is rewritten.
+     */
+    @Test
+    void testCompactionCopiesUnchangedBlocks(@TempDir Path directory) throws IOException
+    {
+        PlaylistV2 model = createPlaylist();
+        PlaylistStore store = createStore(directory, model);
+        store.importPlaylist(model, true);
+        store.checkpoint();
+        long generation = PlaylistSnapshot.open(getSnapshotPath(directory)).getGeneration();
+        Map<String,byte[]> original = getAliasBlocks(directory);
+
+        Alias changed = model.getAliases().get(2);
+        changed.setColor(0x0000FF);
+        store.put(PlaylistRecordType.ALIAS, changed);
+        store.checkpoint();
+        store.close();
+
+        assertTrue(PlaylistSnapshot.open(getSnapshotPath(directory)).getGeneration() > generation,
+            "Compaction produces a new snapshot generation");
+
+        Map<String,byte[]> compacted = getAliasBlocks(directory);
+        assertEquals(original.keySet(), compacted.keySet(), "Alias list blocks");
+        assertArrayEquals(original.get(LIST_A), compacted.get(LIST_A), "Unchanged alias list block");
+        assertFalse(Arrays.equals(original.get(LIST_B), compacted.get(LIST_B)), "Changed alias list block");
+    }
+
+    /**
+     * Test: the XML playlist is exported from the snapshot blocks, after the initial snapshot and after a compaction
+     * that copies unchanged blocks and rewrites changed blocks.
+     * Success: each exported XML playlist deserializes with the playlist XML mapping to a playlist that matches the
+     * model.
+     */
+    @Test
+    void testExportedXmlMatchesModel(@TempDir Path directory) throws IOException
+    {
+        ObjectMapper mapper = createMapper();
+        PlaylistV2 model = createPlaylist();
+        PlaylistStore store = createStore(directory, model);
+        store.importPlaylist(model, true);
+        store.checkpoint();
+
+        try(InputStream in = Files.newInputStream(directory.resolve(PLAYLIST)))
+        {
+            PlaylistV2 exported = mapper.readValue(in, PlaylistV2.class);
+            assertEquals(mapper.writeValueAsString(model), mapper.writeValueAsString(exported),
+                "Exported playlist");
+        }
+
+        Alias changed = model.getAliases().get(2);
+        changed.setName("State Police");
+        store.put(PlaylistRecordType.ALIAS, changed);
+        store.checkpoint();
+        store.close();
+
+        try(InputStream in = Files.newInputStream(directory.resolve(PLAYLIST)))
+        {
+            PlaylistV2 exported = mapper.readValue(in, PlaylistV2.class);
+            assertEquals(mapper.writeValueAsString(model), mapper.writeValueAsString(exported),
+                "Exported playlist after compaction");
+        }
+    }
+}
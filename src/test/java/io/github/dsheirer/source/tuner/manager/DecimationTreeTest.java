@@ -0,0 +1,95 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.source.tuner.channel.DecimationTreeTunerChannelSource;
+import io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.Output;
+import org.junit.jupiter.api.Test;
+
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.CHANNEL_OFFSET;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.CHANNEL_SPECIFICATION;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.INPUT_SAMPLE_COUNT;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.SAMPLE_RATE;
+import static io.github.dsheirer.source.tuner.manager.SharedChannelizerTestHarness.TUNER_FREQUENCY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the shared decimation tree and decimation tree tuner channel source.
+ */
+public class DecimationTreeTest
+{
+    private static final int EXPECTED_DECIMATION = 64;
+    private static final int EXPECTED_OUTPUT_COUNT = INPUT_SAMPLE_COUNT / EXPECTED_DECIMATION;
+
+    /**
+     * Test: a tone inside the channel passband at a known offset from a channel that is offset from the tuner center.
+     *
+     * Success: the channel output rate is the tuner rate divided by the channel decimation, the channel shares tree
+     * stages, and the tone is translated to the expected baseband frequency with unity gain.
+     */
+    @Test
+    void testOffsetChannelPassband() throws InterruptedException
+    {
+        double toneOffset = 2000.0;
+        DecimationTreeTunerChannelSource channel = createChannel();
+        Output output = SharedChannelizerTestHarness.process(createTree(), channel, CHANNEL_OFFSET + toneOffset,
+            EXPECTED_OUTPUT_COUNT);
+
+        assertEquals(EXPECTED_DECIMATION, channel.getDecimation());
+        assertEquals(SAMPLE_RATE / EXPECTED_DECIMATION, output.sampleRate(), 0.001);
+        assertTrue(channel.getTreeLevel() > 0, "Channel should attach below the root node");
+        assertEquals(EXPECTED_OUTPUT_COUNT, output.samples().size(), 1);
+
+        assertEquals(toneOffset, output.frequency(), 1.0, "Baseband tone frequency");
+        assertEquals(1.0, output.amplitude(), 0.05, "Passband gain");
+    }
+
+    /**
+     * Test: a tone outside the channel bandwidth that would alias into the channel after decimation.
+     *
+     * Success: the tone is attenuated by at least 40 dB.
+     */
+    @Test
+    void testOffsetChannelStopband() throws InterruptedException
+    {
+        Output output = SharedChannelizerTestHarness.process(createTree(), createChannel(), CHANNEL_OFFSET + 30_000.0,
+            EXPECTED_OUTPUT_COUNT);
+        assertEquals(EXPECTED_OUTPUT_COUNT, output.samples().size(), 1);
+        assertTrue(output.amplitude() < 0.01, "Stopband tone amplitude [" + output.amplitude() + "]");
+    }
+
+    /**
+     * Creates a decimation tree at the test sample rate and tuner frequency.
+     */
+    private static DecimationTree createTree()
+    {
+        return new DecimationTree(SAMPLE_RATE, TUNER_FREQUENCY, "test decimation tree", null);
+    }
+
+    /**
+     * Creates a channel for the test tuner channel.
+     */
+    private static DecimationTreeTunerChannelSource createChannel()
+    {
+        return new DecimationTreeTunerChannelSource(event -> {}, SharedChannelizerTestHarness.getTunerChannel(),
+            SAMPLE_RATE, CHANNEL_SPECIFICATION, "test channel");
+    }
+}
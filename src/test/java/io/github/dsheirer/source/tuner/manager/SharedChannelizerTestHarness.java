@@ -0,0 +1,190 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2024 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.sample.complex.ComplexSamplesNativeBufferAdapter;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test harness that processes a complex tone through a shared channelizer with a single channel that is offset from
+ * the tuner center frequency and measures the channel output.
+ */
+public class SharedChannelizerTestHarness
+{
+    public static final double SAMPLE_RATE = 2_000_000.0;
+    public static final long TUNER_FREQUENCY = 100_000_000;
+    public static final long CHANNEL_OFFSET = 310_000;
+    public static final int BUFFER_SIZE = 8192;
+    public static final int BUFFER_COUNT = 128;
+    public static final int INPUT_SAMPLE_COUNT = BUFFER_SIZE * BUFFER_COUNT;
+    public static final ChannelSpecification CHANNEL_SPECIFICATION =
+        new ChannelSpecification(25000.0, 12500, 6000.0, 6250.0);
+
+    //Number of leading output samples to ignore while the filters settle
+    private static final int SETTLING_SAMPLES = 500;
+
+    private SharedChannelizerTestHarness()
+    {
+    }
+
+    /**
+     * Tuner channel at the channel offset from the tuner center frequency.
+     */
+    public static TunerChannel getTunerChannel()
+    {
+        return new TunerChannel(TUNER_FREQUENCY + CHANNEL_OFFSET, 12500);
+    }
+
+    /**
+     * Processes a unit amplitude complex tone at the offset from the tuner center frequency through the channelizer
+     * and collects the channel output samples.  The channel is added to the channelizer and both are started before
+     * processing and stopped afterward.
+     * @param channelizer to test, created at the test sample rate and tuner frequency
+     * @param channel to test, created for the test tuner channel
+     * @param toneOffset from the tuner center frequency in hertz
+     * @param expectedSampleCount of channel output samples to wait for
+     * @return channel output
+     */
+    public static <T extends TunerChannelSource> Output process(ISharedChannelizer<T> channelizer, T channel,
+                                                                double toneOffset, int expectedSampleCount)
+        throws InterruptedException
+    {
+        List<ComplexSamples> buffers = new ArrayList<>();
+        channel.setListener(samples -> {
+            synchronized(buffers)
+            {
+                buffers.add(samples);
+            }
+        });
+
+        channelizer.add(channel);
+        channelizer.start();
+        channel.start();
+
+        double phaseIncrement = 2.0 * Math.PI * toneOffset / SAMPLE_RATE;
+        long sample = 0;
+
+        for(int x = 0; x < BUFFER_COUNT; x++)
+        {
+            float[] i = new float[BUFFER_SIZE];
+            float[] q = new float[BUFFER_SIZE];
+
+            for(int y = 0; y < BUFFER_SIZE; y++)
+            {
+                double phase = phaseIncrement * sample++;
+                i[y] = (float)Math.cos(phase);
+                q[y] = (float)Math.sin(phase);
+            }
+
+            channelizer.receive(new ComplexSamplesNativeBufferAdapter(new ComplexSamples(i, q, x)));
+        }
+
+        long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(count(buffers) < expectedSampleCount && System.nanoTime() < timeout)
+        {
+            Thread.sleep(10);
+        }
+
+        channel.stop();
+        channelizer.stop();
+
+        List<float[]> output = new ArrayList<>();
+
+        synchronized(buffers)
+        {
+            for(ComplexSamples buffer: buffers)
+            {
+                for(int x = 0; x < buffer.i().length; x++)
+                {
+                    output.add(new float[]{buffer.i()[x], buffer.q()[x]});
+                }
+            }
+        }
+
+        return new Output(output, channel.getSampleRate());
+    }
+
+    /**
+     * Number of complex samples in the buffers.
+     */
+    private static int count(List<ComplexSamples> buffers)
+    {
+        int count = 0;
+
+        synchronized(buffers)
+        {
+            for(ComplexSamples buffer: buffers)
+            {
+                count += buffer.i().length;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Channel output samples and sample rate.
+     */
+    public record Output(List<float[]> samples, double sampleRate)
+    {
+        /**
+         * Average frequency of the settled output samples, from the phase change between successive samples.
+         */
+        public double frequency()
+        {
+            double i = 0.0;
+            double q = 0.0;
+
+            for(int x = SETTLING_SAMPLES + 1; x < samples.size(); x++)
+            {
+                float[] current = samples.get(x);
+                float[] previous = samples.get(x - 1);
+                i += current[0] * previous[0] + current[1] * previous[1];
+                q += current[1] * previous[0] - current[0] * previous[1];
+            }
+
+            return Math.atan2(q, i) * sampleRate / (2.0 * Math.PI);
+        }
+
+        /**
+         * RMS amplitude of the settled output samples.
+         */
+        public double amplitude()
+        {
+            double power = 0.0;
+
+            for(int x = SETTLING_SAMPLES; x < samples.size(); x++)
+            {
+                float[] sample = samples.get(x);
+                power += sample[0] * sample[0] + sample[1] * sample[1];
+            }
+
+            return Math.sqrt(power / (samples.size() - SETTLING_SAMPLES));
+        }
+    }
+}